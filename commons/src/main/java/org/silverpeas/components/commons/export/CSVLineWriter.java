@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.commons.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * A writer of CSV lines into an output, line by line, as they are computed. The cells are
+ * separated by a semicolon and are enclosed within double quotes; the lines end with CRLF. The
+ * output is flushed every {@value #FLUSH_SIZE} lines so that a client downloading the CSV gets the
+ * lines as they come.
+ */
+public class CSVLineWriter {
+
+  private static final char SEPARATOR = ';';
+  private static final int FLUSH_SIZE = 100;
+
+  private final Writer output;
+  private int lineCount = 0;
+
+  /**
+   * Constructs a new writer of CSV lines into the specified output.
+   * @param output the output into which the CSV is written.
+   */
+  public CSVLineWriter(final Writer output) {
+    this.output = output;
+  }
+
+  /**
+   * Writes a line made up of the specified cells. A null cell is written as an empty one.
+   * @param cells the values of the cells of the line.
+   * @throws IOException if an error occurs while writing the line.
+   */
+  public void writeLine(final List<String> cells) throws IOException {
+    for (int i = 0; i < cells.size(); i++) {
+      if (i > 0) {
+        output.write(SEPARATOR);
+      }
+      final String cell = cells.get(i);
+      output.write('"');
+      if (cell != null) {
+        output.write(cell.replace("\"", "\"\""));
+      }
+      output.write('"');
+    }
+    output.write("\r\n");
+    lineCount++;
+    if (lineCount % FLUSH_SIZE == 0) {
+      output.flush();
+    }
+  }
+
+  /**
+   * Flushes the lines written so far.
+   * @throws IOException if an error occurs while flushing the output.
+   */
+  public void flush() throws IOException {
+    output.flush();
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.commons.export;
+
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * A file to download whose content is written to the client as it is computed. It is provided
+ * by a {@link StreamedExportServlet} once the user is checked to be allowed to download it.
+ */
+public class StreamedExport {
+
+  private final String contentType;
+  private final String fileName;
+  private final TextContent text;
+  private final BinaryContent binary;
+
+  private StreamedExport(final String contentType, final String fileName, final TextContent text,
+      final BinaryContent binary) {
+    this.contentType = contentType;
+    this.fileName = fileName;
+    this.text = text;
+    this.binary = binary;
+  }
+
+  /**
+   * A CSV file encoded in UTF-8.
+   * @param fileName the name of the file.
+   * @param content the writing of the content of the file.
+   * @return the export of the CSV file.
+   */
+  public static StreamedExport csv(final String fileName, final TextContent content) {
+    return new StreamedExport("text/csv", fileName, content, null);
+  }
+
+  /**
+   * A binary file of the given type.
+   * @param contentType the MIME type of the file.
+   * @param fileName the name of the file.
+   * @param content the writing of the content of the file.
+   * @return the export of the binary file.
+   */
+  public static StreamedExport binary(final String contentType, final String fileName,
+      final BinaryContent content) {
+    return new StreamedExport(contentType, fileName, null, content);
+  }
+
+  String getContentType() {
+    return contentType;
+  }
+
+  String getFileName() {
+    return fileName;
+  }
+
+  boolean isText() {
+    return text != null;
+  }
+
+  void writeTo(final Writer writer) throws Exception {
+    text.writeTo(writer);
+  }
+
+  void writeTo(final OutputStream output) throws Exception {
+    binary.writeTo(output);
+  }
+
+  /**
+   * The writing of a text content.
+   */
+  @FunctionalInterface
+  public interface TextContent {
+    void writeTo(Writer writer) throws Exception;
+  }
+
+  /**
+   * The writing of a binary content.
+   */
+  @FunctionalInterface
+  public interface BinaryContent {
+    void writeTo(OutputStream output) throws Exception;
+  }
+}
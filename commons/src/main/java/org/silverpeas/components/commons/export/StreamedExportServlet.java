@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.commons.export;
+
+import org.silverpeas.core.util.logging.SilverLogger;
+import org.silverpeas.core.web.mvc.webcomponent.SilverpeasAuthenticatedHttpServlet;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import static org.silverpeas.core.web.http.FileResponse.encodeAttachmentFilenameAsUtf8;
+
+/**
+ * A servlet downloading a file of a component instance whose content is streamed to the client
+ * as it is computed, so the download starts immediately whatever the size of the file. The
+ * component instance is given by the <code>ComponentId</code> parameter of the request.
+ * <p>
+ * As the content is sent while it is written, an error occurring during the writing cannot be
+ * reported to the client anymore: it is logged and the client gets a truncated file.
+ * </p>
+ */
+public abstract class StreamedExportServlet extends SilverpeasAuthenticatedHttpServlet {
+
+  private static final long serialVersionUID = 4480405374337532766L;
+
+  @Override
+  public void doGet(HttpServletRequest req, HttpServletResponse res)
+      throws ServletException, IOException {
+    doPost(req, res);
+  }
+
+  @Override
+  public void doPost(HttpServletRequest req, HttpServletResponse res)
+      throws ServletException, IOException {
+    String componentId = req.getParameter("ComponentId");
+    StreamedExport export = getExport(componentId, req, res);
+    if (export == null) {
+      return;
+    }
+
+    res.setContentType(export.getContentType());
+    if (export.isText()) {
+      res.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    }
+    res.setHeader("Content-Disposition", encodeAttachmentFilenameAsUtf8(export.getFileName()));
+    res.setHeader("Cache-Control", "no-store");
+    try {
+      if (export.isText()) {
+        Writer writer = res.getWriter();
+        export.writeTo(writer);
+        writer.flush();
+      } else {
+        OutputStream output = res.getOutputStream();
+        export.writeTo(output);
+        output.flush();
+      }
+    } catch (Exception e) {
+      SilverLogger.getLogger(this)
+          .error("Cannot export {0} of {1}", new String[]{export.getFileName(), componentId}, e);
+    }
+  }
+
+  /**
+   * Gets the file to export from the specified component instance. The user is checked to be
+   * allowed to download it: if not, an HTTP error is thrown with
+   * {@link #throwHttpForbiddenError()} or the response is directly handled by the servlet.
+   * @param componentId the unique identifier of the component instance.
+   * @param req the HTTP request.
+   * @param res the HTTP response.
+   * @return the file to export or null if the response was already handled by the servlet.
+   * @throws ServletException if the response cannot be handled.
+   * @throws IOException if an error occurs while handling the response.
+   */
+  protected abstract StreamedExport getExport(String componentId, HttpServletRequest req,
+      HttpServletResponse res) throws ServletException, IOException;
+}
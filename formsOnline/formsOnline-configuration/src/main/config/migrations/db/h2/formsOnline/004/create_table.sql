@@ -52,3 +52,16 @@ CREATE TABLE SC_FormsOnline_UserRights
     userId     VARCHAR(20) NOT NULL,
     rightType  VARCHAR(1)  NOT NULL
 );
+
+CREATE TABLE SC_FormsOnline_UserBoss
+(
+    userId   VARCHAR(20) NOT NULL,
+    domainId VARCHAR(20) NOT NULL,
+    bossId   VARCHAR(20)
+);
+
+CREATE TABLE SC_FormsOnline_BossIndex
+(
+    domainId  VARCHAR(20) NOT NULL,
+    indexDate TIMESTAMP NOT NULL
+);
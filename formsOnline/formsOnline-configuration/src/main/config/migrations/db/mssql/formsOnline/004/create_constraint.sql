@@ -18,3 +18,9 @@ ALTER TABLE SC_FormsOnline_UserRights
 
 ALTER TABLE SC_FormsOnline_GroupRights
     ADD CONSTRAINT FK_GroupRights FOREIGN KEY (formId) REFERENCES SC_FormsOnline_Forms (id);
+
+ALTER TABLE SC_FormsOnline_UserBoss
+    ADD CONSTRAINT PK_SC_FormsOnline_UserBoss PRIMARY KEY (userId);
+
+ALTER TABLE SC_FormsOnline_BossIndex
+    ADD CONSTRAINT PK_SC_FormsOnline_BossIndex PRIMARY KEY (domainId);
@@ -9,3 +9,9 @@ CREATE INDEX IND_SC_FormsOnline_GroupRights_1
 
 CREATE INDEX IND_SC_FormsOnline_GroupRights_2
     ON SC_FormsOnline_GroupRights (rightType, groupId);
+
+CREATE INDEX IND_SC_FormsOnline_UserBoss_1
+    ON SC_FormsOnline_UserBoss (bossId);
+
+CREATE INDEX IND_SC_FormsOnline_UserBoss_2
+    ON SC_FormsOnline_UserBoss (domainId);
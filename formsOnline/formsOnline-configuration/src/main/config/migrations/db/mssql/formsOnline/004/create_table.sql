@@ -52,3 +52,16 @@ CREATE TABLE SC_FormsOnline_UserRights
     userId     varchar(20) NOT NULL,
     rightType  varchar(1)  NOT NULL
 );
+
+CREATE TABLE SC_FormsOnline_UserBoss
+(
+    userId   varchar(20) NOT NULL,
+    domainId varchar(20) NOT NULL,
+    bossId   varchar(20)
+);
+
+CREATE TABLE SC_FormsOnline_BossIndex
+(
+    domainId  varchar(20) NOT NULL,
+    indexDate DATETIME NOT NULL
+);
@@ -52,3 +52,16 @@ CREATE TABLE SC_FormsOnline_UserRights
     userId     character varying(20) NOT NULL,
     rightType  character varying(1)  NOT NULL
 );
+
+CREATE TABLE SC_FormsOnline_UserBoss
+(
+    userId   character varying(20) NOT NULL,
+    domainId character varying(20) NOT NULL,
+    bossId   character varying(20)
+);
+
+CREATE TABLE SC_FormsOnline_BossIndex
+(
+    domainId  character varying(20) NOT NULL,
+    indexDate timestamp NOT NULL
+);
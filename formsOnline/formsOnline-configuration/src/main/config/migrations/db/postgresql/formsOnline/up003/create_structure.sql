@@ -0,0 +1,24 @@
+CREATE TABLE SC_FormsOnline_UserBoss
+(
+    userId   character varying(20) NOT NULL,
+    domainId character varying(20) NOT NULL,
+    bossId   character varying(20)
+);
+
+CREATE TABLE SC_FormsOnline_BossIndex
+(
+    domainId  character varying(20) NOT NULL,
+    indexDate timestamp NOT NULL
+);
+
+ALTER TABLE SC_FormsOnline_UserBoss
+    ADD CONSTRAINT PK_SC_FormsOnline_UserBoss PRIMARY KEY (userId);
+
+ALTER TABLE SC_FormsOnline_BossIndex
+    ADD CONSTRAINT PK_SC_FormsOnline_BossIndex PRIMARY KEY (domainId);
+
+CREATE INDEX IND_SC_FormsOnline_UserBoss_1
+    ON SC_FormsOnline_UserBoss (bossId);
+
+CREATE INDEX IND_SC_FormsOnline_UserBoss_2
+    ON SC_FormsOnline_UserBoss (domainId);
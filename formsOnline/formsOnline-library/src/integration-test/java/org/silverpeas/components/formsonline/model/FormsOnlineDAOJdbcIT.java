@@ -39,10 +39,13 @@ import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Stream.of;
 import static org.apache.commons.lang3.reflect.FieldUtils.readDeclaredField;
@@ -116,6 +119,58 @@ public class FormsOnlineDAOJdbcIT extends AbstractFormsOnlineIT {
     assertThat(result.isHierarchicalValidation(), is(true));
   }
 
+  @Test
+  public void testGetSendableFormIds() throws Exception {
+    assertThat(dao.getSendableFormIds(DEFAULT_INSTANCE_ID, "1", new String[0]), contains("1000"));
+    assertThat(dao.getSendableFormIds(DEFAULT_INSTANCE_ID, "1", new String[]{"2", "3"}),
+        contains("1000"));
+    assertThat(dao.getSendableFormIds(DEFAULT_INSTANCE_ID, VALIDATOR_ID_29, new String[]{"2"}),
+        empty());
+    assertThat(dao.getSendableFormIds("formsOnline15", "1", new String[0]), empty());
+  }
+
+  @Test
+  public void testGetFormIdsWithRequestsToValidateAsBoss() throws Exception {
+    FormDetail formDetail = new FormDetail();
+    formDetail.setInstanceId("formsOnline15");
+    formDetail.setCreatorId("0");
+    formDetail.setName("Demande de construction de salle...");
+    formDetail.setState(FormInstance.STATE_UNREAD);
+    formDetail.setTitle("Titre");
+    formDetail.setXmlFormName("descriptif_salle.xml");
+    formDetail.setHierarchicalValidation(true);
+    dao.createForm(formDetail);
+    final FormInstance request = new FormInstance();
+    request.setFormId(formDetail.getId());
+    request.setState(FormInstance.STATE_UNREAD);
+    request.setCreatorId(DEFAULT_CREATOR_IDS[0]);
+    request.setInstanceId("formsOnline15");
+    Transaction.performInOne(() -> dao.saveRequest(request));
+    assertThat(dao.getHierarchicalValidatorIndexDate("0").isPresent(), is(false));
+
+    final Map<String, String> bosses = new HashMap<>();
+    bosses.put(DEFAULT_CREATOR_IDS[0], VALIDATOR_ID_29);
+    bosses.put(VALIDATOR_ID_29, null);
+    dao.saveHierarchicalValidatorsOfDomain("0", bosses);
+    assertThat(dao.getHierarchicalValidatorIndexDate("0").isPresent(), is(true));
+    assertThat(dao.getHierarchicalValidatorsOfDomain("0"), is(bosses));
+    final String formId = String.valueOf(formDetail.getId());
+    assertThat(dao.getFormIdsWithRequestsToValidateAsBoss("formsOnline15", VALIDATOR_ID_29, null),
+        contains(formId));
+    assertThat(dao.getFormIdsWithRequestsToValidateAsBoss("formsOnline15", VALIDATOR_ID_30, null),
+        empty());
+
+    dao.saveHierarchicalValidatorOf(DEFAULT_CREATOR_IDS[0], "0", VALIDATOR_ID_30);
+    assertThat(dao.getFormIdsWithRequestsToValidateAsBoss("formsOnline15", VALIDATOR_ID_29, null),
+        empty());
+    assertThat(dao.getFormIdsWithRequestsToValidateAsBoss("formsOnline15", VALIDATOR_ID_30,
+        singletonList(formId)), contains(formId));
+
+    dao.deleteHierarchicalValidatorOf(DEFAULT_CREATOR_IDS[0]);
+    assertThat(dao.getFormIdsWithRequestsToValidateAsBoss("formsOnline15", VALIDATOR_ID_30, null),
+        empty());
+  }
+
   @Test
   public void testCreateFormByDeletingRequestAfterExchangeButNoReceiver() throws Exception {
     FormDetail formDetail = new FormDetail();
@@ -86,6 +86,21 @@ CREATE INDEX IND_SC_FormsOnline_GroupRights_1
 CREATE INDEX IND_SC_FormsOnline_GroupRights_2
     ON SC_FormsOnline_GroupRights (rightType, groupId);
 
+CREATE TABLE SC_FormsOnline_UserBoss
+(
+    userId   VARCHAR(20) NOT NULL,
+    domainId VARCHAR(20) NOT NULL,
+    bossId   VARCHAR(20),
+    CONSTRAINT PK_SC_FormsOnline_UserBoss PRIMARY KEY (userId)
+);
+
+CREATE TABLE SC_FormsOnline_BossIndex
+(
+    domainId  VARCHAR(20) NOT NULL,
+    indexDate TIMESTAMP   NOT NULL,
+    CONSTRAINT PK_SC_FormsOnline_BossIndex PRIMARY KEY (domainId)
+);
+
 CREATE TABLE ST_User
 (
     id                            INT                 NOT NULL,
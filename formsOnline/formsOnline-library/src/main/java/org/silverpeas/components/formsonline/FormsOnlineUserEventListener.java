@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have recieved a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General License for more details.
+ *
+ * You should have received a copy of the GNU Affero General License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.formsonline;
+
+import org.silverpeas.components.formsonline.model.HierarchicalValidatorIndex;
+import org.silverpeas.core.admin.user.notification.UserEvent;
+import org.silverpeas.core.annotation.Bean;
+import org.silverpeas.core.notification.system.CDIResourceEventListener;
+
+import javax.inject.Inject;
+
+/**
+ * Keeps the index of the hierarchical validators up to date with the changes of the user
+ * profiles.
+ */
+@Bean
+public class FormsOnlineUserEventListener extends CDIResourceEventListener<UserEvent> {
+
+  @Inject
+  private HierarchicalValidatorIndex hierarchicalValidatorIndex;
+
+  @Override
+  public void onCreation(final UserEvent event) throws Exception {
+    hierarchicalValidatorIndex.userSaved(event.getTransition().getAfter());
+  }
+
+  @Override
+  public void onUpdate(final UserEvent event) throws Exception {
+    hierarchicalValidatorIndex.userSaved(event.getTransition().getAfter());
+  }
+
+  @Override
+  public void onDeletion(final UserEvent event) throws Exception {
+    hierarchicalValidatorIndex.userDeleted(event.getTransition().getBefore());
+  }
+}
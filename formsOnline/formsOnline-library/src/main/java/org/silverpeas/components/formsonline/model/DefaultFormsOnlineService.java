@@ -40,7 +40,6 @@ import org.silverpeas.core.admin.user.model.Group;
 import org.silverpeas.core.admin.user.model.User;
 import org.silverpeas.core.admin.user.model.UserDetail;
 import org.silverpeas.core.annotation.Service;
-import org.silverpeas.core.admin.user.model.UserFull;
 import org.silverpeas.core.contribution.ContributionStatus;
 import org.silverpeas.core.contribution.attachment.AttachmentServiceProvider;
 import org.silverpeas.core.contribution.attachment.model.SimpleDocument;
@@ -89,7 +88,6 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -101,8 +99,8 @@ import java.util.stream.Stream;
 
 import static java.text.MessageFormat.format;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
 import static java.util.Optional.ofNullable;
-import static java.util.stream.Collectors.toSet;
 import static org.silverpeas.components.formsonline.model.FormDetail.*;
 import static org.silverpeas.components.formsonline.model.FormInstanceValidationType.HIERARCHICAL;
 import static org.silverpeas.components.formsonline.model.RequestValidationCriteria.withValidatorId;
@@ -110,7 +108,6 @@ import static org.silverpeas.components.formsonline.model.RequestsByStatus.MERGI
 import static org.silverpeas.components.formsonline.model.RequestsByStatus.VALIDATION_MERGING_RULES_BY_STATES;
 import static org.silverpeas.core.mail.MailContent.getHtmlBodyPartFromHtmlContent;
 import static org.silverpeas.core.notification.user.builder.helper.UserNotificationHelper.buildAndSend;
-import static org.silverpeas.core.util.CollectionUtil.isEmpty;
 import static org.silverpeas.core.util.StringUtil.isNotDefined;
 
 @Service
@@ -121,6 +118,8 @@ public class DefaultFormsOnlineService implements FormsOnlineService, Initializa
 
   @Inject
   private OrganizationController organizationController;
+  @Inject
+  private HierarchicalValidatorIndex hierarchicalValidatorIndex;
 
   @Override
   public void init() {
@@ -132,22 +131,21 @@ public class DefaultFormsOnlineService implements FormsOnlineService, Initializa
       final boolean withSendInfo) throws FormsOnlineException {
     List<FormDetail> forms = getDAO().findAllForms(appId);
     Map<Integer, Integer> numbersOfRequests = getDAO().getNumberOfRequestsByForm(appId);
+    final Set<String> sendableFormIds = withSendInfo ?
+        getDAO().getSendableFormIds(appId, userId,
+            organizationController.getAllGroupIdsOfUser(userId)) : emptySet();
     for (FormDetail form : forms) {
       Integer numberOfRequests = numbersOfRequests.get(form.getId());
       if (numberOfRequests != null) {
         form.setNbRequests(numberOfRequests);
       }
       if (withSendInfo) {
-        form.setSendable(isSender(form.getPK(), userId));
+        form.setSendable(sendableFormIds.contains(form.getPK().getId()));
       }
     }
     return forms;
   }
 
-  private boolean isSender(FormPK pk, String userId) throws FormsOnlineException {
-    return isInLists(userId, getSendersAsUsers(pk), getSendersAsGroups(pk));
-  }
-
   private List<User> getSendersAsUsers(FormPK pk) throws FormsOnlineException {
     List<String> userIds = getDAO().getSendersAsUsers(pk);
     User[] details = organizationController.getUserDetails(userIds.toArray(new String[0]));
@@ -172,32 +170,18 @@ public class DefaultFormsOnlineService implements FormsOnlineService, Initializa
     return CollectionUtil.asList(groups);
   }
 
+  /**
+   * The groups of the user are compared with the groups of validators so that the members of the
+   * groups aren't loaded.
+   */
   private boolean isValidator(FormPK pk, String userId, String rightType)
       throws FormsOnlineException {
-    return isInLists(userId, getReceiversAsUsers(pk, rightType),
-        getReceiversAsGroups(pk, rightType));
-  }
-
-  private boolean isInLists(String userId, List<? extends User> users, List<Group> groups) {
-    boolean inList = isInList(userId, users);
-    if (!inList) {
-      for (Group group : groups) {
-        inList = group != null && isInList(userId, group.getAllUsers());
-        if (inList) {
-          return true;
-        }
-      }
-    }
-    return inList;
-  }
-
-  private boolean isInList(String userId, List<? extends User> users) {
-    for (User user : users) {
-      if (user != null && user.getId().equals(userId)) {
-        return true;
-      }
+    if (getDAO().getReceiversAsUsers(pk, rightType).contains(userId)) {
+      return true;
     }
-    return false;
+    final List<String> groupIds = getDAO().getReceiversAsGroups(pk, rightType);
+    return !groupIds.isEmpty() && Stream.of(organizationController.getAllGroupIdsOfUser(userId))
+        .anyMatch(groupIds::contains);
   }
 
   @Override
@@ -337,18 +321,8 @@ public class DefaultFormsOnlineService implements FormsOnlineService, Initializa
     final Map<String, Set<FormInstanceValidationType>> possibleValidationTypesByFormId = getDAO()
         .getPossibleValidationTypesByFormId(possibleValidatorValidationTypesByFormId.keySet());
     final RequestsByStatus requests = new RequestsByStatus(paginationPage);
-    final MemoizedSupplier<Set<String>> managedDomainUsersSupplier = new MemoizedSupplier<>(() -> {
-      final String userDomainId = User.getById(validatorId).getDomainId();
-      final User[] users = OrganizationController.get().getAllUsersInDomain(userDomainId);
-      final Set<String> userIds = Stream.of(users).map(User::getId).collect(toSet());
-      final HierarchicalValidatorCacheManager hvManager = new HierarchicalValidatorCacheManager();
-      hvManager.cacheHierarchicalValidatorsOf(userIds);
-      return userIds.stream()
-          .map(u -> Pair.of(u, hvManager.getHierarchicalValidatorOf(u)))
-          .filter(p -> validatorId.equals(p.getSecond()))
-          .map(Pair::getFirst)
-          .collect(toSet());
-    });
+    final MemoizedSupplier<Set<String>> managedDomainUsersSupplier = new MemoizedSupplier<>(
+        () -> hierarchicalValidatorIndex.getSubordinatesOf(validatorId));
     for (final FormDetail form : availableForms) {
       setSendersAndReceivers(form);
       for (final ValidationMergeRuleByStates rule : VALIDATION_MERGING_RULES_BY_STATES) {
@@ -418,22 +392,10 @@ public class DefaultFormsOnlineService implements FormsOnlineService, Initializa
     final String[] userGroupIds = organizationController.getAllGroupIdsOfUser(validatorId);
     final Map<String, Set<FormInstanceValidationType>> result = getDAO()
         .getValidatorFormIdsWithValidationTypes(appId, validatorId, userGroupIds, formIds);
-    // get available form as boss
-    final List<FormDetail> forms = getDAO().findAllForms(appId);
-    final HierarchicalValidatorCacheManager hvManager = new HierarchicalValidatorCacheManager();
-    for (FormDetail form : forms) {
-      if (form.isHierarchicalValidation() && (isEmpty(formIds) || formIds.contains(form.getPK().getId()))) {
-        final SilverpeasList<FormInstance> requests = getDAO().getAllRequests(form.getPK());
-        final Set<String> creatorIds = requests.stream().map(FormInstance::getCreatorId).collect(toSet());
-        hvManager.cacheHierarchicalValidatorsOf(creatorIds);
-        creatorIds.stream()
-            .map(hvManager::getHierarchicalValidatorOf)
-            .filter(validatorId::equals)
-            .findFirst()
-            .ifPresent(b ->
-                result.computeIfAbsent(Integer.toString(form.getId()), s -> new TreeSet<>())
-                      .add(HIERARCHICAL));
-      }
+    // get available form as boss, the subordinates being indexed with their boss
+    if (!hierarchicalValidatorIndex.getSubordinatesOf(validatorId).isEmpty()) {
+      getDAO().getFormIdsWithRequestsToValidateAsBoss(appId, validatorId, formIds)
+          .forEach(f -> result.computeIfAbsent(f, s -> new TreeSet<>()).add(HIERARCHICAL));
     }
     return result;
   }
@@ -936,33 +898,4 @@ public class DefaultFormsOnlineService implements FormsOnlineService, Initializa
       form.setReceiversAsGroups(getReceiversAsGroups(pk, RECEIVERS_TYPE_FINAL));
     }
   }
-
-  /**
-   * Permits to manage a cache in order to increase performances.
-   */
-  public static class HierarchicalValidatorCacheManager {
-
-    private final Map<String, String> cache = new HashMap<>();
-
-    /**
-     * Caches the hierarchical validators of users represented by given ids.
-     * @param userIds set of string user ids.
-     */
-    public void cacheHierarchicalValidatorsOf(final Set<String> userIds) {
-      userIds.forEach(this::getHierarchicalValidatorOf);
-    }
-
-    /**
-     * Gets from cached data the validator of given users.
-     * <p>
-     * If no data has been cached for the user, the data are retrieved.
-     * </p>
-     * @param userId a string user id.
-     * @return the hierarchical validator of the user represented by the given id.
-     */
-    public String getHierarchicalValidatorOf(final String userId) {
-      return cache.computeIfAbsent(userId, i ->
-          UserFull.getById(i).getValue("boss"));
-    }
-  }
 }
\ No newline at end of file
@@ -25,7 +25,6 @@ package org.silverpeas.components.formsonline.model;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
-import org.silverpeas.components.formsonline.model.DefaultFormsOnlineService.HierarchicalValidatorCacheManager;
 import org.silverpeas.core.admin.service.OrganizationController;
 import org.silverpeas.core.admin.user.model.Group;
 import org.silverpeas.core.admin.user.model.User;
@@ -85,7 +84,6 @@ public class FormDetail {
 
   private String hierarchicalValidatorOfCurrentUser;
   private Map<FormInstanceValidationType, Function<FormInstance, Supplier<List<User>>>> possibleValidationTypes;
-  private HierarchicalValidatorCacheManager hvManager;
 
   private List<User> sendersAsUsers;
   private List<Group> sendersAsGroups;
@@ -481,7 +479,8 @@ public class FormDetail {
   public String getHierarchicalValidatorOfCurrentUser() {
     if (hierarchicalValidatorOfCurrentUser == null) {
       if (this.isHierarchicalValidation()) {
-        hierarchicalValidatorOfCurrentUser = getHvManager().getHierarchicalValidatorOf(User.getCurrentRequester().getId());
+        hierarchicalValidatorOfCurrentUser = HierarchicalValidatorIndex.get()
+            .getHierarchicalValidatorOf(User.getCurrentRequester().getId());
       } else {
         hierarchicalValidatorOfCurrentUser = StringUtil.EMPTY;
       }
@@ -489,13 +488,6 @@ public class FormDetail {
     return hierarchicalValidatorOfCurrentUser;
   }
 
-  HierarchicalValidatorCacheManager getHvManager() {
-    if (hvManager == null) {
-      hvManager = new HierarchicalValidatorCacheManager();
-    }
-    return hvManager;
-  }
-
   public int getHierarchicalValidatorState() {
     if (!isHierarchicalValidation()) {
       return VALIDATOR_OK;
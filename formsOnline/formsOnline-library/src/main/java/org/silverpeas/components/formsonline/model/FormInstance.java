@@ -180,7 +180,7 @@ public class FormInstance implements SilverpeasContent {
   }
 
   public String getHierarchicalValidator() {
-    return form.getHvManager().getHierarchicalValidatorOf(getCreatorId());
+    return HierarchicalValidatorIndex.get().getHierarchicalValidatorOf(getCreatorId());
   }
 
   public boolean isHierarchicalValidator(String userId) {
@@ -27,9 +27,11 @@ import org.silverpeas.core.admin.PaginationPage;
 import org.silverpeas.core.util.Pair;
 import org.silverpeas.core.util.SilverpeasList;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 public interface FormsOnlineDAO {
@@ -128,6 +130,18 @@ public interface FormsOnlineDAO {
    */
   List<String> getReceiversAsGroups(FormPK pk, String rightType) throws FormsOnlineException;
 
+  /**
+   * Gets the identifiers of the forms of the given component instance that can be sent by the
+   * given user, directly or from one of its groups, whatever the state of the forms.
+   * @param instanceId the component instance id
+   * @param userId the user id
+   * @param userGroupIds the user's groups id list
+   * @return a set of form identifiers.
+   * @throws FormsOnlineException on technical error.
+   */
+  Set<String> getSendableFormIds(String instanceId, String userId, String[] userGroupIds)
+      throws FormsOnlineException;
+
   /**
    * Get the form available to be sent for given user or given groups
    * @param componentIds the component instance id
@@ -219,4 +233,65 @@ public interface FormsOnlineDAO {
       throws FormsOnlineException;
 
   SilverpeasList<FormInstance> getAllRequests(FormPK pk) throws FormsOnlineException;
+
+  /**
+   * Gets the identifiers of the forms with hierarchical validation of the given component
+   * instance for which at least one request has been sent by a user whose the hierarchical
+   * validator is the given one. The hierarchical validators are read from the index of the
+   * bosses (see {@link #saveHierarchicalValidatorsOfDomain(String, Map)}).
+   * @param instanceId the identifier of the component instance.
+   * @param validatorId the identifier of the hierarchical validator.
+   * @param formIds optional filter about form identifiers in order to reduce the search load.
+   * @return a set of form identifiers.
+   * @throws FormsOnlineException on technical error.
+   */
+  Set<String> getFormIdsWithRequestsToValidateAsBoss(String instanceId, String validatorId,
+      final Collection<String> formIds) throws FormsOnlineException;
+
+  /**
+   * Gets the indexed hierarchical validator (the boss) of each user of the given user domain.
+   * @param domainId the identifier of a user domain.
+   * @return the identifier of the boss of each indexed user of the domain, mapped by user
+   * identifier. The boss is null for a user without any boss.
+   * @throws FormsOnlineException on technical error.
+   */
+  Map<String, String> getHierarchicalValidatorsOfDomain(String domainId)
+      throws FormsOnlineException;
+
+  /**
+   * Gets the date at which the hierarchical validators of the given user domain have been
+   * indexed.
+   * @param domainId the identifier of a user domain.
+   * @return the date of the indexation, empty if the domain has never been indexed.
+   * @throws FormsOnlineException on technical error.
+   */
+  Optional<Instant> getHierarchicalValidatorIndexDate(String domainId)
+      throws FormsOnlineException;
+
+  /**
+   * Replaces the indexed hierarchical validators of all the users of the given user domain.
+   * @param domainId the identifier of a user domain.
+   * @param bossByUser the identifier of the boss of each user of the domain, mapped by user
+   * identifier. The boss is null for a user without any boss.
+   * @throws FormsOnlineException on technical error.
+   */
+  void saveHierarchicalValidatorsOfDomain(String domainId, Map<String, String> bossByUser)
+      throws FormsOnlineException;
+
+  /**
+   * Indexes the hierarchical validator of the given user.
+   * @param userId the identifier of the user.
+   * @param domainId the identifier of the domain of the user.
+   * @param bossId the identifier of the boss of the user, null if none.
+   * @throws FormsOnlineException on technical error.
+   */
+  void saveHierarchicalValidatorOf(String userId, String domainId, String bossId)
+      throws FormsOnlineException;
+
+  /**
+   * Removes from the index the hierarchical validator of the given user.
+   * @param userId the identifier of the user.
+   * @throws FormsOnlineException on technical error.
+   */
+  void deleteHierarchicalValidatorOf(String userId) throws FormsOnlineException;
 }
@@ -52,8 +52,10 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
@@ -79,6 +81,8 @@ public class FormsOnlineDAOJdbc implements FormsOnlineDAO {
   private static final String FORMS_INSTANCE_VALIDATIONS_TABLENAME = "SC_FormsOnline_FormInstVali";
   private static final String USER_RIGHTS_TABLENAME = "SC_FormsOnline_UserRights";
   private static final String GROUP_RIGHTS_TABLENAME = "SC_FormsOnline_GroupRights";
+  private static final String USER_BOSS_TABLENAME = "SC_FormsOnline_UserBoss";
+  private static final String BOSS_INDEX_TABLENAME = "SC_FormsOnline_BossIndex";
 
   private static final String SELECT_FROM = "SELECT * FROM ";
   private static final String INSERT_INTO = "INSERT INTO ";
@@ -120,6 +124,19 @@ public class FormsOnlineDAOJdbc implements FormsOnlineDAO {
       INSERT_INTO + GROUP_RIGHTS_TABLENAME + "(formId, instanceId, rightType, groupId) " +
           "VALUES (?, ?, ?, ?)";
 
+  // Queries about the index of the hierarchical validators
+  private static final String QUERY_INSERT_USER_BOSS =
+      INSERT_INTO + USER_BOSS_TABLENAME + "(userId, domainId, bossId) VALUES (?, ?, ?)";
+  private static final String QUERY_DELETE_USER_BOSS =
+      DELETE_FROM + USER_BOSS_TABLENAME + " where userId = ?";
+  private static final String QUERY_DELETE_DOMAIN_BOSSES =
+      DELETE_FROM + USER_BOSS_TABLENAME + " where domainId = ?";
+  private static final String QUERY_DELETE_BOSS_INDEX =
+      DELETE_FROM + BOSS_INDEX_TABLENAME + " where domainId = ?";
+  private static final String QUERY_INSERT_BOSS_INDEX =
+      INSERT_INTO + BOSS_INDEX_TABLENAME + "(domainId, indexDate) VALUES (?, ?)";
+  private static final int BATCH_SIZE = 500;
+
   private static final String ID = "id";
   private static final String ID_CRITERIA = ID + " = ?";
   private static final String STATE = "state";
@@ -393,6 +410,32 @@ public class FormsOnlineDAOJdbc implements FormsOnlineDAO {
     }
   }
 
+  @Override
+  public Set<String> getSendableFormIds(final String instanceId, final String userId,
+      final String[] userGroupIds) throws FormsOnlineException {
+    try {
+      final Set<String> formIds = new HashSet<>(JdbcSqlQuery.createSelect("formId")
+          .from(USER_RIGHTS_TABLENAME)
+          .where(INSTANCE_ID + " = ?", instanceId)
+          .and(RIGHT_TYPE + " = ?", SENDERS_TYPE)
+          .and("userId = ?", userId)
+          .execute(r -> String.valueOf(r.getInt(1))));
+      if (isNotEmpty(userGroupIds)) {
+        JdbcSqlQuery.executeBySplittingOn(Arrays.asList(userGroupIds), (idBatch, ignore) ->
+            formIds.addAll(JdbcSqlQuery.createSelect("DISTINCT formId")
+                .from(GROUP_RIGHTS_TABLENAME)
+                .where(INSTANCE_ID + " = ?", instanceId)
+                .and(RIGHT_TYPE + " = ?", SENDERS_TYPE)
+                .and("groupId").in(idBatch)
+                .execute(r -> String.valueOf(r.getInt(1)))));
+      }
+      return formIds;
+    } catch (SQLException se) {
+      throw new FormsOnlineException(
+          failureOnGetting("user (" + userId + ") sendable forms of instance", instanceId), se);
+    }
+  }
+
   /*
    * (non-Javadoc)
    * @see FormsOnlineDAO#getUserAvailableForms(java.lang.String,
@@ -407,7 +450,7 @@ public class FormsOnlineDAOJdbc implements FormsOnlineDAO {
           final JdbcSqlQuery query = JdbcSqlQuery.createSelect("*")
           .from(FORMS_TABLENAME)
           // 1st criteria : correct instanceId
-          .where(INSTANCE_ID).in(instanceIds)
+          .where(INSTANCE_ID).in(idBatch)
           // 2nd criteria : state published or old forms that user has sent before unpublish
           .and("(state = ?", FormDetail.STATE_PUBLISHED)
             .or("id in (select formId from " + FORMS_INSTANCES_TABLENAME + " where creatorId = ?))", userId)
@@ -893,6 +936,132 @@ public class FormsOnlineDAOJdbc implements FormsOnlineDAO {
         .andFormIds(pk.getId()));
   }
 
+  @Override
+  public Set<String> getFormIdsWithRequestsToValidateAsBoss(final String instanceId,
+      final String validatorId, final Collection<String> formIds) throws FormsOnlineException {
+    final JdbcSqlQuery query = JdbcSqlQuery
+        .createSelect("DISTINCT r.formId")
+        .from(FORMS_INSTANCES_TABLENAME + " r")
+        .join(FORMS_TABLENAME + " f").on("f." + ID + " = r." + FORM_ID)
+        .join(USER_BOSS_TABLENAME + " b").on("b.userId = r." + CREATOR_ID)
+        .where("f." + INSTANCE_ID + " = ?", instanceId)
+        .and("f.hierarchicalValidation = ?", true)
+        .and("b.bossId = ?", validatorId);
+    if (CollectionUtil.isNotEmpty(formIds)) {
+      query.and("f." + ID).in(formIds.stream().map(Integer::parseInt).collect(toSet()));
+    }
+    try {
+      return new HashSet<>(query.execute(r -> String.valueOf(r.getInt(1))));
+    } catch (SQLException se) {
+      throw new FormsOnlineException(
+          failureOnGetting("user (" + validatorId + ") available form as boss ids of instance",
+              instanceId), se);
+    }
+  }
+
+  @Override
+  public Map<String, String> getHierarchicalValidatorsOfDomain(final String domainId)
+      throws FormsOnlineException {
+    final Map<String, String> bossByUser = new HashMap<>();
+    try {
+      JdbcSqlQuery.createSelect("userId, bossId")
+          .from(USER_BOSS_TABLENAME)
+          .where("domainId = ?", domainId)
+          .execute(r -> {
+            bossByUser.put(r.getString(1), r.getString(2));
+            return null;
+          });
+    } catch (SQLException se) {
+      throw new FormsOnlineException(failureOnGetting("bosses of users of domain", domainId), se);
+    }
+    return bossByUser;
+  }
+
+  @Override
+  public Optional<Instant> getHierarchicalValidatorIndexDate(final String domainId)
+      throws FormsOnlineException {
+    try {
+      return Optional.ofNullable(JdbcSqlQuery.createSelect("indexDate")
+          .from(BOSS_INDEX_TABLENAME)
+          .where("domainId = ?", domainId)
+          .executeUnique(r -> r.getTimestamp(1).toInstant()));
+    } catch (SQLException se) {
+      throw new FormsOnlineException(failureOnGetting("boss index date of domain", domainId), se);
+    }
+  }
+
+  @Override
+  public void saveHierarchicalValidatorsOfDomain(final String domainId,
+      final Map<String, String> bossByUser) throws FormsOnlineException {
+    try {
+      Transaction.performInOne(() -> {
+        try (final Connection con = getConnection()) {
+          executeUpdate(con, QUERY_DELETE_DOMAIN_BOSSES, domainId);
+          executeUpdate(con, QUERY_DELETE_BOSS_INDEX, domainId);
+          try (final PreparedStatement stmt = con.prepareStatement(QUERY_INSERT_USER_BOSS)) {
+            int count = 0;
+            for (final Map.Entry<String, String> userBoss : bossByUser.entrySet()) {
+              stmt.setString(1, userBoss.getKey());
+              stmt.setString(2, domainId);
+              stmt.setString(3, userBoss.getValue());
+              stmt.addBatch();
+              if (++count % BATCH_SIZE == 0) {
+                stmt.executeBatch();
+              }
+            }
+            stmt.executeBatch();
+          }
+          try (final PreparedStatement stmt = con.prepareStatement(QUERY_INSERT_BOSS_INDEX)) {
+            stmt.setString(1, domainId);
+            stmt.setTimestamp(2, Timestamp.from(Instant.now()));
+            stmt.executeUpdate();
+          }
+        }
+        return null;
+      });
+    } catch (Exception e) {
+      throw new FormsOnlineException(failureOnUpdate("bosses of users of domain", domainId), e);
+    }
+  }
+
+  @Override
+  public void saveHierarchicalValidatorOf(final String userId, final String domainId,
+      final String bossId) throws FormsOnlineException {
+    try {
+      Transaction.performInOne(() -> {
+        try (final Connection con = getConnection()) {
+          executeUpdate(con, QUERY_DELETE_USER_BOSS, userId);
+          try (final PreparedStatement stmt = con.prepareStatement(QUERY_INSERT_USER_BOSS)) {
+            stmt.setString(1, userId);
+            stmt.setString(2, domainId);
+            stmt.setString(3, bossId);
+            stmt.executeUpdate();
+          }
+        }
+        return null;
+      });
+    } catch (Exception e) {
+      throw new FormsOnlineException(failureOnUpdate("boss of user", userId), e);
+    }
+  }
+
+  @Override
+  public void deleteHierarchicalValidatorOf(final String userId) throws FormsOnlineException {
+    try (final Connection con = getConnection()) {
+      executeUpdate(con, QUERY_DELETE_USER_BOSS, userId);
+    } catch (SQLException se) {
+      throw new FormsOnlineException(failureOnDeleting("boss of user", userId), se);
+    }
+  }
+
+  private static void executeUpdate(final Connection con, final String query,
+      final String parameter) throws SQLException {
+    try (final PreparedStatement stmt = con.prepareStatement(query)) {
+      stmt.setString(1, parameter);
+      stmt.executeUpdate();
+    }
+  }
+
   private FormInstance fetchFormInstance(final ResultSet rs) throws SQLException {
     final FormInstance formInstance = new FormInstance();
     formInstance.setId(rs.getInt("id"));
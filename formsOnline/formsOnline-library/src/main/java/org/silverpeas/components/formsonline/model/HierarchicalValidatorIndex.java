@@ -0,0 +1,347 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have recieved a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General License for more details.
+ *
+ * You should have received a copy of the GNU Affero General License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.formsonline.model;
+
+import org.silverpeas.components.formsonline.FormsOnlineComponentSettings;
+import org.silverpeas.core.admin.service.OrganizationController;
+import org.silverpeas.core.admin.user.model.User;
+import org.silverpeas.core.admin.user.model.UserFull;
+import org.silverpeas.core.annotation.Service;
+import org.silverpeas.core.thread.ManagedThreadPool;
+import org.silverpeas.core.util.ResourceLocator;
+import org.silverpeas.core.util.ServiceProvider;
+import org.silverpeas.core.util.StringUtil;
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Index of the hierarchical validators (the bosses) of the users, shared by all the requests on
+ * the FormsOnline instances.
+ * <p>
+ * The boss of a user is a property of its profile in its user domain, and getting it for each
+ * user of a domain is very costly. So the bosses of the users of a domain are indexed once in the
+ * database (SC_FormsOnline_UserBoss) and then kept up to date with the changes of the user
+ * profiles. The whole domain is indexed again after the time to live set by the
+ * <code>hierarchicalValidator.index.ttl</code> setting, in hours, in order to catch the changes
+ * done directly in the user directory. The index of a domain is also kept in memory and read again
+ * from the database from time to time to get the changes done by the other nodes of a cluster.
+ * </p>
+ * <p>
+ * The indexing of a whole domain is done in the background, in the managed thread pool, and the
+ * new index replaces the previous one once it is ready. Meanwhile, the previous index is served,
+ * even if it is expired, and the users not indexed yet get their boss directly from their
+ * profile.
+ * </p>
+ */
+@Service
+@Singleton
+public class HierarchicalValidatorIndex {
+
+  private static final String BOSS_PROPERTY = "boss";
+  private static final long MEMORY_TIME_TO_LIVE = 600000L;
+  private static final long LOAD_RETRY_DELAY = 60000L;
+  private static final int DEFAULT_INDEX_TTL = 24;
+
+  private final Map<String, DomainIndex> domains = new ConcurrentHashMap<>();
+
+  public static HierarchicalValidatorIndex get() {
+    return ServiceProvider.getService(HierarchicalValidatorIndex.class);
+  }
+
+  /**
+   * Gets the hierarchical validator of the given user.
+   * @param userId the identifier of a user.
+   * @return the identifier of the boss of the user, null if the user has no boss.
+   */
+  public String getHierarchicalValidatorOf(final String userId) {
+    final User user = User.getById(userId);
+    if (user == null) {
+      return null;
+    }
+    final DomainIndex index = getDomainIndex(user.getDomainId());
+    if (index.isIndexed(userId)) {
+      return index.getBossOf(userId);
+    }
+    // the user isn't indexed yet
+    final String boss = fetchBossOf(userId);
+    index.put(userId, boss);
+    save(userId, user.getDomainId(), boss);
+    return boss;
+  }
+
+  /**
+   * Gets the users whose the hierarchical validator is the given user. Only the users of the
+   * same domain than the validator are taken into account.
+   * @param validatorId the identifier of a user.
+   * @return a set of user identifiers.
+   */
+  public Set<String> getSubordinatesOf(final String validatorId) {
+    final User validator = User.getById(validatorId);
+    if (validator == null) {
+      return Collections.emptySet();
+    }
+    return getDomainIndex(validator.getDomainId()).getSubordinatesOf(validatorId);
+  }
+
+  /**
+   * Indexes the boss of the given user. Nothing is done if the domain of the user isn't indexed
+   * yet.
+   * @param user a created or updated user.
+   */
+  public void userSaved(final User user) {
+    final DomainIndex index = domains.get(user.getDomainId());
+    if (index != null || isIndexed(user.getDomainId())) {
+      final String boss = fetchBossOf(user.getId());
+      if (index != null) {
+        index.put(user.getId(), boss);
+      }
+      save(user.getId(), user.getDomainId(), boss);
+    }
+  }
+
+  /**
+   * Removes the given user from the index.
+   * @param user a deleted user.
+   */
+  public void userDeleted(final User user) {
+    final DomainIndex index = domains.get(user.getDomainId());
+    if (index != null) {
+      index.remove(user.getId());
+    }
+    try {
+      getDAO().deleteHierarchicalValidatorOf(user.getId());
+    } catch (FormsOnlineException e) {
+      SilverLogger.getLogger(this).error(e);
+    }
+  }
+
+  private DomainIndex getDomainIndex(final String domainId) {
+    final DomainIndex index = domains.computeIfAbsent(domainId, DomainIndex::new);
+    index.load();
+    return index;
+  }
+
+  private boolean isIndexed(final String domainId) {
+    try {
+      return getDAO().getHierarchicalValidatorIndexDate(domainId).isPresent();
+    } catch (FormsOnlineException e) {
+      SilverLogger.getLogger(this).error(e);
+      return false;
+    }
+  }
+
+  private void save(final String userId, final String domainId, final String bossId) {
+    try {
+      getDAO().saveHierarchicalValidatorOf(userId, domainId, bossId);
+    } catch (FormsOnlineException e) {
+      SilverLogger.getLogger(this).error(e);
+    }
+  }
+
+  private static String fetchBossOf(final String userId) {
+    final UserFull user = UserFull.getById(userId);
+    if (user == null) {
+      return null;
+    }
+    final String boss = user.getValue(BOSS_PROPERTY);
+    return StringUtil.isDefined(boss) ? boss : null;
+  }
+
+  private static Duration getIndexTimeToLive() {
+    return Duration.ofHours(ResourceLocator.getSettingBundle(
+        FormsOnlineComponentSettings.SETTINGS_PATH)
+        .getInteger("hierarchicalValidator.index.ttl", DEFAULT_INDEX_TTL));
+  }
+
+  private static FormsOnlineDAO getDAO() {
+    return new FormsOnlineDAOJdbc();
+  }
+
+  /**
+   * The bosses of the users of a domain. The maps are replaced as a whole at each loading so that
+   * they are read without any lock. A user without any boss is mapped to an empty string and a
+   * user not indexed yet isn't mapped at all.
+   * <p>
+   * At the first access, the index stored in the database is read, whatever its age, as it is
+   * just one request. Then, when the index is expired, it is loaded again in the background. When
+   * a loading fails, it isn't tried again before a delay.
+   * </p>
+   */
+  private static class DomainIndex {
+    private final String domainId;
+    private final AtomicBoolean loading = new AtomicBoolean(false);
+    private volatile Map<String, String> bossByUser = new ConcurrentHashMap<>();
+    private volatile Map<String, Set<String>> subordinatesByBoss = new ConcurrentHashMap<>();
+    private volatile boolean storedIndexRead = false;
+    private volatile long loadTime = 0;
+    private volatile long loadFailureTime = 0;
+
+    private DomainIndex(final String domainId) {
+      this.domainId = domainId;
+    }
+
+    private boolean isLoadRequired() {
+      final long now = System.currentTimeMillis();
+      return now - loadTime >= MEMORY_TIME_TO_LIVE && now - loadFailureTime >= LOAD_RETRY_DELAY;
+    }
+
+    private void load() {
+      if (!isLoadRequired()) {
+        return;
+      }
+      if (!storedIndexRead) {
+        readStoredIndex();
+      }
+      if (isLoadRequired() && loading.compareAndSet(false, true)) {
+        try {
+          ManagedThreadPool.getPool().invoke(this::loadInBackground);
+        } catch (RuntimeException e) {
+          loading.set(false);
+          loadFailureTime = System.currentTimeMillis();
+          SilverLogger.getLogger(this).error(e);
+        }
+      }
+    }
+
+    /**
+     * Reads the index stored in the database. It is up to date only if it isn't expired.
+     */
+    private synchronized void readStoredIndex() {
+      if (storedIndexRead) {
+        return;
+      }
+      try {
+        final FormsOnlineDAO dao = getDAO();
+        final Optional<Instant> indexDate = dao.getHierarchicalValidatorIndexDate(domainId);
+        if (indexDate.isPresent()) {
+          replaceBy(dao.getHierarchicalValidatorsOfDomain(domainId));
+          if (isAlive(indexDate.get())) {
+            loadTime = System.currentTimeMillis();
+          }
+        }
+      } catch (FormsOnlineException e) {
+        loadFailureTime = System.currentTimeMillis();
+        SilverLogger.getLogger(this).error(e);
+      }
+      storedIndexRead = true;
+    }
+
+    private void loadInBackground() {
+      try {
+        final FormsOnlineDAO dao = getDAO();
+        final Optional<Instant> indexDate = dao.getHierarchicalValidatorIndexDate(domainId);
+        final Map<String, String> bosses;
+        if (indexDate.isPresent() && isAlive(indexDate.get())) {
+          bosses = dao.getHierarchicalValidatorsOfDomain(domainId);
+        } else {
+          bosses = fetchBossesOfDomain();
+          dao.saveHierarchicalValidatorsOfDomain(domainId, bosses);
+        }
+        replaceBy(bosses);
+        loadTime = System.currentTimeMillis();
+      } catch (FormsOnlineException | RuntimeException e) {
+        loadFailureTime = System.currentTimeMillis();
+        SilverLogger.getLogger(this).error(e);
+      } finally {
+        loading.set(false);
+      }
+    }
+
+    private static boolean isAlive(final Instant indexDate) {
+      return indexDate.plus(getIndexTimeToLive()).isAfter(Instant.now());
+    }
+
+    private synchronized void replaceBy(final Map<String, String> bosses) {
+      final Map<String, String> newBossByUser = new ConcurrentHashMap<>(bosses.size());
+      final Map<String, Set<String>> newSubordinatesByBoss = new ConcurrentHashMap<>();
+      bosses.forEach((userId, bossId) -> {
+        newBossByUser.put(userId, bossId == null ? StringUtil.EMPTY : bossId);
+        if (bossId != null) {
+          newSubordinatesByBoss.computeIfAbsent(bossId, b -> ConcurrentHashMap.newKeySet())
+              .add(userId);
+        }
+      });
+      bossByUser = newBossByUser;
+      subordinatesByBoss = newSubordinatesByBoss;
+    }
+
+    private Map<String, String> fetchBossesOfDomain() {
+      final User[] users = OrganizationController.get().getAllUsersInDomain(domainId);
+      final Map<String, String> bosses = new HashMap<>(users.length);
+      for (final User user : users) {
+        bosses.put(user.getId(), fetchBossOf(user.getId()));
+      }
+      SilverLogger.getLogger(this)
+          .info("Bosses of the {0} users of the domain {1} indexed", users.length, domainId);
+      return bosses;
+    }
+
+    private boolean isIndexed(final String userId) {
+      return bossByUser.containsKey(userId);
+    }
+
+    /**
+     * @return the boss of the user, null if the user has no boss or isn't indexed.
+     */
+    private String getBossOf(final String userId) {
+      final String bossId = bossByUser.get(userId);
+      return StringUtil.isDefined(bossId) ? bossId : null;
+    }
+
+    private Set<String> getSubordinatesOf(final String bossId) {
+      final Set<String> subordinates = subordinatesByBoss.get(bossId);
+      return subordinates == null ? Collections.emptySet() : new HashSet<>(subordinates);
+    }
+
+    private synchronized void put(final String userId, final String bossId) {
+      remove(userId);
+      bossByUser.put(userId, bossId == null ? StringUtil.EMPTY : bossId);
+      if (bossId != null) {
+        subordinatesByBoss.computeIfAbsent(bossId, b -> ConcurrentHashMap.newKeySet())
+            .add(userId);
+      }
+    }
+
+    private synchronized void remove(final String userId) {
+      final String previousBossId = bossByUser.remove(userId);
+      if (StringUtil.isDefined(previousBossId)) {
+        final Set<String> subordinates = subordinatesByBoss.get(previousBossId);
+        if (subordinates != null) {
+          subordinates.remove(userId);
+        }
+      }
+    }
+  }
+}
@@ -36,4 +36,11 @@ CREATE TABLE SC_Forums_HistoryUser
   userId     VARCHAR(255) NOT NULL,
   messageId  INT          NOT NULL,
   lastAccess VARCHAR(50)  NOT NULL
+);
+
+CREATE TABLE SC_Forums_MessagePath
+(
+  ancestorId INT NOT NULL,
+  messageId  INT NOT NULL,
+  depth      INT NOT NULL
 );
\ No newline at end of file
@@ -22,4 +22,11 @@ CONSTRAINT PK_Forums_HistoryUser PRIMARY KEY CLUSTERED
   (
     userId,
     messageId
+  );
+
+ALTER TABLE SC_Forums_MessagePath WITH NOCHECK ADD
+CONSTRAINT PK_Forums_MessagePath PRIMARY KEY CLUSTERED
+  (
+    ancestorId,
+    messageId
   );
\ No newline at end of file
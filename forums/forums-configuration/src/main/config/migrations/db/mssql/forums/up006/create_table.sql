@@ -0,0 +1,19 @@
+CREATE TABLE SC_Forums_MessagePath
+(
+  ancestorId INT NOT NULL,
+  messageId  INT NOT NULL,
+  depth      INT NOT NULL
+);
+
+ALTER TABLE SC_Forums_MessagePath WITH NOCHECK ADD
+CONSTRAINT PK_Forums_MessagePath PRIMARY KEY CLUSTERED
+  (
+    ancestorId,
+    messageId
+  );
+
+CREATE INDEX IDX_Forums_MessagePath_Msg
+  ON SC_Forums_MessagePath (messageId);
+
+CREATE INDEX IDX_Forums_Message_Forum
+  ON SC_Forums_Message (forumId, messageParentId);
@@ -0,0 +1,11 @@
+WITH message_path (ancestorId, messageId, depth) AS (
+  SELECT messageId, messageId, 0
+  FROM SC_Forums_Message
+  UNION ALL
+  SELECT p.ancestorId, m.messageId, p.depth + 1
+  FROM message_path p
+    JOIN SC_Forums_Message m ON m.messageParentId = p.messageId
+)
+INSERT INTO SC_Forums_MessagePath (ancestorId, messageId, depth)
+SELECT ancestorId, messageId, depth FROM message_path
+OPTION (MAXRECURSION 0);
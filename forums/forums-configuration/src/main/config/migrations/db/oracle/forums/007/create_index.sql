@@ -0,0 +1,5 @@
+CREATE INDEX IDX_Forums_MessagePath_Msg
+  ON SC_Forums_MessagePath (messageId);
+
+CREATE INDEX IDX_Forums_Message_Forum
+  ON SC_Forums_Message (forumId, messageParentId);
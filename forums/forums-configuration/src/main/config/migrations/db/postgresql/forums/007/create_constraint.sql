@@ -22,4 +22,11 @@ CONSTRAINT PK_Forums_HistoryUser PRIMARY KEY
   (
     userId,
     messageId
+  );
+
+ALTER TABLE SC_Forums_MessagePath ADD
+CONSTRAINT PK_Forums_MessagePath PRIMARY KEY
+  (
+    ancestorId,
+    messageId
   );
\ No newline at end of file
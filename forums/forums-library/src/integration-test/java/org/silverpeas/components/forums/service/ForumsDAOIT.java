@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ * <p>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.forums.service;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.Archive;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.silverpeas.components.forums.model.ForumPK;
+import org.silverpeas.components.forums.model.Message;
+import org.silverpeas.components.forums.model.MessagePK;
+import org.silverpeas.components.forums.test.WarBuilder4Forums;
+import org.silverpeas.core.test.rule.DbSetupRule;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Integration tests on the persistence of the ancestry of the forum messages in the message path
+ * table.
+ */
+@RunWith(Arquillian.class)
+public class ForumsDAOIT {
+
+  private static final String TABLE_CREATION_SCRIPT =
+      "/org/silverpeas/components/forums/create-database.sql";
+  private static final String DATASET_SCRIPT =
+      "/org/silverpeas/components/forums/forums-dataset.sql";
+
+  private static final String COMPONENT_INSTANCE_ID = "forums122";
+  private static final String VALID = "V";
+  private static final String WAITING = "A";
+  private static final int ROOT_FORUM_ID = 1;
+  private static final int FATHER_FORUM_ID = 2;
+  private static final int THREAD_ID = 10;
+  private static final int RESPONSE_ID = 11;
+  private static final int RESPONSE_OF_RESPONSE_ID = 12;
+
+  @Rule
+  public DbSetupRule dbSetupRule =
+      DbSetupRule.createTablesFrom(TABLE_CREATION_SCRIPT).loadInitialDataSetFrom(DATASET_SCRIPT);
+
+  @Deployment
+  public static Archive<?> createTestArchive() {
+    return WarBuilder4Forums.onWarForTestClass(ForumsDAOIT.class).build();
+  }
+
+  @Test
+  public void aNewMessageIsLinkedToItselfAndToAllItsAncestors() throws Exception {
+    try (Connection con = DbSetupRule.getSafeConnection()) {
+      int messageId = ForumsDAO.createMessage(con, "Re : Re : Re", "26", new Date(),
+          ROOT_FORUM_ID, RESPONSE_OF_RESPONSE_ID, VALID);
+
+      assertThat(getAncestry(con, messageId), is(Arrays.asList(
+          path(messageId, 0), path(RESPONSE_OF_RESPONSE_ID, 1), path(RESPONSE_ID, 2),
+          path(THREAD_ID, 3))));
+    }
+  }
+
+  @Test
+  public void aNewThreadIsOnlyLinkedToItself() throws Exception {
+    try (Connection con = DbSetupRule.getSafeConnection()) {
+      int messageId =
+          ForumsDAO.createMessage(con, "Nouveau sujet", "26", new Date(), ROOT_FORUM_ID, 0, VALID);
+
+      assertThat(getAncestry(con, messageId),
+          is(Collections.singletonList(path(messageId, 0))));
+    }
+  }
+
+  @Test
+  public void allTheResponsesAreGotOrderedByTheirDepth() throws Exception {
+    try (Connection con = DbSetupRule.getSafeConnection()) {
+      assertThat(new ArrayList<>(ForumsDAO.getAllMessageSons(con, messagePK(THREAD_ID))),
+          is(Arrays.asList("11", "12")));
+      assertThat(new ArrayList<>(ForumsDAO.getAllMessageSons(con, messagePK(RESPONSE_ID))),
+          is(Collections.singletonList("12")));
+      assertThat(ForumsDAO.getAllMessageSons(con, messagePK(RESPONSE_OF_RESPONSE_ID)).isEmpty(),
+          is(true));
+    }
+  }
+
+  @Test
+  public void theResponsesWithTheStatusAreCountedWhateverTheirDepth() throws Exception {
+    try (Connection con = DbSetupRule.getSafeConnection()) {
+      assertThat(ForumsDAO.getNbResponses(con, ROOT_FORUM_ID, THREAD_ID, VALID), is(2));
+      assertThat(ForumsDAO.getNbResponses(con, ROOT_FORUM_ID, RESPONSE_ID, VALID), is(1));
+
+      int waitingId = ForumsDAO.createMessage(con, "Re : Re : Re", "26", new Date(),
+          ROOT_FORUM_ID, RESPONSE_OF_RESPONSE_ID, WAITING);
+      ForumsDAO.createMessage(con, "Re : Re : Re : Re", "26", new Date(), ROOT_FORUM_ID,
+          waitingId, VALID);
+
+      // the valid response to a waiting one isn't counted
+      assertThat(ForumsDAO.getNbResponses(con, ROOT_FORUM_ID, THREAD_ID, VALID), is(2));
+      assertThat(ForumsDAO.getNbResponses(con, ROOT_FORUM_ID, THREAD_ID, WAITING), is(0));
+    }
+  }
+
+  @Test
+  public void aDeletedMessageIsDeletedWithAllItsResponsesAndTheirAncestry() throws Exception {
+    try (Connection con = DbSetupRule.getSafeConnection()) {
+      ForumsDAO.deleteMessage(con, messagePK(RESPONSE_ID));
+
+      assertThat(ForumsDAO.getMessage(con, messagePK(RESPONSE_ID)), nullValue());
+      assertThat(ForumsDAO.getMessage(con, messagePK(RESPONSE_OF_RESPONSE_ID)), nullValue());
+      assertThat(ForumsDAO.getMessage(con, messagePK(THREAD_ID)), notNullValue());
+      assertThat(getAncestry(con, RESPONSE_ID).isEmpty(), is(true));
+      assertThat(getAncestry(con, RESPONSE_OF_RESPONSE_ID).isEmpty(), is(true));
+      assertThat(getAncestry(con, THREAD_ID), is(Collections.singletonList(path(THREAD_ID, 0))));
+      assertThat(ForumsDAO.getNbResponses(con, ROOT_FORUM_ID, THREAD_ID, VALID), is(0));
+    }
+  }
+
+  @Test
+  public void aMovedMessageIsMovedWithAllItsResponses() throws Exception {
+    try (Connection con = DbSetupRule.getSafeConnection()) {
+      ForumsDAO.moveMessage(con, messagePK(RESPONSE_ID),
+          new ForumPK(COMPONENT_INSTANCE_ID, String.valueOf(FATHER_FORUM_ID)));
+
+      assertThat(ForumsDAO.getMessage(con, messagePK(THREAD_ID)).getForumId(), is(ROOT_FORUM_ID));
+      assertThat(ForumsDAO.getMessage(con, messagePK(RESPONSE_ID)).getForumId(),
+          is(FATHER_FORUM_ID));
+      assertThat(ForumsDAO.getMessage(con, messagePK(RESPONSE_OF_RESPONSE_ID)).getForumId(),
+          is(FATHER_FORUM_ID));
+      // the responses of the moved message aren't anymore in the forum of the thread
+      assertThat(ForumsDAO.getNbResponses(con, ROOT_FORUM_ID, THREAD_ID, VALID), is(0));
+      assertThat(ForumsDAO.getNbResponses(con, FATHER_FORUM_ID, RESPONSE_ID, VALID), is(1));
+    }
+  }
+
+  @Test
+  public void theLastMessageOfASubtreeIsTheMostRecentOneWithTheStatus() throws Exception {
+    try (Connection con = DbSetupRule.getSafeConnection()) {
+      // all the messages of the dataset have the same date
+      Message last = ForumsDAO.getLastMessageOfSubtree(con, messagePK(THREAD_ID), VALID);
+      assertThat(last.getId(), is(RESPONSE_OF_RESPONSE_ID));
+
+      Date later = Date.from(
+          LocalDateTime.of(2014, 1, 1, 10, 0).atZone(ZoneId.systemDefault()).toInstant());
+      int messageId = ForumsDAO.createMessage(con, "Re : Re : Sujet Forum racine", "26", later,
+          ROOT_FORUM_ID, RESPONSE_ID, VALID);
+      ForumsDAO.createMessage(con, "Re : Re : Re", "26", new Date(), ROOT_FORUM_ID, messageId,
+          WAITING);
+
+      last = ForumsDAO.getLastMessageOfSubtree(con, messagePK(THREAD_ID), VALID);
+      assertThat(last.getId(), is(messageId));
+      last = ForumsDAO.getLastMessageOfSubtree(con, messagePK(RESPONSE_OF_RESPONSE_ID), VALID);
+      assertThat(last.getId(), is(RESPONSE_OF_RESPONSE_ID));
+      assertThat(ForumsDAO.getLastMessageOfSubtree(con, messagePK(RESPONSE_OF_RESPONSE_ID),
+          WAITING), nullValue());
+    }
+  }
+
+  private static MessagePK messagePK(final int messageId) {
+    return new MessagePK(COMPONENT_INSTANCE_ID, String.valueOf(messageId));
+  }
+
+  private static String path(final int ancestorId, final int depth) {
+    return ancestorId + "@" + depth;
+  }
+
+  /**
+   * Gets the ancestry of the given message as a list of "ancestorId@depth" ordered by depth.
+   */
+  private static List<String> getAncestry(final Connection con, final int messageId)
+      throws SQLException {
+    List<String> ancestry = new ArrayList<>();
+    try (PreparedStatement stmt = con.prepareStatement(
+        "SELECT ancestorId, depth FROM SC_Forums_MessagePath WHERE messageId = ? ORDER BY depth")) {
+      stmt.setInt(1, messageId);
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          ancestry.add(path(rs.getInt(1), rs.getInt(2)));
+        }
+      }
+    }
+    return ancestry;
+  }
+}
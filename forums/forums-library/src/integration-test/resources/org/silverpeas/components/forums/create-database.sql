@@ -25,6 +25,13 @@ CREATE TABLE SC_Forums_Message
   status          VARCHAR(50)   NULL
 );
 
+CREATE TABLE SC_Forums_MessagePath
+(
+  ancestorId INT NOT NULL,
+  messageId  INT NOT NULL,
+  depth      INT NOT NULL
+);
+
 CREATE TABLE SC_Forums_Rights
 (
   userId  VARCHAR(255) NOT NULL,
@@ -55,6 +62,12 @@ CONSTRAINT PK_Forums_Message PRIMARY KEY
     messageId
   );
 
+ALTER TABLE SC_Forums_MessagePath ADD
+CONSTRAINT PK_Forums_MessagePath PRIMARY KEY
+  (
+    ancestorId,
+    messageId
+  );
 
 ALTER TABLE SC_Forums_Rights ADD
 CONSTRAINT PK_Forums_Rights PRIMARY KEY
@@ -44,6 +44,16 @@ INSERT INTO sc_forums_message (messageId, messageTitle, messageAuthor, forumId,
                                messageDate, status)
     VALUES (30, 'Sujet Forum Fils', '26', 3, 0, '2013-06-17 19:05:27', 'V');
 
+/* The ancestry of the messages */
+INSERT INTO sc_forums_messagepath (ancestorId, messageId, depth) VALUES (10, 10, 0);
+INSERT INTO sc_forums_messagepath (ancestorId, messageId, depth) VALUES (11, 11, 0);
+INSERT INTO sc_forums_messagepath (ancestorId, messageId, depth) VALUES (10, 11, 1);
+INSERT INTO sc_forums_messagepath (ancestorId, messageId, depth) VALUES (12, 12, 0);
+INSERT INTO sc_forums_messagepath (ancestorId, messageId, depth) VALUES (11, 12, 1);
+INSERT INTO sc_forums_messagepath (ancestorId, messageId, depth) VALUES (10, 12, 2);
+INSERT INTO sc_forums_messagepath (ancestorId, messageId, depth) VALUES (20, 20, 0);
+INSERT INTO sc_forums_messagepath (ancestorId, messageId, depth) VALUES (30, 30, 0);
+
 /* The moderators */
 INSERT INTO sc_forums_rights (userId, forumId) VALUES ('26', '2');
 INSERT INTO sc_forums_rights (userId, forumId) VALUES ('26', '3');
\ No newline at end of file
@@ -69,9 +69,14 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.silverpeas.core.i18n.I18NHelper.DEFAULT_LANGUAGE;
 
@@ -411,26 +416,14 @@ public class DefaultForumService implements ForumService {
     return messages;
   }
 
-  private List<String> getSubjectsIds(ForumPK forumPK) {
-    try (Connection con = openConnection()) {
-      return ForumsDAO.getSubjectsIds(con, forumPK);
-    } catch (SQLException e) {
-      throw new ForumsRuntimeException(e);
-    }
-  }
-
-  private List<String> getMessagesIds(ForumPK forumPK, int messageParentId) {
+  private List<String> getMessagesIds(ForumPK forumPK) {
     try (Connection con = openConnection()) {
-      return ForumsDAO.getMessagesIds(con, forumPK, messageParentId);
+      return ForumsDAO.getMessagesIds(con, forumPK);
     } catch (SQLException e) {
       throw new ForumsRuntimeException(e);
     }
   }
 
-  private List<String> getMessagesIds(ForumPK forumPK) {
-    return getMessagesIds(forumPK, -1);
-  }
-
   @Override
   public int getNbMessages(int forumId, String type, String status) {
     try (Connection con = openConnection()) {
@@ -498,15 +491,10 @@ public class DefaultForumService implements ForumService {
 
   @Override
   public Message getLastMessage(ForumPK forumPK, int messageParentId, String status) {
-    try {
-      // liste de tous les messages de la discussion
-      List<String> messagesIds = getMessagesIds(forumPK, messageParentId);
-
-      // ajouter la "racine" du message dans la liste de ses réponses
-      messagesIds.add(String.valueOf(messageParentId));
-
-      // récupération de la date du dernier message du forum
-      return getLastMessage(forumPK, messagesIds, status);
+    try (Connection con = openConnection()) {
+      MessagePK messagePK =
+          new MessagePK(forumPK.getComponentName(), String.valueOf(messageParentId));
+      return ForumsDAO.getLastMessageOfSubtree(con, messagePK, status);
     } catch (Exception e) {
       throw new ForumsRuntimeException(e);
     }
@@ -530,48 +518,47 @@ public class DefaultForumService implements ForumService {
    */
   @Override
   public boolean isNewMessageByForum(String userId, ForumPK forumPK, String status) {
-    // liste de tous les sujets du forum
-    List<String> messagesIds = getSubjectsIds(forumPK);
-    int messageParentId;
-    for (String messagesId : messagesIds) {
-      // pour ce message on recherche la date de la dernière visite
-      messageParentId = Integer.parseInt(messagesId);
-
-      if (isNewMessage(userId, forumPK, messageParentId, status)) {
-        return true;
+    return isNewMessageByForums(userId, Collections.singletonList(forumPK), status).get(forumPK);
+  }
+
+  @Override
+  public Map<ForumPK, Boolean> isNewMessageByForums(String userId, Collection<ForumPK> forumPKs,
+      String status) {
+    Map<ForumPK, Boolean> newMessageByForum = new HashMap<>(forumPKs.size());
+    Set<Integer> forumIds =
+        forumPKs.stream().map(pk -> Integer.parseInt(pk.getId())).collect(Collectors.toSet());
+    try (Connection con = openConnection()) {
+      Set<Integer> forumIdsWithNewMessages =
+          ForumsDAO.getForumIdsWithNewMessages(con, userId, forumIds, status);
+      for (ForumPK forumPK : forumPKs) {
+        newMessageByForum.put(forumPK,
+            forumIdsWithNewMessages.contains(Integer.parseInt(forumPK.getId())));
       }
+    } catch (SQLException e) {
+      throw new ForumsRuntimeException(e);
     }
-    return false;
+    return newMessageByForum;
   }
 
   @Override
   public boolean isNewMessage(String userId, ForumPK forumPK, int messageParentId, String status) {
     try (Connection con = openConnection()) {
-      // liste de tous les messages de la discussion
-      List<String> messagesIds = getMessagesIds(forumPK, messageParentId);
-      // ajouter la "racine" du message dans la liste de ses réponses
-      messagesIds.add(String.valueOf(messageParentId));
-
-      // récupération de la date du dernier message du forum
-      Message message = getLastMessage(forumPK, messagesIds, status);
       // date du dernier message de la discussion
+      MessagePK messagePK =
+          new MessagePK(forumPK.getComponentName(), String.valueOf(messageParentId));
+      Message message = ForumsDAO.getLastMessageOfSubtree(con, messagePK, status);
       Date dateLastMessageBySubject = (message != null ? message.getDate() : null);
 
+      // date de la dernière visite sur la discussion
+      Date dateLastVisit = ForumsDAO.getLastVisitOfSubtree(con, userId, messageParentId);
 
-      // recherche sur tous les messages de la date de visite la plus ancienne
-      // date de la dernière visite pour un message
-      Date dateLastVisit = ForumsDAO.getLastVisit(con, userId, messagesIds);
-
-      if (dateLastMessageBySubject == null || dateLastVisit == null ||
-          dateLastVisit.before(dateLastMessageBySubject)) {
-        // la date de dernière visite de ce message est antérieure à la date du
-        // dernier message, il y a donc des réponses non lues pour ce message
-        return true;
-      }
+      // la date de dernière visite de ce message est antérieure à la date du
+      // dernier message, il y a donc des réponses non lues pour ce message
+      return dateLastMessageBySubject == null || dateLastVisit == null ||
+          dateLastVisit.before(dateLastMessageBySubject);
     } catch (Exception e) {
       throw new ForumsRuntimeException(e);
     }
-    return false;
   }
 
   /**
@@ -717,21 +704,22 @@ public class DefaultForumService implements ForumService {
   @Override
   public void deleteMessage(MessagePK messagePK) {
     try (Connection con = openConnection()) {
-      Collection<String> messageChildren = ForumsDAO.getMessageSons(con, messagePK);
-      if (!messageChildren.isEmpty()) {
-        for (String child : messageChildren) {
-          deleteMessage(new MessagePK(messagePK.getComponentName(), child));
-        }
+      List<MessagePK> messagePKs = new ArrayList<>();
+      for (String child : ForumsDAO.getAllMessageSons(con, messagePK)) {
+        messagePKs.add(new MessagePK(messagePK.getComponentName(), child));
       }
+      messagePKs.add(messagePK);
 
-      // Deleting subscriptions
-      getSubscribeService().unsubscribeByResource(ForumMessageSubscriptionResource.from(messagePK));
-
+      // suppression en une fois du message et de toutes ses réponses
       ForumsDAO.deleteMessage(con, messagePK);
-      deleteIndex(messagePK);
-      deleteTagCloud(messagePK);
-      deleteNotation(messagePK);
-      deleteAllAttachments(messagePK);
+      for (MessagePK pk : messagePKs) {
+        // Deleting subscriptions
+        getSubscribeService().unsubscribeByResource(ForumMessageSubscriptionResource.from(pk));
+        deleteIndex(pk);
+        deleteTagCloud(pk);
+        deleteNotation(pk);
+        deleteAllAttachments(pk);
+      }
     } catch (SQLException e) {
       throw new ForumsRuntimeException(e);
     }
@@ -818,12 +806,6 @@ public class DefaultForumService implements ForumService {
   @Override
   public void moveMessage(MessagePK messagePK, ForumPK forumPK) {
     try (Connection con = openConnection()) {
-      Collection<String> children = ForumsDAO.getMessageSons(con, messagePK);
-      if (!children.isEmpty()) {
-        for (String childId : children) {
-          moveMessage(new MessagePK(messagePK.getComponentName(), childId), forumPK);
-        }
-      }
       ForumsDAO.moveMessage(con, messagePK, forumPK);
     } catch (SQLException e) {
       throw new ForumsRuntimeException(e);
@@ -40,6 +40,7 @@ import org.silverpeas.core.util.ServiceProvider;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Forums service layer interface
@@ -123,6 +124,16 @@ public interface ForumService {
 
   boolean isNewMessageByForum(String userId, ForumPK forumPK, String status);
 
+  /**
+   * Indicates for each of the given forums whether it contains messages the user hasn't yet read.
+   * @param userId the unique identifier of the user.
+   * @param forumPKs the primary keys of the forums.
+   * @param status the status of the messages to take into account.
+   * @return a map with, for each forum, true if there are new messages for the user in it.
+   */
+  Map<ForumPK, Boolean> isNewMessageByForums(String userId, Collection<ForumPK> forumPKs,
+      String status);
+
   boolean isNewMessage(String userId, ForumPK forumPK, int messageId, String status);
 
   void setLastVisit(String userId, int messageId);
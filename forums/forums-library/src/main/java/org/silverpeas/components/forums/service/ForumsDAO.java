@@ -46,8 +46,12 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.silverpeas.core.SilverpeasExceptionMessages.failureOnGetting;
@@ -111,6 +115,13 @@ public class ForumsDAO {
   private static final String HISTORY_COLUMN_LAST_ACCESS = "lastAccess";
   private static final String HISTORY_COLUMNS =
       HISTORY_COLUMN_USER_ID + ", " + HISTORY_COLUMN_MESSAGE_ID + ", " + HISTORY_COLUMN_LAST_ACCESS;
+  // Message path table: each message is linked to itself and to all of its ancestors.
+  private static final String PATH_TABLE = "SC_Forums_MessagePath";
+  private static final String PATH_COLUMN_ANCESTOR_ID = "ancestorId";
+  private static final String PATH_COLUMN_MESSAGE_ID = "messageId";
+  private static final String PATH_COLUMN_DEPTH = "depth";
+  private static final String PATH_COLUMNS =
+      PATH_COLUMN_ANCESTOR_ID + ", " + PATH_COLUMN_MESSAGE_ID + ", " + PATH_COLUMN_DEPTH;
   private static final String QUERY_GET_FORUMS_LIST =
       SELECT + FORUM_COLUMNS + " FROM sc_forums_forum WHERE instanceId = ?";
   private static final String QUERY_GET_FORUMS_IDS =
@@ -147,6 +158,10 @@ public class ForumsDAO {
       "forumDescription = ?, forumParent = ?, instanceId = ?, categoryId = ? WHERE forumId = ? ";
   private static final String QUERY_DELETE_FORUM_RIGHTS =
       DELETE_FROM + RIGHTS_TABLE + WHERE + RIGHTS_COLUMN_FORUM_ID + " = ?";
+  private static final String QUERY_DELETE_FORUM_MESSAGE_PATH =
+      DELETE_FROM + PATH_TABLE + WHERE + PATH_COLUMN_MESSAGE_ID + " IN (" + SELECT +
+          MESSAGE_COLUMN_MESSAGE_ID + " FROM " + MESSAGE_TABLE + WHERE + MESSAGE_COLUMN_FORUM_ID +
+          " = ?)";
   private static final String QUERY_DELETE_FORUM_MESSAGE =
       DELETE_FROM + MESSAGE_TABLE + WHERE + MESSAGE_COLUMN_FORUM_ID + " = ?";
   private static final String QUERY_DELETE_FORUM_FORUM =
@@ -577,6 +592,10 @@ public class ForumsDAO {
   public static void deleteForum(Connection con, ForumPK forumPK) throws SQLException {
     String sForumId = forumPK.getId();
     int forumId = Integer.parseInt(sForumId);
+    try (PreparedStatement deleteStmt = con.prepareStatement(QUERY_DELETE_FORUM_MESSAGE_PATH)) {
+      deleteStmt.setInt(1, forumId);
+      deleteStmt.executeUpdate();
+    }
     try (PreparedStatement deleteStmt1 = con.prepareStatement(QUERY_DELETE_FORUM_RIGHTS)) {
       deleteStmt1.setString(1, sForumId);
       deleteStmt1.executeUpdate();
@@ -599,6 +618,10 @@ public class ForumsDAO {
       " where messageId in (select messageId from " + MESSAGE_TABLE +
       " as m JOIN sc_forums_forum as f on m." + FORUM_COLUMN_FORUM_ID + " = f." +
       FORUM_COLUMN_FORUM_ID + " and " + FORUM_COLUMN_INSTANCE_ID + "= ?)";
+  private static final String FORUM_MESSAGE_PATH_DELETION = DELETE_FROM + PATH_TABLE +
+      " where " + PATH_COLUMN_MESSAGE_ID + " in (select messageId from " + MESSAGE_TABLE +
+      " as m JOIN sc_forums_forum as f on m." + FORUM_COLUMN_FORUM_ID + " = f." +
+      FORUM_COLUMN_FORUM_ID + " and " + FORUM_COLUMN_INSTANCE_ID + "= ?)";
   private static final String FORUM_MESSAGES_DELETION = DELETE_FROM + MESSAGE_TABLE + " where " +
       FORUM_COLUMN_FORUM_ID + " in (select " + FORUM_COLUMN_FORUM_ID +
       " from sc_forums_forum where " + FORUM_COLUMN_INSTANCE_ID + "= ?)";
@@ -619,6 +642,10 @@ public class ForumsDAO {
       statement.setString(1, instanceId);
       statement.execute();
     }
+    try(PreparedStatement statement = con.prepareStatement(FORUM_MESSAGE_PATH_DELETION)) {
+      statement.setString(1, instanceId);
+      statement.execute();
+    }
     try(PreparedStatement statement = con.prepareStatement(FORUM_MESSAGES_DELETION)) {
       statement.setString(1, instanceId);
       statement.execute();
@@ -766,11 +793,23 @@ public class ForumsDAO {
   }
 
   private static final String QUERY_GET_NB_RESPONSES =
-      SELECT + MESSAGE_COLUMN_MESSAGE_ID + FROM + MESSAGE_TABLE + WHERE + MESSAGE_COLUMN_FORUM_ID +
-          " = ?" + AND + MESSAGE_COLUMN_MESSAGE_PARENT_ID +
-          " = ? AND " + MESSAGE_COLUMN_STATUS + " = ?";
+      SELECT_COUNT + "p." + PATH_COLUMN_MESSAGE_ID + ")" + FROM + PATH_TABLE + " p JOIN " +
+          MESSAGE_TABLE + " m ON m." + MESSAGE_COLUMN_MESSAGE_ID + " = p." +
+          PATH_COLUMN_MESSAGE_ID + WHERE + "p." + PATH_COLUMN_ANCESTOR_ID + " = ?" + AND + "p." +
+          PATH_COLUMN_DEPTH + " > 0" + AND + "m." + MESSAGE_COLUMN_FORUM_ID + " = ?" + AND + "m." +
+          MESSAGE_COLUMN_STATUS + " = ?" + AND + "NOT EXISTS (" + SELECT + "a." +
+          PATH_COLUMN_ANCESTOR_ID + FROM + PATH_TABLE + " a JOIN " + MESSAGE_TABLE + " am ON am." +
+          MESSAGE_COLUMN_MESSAGE_ID + " = a." + PATH_COLUMN_ANCESTOR_ID + WHERE + "a." +
+          PATH_COLUMN_MESSAGE_ID + " = p." + PATH_COLUMN_MESSAGE_ID + AND + "a." +
+          PATH_COLUMN_DEPTH + " > 0" + AND + "a." + PATH_COLUMN_DEPTH + " < p." +
+          PATH_COLUMN_DEPTH + AND + "(am." + MESSAGE_COLUMN_FORUM_ID + " <> ? OR am." +
+          MESSAGE_COLUMN_STATUS + " IS NULL OR am." + MESSAGE_COLUMN_STATUS + " <> ?))";
 
   /**
+   * Counts the responses to a message, whatever their depth in the discussion. Only the responses
+   * in the given forum and with the given status are counted, and a response is taken into
+   * account only if all the messages between it and the message are also in the forum and with
+   * the status. The count is done with a single query on the message path table.
    * @param con The connection to the database.
    * @param forumId The id of the forum.
    * @param messageId The id of the message.
@@ -778,27 +817,21 @@ public class ForumsDAO {
    * id.
    */
   public static int getNbResponses(Connection con, int forumId, int messageId, String status) {
-    ArrayList<Integer> nextMessageIds = new ArrayList<>();
     try (PreparedStatement prepStmt = con.prepareStatement(QUERY_GET_NB_RESPONSES)) {
-      prepStmt.setInt(1, forumId);
-      prepStmt.setInt(2, messageId);
+      prepStmt.setInt(1, messageId);
+      prepStmt.setInt(2, forumId);
       prepStmt.setString(3, status);
+      prepStmt.setInt(4, forumId);
+      prepStmt.setString(5, status);
       try (ResultSet rs = prepStmt.executeQuery()) {
-        while (rs.next()) {
-          nextMessageIds.add(rs.getInt(MESSAGE_COLUMN_MESSAGE_ID));
+        if (rs.next()) {
+          return rs.getInt(1);
         }
       }
     } catch (SQLException sqle) {
       SilverLogger.getLogger(ForumsDAO.class).error(sqle.getMessage(), sqle);
-      return 0;
-    }
-    int nb = nextMessageIds.size();
-    int nextMessageId;
-    for (int i = 0, n = nextMessageIds.size(); i < n; i++) {
-      nextMessageId = (Integer) nextMessageIds.get(i);
-      nb += getNbResponses(con, forumId, nextMessageId, status);
     }
-    return nb;
+    return 0;
   }
 
   private static final String QUERY_GET_LAST_MESSAGE =
@@ -1074,6 +1107,40 @@ public class ForumsDAO {
     return message;
   }
 
+  private static final String QUERY_GET_LAST_MESSAGE_OF_SUBTREE =
+      SELECT + "m." + MESSAGE_COLUMN_MESSAGE_ID + FROM + PATH_TABLE + " p JOIN " + MESSAGE_TABLE +
+          " m ON m." + MESSAGE_COLUMN_MESSAGE_ID + " = p." + PATH_COLUMN_MESSAGE_ID + WHERE +
+          "p." + PATH_COLUMN_ANCESTOR_ID + " = ?" + AND + "m." + MESSAGE_COLUMN_STATUS +
+          EQUAL_TO_PARAM + ORDER_BY + "m." + MESSAGE_COLUMN_MESSAGE_DATE + DESC + ", m." +
+          MESSAGE_COLUMN_MESSAGE_ID + DESC;
+
+  /**
+   * @param con The connection to the database.
+   * @param messagePK The primary key of the message at the root of the subtree.
+   * @param status The status of the messages to take into account.
+   * @return The last message with the given status among the message and all of its responses,
+   * whatever their depth, or null if there is no such message.
+   * @throws SQLException An SQL exception.
+   */
+  public static Message getLastMessageOfSubtree(Connection con, MessagePK messagePK,
+      String status) throws SQLException {
+    int messageId = -1;
+    try (PreparedStatement selectStmt = con.prepareStatement(QUERY_GET_LAST_MESSAGE_OF_SUBTREE)) {
+      selectStmt.setMaxRows(1);
+      selectStmt.setInt(1, Integer.parseInt(messagePK.getId()));
+      selectStmt.setString(2, status);
+      try (ResultSet rs = selectStmt.executeQuery()) {
+        if (rs.next()) {
+          messageId = rs.getInt(1);
+        }
+      }
+    }
+    if (messageId != -1) {
+      return getMessage(con, new MessagePK(messagePK.getInstanceId(), String.valueOf(messageId)));
+    }
+    return null;
+  }
+
   private static final String QUERY_GET_MESSAGE_INFOS =
       SELECT + MESSAGE_COLUMNS + FROM + MESSAGE_TABLE + WHERE +
           MESSAGE_COLUMN_MESSAGE_ID + " = ?";
@@ -1223,6 +1290,7 @@ public class ForumsDAO {
       insertStmt.setTimestamp(6, new Timestamp(finalMessageDate.getTime()));
       insertStmt.setString(7, status);
       insertStmt.executeUpdate();
+      addMessagePath(con, messageId, messageParent);
 
       // ajout pour ce message d'une date de visite
       addLastVisit(con, messageAuthor, messageId);
@@ -1230,6 +1298,38 @@ public class ForumsDAO {
     }
   }
 
+  private static final String QUERY_ADD_MESSAGE_PATH_TO_SELF =
+      INSERT_INTO + PATH_TABLE + " (" + PATH_COLUMNS + ") VALUES (?, ?, 0)";
+
+  private static final String QUERY_ADD_MESSAGE_PATH_TO_ANCESTORS =
+      INSERT_INTO + PATH_TABLE + " (" + PATH_COLUMNS + ") " + SELECT + PATH_COLUMN_ANCESTOR_ID +
+          ", ?, " + PATH_COLUMN_DEPTH + " + 1" + FROM + PATH_TABLE + WHERE +
+          PATH_COLUMN_MESSAGE_ID + " = ?";
+
+  /**
+   * Links the specified message to itself and to all the ancestors of its parent message.
+   * @param con The connection to the database.
+   * @param messageId The id of the message.
+   * @param messageParent The id of the parent message, 0 for a thread.
+   * @throws SQLException An SQL exception.
+   */
+  private static void addMessagePath(Connection con, int messageId, int messageParent)
+      throws SQLException {
+    try (PreparedStatement insertStmt = con.prepareStatement(QUERY_ADD_MESSAGE_PATH_TO_SELF)) {
+      insertStmt.setInt(1, messageId);
+      insertStmt.setInt(2, messageId);
+      insertStmt.executeUpdate();
+    }
+    if (messageParent > 0) {
+      try (PreparedStatement insertStmt = con.prepareStatement(
+          QUERY_ADD_MESSAGE_PATH_TO_ANCESTORS)) {
+        insertStmt.setInt(1, messageId);
+        insertStmt.setInt(2, messageParent);
+        insertStmt.executeUpdate();
+      }
+    }
+  }
+
   private static final String QUERY_UPDATE_MESSAGE =
       "UPDATE " + MESSAGE_TABLE + " SET " + MESSAGE_COLUMN_MESSAGE_TITLE + " = ? , " +
           MESSAGE_COLUMN_STATUS + EQUAL_TO_PARAM + WHERE + MESSAGE_COLUMN_MESSAGE_ID + " = ?";
@@ -1251,18 +1351,31 @@ public class ForumsDAO {
     }
   }
 
+  private static final String SUBTREE_MESSAGE_IDS =
+      " IN (" + SELECT + PATH_COLUMN_MESSAGE_ID + FROM + PATH_TABLE + WHERE +
+          PATH_COLUMN_ANCESTOR_ID + " = ?)";
+
   private static final String QUERY_DELETE_MESSAGE_MESSAGE =
-      DELETE_FROM + MESSAGE_TABLE + WHERE + MESSAGE_COLUMN_MESSAGE_ID + " = ?";
+      DELETE_FROM + MESSAGE_TABLE + WHERE + MESSAGE_COLUMN_MESSAGE_ID + SUBTREE_MESSAGE_IDS;
+
+  private static final String QUERY_DELETE_MESSAGE_PATH =
+      DELETE_FROM + PATH_TABLE + WHERE + PATH_COLUMN_MESSAGE_ID + SUBTREE_MESSAGE_IDS;
 
   /**
-   * Deletes the message corresponding to the primary key.
+   * Deletes the message corresponding to the primary key with all of its responses, whatever
+   * their depth.
    * @param con The connection to the database.
    * @param messagePK The primary key of the message.
    * @throws SQLException An SQL exception.
    */
   public static void deleteMessage(Connection con, MessagePK messagePK) throws SQLException {
+    int messageId = Integer.parseInt(messagePK.getId());
     try (PreparedStatement deleteStmt = con.prepareStatement(QUERY_DELETE_MESSAGE_MESSAGE)) {
-      deleteStmt.setInt(1, Integer.parseInt(messagePK.getId()));
+      deleteStmt.setInt(1, messageId);
+      deleteStmt.executeUpdate();
+    }
+    try (PreparedStatement deleteStmt = con.prepareStatement(QUERY_DELETE_MESSAGE_PATH)) {
+      deleteStmt.setInt(1, messageId);
       deleteStmt.executeUpdate();
     }
   }
@@ -1395,11 +1508,11 @@ public class ForumsDAO {
 
   private static final String QUERY_MOVE_MESSAGE =
       "UPDATE " + MESSAGE_TABLE + " SET " + MESSAGE_COLUMN_FORUM_ID + " = ?" + WHERE +
-          MESSAGE_COLUMN_MESSAGE_ID + " = ?";
+          MESSAGE_COLUMN_MESSAGE_ID + SUBTREE_MESSAGE_IDS;
 
   /**
-   * Moves the message corresponding to the message primary key from a previous forum to the one
-   * corresponding to the forum primary key.
+   * Moves the message corresponding to the message primary key, with all of its responses, from
+   * a previous forum to the one corresponding to the forum primary key.
    * @param con The connection to the database.
    * @param messagePK The primary key of the message.
    * @param forumPK The primary key of the forum.
@@ -1414,21 +1527,28 @@ public class ForumsDAO {
     }
   }
 
+  private static final String QUERY_GET_ALL_MESSAGE_SONS =
+      SELECT + PATH_COLUMN_MESSAGE_ID + FROM + PATH_TABLE + WHERE + PATH_COLUMN_ANCESTOR_ID +
+          " = ?" + AND + PATH_COLUMN_DEPTH + " > 0" + ORDER_BY + PATH_COLUMN_DEPTH + ", " +
+          PATH_COLUMN_MESSAGE_ID;
+
   /**
    * @param con The connection to the database.
    * @param messagePK The primary key of the message.
-   * @return The list of ids of messages which parent is the message corresponding to the primary
-   * key.
+   * @return The list of ids of all the messages descending from the message corresponding to the
+   * primary key, ordered by their depth in the discussion.
    * @throws SQLException An SQL exception.
    */
   public static Collection<String> getAllMessageSons(Connection con, MessagePK messagePK)
       throws SQLException {
     Collection<String> messagesIds = new ArrayList<>();
-    Collection<String> currentMessagesIds = getMessageSons(con, messagePK);
-    for (String messageId : currentMessagesIds) {
-      messagesIds.add(messageId);
-      messagesIds
-          .addAll(getAllMessageSons(con, new MessagePK(messagePK.getInstanceId(), messageId)));
+    try (PreparedStatement selectStmt = con.prepareStatement(QUERY_GET_ALL_MESSAGE_SONS)) {
+      selectStmt.setInt(1, Integer.parseInt(messagePK.getId()));
+      try (ResultSet rs = selectStmt.executeQuery()) {
+        while (rs.next()) {
+          messagesIds.add(String.valueOf(rs.getInt(1)));
+        }
+      }
     }
     return messagesIds;
   }
@@ -1525,6 +1645,113 @@ public class ForumsDAO {
     return lastVisit;
   }
 
+  private static final String QUERY_GET_LAST_MESSAGE_DATE_BY_THREAD =
+      "SELECT t." + MESSAGE_COLUMN_FORUM_ID + ", t." + MESSAGE_COLUMN_MESSAGE_ID + ", MAX(m." +
+          MESSAGE_COLUMN_MESSAGE_DATE + ")" + FROM + MESSAGE_TABLE + " t JOIN " + PATH_TABLE +
+          " p ON p." + PATH_COLUMN_ANCESTOR_ID + " = t." + MESSAGE_COLUMN_MESSAGE_ID +
+          " LEFT JOIN " + MESSAGE_TABLE + " m ON m." + MESSAGE_COLUMN_MESSAGE_ID + " = p." +
+          PATH_COLUMN_MESSAGE_ID + AND + "m." + MESSAGE_COLUMN_STATUS + " = ?" + WHERE + "t." +
+          MESSAGE_COLUMN_MESSAGE_PARENT_ID + " = 0" + AND + "t." + MESSAGE_COLUMN_FORUM_ID +
+          " IN (%s) GROUP BY t." + MESSAGE_COLUMN_FORUM_ID + ", t." + MESSAGE_COLUMN_MESSAGE_ID;
+
+  private static final String QUERY_GET_LAST_VISIT_BY_THREAD =
+      "SELECT t." + MESSAGE_COLUMN_MESSAGE_ID + ", MAX(h." + HISTORY_COLUMN_LAST_ACCESS + ")" +
+          FROM + MESSAGE_TABLE + " t JOIN " + PATH_TABLE + " p ON p." + PATH_COLUMN_ANCESTOR_ID +
+          " = t." + MESSAGE_COLUMN_MESSAGE_ID + " JOIN " + HISTORY_TABLE + " h ON h." +
+          HISTORY_COLUMN_MESSAGE_ID + " = p." + PATH_COLUMN_MESSAGE_ID + AND + "h." +
+          HISTORY_COLUMN_USER_ID + " = ?" + WHERE + "t." + MESSAGE_COLUMN_MESSAGE_PARENT_ID +
+          " = 0" + AND + "t." + MESSAGE_COLUMN_FORUM_ID + " IN (%s) GROUP BY t." +
+          MESSAGE_COLUMN_MESSAGE_ID;
+
+  private static final String QUERY_GET_LAST_VISIT_OF_SUBTREE =
+      "SELECT MAX(h." + HISTORY_COLUMN_LAST_ACCESS + ")" + FROM + PATH_TABLE + " p JOIN " +
+          HISTORY_TABLE + " h ON h." + HISTORY_COLUMN_MESSAGE_ID + " = p." +
+          PATH_COLUMN_MESSAGE_ID + WHERE + "p." + PATH_COLUMN_ANCESTOR_ID + " = ?" + AND + "h." +
+          HISTORY_COLUMN_USER_ID + " = ?";
+
+  /**
+   * @param con The connection to the database.
+   * @param userId The user's id.
+   * @param messageId The id of the message at the root of the subtree.
+   * @return The last access date of the user to the message or to any of its responses, whatever
+   * their depth, or null if the user never accessed them.
+   * @throws SQLException An SQL exception.
+   */
+  public static Date getLastVisitOfSubtree(Connection con, String userId, int messageId)
+      throws SQLException {
+    try (PreparedStatement selectStmt = con.prepareStatement(QUERY_GET_LAST_VISIT_OF_SUBTREE)) {
+      selectStmt.setInt(1, messageId);
+      selectStmt.setString(2, userId);
+      try (ResultSet rs = selectStmt.executeQuery()) {
+        if (rs.next() && StringUtil.isDefined(rs.getString(1))) {
+          return new Date(Long.parseLong(rs.getString(1)));
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Gets among the specified forums those having at least one thread with messages not read by
+   * the user since the last visit. A thread has unread messages if it has no message with the
+   * given status, if the user never visited it or if its last message is more recent than the last
+   * visit of the user on it. The computation is done with two aggregate queries on the message
+   * path table whatever the number of forums and of threads.
+   * @param con The connection to the database.
+   * @param userId The user's id.
+   * @param forumIds The ids of the forums.
+   * @param status The status of the messages to take into account.
+   * @return The ids of the forums with unread messages.
+   * @throws SQLException An SQL exception.
+   */
+  public static Set<Integer> getForumIdsWithNewMessages(Connection con, String userId,
+      Collection<Integer> forumIds, String status) throws SQLException {
+    Set<Integer> forumIdsWithNewMessages = new HashSet<>();
+    if (forumIds.isEmpty()) {
+      return forumIdsWithNewMessages;
+    }
+    String params = forumIds.stream().map(i -> "?").collect(Collectors.joining(", "));
+
+    Map<Integer, Long> lastVisitByThread = new HashMap<>();
+    try (PreparedStatement selectStmt = con.prepareStatement(
+        String.format(QUERY_GET_LAST_VISIT_BY_THREAD, params))) {
+      int index = 1;
+      selectStmt.setString(index++, userId);
+      for (Integer forumId : forumIds) {
+        selectStmt.setInt(index++, forumId);
+      }
+      try (ResultSet rs = selectStmt.executeQuery()) {
+        while (rs.next()) {
+          String lastAccess = rs.getString(2);
+          if (StringUtil.isDefined(lastAccess)) {
+            lastVisitByThread.put(rs.getInt(1), Long.parseLong(lastAccess));
+          }
+        }
+      }
+    }
+
+    try (PreparedStatement selectStmt = con.prepareStatement(
+        String.format(QUERY_GET_LAST_MESSAGE_DATE_BY_THREAD, params))) {
+      int index = 1;
+      selectStmt.setString(index++, status);
+      for (Integer forumId : forumIds) {
+        selectStmt.setInt(index++, forumId);
+      }
+      try (ResultSet rs = selectStmt.executeQuery()) {
+        while (rs.next()) {
+          int forumId = rs.getInt(1);
+          Long lastVisit = lastVisitByThread.get(rs.getInt(2));
+          Timestamp lastMessageDate = rs.getTimestamp(3);
+          if (lastMessageDate == null || lastVisit == null ||
+              lastVisit < lastMessageDate.getTime()) {
+            forumIdsWithNewMessages.add(forumId);
+          }
+        }
+      }
+    }
+    return forumIdsWithNewMessages;
+  }
+
   private static final String QUERY_ADD_LAST_VISIT =
       INSERT_INTO + HISTORY_TABLE + " (" + HISTORY_COLUMNS + ")" + " VALUES (?, ?, ?)";
 
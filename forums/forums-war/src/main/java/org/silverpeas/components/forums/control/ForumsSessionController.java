@@ -68,11 +68,14 @@ import org.silverpeas.core.webapi.pdc.PdcClassificationEntity;
 
 import javax.ejb.EJBException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -657,6 +660,23 @@ public class ForumsSessionController extends AbstractComponentSessionController
         getForumsService().isNewMessageByForum(userId, getForumPK(forumId), Message.STATUS_VALIDATE);
   }
 
+  /**
+   * Gets the forums, among the given ones, in which there are messages not yet read by the user.
+   * @param userId the unique identifier of the user.
+   * @param forumIds the identifiers of the forums.
+   * @return the identifiers of the forums with new messages for the user.
+   */
+  public Set<Integer> getForumIdsWithNewMessages(String userId, int... forumIds) {
+    List<ForumPK> forumPKs =
+        Arrays.stream(forumIds).mapToObj(this::getForumPK).collect(Collectors.toList());
+    return getForumsService().isNewMessageByForums(userId, forumPKs, Message.STATUS_VALIDATE)
+        .entrySet()
+        .stream()
+        .filter(Map.Entry::getValue)
+        .map(e -> Integer.parseInt(e.getKey().getId()))
+        .collect(Collectors.toSet());
+  }
+
   public boolean isNewMessage(String userId, int forumId, int messageId) {
     return
         getForumsService().isNewMessage(userId, getForumPK(forumId), messageId, Message.STATUS_VALIDATE);
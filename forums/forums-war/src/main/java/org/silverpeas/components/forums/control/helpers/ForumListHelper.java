@@ -35,7 +35,10 @@ import org.silverpeas.core.webapi.rating.RaterRatingEntity;
 
 import javax.servlet.jsp.JspWriter;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Set;
 
 /**
  * @author ehugonnet
@@ -72,7 +75,8 @@ public class ForumListHelper {
 
   private static void displayForumLine(Forum forum, MultiSilverpeasBundle resources, JspWriter out,
       int currentPage, String call, boolean admin, boolean moderator, boolean reader, int depth,
-      ForumsSessionController fsc, boolean isSubscriberByInheritance) {
+      ForumsSessionController fsc, boolean isSubscriberByInheritance,
+      Set<Integer> forumIdsWithNewMessages) {
     try {
       int forumId = forum.getId();
       String forumName = forum.getName();
@@ -99,7 +103,7 @@ public class ForumListHelper {
 
       if (!fsc.isExternal() || !reader) {
         // rechercher si l'utilisateur a des messages non lus sur ce forum
-        boolean isNewMessage = fsc.isNewMessageByForum(fsc.getUserId(), forumId);
+        boolean isNewMessage = forumIdsWithNewMessages.contains(forumId);
         out.print(
             "<img src=\"icons/" + (isNewMessage ? "newMessage" : "noNewMessage") + ".gif\"/>");
       }
@@ -261,8 +265,10 @@ public class ForumListHelper {
         }
         out.println("</tr>");
 
+        Set<Integer> forumIdsWithNewMessages = getForumIdsWithNewMessages(fsc, reader,
+            Arrays.stream(forums).mapToInt(Forum::getId).toArray());
         scanForum(forums, resources, out, currentForumId, call, admin, moderator, reader,
-            currentForumId, 0, fsc, isSubscriberByInheritance);
+            currentForumId, 0, fsc, isSubscriberByInheritance, forumIdsWithNewMessages);
       }
     } catch (IOException ioe) {
       SilverLogger.getLogger(ForumListHelper.class).error(ioe);
@@ -273,6 +279,7 @@ public class ForumListHelper {
       boolean moderator, boolean reader, int currentForumId, String call,
       ForumsSessionController fsc, boolean isSubscriberByInheritance) {
     int[] forumIds = fsc.getForumSonsIds(currentForumId);
+    Set<Integer> forumIdsWithNewMessages = getForumIdsWithNewMessages(fsc, reader, forumIds);
     for (int forumId : forumIds) {
 
       // Verifying subscription by inheritance
@@ -283,14 +290,26 @@ public class ForumListHelper {
 
       Forum forum = fsc.getForum(forumId);
       displayForumLine(forum, resources, out, forum.getParentId(), call, admin, moderator, reader,
-          0, fsc, isForumSubscriberByInheritance);
+          0, fsc, isForumSubscriberByInheritance, forumIdsWithNewMessages);
     }
   }
 
+  /**
+   * Computes in one pass the forums with messages not read by the current user. Nothing is
+   * computed for the external readers as the unread state isn't displayed to them.
+   */
+  private static Set<Integer> getForumIdsWithNewMessages(ForumsSessionController fsc,
+      boolean reader, int[] forumIds) {
+    if (fsc.isExternal() && reader) {
+      return Collections.emptySet();
+    }
+    return fsc.getForumIdsWithNewMessages(fsc.getUserId(), forumIds);
+  }
+
   private static void scanForum(Forum[] forums, MultiSilverpeasBundle resources, JspWriter out,
       int currentPage, String call, boolean admin, boolean moderator, boolean reader,
       int currentForumId, int depth, ForumsSessionController fsc,
-      boolean isSubscriberByInheritance) {
+      boolean isSubscriberByInheritance, Set<Integer> forumIdsWithNewMessages) {
     for (final Forum forum : forums) {
       int forumParent = forum.getParentId();
       if (forumParent == currentForumId) {
@@ -305,10 +324,10 @@ public class ForumListHelper {
         boolean hasChildren = hasChildren(forums, forumId);
         boolean isDeployed = fsc.forumIsDeployed(forumId);
         displayForumLine(forum, resources, out, currentPage, call, admin, moderator, reader, depth,
-            fsc, isForumSubscriberByInheritance);
+            fsc, isForumSubscriberByInheritance, forumIdsWithNewMessages);
         if (hasChildren && isDeployed) {
           scanForum(forums, resources, out, currentPage, call, admin, moderator, reader, forumId,
-              depth + 1, fsc, isForumSubscriberByInheritance);
+              depth + 1, fsc, isForumSubscriberByInheritance, forumIdsWithNewMessages);
         }
       }
     }
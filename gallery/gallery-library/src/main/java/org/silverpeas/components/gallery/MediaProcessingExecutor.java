@@ -0,0 +1,304 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have recieved a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.gallery;
+
+import org.silverpeas.components.gallery.model.GalleryRuntimeException;
+import org.silverpeas.components.gallery.model.Media;
+import org.silverpeas.core.util.SettingBundle;
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Executes the processing of the media files (copy of the uploaded file, metadata extraction,
+ * generation of the thumbnails and of the watermarks, ...).
+ * <p>
+ * The processing of a media is executed by the calling thread (so within its transaction and
+ * with its requester) but it is bounded: no more than the configured number of media are
+ * processed at the same time on the node, the other callers waiting for their turn in the order
+ * of their arrival. Two processing on the same media files are never executed concurrently
+ * whereas the processing of independent media are.
+ * </p>
+ * <p>
+ * The media imported in bulk can be followed by a {@link Job} giving the progress of the import.
+ * </p>
+ */
+public class MediaProcessingExecutor {
+
+  private static final int DEFAULT_TIMEOUT = 600;
+  private static final long PROGRESS_LOG_PERIOD = 30000L;
+
+  private final Semaphore permits;
+  private final int parallelism;
+  private final long timeout;
+  private final Map<String, MediaLock> locks = new ConcurrentHashMap<>();
+  private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+  /**
+   * Gets the executor of the media processing of the node.
+   * @return a {@link MediaProcessingExecutor} instance.
+   */
+  public static MediaProcessingExecutor get() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * @param parallelism the maximum number of media processed at the same time.
+   * @param timeout the maximum time in seconds to wait for a processing slot.
+   */
+  MediaProcessingExecutor(final int parallelism, final int timeout) {
+    this.parallelism = Math.max(1, parallelism);
+    this.permits = new Semaphore(this.parallelism, true);
+    this.timeout = Math.max(1, timeout);
+  }
+
+  /**
+   * Gets the maximum number of media processed at the same time.
+   * @return the parallelism of the executor.
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Gets the number of media being currently processed.
+   * @return the number of processing in progress.
+   */
+  public int getActiveCount() {
+    return parallelism - permits.availablePermits();
+  }
+
+  /**
+   * Gets the number of callers waiting for a processing slot.
+   * @return the number of waiting processing.
+   */
+  public int getWaitingCount() {
+    return permits.getQueueLength();
+  }
+
+  /**
+   * Gets the bulk jobs in progress.
+   * @return an unmodifiable collection of the running jobs.
+   */
+  public Collection<Job> getRunningJobs() {
+    return Collections.unmodifiableCollection(jobs.values());
+  }
+
+  /**
+   * Processes the files of the given media. The caller waits for a free processing slot and
+   * then for the release of the files of the media by any other processing.
+   * @param media the media whose the files are processed.
+   * @param processing the processing to execute.
+   * @param <T> the type of the result of the processing.
+   * @return the result of the processing.
+   * @throws Exception if the processing fails.
+   */
+  public <T> T execute(final Media media, final Callable<T> processing) throws Exception {
+    return execute(Collections.singletonList(media), processing);
+  }
+
+  /**
+   * Processes the files of several media at once, like the paste of a media from a location to
+   * another one.
+   * @param media the media whose the files are processed.
+   * @param processing the processing to execute.
+   * @param <T> the type of the result of the processing.
+   * @return the result of the processing.
+   * @throws Exception if the processing fails.
+   */
+  public <T> T execute(final Collection<? extends Media> media, final Callable<T> processing)
+      throws Exception {
+    // the keys are sorted so that the locks are always taken in the same order
+    final Collection<String> keys = new TreeSet<>();
+    media.forEach(m -> keys.add(keyOf(m)));
+    acquireSlot();
+    final List<MediaLock> acquiredLocks = new ArrayList<>(keys.size());
+    try {
+      for (String key : keys) {
+        acquiredLocks.add(lock(key));
+      }
+      return processing.call();
+    } finally {
+      for (int i = acquiredLocks.size() - 1; i >= 0; i--) {
+        unlock(acquiredLocks.get(i));
+      }
+      permits.release();
+    }
+  }
+
+  /**
+   * Starts a bulk job of media processing whose the progress is reported into the logs. The job
+   * has to be closed once all its media processed.
+   * @param description a short description of the job.
+   * @param total the number of media to process.
+   * @return the started job.
+   */
+  public Job startJob(final String description, final int total) {
+    final Job job = new Job(description, total);
+    jobs.put(job.getId(), job);
+    return job;
+  }
+
+  private void acquireSlot() {
+    try {
+      if (!permits.tryAcquire(timeout, TimeUnit.SECONDS)) {
+        throw new GalleryRuntimeException(
+            "No media processing slot released after " + timeout + "s (" + getActiveCount() +
+                " processing in progress, " + getWaitingCount() + " waiting)");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new GalleryRuntimeException(e);
+    }
+  }
+
+  private MediaLock lock(final String key) {
+    final MediaLock mediaLock = locks.compute(key, (k, l) -> {
+      final MediaLock current = l == null ? new MediaLock(k) : l;
+      current.users++;
+      return current;
+    });
+    mediaLock.lock.lock();
+    return mediaLock;
+  }
+
+  private void unlock(final MediaLock mediaLock) {
+    mediaLock.lock.unlock();
+    locks.computeIfPresent(mediaLock.key, (k, l) -> --l.users == 0 ? null : l);
+  }
+
+  private static String keyOf(final Media media) {
+    return media.getInstanceId() + "/" + media.getWorkspaceSubFolderName();
+  }
+
+  private static class MediaLock {
+    private final String key;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int users = 0;
+
+    private MediaLock(final String key) {
+      this.key = key;
+    }
+  }
+
+  /**
+   * A bulk processing of media, like the import of an archive, whose the progress is followed.
+   */
+  public class Job implements AutoCloseable {
+
+    private final String id = UUID.randomUUID().toString();
+    private final String description;
+    private final int total;
+    private final long startTime = System.currentTimeMillis();
+    private final AtomicInteger processed = new AtomicInteger(0);
+    private final AtomicInteger failed = new AtomicInteger(0);
+    private volatile long lastLog = startTime;
+
+    private Job(final String description, final int total) {
+      this.description = description;
+      this.total = total;
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public String getDescription() {
+      return description;
+    }
+
+    public int getTotal() {
+      return total;
+    }
+
+    public int getProcessed() {
+      return processed.get();
+    }
+
+    public int getFailed() {
+      return failed.get();
+    }
+
+    /**
+     * Gets the progress of the job.
+     * @return the percentage of the media already processed.
+     */
+    public int getProgress() {
+      return total <= 0 ? 100 : Math.min(100, processed.get() * 100 / total);
+    }
+
+    /**
+     * Indicates that a media of the job has been processed.
+     * @param success true if the media has been successfully processed, false otherwise.
+     */
+    public void mediaProcessed(final boolean success) {
+      processed.incrementAndGet();
+      if (!success) {
+        failed.incrementAndGet();
+      }
+      final long now = System.currentTimeMillis();
+      if (now - lastLog >= PROGRESS_LOG_PERIOD) {
+        lastLog = now;
+        SilverLogger.getLogger(MediaProcessingExecutor.class)
+            .info("{0}: {1}/{2} media processed ({3} failures)", description, processed.get(),
+                total, failed.get());
+      }
+    }
+
+    @Override
+    public void close() {
+      jobs.remove(id);
+      SilverLogger.getLogger(MediaProcessingExecutor.class)
+          .info("{0}: {1} media processed in {2}ms ({3} failures)", description, processed.get(),
+              System.currentTimeMillis() - startTime, failed.get());
+    }
+  }
+
+  private static class InstanceHolder {
+    private static final MediaProcessingExecutor INSTANCE;
+
+    static {
+      final SettingBundle settings = GalleryComponentSettings.getSettings();
+      INSTANCE = new MediaProcessingExecutor(
+          settings.getInteger("media.processing.parallelism",
+              Runtime.getRuntime().availableProcessors()),
+          settings.getInteger("media.processing.timeout", DEFAULT_TIMEOUT));
+    }
+
+    private InstanceHolder() {
+    }
+  }
+}
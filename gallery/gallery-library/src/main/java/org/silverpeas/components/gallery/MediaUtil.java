@@ -59,6 +59,7 @@ import org.silverpeas.core.util.logging.SilverLogger;
 import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -143,7 +144,7 @@ public class MediaUtil {
    * @param fileItem the current uploaded sound
    * @throws Exception
    */
-  public static synchronized void processSound(final FileHandler fileHandler, Sound sound,
+  public static void processSound(final FileHandler fileHandler, Sound sound,
       final FileItem fileItem) throws Exception {
     if (fileItem != null) {
       String name = fileItem.getName();
@@ -151,8 +152,10 @@ public class MediaUtil {
         try {
           sound.setFileName(StringUtil.normalize(FileUtil.getFilename(name)));
           final HandledFile handledSoundFile = getHandledFile(fileHandler, sound);
-          handledSoundFile.copyInputStreamToFile(fileItem.getInputStream());
-          new SoundProcess(handledSoundFile, sound).process();
+          process(sound, () -> {
+            handledSoundFile.copyInputStreamToFile(fileItem.getInputStream());
+            new SoundProcess(handledSoundFile, sound).process();
+          });
         } finally {
           fileItem.delete();
         }
@@ -167,14 +170,16 @@ public class MediaUtil {
    * @param uploadedFile the current uploaded sound
    * @throws Exception
    */
-  public static synchronized void processSound(final FileHandler fileHandler, Sound sound,
+  public static void processSound(final FileHandler fileHandler, Sound sound,
       final File uploadedFile) throws Exception {
     if (uploadedFile != null) {
       try {
         sound.setFileName(StringUtil.normalize(uploadedFile.getName()));
         final HandledFile handledSoundFile = getHandledFile(fileHandler, sound);
-        fileHandler.copyFile(uploadedFile, handledSoundFile);
-        new SoundProcess(handledSoundFile, sound).process();
+        process(sound, () -> {
+          fileHandler.copyFile(uploadedFile, handledSoundFile);
+          new SoundProcess(handledSoundFile, sound).process();
+        });
       } finally {
         FileUtils.deleteQuietly(uploadedFile);
       }
@@ -188,7 +193,7 @@ public class MediaUtil {
    * @param fileItem the current uploaded video
    * @throws Exception
    */
-  public static synchronized void processVideo(final FileHandler fileHandler, Video video,
+  public static void processVideo(final FileHandler fileHandler, Video video,
       final FileItem fileItem) throws Exception {
     if (fileItem != null) {
       String name = fileItem.getName();
@@ -196,8 +201,10 @@ public class MediaUtil {
         try {
           video.setFileName(StringUtil.normalize(FileUtil.getFilename(name)));
           final HandledFile handledVideoFile = getHandledFile(fileHandler, video);
-          handledVideoFile.copyInputStreamToFile(fileItem.getInputStream());
-          new VideoProcess(handledVideoFile, video).process();
+          process(video, () -> {
+            handledVideoFile.copyInputStreamToFile(fileItem.getInputStream());
+            new VideoProcess(handledVideoFile, video).process();
+          });
         } finally {
           fileItem.delete();
         }
@@ -212,14 +219,16 @@ public class MediaUtil {
    * @param uploadedFile the current uploaded video
    * @throws Exception
    */
-  public static synchronized void processVideo(final FileHandler fileHandler, Video video,
+  public static void processVideo(final FileHandler fileHandler, Video video,
       final File uploadedFile) throws Exception {
     if (uploadedFile != null) {
       try {
         video.setFileName(StringUtil.normalize(uploadedFile.getName()));
         final HandledFile handledVideoFile = getHandledFile(fileHandler, video);
-        fileHandler.copyFile(uploadedFile, handledVideoFile);
-        new VideoProcess(handledVideoFile, video).process();
+        process(video, () -> {
+          fileHandler.copyFile(uploadedFile, handledVideoFile);
+          new VideoProcess(handledVideoFile, video).process();
+        });
       } finally {
         FileUtils.deleteQuietly(uploadedFile);
       }
@@ -235,7 +244,7 @@ public class MediaUtil {
    * {@link Watermark} instance.
    * @throws Exception on technical error.
    */
-  public static synchronized void processPhoto(final FileHandler fileHandler, final Photo photo,
+  public static void processPhoto(final FileHandler fileHandler, final Photo photo,
       final FileItem image, final Watermark watermark) throws Exception {
     if (image != null) {
       String name = image.getName();
@@ -243,8 +252,10 @@ public class MediaUtil {
         try {
           photo.setFileName(StringUtil.normalize(image.getName()));
           final HandledFile handledImageFile = getHandledFile(fileHandler, photo);
-          handledImageFile.copyInputStreamToFile(image.getInputStream());
-          new PhotoProcess(handledImageFile, photo, watermark).process();
+          process(photo, () -> {
+            handledImageFile.copyInputStreamToFile(image.getInputStream());
+            new PhotoProcess(handledImageFile, photo, watermark).process();
+          });
         } finally {
           image.delete();
         }
@@ -263,14 +274,16 @@ public class MediaUtil {
    * {@link Watermark} instance.
    * @throws Exception on technical error.
    */
-  public static synchronized void processPhoto(final FileHandler fileHandler, final Photo photo,
+  public static void processPhoto(final FileHandler fileHandler, final Photo photo,
       final File image, final Watermark watermark) throws Exception {
     if (image != null) {
       try {
         photo.setFileName(StringUtil.normalize(image.getName()));
         final HandledFile handledImageFile = getHandledFile(fileHandler, photo);
-        fileHandler.copyFile(image, handledImageFile);
-        new PhotoProcess(handledImageFile, photo, watermark).process();
+        process(photo, () -> {
+          fileHandler.copyFile(image, handledImageFile);
+          new PhotoProcess(handledImageFile, photo, watermark).process();
+        });
       } finally {
         FileUtils.deleteQuietly(image);
       }
@@ -284,11 +297,26 @@ public class MediaUtil {
    * @param media the destination.
    * @param cut true if it is a cut operation, false if it is a copy one.
    */
-  public static synchronized void pasteInternalMedia(final FileHandler fileHandler,
+  public static void pasteInternalMedia(final FileHandler fileHandler,
       final MediaPK fromPK, final InternalMedia media, final boolean cut) {
     InternalMedia fromMedia = media.getType().newInstance();
     fromMedia.setMediaPK(fromPK);
     fromMedia.setFileName(media.getFileName());
+    try {
+      MediaProcessingExecutor.get().execute(Arrays.asList(fromMedia, media), () -> {
+        pasteInternalMediaFiles(fileHandler, fromMedia, media, cut);
+        return null;
+      });
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new GalleryRuntimeException(e);
+    }
+  }
+
+  private static void pasteInternalMediaFiles(final FileHandler fileHandler,
+      final InternalMedia fromMedia, final InternalMedia media, final boolean cut) {
+    final MediaPK fromPK = fromMedia.getMediaPK();
     final HandledFile fromDir = getHandledFile(fileHandler, fromMedia).getParentHandledFile();
     final HandledFile toDir = getHandledFile(fileHandler, media).getParentHandledFile();
 
@@ -329,6 +357,23 @@ public class MediaUtil {
     }
   }
 
+  /**
+   * Executes the given processing of the files of a media once it is its turn in the
+   * {@link MediaProcessingExecutor}.
+   */
+  private static void process(final InternalMedia media, final FileProcessing processing)
+      throws Exception {
+    MediaProcessingExecutor.get().execute(media, () -> {
+      processing.process();
+      return null;
+    });
+  }
+
+  @FunctionalInterface
+  private interface FileProcessing {
+    void process() throws Exception;
+  }
+
   /**
    * Sets metadata to given instance which represents a photo in memory.
    * @param fileHandler the file handler (quota space management).
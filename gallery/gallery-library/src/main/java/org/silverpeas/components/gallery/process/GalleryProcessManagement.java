@@ -24,6 +24,8 @@
 package org.silverpeas.components.gallery.process;
 
 import org.apache.commons.fileupload.FileItem;
+import org.apache.commons.io.FileUtils;
+import org.silverpeas.components.gallery.MediaProcessingExecutor;
 import org.silverpeas.components.gallery.Watermark;
 import org.silverpeas.components.gallery.constant.MediaMimeType;
 import org.silverpeas.components.gallery.delegate.MediaDataCreateDelegate;
@@ -182,9 +184,18 @@ public class GalleryProcessManagement {
   public static void importFromRepositoryProcesses(final UserDetail user,
       final String componentInstanceId, final File repository, final String albumId,
       final MediaDataCreateDelegate delegate) throws Exception {
+    final int nbFiles = FileUtils.listFiles(repository, null, true).size();
+    try (MediaProcessingExecutor.Job job = MediaProcessingExecutor.get()
+        .startJob("Import of " + nbFiles + " files into " + componentInstanceId, nbFiles)) {
+      importFromRepositoryProcesses(user, componentInstanceId, repository, albumId, delegate,
+          getWatermark(componentInstanceId), job);
+    }
+  }
 
-    final Watermark watermark = getWatermark(componentInstanceId);
-
+  private static void importFromRepositoryProcesses(final UserDetail user,
+      final String componentInstanceId, final File repository, final String albumId,
+      final MediaDataCreateDelegate delegate, final Watermark watermark,
+      final MediaProcessingExecutor.Job job) {
     final File[] fileList = repository.listFiles();
     if (fileList != null) {
       for (final File file : fileList) {
@@ -192,19 +203,26 @@ public class GalleryProcessManagement {
           MediaMimeType mediaMimeType = MediaMimeType.fromFile(file);
           Media newMedia = null;
           newMedia = getMediaByType(mediaMimeType, newMedia);
-          if (newMedia != null) {
-            // Creation of the media
-            // In a transaction.
-            final GalleryProcessManagement processManagement = new GalleryProcessManagement(user,
-                componentInstanceId);
-            processManagement.addCreateMediaProcesses(newMedia, albumId, file, watermark, delegate);
-            processManagement.execute();
+          boolean success = newMedia == null;
+          try {
+            if (newMedia != null) {
+              // Creation of the media
+              // In a transaction.
+              final GalleryProcessManagement processManagement =
+                  new GalleryProcessManagement(user, componentInstanceId);
+              processManagement
+                  .addCreateMediaProcesses(newMedia, albumId, file, watermark, delegate);
+              processManagement.execute();
+              success = true;
+            }
+          } finally {
+            job.mediaProcessed(success);
           }
         } else if (file.isDirectory()) {
           final AlbumDetail newAlbum = GalleryProcessManagement
               .createAlbum(user, componentInstanceId, file.getName(), albumId);
           importFromRepositoryProcesses(user, componentInstanceId, file,
-              newAlbum.getNodePK().getId(), delegate);
+              newAlbum.getNodePK().getId(), delegate, watermark, job);
         }
       }
     }
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have recieved a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.gallery;
+
+import org.junit.jupiter.api.Test;
+import org.silverpeas.components.gallery.model.GalleryRuntimeException;
+import org.silverpeas.components.gallery.model.MediaPK;
+import org.silverpeas.components.gallery.model.Photo;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@EnableSilverTestEnv
+class MediaProcessingExecutorTest {
+
+  @Test
+  void independentMediaAreProcessedConcurrently() throws Exception {
+    final MediaProcessingExecutor executor = new MediaProcessingExecutor(2, 10);
+    final CountDownLatch bothStarted = new CountDownLatch(2);
+    final ExecutorService threads = Executors.newFixedThreadPool(2);
+    try {
+      final Future<Boolean> first = threads.submit(
+          () -> executor.execute(photo("1"), () -> awaitOther(bothStarted)));
+      final Future<Boolean> second = threads.submit(
+          () -> executor.execute(photo("2"), () -> awaitOther(bothStarted)));
+      assertThat(first.get(5, TimeUnit.SECONDS), is(true));
+      assertThat(second.get(5, TimeUnit.SECONDS), is(true));
+      assertThat(executor.getActiveCount(), is(0));
+    } finally {
+      threads.shutdownNow();
+    }
+  }
+
+  @Test
+  void processingOfTheSameMediaAreSerialized() throws Exception {
+    final MediaProcessingExecutor executor = new MediaProcessingExecutor(4, 10);
+    final AtomicInteger running = new AtomicInteger(0);
+    final AtomicInteger maxRunning = new AtomicInteger(0);
+    final ExecutorService threads = Executors.newFixedThreadPool(4);
+    try {
+      for (int i = 0; i < 8; i++) {
+        threads.submit(() -> executor.execute(photo("1"), () -> {
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          Thread.sleep(10);
+          running.decrementAndGet();
+          return null;
+        }));
+      }
+      threads.shutdown();
+      assertThat(threads.awaitTermination(5, TimeUnit.SECONDS), is(true));
+      assertThat(maxRunning.get(), is(1));
+    } finally {
+      threads.shutdownNow();
+    }
+  }
+
+  @Test
+  void callersFailWhenNoSlotIsReleasedInTime() throws Exception {
+    final MediaProcessingExecutor executor = new MediaProcessingExecutor(1, 1);
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final ExecutorService threads = Executors.newSingleThreadExecutor();
+    try {
+      threads.submit(() -> executor.execute(photo("1"), () -> {
+        started.countDown();
+        return release.await(5, TimeUnit.SECONDS);
+      }));
+      assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+      assertThrows(GalleryRuntimeException.class,
+          () -> executor.execute(photo("2"), () -> null));
+    } finally {
+      release.countDown();
+      threads.shutdownNow();
+    }
+  }
+
+  @Test
+  void jobReportsItsProgress() {
+    final MediaProcessingExecutor executor = new MediaProcessingExecutor(1, 1);
+    try (MediaProcessingExecutor.Job job = executor.startJob("test", 4)) {
+      assertThat(executor.getRunningJobs().size(), is(1));
+      job.mediaProcessed(true);
+      job.mediaProcessed(false);
+      assertThat(job.getProgress(), is(50));
+      assertThat(job.getFailed(), is(1));
+    }
+    assertThat(executor.getRunningJobs().isEmpty(), is(true));
+  }
+
+  private static boolean awaitOther(final CountDownLatch bothStarted)
+      throws InterruptedException {
+    bothStarted.countDown();
+    return bothStarted.await(5, TimeUnit.SECONDS);
+  }
+
+  private static Photo photo(final String id) {
+    final Photo photo = new Photo();
+    photo.setMediaPK(new MediaPK(id, "gallery1"));
+    return photo;
+  }
+}
@@ -23,6 +23,7 @@
  */
 package org.silverpeas.components.gallery.control;
 
+import org.apache.commons.io.FilenameUtils;
 import org.silverpeas.components.gallery.constant.MediaResolution;
 import org.silverpeas.components.gallery.model.AlbumDetail;
 import org.silverpeas.components.gallery.model.Media;
@@ -34,13 +35,20 @@ import org.silverpeas.core.importexport.ExportException;
 import org.silverpeas.core.importexport.ImportExportDescriptor;
 import org.silverpeas.core.importexport.control.AbstractExportProcess;
 import org.silverpeas.core.importexport.report.ExportReport;
-import org.silverpeas.core.util.file.FileFolderManager;
 import org.silverpeas.core.util.file.FileUtil;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Collection;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 public class GalleryExporter extends AbstractExportProcess {
@@ -65,21 +73,38 @@ public class GalleryExporter extends AbstractExportProcess {
    */
   public static final String EXPORT_PHOTOS = "gallery.export.photos";
 
+  /**
+   * Extensions of the media files whose the content is already compressed: deflating them again
+   * costs CPU time for almost no gain, so they are copied as is into the archive.
+   */
+  private static final Set<String> COMPRESSED_EXTENSIONS = new HashSet<>(
+      Arrays.asList("jpg", "jpeg", "png", "gif", "webp", "tif", "tiff", "mp3", "m4a", "aac", "ogg",
+          "oga", "flac", "mp4", "m4v", "mov", "avi", "flv", "webm", "ogv", "mkv", "zip", "gz"));
+
   private static GalleryService getMediaService() {
     return MediaServiceProvider.getMediaService();
   }
 
-  public void exportAlbum(ImportExportDescriptor exportDescriptor, ExportReport exportReport)
+  /**
+   * Exports the media of an album and of its sub albums as a zip archive written directly into
+   * the given output stream: the media files are read from the gallery repository and no copy of
+   * them is done in a temporary directory. The sub albums are loaded only when they are reached
+   * so the memory used by the export doesn't depend on the size of the album.
+   * @param exportDescriptor the descriptor of the export with the album and the resolution of the
+   * media to export.
+   * @param output the stream into which the zip archive is written. It isn't closed by this
+   * method.
+   * @throws ExportException if the archive cannot be written.
+   */
+  public void exportAlbum(ImportExportDescriptor exportDescriptor, OutputStream output)
       throws ExportException {
     try {
-      UserDetail userDetail = exportDescriptor.getParameter(EXPORT_FOR_USER);
-      File tempExportDir = createExportDir(userDetail);
       MediaResolution mediaResolution = exportDescriptor.getParameter(EXPORT_RESOLUTION);
-
-      // Retrieve all picture from current album and sub albums
       AlbumDetail albumDetail = exportDescriptor.getParameter(EXPORT_ALBUM);
-      exportAlbumMedia(albumDetail, mediaResolution, tempExportDir);
-      createZipFile(tempExportDir, exportReport);
+      ZipOutputStream zip = new ZipOutputStream(output);
+      streamAlbumMedia(albumDetail, mediaResolution, "", zip);
+      zip.finish();
+      zip.flush();
     } catch (Exception e) {
       throw new ExportException(e);
     }
@@ -116,18 +141,53 @@ public class GalleryExporter extends AbstractExportProcess {
     }
   }
 
-  private void exportAlbumMedia(AlbumDetail albumDetail, MediaResolution mediaResolution,
-      File tempExportDir) throws IOException {
-    List<Media> medias = albumDetail.getMedia();
-    prepareZipContent(medias, tempExportDir, mediaResolution);
+  private void streamAlbumMedia(AlbumDetail albumDetail, MediaResolution mediaResolution,
+      String path, ZipOutputStream zip) throws IOException {
+    Set<String> entryNames = new HashSet<>();
+    for (Media media : albumDetail.getMedia()) {
+      if (!media.getType().isStreaming()) {
+        File mediaFile = media.getFile(mediaResolution);
+        if (mediaFile != null && mediaFile.isFile()) {
+          String entryName = uniqueName(mediaFile.getName(), entryNames);
+          putFileEntry(mediaFile, path + entryName, zip);
+        }
+      }
+    }
     if (albumDetail.getChildrenNumber() > 0) {
-      Collection<AlbumDetail> subAlbums = albumDetail.getChildrenAlbumsDetails();
-      for (AlbumDetail subAlbum : subAlbums) {
-        subAlbum = getMediaService().getAlbum(subAlbum.getNodePK());
-        File tempSubAlbum = new File(tempExportDir, subAlbum.getName());
-        FileFolderManager.createFolder(tempSubAlbum);
-        exportAlbumMedia(subAlbum, mediaResolution, tempSubAlbum);
+      for (AlbumDetail subAlbum : albumDetail.getChildrenAlbumsDetails()) {
+        String folderName = uniqueName(subAlbum.getName().replaceAll("[/\\\\]", "_"), entryNames);
+        String subAlbumPath = path + folderName + "/";
+        zip.putNextEntry(new ZipEntry(subAlbumPath));
+        zip.closeEntry();
+        streamAlbumMedia(getMediaService().getAlbum(subAlbum.getNodePK()), mediaResolution,
+            subAlbumPath, zip);
       }
     }
   }
+
+  private void putFileEntry(File file, String entryName, ZipOutputStream zip) throws IOException {
+    ZipEntry entry = new ZipEntry(entryName);
+    entry.setTime(file.lastModified());
+    String extension = FilenameUtils.getExtension(file.getName()).toLowerCase(Locale.ROOT);
+    zip.setLevel(COMPRESSED_EXTENSIONS.contains(extension) ? Deflater.NO_COMPRESSION :
+        Deflater.DEFAULT_COMPRESSION);
+    zip.putNextEntry(entry);
+    Files.copy(file.toPath(), zip);
+    zip.closeEntry();
+  }
+
+  /**
+   * Two media of an album can have the same file name whereas a zip archive cannot have two
+   * entries with the same name.
+   */
+  private static String uniqueName(String name, Set<String> names) {
+    String baseName = FilenameUtils.getBaseName(name);
+    String extension = FilenameUtils.getExtension(name);
+    String uniqueName = name;
+    int i = 1;
+    while (!names.add(uniqueName)) {
+      uniqueName = baseName + "_" + (i++) + (extension.isEmpty() ? "" : "." + extension);
+    }
+    return uniqueName;
+  }
 }
@@ -93,6 +93,7 @@ import org.silverpeas.core.web.subscription.SubscriptionContext;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 import java.io.File;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -1233,24 +1234,22 @@ public final class GallerySessionController extends AbstractComponentSessionCont
   }
 
   /**
-   * Export all picture from an album with the given resolution
+   * Streams all the media of an album and of its sub albums with the given resolution as a zip
+   * archive into the specified output stream.
    *
-   * @param albumId
-   * @param mediaResolution
+   * @param albumId the identifier of the album to export.
+   * @param mediaResolution the resolution of the exported media.
+   * @param output the stream into which the archive is written.
    */
-  public ExportReport exportAlbum(String albumId, MediaResolution mediaResolution)
+  public void exportAlbum(String albumId, MediaResolution mediaResolution, OutputStream output)
       throws ExportException {
-    ExportReport exportReport = new ExportReport();
     if (isExportEnable() && StringUtil.isDefined(albumId)) {
-      // Create export folder then apply each picture from this folder
       ImportExportDescriptor exportDesc =
           new ExportDescriptor().withParameter(GalleryExporter.EXPORT_FOR_USER, getUserDetail())
-              .
-                  withParameter(GalleryExporter.EXPORT_ALBUM, getAlbum(albumId))
+              .withParameter(GalleryExporter.EXPORT_ALBUM, getAlbum(albumId))
               .withParameter(GalleryExporter.EXPORT_RESOLUTION, mediaResolution);
-      aGalleryExporter().exportAlbum(exportDesc, exportReport);
+      aGalleryExporter().exportAlbum(exportDesc, output);
     }
-    return exportReport;
   }
 
   /**
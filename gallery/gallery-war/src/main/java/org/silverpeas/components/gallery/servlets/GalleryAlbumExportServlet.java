@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have recieved a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.gallery.servlets;
+
+import org.silverpeas.components.commons.export.StreamedExport;
+import org.silverpeas.components.commons.export.StreamedExportServlet;
+import org.silverpeas.components.gallery.constant.MediaResolution;
+import org.silverpeas.components.gallery.control.GallerySessionController;
+import org.silverpeas.core.util.StringUtil;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Downloads an album of a gallery as a zip archive built from the media files while it is sent.
+ * An error during the download gives a truncated, so invalid, archive.
+ */
+public class GalleryAlbumExportServlet extends StreamedExportServlet {
+
+  private static final long serialVersionUID = 2937604561382291774L;
+
+  @Override
+  protected StreamedExport getExport(String componentId, HttpServletRequest req,
+      HttpServletResponse res) {
+    String albumId = req.getParameter("AlbumId");
+    String format = req.getParameter("format");
+
+    GallerySessionController gallerySC = (GallerySessionController) req.getSession()
+        .getAttribute("Silverpeas_Gallery_" + componentId);
+    if (gallerySC == null || !gallerySC.isExportEnable() || !StringUtil.isDefined(albumId)) {
+      throwHttpForbiddenError();
+    }
+
+    String fileName = StringUtil.normalize(gallerySC.getAlbumLight(albumId).getName()) + ".zip";
+    MediaResolution resolution = MediaResolution.fromNameOrLabel(format);
+    return StreamedExport.binary("application/zip", fileName,
+        output -> gallerySC.exportAlbum(albumId, resolution, output));
+  }
+}
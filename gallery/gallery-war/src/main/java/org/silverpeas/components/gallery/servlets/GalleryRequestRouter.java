@@ -1144,14 +1144,7 @@ public class GalleryRequestRouter extends ComponentRequestRouter<GallerySessionC
               });
         }
       } else if (function.startsWith("Export")) {
-        if ("ExportAlbum".equals(function)) {
-          String albumId = request.getParameter(ALBUM_ID);
-          String format = request.getParameter("format");
-          ExportReport exportRpt =
-              gallerySC.exportAlbum(albumId, MediaResolution.fromNameOrLabel(format));
-          request.setAttribute("ExportReport", exportRpt);
-          destination = rootDest +"downloadZip.jsp";
-        } else if ("ExportSelection".equals(function)) {
+        if ("ExportSelection".equals(function)) {
           String format = request.getParameter("format");
           ExportReport exportRpt =
               gallerySC.exportSelection(MediaResolution.fromNameOrLabel(format));
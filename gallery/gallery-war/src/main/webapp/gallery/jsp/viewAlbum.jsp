@@ -65,7 +65,6 @@
 <fmt:message key="gallery.cut" var="cutAlbumIcon" bundle="${icons}"/>
 <c:url value="${cutAlbumIcon}" var="cutAlbumIcon"/>
 <fmt:message key="gallery.export.album" var="exportAlbumLabel"/>
-<fmt:message key="gallery.exported.album" var="exportedAlbumLabel"/>
 <fmt:message key="gallery.updateSelectedMedia" var="updateSelectedMediaLabel"/>
 <fmt:message key="gallery.updateSelectedMedia" var="updateSelectedMediaIcon" bundle="${icons}"/>
 <c:url value="${updateSelectedMediaIcon}" var="updateSelectedMediaIcon"/>
@@ -302,28 +301,10 @@ function exportAlbum() {
   });
 }
 
-//make an ajax call here and then display a waiting message until we receive the asynchronous response
+// the archive is streamed by the server as it is built, so the download starts immediately
 function callExport() {
-  $.get("<c:url value='/Rgallery/${componentId}/ExportAlbum'/>", { albumId:'${currentAlbum.id}',format:$("input[name=format]:checked").val()},
-    function(data){
-      $.closeProgressMessage();
-      //alert('data = ' + data);
-      $("#album-export-result-dialog").html(data);
-      $("#album-export-result-dialog").dialog({
-        autoOpen: true,
-        title: "${exportedAlbumLabel}",
-        modal: true,
-        minWidth: 500,
-        buttons: {
-          '<fmt:message key="GML.close"/>': function() {
-            $("#album-export-result-dialog").html("");
-            $( this ).dialog( "close" );
-          }
-        }
-      });
-      $("#album-export-result-dialog").show();
-    }, 'text');
-  $.progressMessage();
+  window.location.href = "<c:url value='/GalleryAlbumExport/${componentId}'/>?ComponentId=${componentId}&AlbumId=${currentAlbum.id}&format=" +
+      encodeURIComponent($("input[name=format]:checked").val());
 }
 
 
@@ -494,15 +475,13 @@ SUBSCRIPTION_PROMISE.then(function() {
     </div>
 
 <div id="album-export-dialog" style="display: none;">
-  <form id="exportForm" action="ExportAlbum" target="_blank">
+  <form id="exportForm">
     <fieldset>
       <legend><fmt:message key="gallery.export.format" /></legend>
       <input type="radio" name="format" value="${ORIGINAL_RESOLUTION.label}" checked="checked" /><fmt:message key="gallery.export.format.original"/>
       <input type="radio" name="format" value="${PREVIEW_RESOLUTION.label}" /><fmt:message key="gallery.export.format.preview"/>
     </fieldset>
   </form>
-</div>
-<div id="album-export-result-dialog" style="display: none;">
 </div>
 
     <%@include file="albumManager.jsp" %>
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.gallery.control;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.silverpeas.components.gallery.constant.MediaResolution;
+import org.silverpeas.components.gallery.constant.MediaType;
+import org.silverpeas.components.gallery.model.AlbumDetail;
+import org.silverpeas.components.gallery.model.Media;
+import org.silverpeas.components.gallery.service.GalleryService;
+import org.silverpeas.core.importexport.ExportDescriptor;
+import org.silverpeas.core.importexport.ExportException;
+import org.silverpeas.core.io.file.SilverpeasFile;
+import org.silverpeas.core.node.model.NodePK;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+import org.silverpeas.core.test.extention.TestManagedMock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@EnableSilverTestEnv
+class GalleryExporterTest {
+
+  private static final String INSTANCE_ID = "gallery12";
+
+  @TempDir
+  Path repository;
+
+  @TestManagedMock
+  private GalleryService galleryService;
+
+  private GalleryExporter exporter;
+
+  @BeforeEach
+  void setup() {
+    exporter = new GalleryExporter();
+  }
+
+  @Test
+  void theMediaOfTheAlbumAndOfItsSubAlbumsAreArchived() throws Exception {
+    AlbumDetail holidays = anAlbum("11", "Holidays", aPhoto("sea.jpg", "sea"));
+    AlbumDetail album = anAlbum("10", "Trips", aPhoto("map.png", "map"), aPhoto("notes.txt", "go"));
+    withSubAlbums(album, holidays);
+
+    Map<String, String> entries = export(album);
+
+    assertThat(entries.keySet(),
+        containsInAnyOrder("map.png", "notes.txt", "Holidays/", "Holidays/sea.jpg"));
+    assertThat(entries.get("map.png"), is("map"));
+    assertThat(entries.get("notes.txt"), is("go"));
+    assertThat(entries.get("Holidays/sea.jpg"), is("sea"));
+  }
+
+  @Test
+  void theMediaWithTheSameFileNameAreAllArchived() throws Exception {
+    AlbumDetail album =
+        anAlbum("10", "Trips", aPhoto("photo.jpg", "first"), aPhoto("photo.jpg", "second"));
+
+    Map<String, String> entries = export(album);
+
+    assertThat(entries.keySet(), containsInAnyOrder("photo.jpg", "photo_1.jpg"));
+    assertThat(entries.values(), containsInAnyOrder("first", "second"));
+  }
+
+  @Test
+  void theStreamingsAndTheMissingFilesAreSkipped() throws Exception {
+    Media streaming = mock(Media.class);
+    when(streaming.getType()).thenReturn(MediaType.Streaming);
+    Media missing = mock(Media.class);
+    when(missing.getType()).thenReturn(MediaType.Photo);
+    AlbumDetail album = anAlbum("10", "Trips", aPhoto("map.png", "map"), streaming, missing);
+
+    Map<String, String> entries = export(album);
+
+    assertThat(entries.keySet(), contains("map.png"));
+  }
+
+  private Map<String, String> export(final AlbumDetail album)
+      throws ExportException, IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    exporter.exportAlbum(new ExportDescriptor()
+        .withParameter(GalleryExporter.EXPORT_ALBUM, album)
+        .withParameter(GalleryExporter.EXPORT_RESOLUTION, MediaResolution.ORIGINAL), output);
+
+    Map<String, String> entries = new HashMap<>();
+    try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+      ZipEntry entry = zip.getNextEntry();
+      while (entry != null) {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = zip.read(buffer)) > 0) {
+          content.write(buffer, 0, read);
+        }
+        entries.put(entry.getName(), new String(content.toByteArray(), StandardCharsets.UTF_8));
+        entry = zip.getNextEntry();
+      }
+    }
+    return entries;
+  }
+
+  private AlbumDetail anAlbum(final String id, final String name, final Media... media) {
+    AlbumDetail album = mock(AlbumDetail.class);
+    NodePK pk = new NodePK(id, INSTANCE_ID);
+    when(album.getNodePK()).thenReturn(pk);
+    when(album.getName()).thenReturn(name);
+    when(album.getMedia()).thenReturn(new ArrayList<>(Arrays.asList(media)));
+    when(album.getChildrenNumber()).thenReturn(0);
+    when(album.getChildrenAlbumsDetails()).thenReturn(Collections.emptyList());
+    when(galleryService.getAlbum(pk)).thenReturn(album);
+    return album;
+  }
+
+  private void withSubAlbums(final AlbumDetail album, final AlbumDetail... subAlbums) {
+    List<AlbumDetail> children = Arrays.asList(subAlbums);
+    when(album.getChildrenNumber()).thenReturn(children.size());
+    when(album.getChildrenAlbumsDetails()).thenReturn(children);
+  }
+
+  private Media aPhoto(final String fileName, final String content) throws IOException {
+    Path file = Files.createTempFile(repository, "media", "");
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    SilverpeasFile mediaFile = mock(SilverpeasFile.class);
+    when(mediaFile.getName()).thenReturn(fileName);
+    when(mediaFile.isFile()).thenReturn(true);
+    when(mediaFile.lastModified()).thenReturn(file.toFile().lastModified());
+    when(mediaFile.toPath()).thenReturn(file);
+    Media media = mock(Media.class);
+    when(media.getType()).thenReturn(MediaType.Photo);
+    when(media.getFile(MediaResolution.ORIGINAL)).thenReturn(mediaFile);
+    return media;
+  }
+}
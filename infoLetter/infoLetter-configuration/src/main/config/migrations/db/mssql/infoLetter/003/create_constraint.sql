@@ -10,4 +10,11 @@ ALTER TABLE SC_IL_Publication WITH NOCHECK ADD
 	(
 		id
 	)
-;
\ No newline at end of file
+;
+
+ALTER TABLE SC_IL_Dispatch WITH NOCHECK ADD
+	 CONSTRAINT PK_InfoLetter_Dispatch PRIMARY KEY  CLUSTERED
+	(
+		id
+	)
+;
@@ -0,0 +1,35 @@
+CREATE TABLE SC_IL_Dispatch
+(
+	id			int		NOT NULL ,
+	publicationId		int		NOT NULL ,
+	instanceId		varchar (50)	NOT NULL ,
+	subject			varchar (2000)	NOT NULL ,
+	emailFrom		varchar (1000)	NOT NULL ,
+	mimeMultipart		varchar (50)	NOT NULL ,
+	creationDate		bigint		NOT NULL ,
+	lockOwner		varchar (100)	NULL ,
+	lockExpiry		bigint		DEFAULT 0 NOT NULL
+);
+
+CREATE TABLE SC_IL_DispatchRecipient
+(
+	dispatchId		int		NOT NULL ,
+	email			varchar (1000)	NOT NULL ,
+	status			int		NOT NULL ,
+	attempts		int		NOT NULL ,
+	nextAttempt		bigint		NOT NULL ,
+	lastError		varchar (2000)	NULL
+);
+
+ALTER TABLE SC_IL_Dispatch WITH NOCHECK ADD
+	 CONSTRAINT PK_InfoLetter_Dispatch PRIMARY KEY  CLUSTERED
+	(
+		id
+	)
+;
+
+CREATE INDEX IND_IL_DispatchRecipient_1
+    ON SC_IL_DispatchRecipient (dispatchId, status);
+
+CREATE INDEX IND_IL_DispatchRecipient_2
+    ON SC_IL_DispatchRecipient (status, nextAttempt);
@@ -0,0 +1,5 @@
+CREATE INDEX IND_IL_DispatchRecipient_1
+    ON SC_IL_DispatchRecipient (dispatchId, status);
+
+CREATE INDEX IND_IL_DispatchRecipient_2
+    ON SC_IL_DispatchRecipient (status, nextAttempt);
@@ -0,0 +1,49 @@
+CREATE TABLE SC_IL_Letter
+(
+	id			int		NOT NULL ,
+	name			varchar (1000)	NOT NULL ,
+	description		varchar (2000)	NULL ,
+	periode			varchar (255)	NULL ,
+	instanceId		varchar (50)	NOT NULL
+);
+
+CREATE TABLE SC_IL_Publication
+(
+	id			int		NOT NULL ,
+	title			varchar (1000)	NOT NULL ,
+	description		varchar (2000)	NULL ,
+	parutionDate		varchar (255)	NULL ,
+	publicationState	int		NOT NULL ,
+	letterId		int		NOT NULL ,
+	instanceId		varchar (50)	NOT NULL
+);
+
+CREATE TABLE SC_IL_ExtSus
+(
+	letter			int		NOT NULL ,
+	email			varchar (1000)	NOT NULL ,
+	instanceId		varchar (50)	NOT NULL
+);
+
+CREATE TABLE SC_IL_Dispatch
+(
+	id			int		NOT NULL ,
+	publicationId		int		NOT NULL ,
+	instanceId		varchar (50)	NOT NULL ,
+	subject			varchar (2000)	NOT NULL ,
+	emailFrom		varchar (1000)	NOT NULL ,
+	mimeMultipart		varchar (50)	NOT NULL ,
+	creationDate		number(19,0)		NOT NULL ,
+	lockOwner		varchar (100)	NULL ,
+	lockExpiry		number(19,0)		DEFAULT 0 NOT NULL
+);
+
+CREATE TABLE SC_IL_DispatchRecipient
+(
+	dispatchId		int		NOT NULL ,
+	email			varchar (1000)	NOT NULL ,
+	status			int		NOT NULL ,
+	attempts		int		NOT NULL ,
+	nextAttempt		number(19,0)		NOT NULL ,
+	lastError		varchar (2000)	NULL
+);
@@ -0,0 +1,35 @@
+CREATE TABLE SC_IL_Dispatch
+(
+	id			int		NOT NULL ,
+	publicationId		int		NOT NULL ,
+	instanceId		varchar (50)	NOT NULL ,
+	subject			varchar (2000)	NOT NULL ,
+	emailFrom		varchar (1000)	NOT NULL ,
+	mimeMultipart		varchar (50)	NOT NULL ,
+	creationDate		number(19,0)		NOT NULL ,
+	lockOwner		varchar (100)	NULL ,
+	lockExpiry		number(19,0)		DEFAULT 0 NOT NULL
+);
+
+CREATE TABLE SC_IL_DispatchRecipient
+(
+	dispatchId		int		NOT NULL ,
+	email			varchar (1000)	NOT NULL ,
+	status			int		NOT NULL ,
+	attempts		int		NOT NULL ,
+	nextAttempt		number(19,0)		NOT NULL ,
+	lastError		varchar (2000)	NULL
+);
+
+ALTER TABLE SC_IL_Dispatch ADD
+	 CONSTRAINT PK_InfoLetter_Dispatch PRIMARY KEY
+	(
+		id
+	)
+;
+
+CREATE INDEX IND_IL_DispatchRecipient_1
+    ON SC_IL_DispatchRecipient (dispatchId, status);
+
+CREATE INDEX IND_IL_DispatchRecipient_2
+    ON SC_IL_DispatchRecipient (status, nextAttempt);
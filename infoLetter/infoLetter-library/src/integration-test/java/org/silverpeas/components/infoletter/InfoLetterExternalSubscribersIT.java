@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ * <p>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.infoletter;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.Archive;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.silverpeas.components.infoletter.model.InfoLetterService;
+import org.silverpeas.components.infoletter.test.WarBuilder4InfoLetter;
+import org.silverpeas.core.persistence.jdbc.bean.IdPK;
+import org.silverpeas.core.test.rule.DbSetupRule;
+
+import javax.inject.Inject;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Integration tests on the saving and the export of the external subscribers of a newsletter.
+ */
+@RunWith(Arquillian.class)
+public class InfoLetterExternalSubscribersIT {
+
+  private static final String TABLE_CREATION_SCRIPT = "create-database.sql";
+  private static final String DATASET_SCRIPT = "infoLetter-dataset.sql";
+
+  private static final IdPK LETTER_PK = new IdPK("1");
+
+  @Inject
+  private InfoLetterService infoLetterService;
+
+  @Rule
+  public DbSetupRule dbSetupRule =
+      DbSetupRule.createTablesFrom(TABLE_CREATION_SCRIPT).loadInitialDataSetFrom(DATASET_SCRIPT);
+
+  @Deployment
+  public static Archive<?> createTestArchive() {
+    return WarBuilder4InfoLetter.onWarForTestClass(InfoLetterExternalSubscribersIT.class).build();
+  }
+
+  @Test
+  public void savingAStreamOfEmailsReplacesTheCurrentOnesWithoutDuplicates() {
+    infoLetterService.setEmailsExternalsSubscribers(LETTER_PK,
+        Stream.of("miguel.moquillon@free.com", "john.doe@silverpeas.org",
+            "john.doe@silverpeas.org", "jane.doe@silverpeas.org"));
+
+    assertThat(infoLetterService.getEmailsExternalsSuscribers(LETTER_PK), is(new LinkedHashSet<>(
+        Arrays.asList("miguel.moquillon@free.com", "john.doe@silverpeas.org",
+            "jane.doe@silverpeas.org"))));
+  }
+
+  @Test
+  public void savingAnEmptyStreamOfEmailsDeletesAllTheCurrentOnes() {
+    infoLetterService.setEmailsExternalsSubscribers(LETTER_PK, Stream.empty());
+
+    assertThat(infoLetterService.getEmailsExternalsSuscribers(LETTER_PK).isEmpty(), is(true));
+  }
+
+  @Test
+  public void theEmailsAreWrittenOnePerLine() throws Exception {
+    StringWriter writer = new StringWriter();
+    infoLetterService.writeEmailsExternalsSubscribers(LETTER_PK, writer);
+
+    String[] lines = writer.toString().split("\n");
+    assertThat(new LinkedHashSet<>(Arrays.asList(lines)),
+        is(infoLetterService.getEmailsExternalsSuscribers(LETTER_PK)));
+    assertThat(lines.length, is(2));
+  }
+}
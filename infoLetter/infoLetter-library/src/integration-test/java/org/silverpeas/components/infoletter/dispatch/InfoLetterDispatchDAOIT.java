@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ * <p>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.infoletter.dispatch;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.Archive;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.silverpeas.components.infoletter.test.WarBuilder4InfoLetter;
+import org.silverpeas.core.test.rule.DbSetupRule;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Integration tests on the persistent queue of the newsletter dispatches.
+ */
+@RunWith(Arquillian.class)
+public class InfoLetterDispatchDAOIT {
+
+  private static final String TABLE_CREATION_SCRIPT =
+      "/org/silverpeas/components/infoletter/create-database.sql";
+  private static final String DATASET_SCRIPT =
+      "/org/silverpeas/components/infoletter/infoLetter-dataset.sql";
+
+  private static final String COMPONENT_INSTANCE_ID = "infoLetter36";
+
+  @Rule
+  public DbSetupRule dbSetupRule =
+      DbSetupRule.createTablesFrom(TABLE_CREATION_SCRIPT).loadInitialDataSetFrom(DATASET_SCRIPT);
+
+  @Deployment
+  public static Archive<?> createTestArchive() {
+    return WarBuilder4InfoLetter.onWarForTestClass(InfoLetterDispatchDAOIT.class).build();
+  }
+
+  @Test
+  public void aNewDispatchIsPendingExceptForItsInvalidRecipients() throws Exception {
+    Dispatch dispatch = saveDispatch(Arrays.asList("a@silverpeas.org", "b@silverpeas.org"),
+        Collections.singletonList("not an email"));
+
+    DispatchProgress progress = InfoLetterDispatchDAO.getProgress(dispatch.getId());
+    assertThat(progress.getTotal(), is(3));
+    assertThat(progress.getPending(), is(2));
+    assertThat(progress.getSent(), is(0));
+    assertThat(progress.getFailed(), is(1));
+    assertThat(progress.isDone(), is(false));
+    assertThat(InfoLetterDispatchDAO.getFailedRecipients(dispatch.getId()),
+        is(Collections.singletonList("not an email")));
+    assertThat(InfoLetterDispatchDAO.getDueDispatchIds(System.currentTimeMillis()),
+        is(Collections.singletonList(dispatch.getId())));
+    assertThat(InfoLetterDispatchDAO.getLastDispatchId("1"), is(dispatch.getId()));
+
+    Dispatch saved = InfoLetterDispatchDAO.getDispatch(dispatch.getId());
+    assertThat(saved, notNullValue());
+    assertThat(saved.getInstanceId(), is(COMPONENT_INSTANCE_ID));
+    assertThat(saved.getSubject(), is("Letter"));
+  }
+
+  @Test
+  public void theRecipientsAreUpdatedAccordingToTheSendingOutcome() throws Exception {
+    Dispatch dispatch = saveDispatch(
+        Arrays.asList("a@silverpeas.org", "b@silverpeas.org", "c@silverpeas.org"),
+        Collections.emptyList());
+    final long now = System.currentTimeMillis();
+    final long retryTime = now + 60000;
+
+    List<Recipient> recipients = InfoLetterDispatchDAO.getDueRecipients(dispatch.getId(), now, 10);
+    assertThat(recipients.size(), is(3));
+    for (Recipient recipient : recipients) {
+      if (recipient.getEmail().startsWith("a")) {
+        recipient.sent();
+      } else if (recipient.getEmail().startsWith("b")) {
+        recipient.failed("Mailbox unavailable", 1, retryTime);
+      } else {
+        recipient.failed("Connection refused", 3, retryTime);
+      }
+    }
+    InfoLetterDispatchDAO.updateRecipients(dispatch.getId(), recipients);
+
+    DispatchProgress progress = InfoLetterDispatchDAO.getProgress(dispatch.getId());
+    assertThat(progress.getSent(), is(1));
+    assertThat(progress.getFailed(), is(1));
+    assertThat(progress.getPending(), is(1));
+    assertThat(InfoLetterDispatchDAO.getFailedRecipients(dispatch.getId()),
+        is(Collections.singletonList("b@silverpeas.org")));
+    assertThat(InfoLetterDispatchDAO.getDueRecipients(dispatch.getId(), now, 10).isEmpty(),
+        is(true));
+
+    recipients = InfoLetterDispatchDAO.getDueRecipients(dispatch.getId(), retryTime, 10);
+    assertThat(recipients.size(), is(1));
+    assertThat(recipients.get(0).getEmail(), is("c@silverpeas.org"));
+    assertThat(recipients.get(0).getAttempts(), is(1));
+  }
+
+  @Test
+  public void deleteTheDispatchesOfAnInstance() throws Exception {
+    Dispatch dispatch =
+        saveDispatch(Collections.singletonList("a@silverpeas.org"), Collections.emptyList());
+
+    InfoLetterDispatchDAO.deleteDispatches(COMPONENT_INSTANCE_ID);
+
+    assertThat(InfoLetterDispatchDAO.getDispatch(dispatch.getId()), nullValue());
+    assertThat(InfoLetterDispatchDAO.getProgress(dispatch.getId()).getTotal(), is(0));
+    assertThat(InfoLetterDispatchDAO.getLastDispatchId("1"), nullValue());
+  }
+
+  private Dispatch saveDispatch(final List<String> recipients,
+      final List<String> invalidRecipients) throws Exception {
+    Dispatch dispatch =
+        new Dispatch("1", COMPONENT_INSTANCE_ID, "Letter", "sender@silverpeas.org", "related");
+    InfoLetterDispatchDAO.saveDispatch(dispatch, recipients, invalidRecipients);
+    return dispatch;
+  }
+}
@@ -24,3 +24,26 @@ CREATE TABLE SC_IL_ExtSus
   email			varchar (1000)	NOT NULL ,
   instanceId		varchar (50)	NOT NULL
 );
+
+CREATE TABLE SC_IL_Dispatch
+(
+  id			int		NOT NULL ,
+  publicationId		int		NOT NULL ,
+  instanceId		varchar (50)	NOT NULL ,
+  subject		varchar (2000)	NOT NULL ,
+  emailFrom		varchar (1000)	NOT NULL ,
+  mimeMultipart		varchar (50)	NOT NULL ,
+  creationDate		bigint		NOT NULL ,
+  lockOwner		varchar (100)	NULL ,
+  lockExpiry		bigint		DEFAULT 0 NOT NULL
+);
+
+CREATE TABLE SC_IL_DispatchRecipient
+(
+  dispatchId		int		NOT NULL ,
+  email			varchar (1000)	NOT NULL ,
+  status		int		NOT NULL ,
+  attempts		int		NOT NULL ,
+  nextAttempt		bigint		NOT NULL ,
+  lastError		varchar (2000)	NULL
+);
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.infoletter;
+
+import org.silverpeas.components.infoletter.dispatch.LetterDispatcher;
+import org.silverpeas.core.scheduler.Scheduler;
+import org.silverpeas.core.scheduler.SchedulerEvent;
+import org.silverpeas.core.scheduler.SchedulerEventListener;
+import org.silverpeas.core.scheduler.SchedulerProvider;
+import org.silverpeas.core.scheduler.trigger.JobTrigger;
+import org.silverpeas.core.util.ResourceLocator;
+import org.silverpeas.core.util.SettingBundle;
+import org.silverpeas.core.util.logging.SilverLogger;
+
+/**
+ * Processes periodically the queue of the newsletter dispatches in order to retry the failed
+ * sendings and to carry on the dispatches interrupted by a shutdown of the server.
+ */
+public class ScheduledLetterDispatch implements SchedulerEventListener {
+
+  public static final String INFOLETTER_JOB_NAME = "InfoLetterDispatch";
+
+  public void initialize() {
+    try {
+      SettingBundle settings =
+          ResourceLocator.getSettingBundle("org.silverpeas.infoLetter.settings.infoLetterSettings");
+      String cron = settings.getString("dispatch.cron", "*/5 * * * *");
+      Scheduler scheduler = SchedulerProvider.getVolatileScheduler();
+      scheduler.unscheduleJob(INFOLETTER_JOB_NAME);
+      JobTrigger trigger = JobTrigger.triggerAt(cron);
+      scheduler.scheduleJob(INFOLETTER_JOB_NAME, trigger, this);
+    } catch (Exception e) {
+      SilverLogger.getLogger(this).error(e);
+    }
+  }
+
+  @Override
+  public void triggerFired(SchedulerEvent anEvent) {
+    LetterDispatcher.get().dispatch();
+  }
+
+  @Override
+  public void jobSucceeded(SchedulerEvent anEvent) {
+    // nothing to do
+  }
+
+  @Override
+  public void jobFailed(SchedulerEvent anEvent) {
+    SilverLogger.getLogger(this).error("The job '"
+        + anEvent.getJobExecutionContext().getJobName() + "' was not successfull");
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.infoletter.dispatch;
+
+/**
+ * The sending of a newsletter publication by e-mail. The recipients of the dispatch are queued
+ * and processed in the background by the {@link LetterDispatcher}.
+ */
+class Dispatch {
+
+  private String id;
+  private final String publicationId;
+  private final String instanceId;
+  private final String subject;
+  private final String emailFrom;
+  private final String mimeMultipart;
+
+  Dispatch(final String publicationId, final String instanceId, final String subject,
+      final String emailFrom, final String mimeMultipart) {
+    this.publicationId = publicationId;
+    this.instanceId = instanceId;
+    this.subject = subject;
+    this.emailFrom = emailFrom;
+    this.mimeMultipart = mimeMultipart;
+  }
+
+  String getId() {
+    return id;
+  }
+
+  void setId(final String id) {
+    this.id = id;
+  }
+
+  String getPublicationId() {
+    return publicationId;
+  }
+
+  String getInstanceId() {
+    return instanceId;
+  }
+
+  String getSubject() {
+    return subject;
+  }
+
+  String getEmailFrom() {
+    return emailFrom;
+  }
+
+  String getMimeMultipart() {
+    return mimeMultipart;
+  }
+}
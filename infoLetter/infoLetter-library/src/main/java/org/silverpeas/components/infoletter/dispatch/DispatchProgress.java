@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.infoletter.dispatch;
+
+import java.io.Serializable;
+
+/**
+ * The progress of the sending by e-mail of a newsletter to its recipients.
+ */
+public class DispatchProgress implements Serializable {
+  private static final long serialVersionUID = -2618032316528442370L;
+
+  private final String dispatchId;
+  private final int pending;
+  private final int sent;
+  private final int failed;
+
+  DispatchProgress(final String dispatchId, final int pending, final int sent, final int failed) {
+    this.dispatchId = dispatchId;
+    this.pending = pending;
+    this.sent = sent;
+    this.failed = failed;
+  }
+
+  /**
+   * Gets the unique identifier of the dispatch.
+   * @return the identifier of the dispatch.
+   */
+  public String getDispatchId() {
+    return dispatchId;
+  }
+
+  /**
+   * Gets the total number of recipients of the dispatch.
+   * @return the number of recipients.
+   */
+  public int getTotal() {
+    return pending + sent + failed;
+  }
+
+  /**
+   * Gets the number of recipients to which the newsletter has still to be sent. Among them, some
+   * can be waiting for a new attempt after a failure.
+   * @return the number of recipients not yet processed.
+   */
+  public int getPending() {
+    return pending;
+  }
+
+  /**
+   * Gets the number of recipients to which the newsletter has been sent.
+   * @return the number of successful sendings.
+   */
+  public int getSent() {
+    return sent;
+  }
+
+  /**
+   * Gets the number of recipients to which the newsletter cannot be sent, either because their
+   * address is invalid or because all the sending attempts have failed.
+   * @return the number of definitive failures.
+   */
+  public int getFailed() {
+    return failed;
+  }
+
+  /**
+   * Is the dispatch done? It is done once all of its recipients are processed, whatever the
+   * outcome.
+   * @return true if no recipients are pending, false otherwise.
+   */
+  public boolean isDone() {
+    return pending == 0;
+  }
+}
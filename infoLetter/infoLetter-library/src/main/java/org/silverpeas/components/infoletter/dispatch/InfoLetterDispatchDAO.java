@@ -0,0 +1,319 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.infoletter.dispatch;
+
+import org.silverpeas.core.persistence.Transaction;
+import org.silverpeas.core.persistence.jdbc.DBUtil;
+import org.silverpeas.core.persistence.jdbc.sql.JdbcSqlQuery;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Persistence of the queue of the newsletter dispatches: a dispatch is the sending of a newsletter
+ * publication to a set of recipients, each of them with its own sending status.
+ */
+class InfoLetterDispatchDAO {
+
+  static final int PENDING = 0;
+  static final int SENT = 1;
+  static final int FAILED = 2;
+
+  private static final String DISPATCH_TABLE = "SC_IL_Dispatch";
+  private static final String RECIPIENT_TABLE = "SC_IL_DispatchRecipient";
+  private static final String DISPATCH_ID = "dispatchId = ?";
+  private static final int BATCH_SIZE = 500;
+  private static final int MAX_ERROR_LENGTH = 2000;
+
+  private static final String INSERT_RECIPIENT = "INSERT INTO " + RECIPIENT_TABLE +
+      " (dispatchId, email, status, attempts, nextAttempt, lastError) VALUES (?, ?, ?, 0, ?, ?)";
+  private static final String UPDATE_RECIPIENT = "UPDATE " + RECIPIENT_TABLE +
+      " SET status = ?, attempts = ?, nextAttempt = ?, lastError = ? " +
+      "WHERE dispatchId = ? AND email = ?";
+
+  private InfoLetterDispatchDAO() {
+  }
+
+  /**
+   * Saves a new dispatch with all of its recipients in one transaction.
+   * @param dispatch the dispatch to save. Its identifier is set by this method.
+   * @param recipients the valid e-mail addresses of the recipients.
+   * @param invalidRecipients the invalid e-mail addresses of the recipients. They are saved as
+   * definitively failed.
+   * @throws SQLException if an error occurs while saving the dispatch.
+   */
+  static void saveDispatch(final Dispatch dispatch, final Collection<String> recipients,
+      final Collection<String> invalidRecipients) throws SQLException {
+    Transaction.performInOne(() -> {
+      final int id = DBUtil.getNextId(DISPATCH_TABLE, "id");
+      JdbcSqlQuery.createInsertFor(DISPATCH_TABLE)
+          .addInsertParam("id", id)
+          .addInsertParam("publicationId", Integer.parseInt(dispatch.getPublicationId()))
+          .addInsertParam("instanceId", dispatch.getInstanceId())
+          .addInsertParam("subject", dispatch.getSubject())
+          .addInsertParam("emailFrom", dispatch.getEmailFrom())
+          .addInsertParam("mimeMultipart", dispatch.getMimeMultipart())
+          .addInsertParam("creationDate", System.currentTimeMillis())
+          .execute();
+      dispatch.setId(String.valueOf(id));
+      try (Connection con = DBUtil.openConnection();
+           PreparedStatement stmt = con.prepareStatement(INSERT_RECIPIENT)) {
+        int count = 0;
+        for (String email : recipients) {
+          addRecipient(stmt, id, email, PENDING, null);
+          if (++count % BATCH_SIZE == 0) {
+            stmt.executeBatch();
+          }
+        }
+        for (String email : invalidRecipients) {
+          addRecipient(stmt, id, email, FAILED, "Invalid e-mail address");
+          if (++count % BATCH_SIZE == 0) {
+            stmt.executeBatch();
+          }
+        }
+        stmt.executeBatch();
+      }
+      return null;
+    });
+  }
+
+  private static void addRecipient(final PreparedStatement stmt, final int dispatchId,
+      final String email, final int status, final String error) throws SQLException {
+    stmt.setInt(1, dispatchId);
+    stmt.setString(2, email);
+    stmt.setInt(3, status);
+    stmt.setLong(4, 0L);
+    stmt.setString(5, error);
+    stmt.addBatch();
+  }
+
+  /**
+   * Gets the dispatch with the specified identifier.
+   * @param dispatchId the unique identifier of a dispatch.
+   * @return the dispatch or null if no such dispatch exists.
+   * @throws SQLException if an error occurs while requesting the database.
+   */
+  static Dispatch getDispatch(final String dispatchId) throws SQLException {
+    return JdbcSqlQuery
+        .createSelect("id, publicationId, instanceId, subject, emailFrom, mimeMultipart")
+        .from(DISPATCH_TABLE)
+        .where("id = ?", Integer.parseInt(dispatchId))
+        .executeUnique(row -> {
+          Dispatch dispatch = new Dispatch(String.valueOf(row.getInt(2)), row.getString(3),
+              row.getString(4), row.getString(5), row.getString(6));
+          dispatch.setId(String.valueOf(row.getInt(1)));
+          return dispatch;
+        });
+  }
+
+  /**
+   * Takes or renews the lock on the specified dispatch for the given owner. The lock is taken only
+   * if the dispatch isn't locked by another owner or if its lock is expired, so that a dispatch is
+   * sent by only one node of a cluster at a time.
+   * @param dispatchId the unique identifier of a dispatch.
+   * @param owner the unique identifier of the owner of the lock.
+   * @param now the current time in milliseconds.
+   * @param expiry the time in milliseconds at which the lock expires.
+   * @return true if the lock is held by the owner, false if it is held by another one.
+   * @throws SQLException if an error occurs while updating the database.
+   */
+  static boolean lockDispatch(final String dispatchId, final String owner, final long now,
+      final long expiry) throws SQLException {
+    return JdbcSqlQuery.createUpdateFor(DISPATCH_TABLE)
+        .addUpdateParam("lockOwner", owner)
+        .addUpdateParam("lockExpiry", expiry)
+        .where("id = ?", Integer.parseInt(dispatchId))
+        .and("(lockOwner IS NULL OR lockOwner = ? OR lockExpiry < ?)", owner, now)
+        .execute() == 1;
+  }
+
+  /**
+   * Releases the lock held by the given owner on the specified dispatch: the lock is expired at
+   * once.
+   * @param dispatchId the unique identifier of a dispatch.
+   * @param owner the unique identifier of the owner of the lock.
+   * @throws SQLException if an error occurs while updating the database.
+   */
+  static void unlockDispatch(final String dispatchId, final String owner) throws SQLException {
+    JdbcSqlQuery.createUpdateFor(DISPATCH_TABLE)
+        .addUpdateParam("lockExpiry", 0L)
+        .where("id = ?", Integer.parseInt(dispatchId))
+        .and("lockOwner = ?", owner)
+        .execute();
+  }
+
+  /**
+   * Is the specified dispatch one of the given InfoLetter instance?
+   * @param dispatchId the unique identifier of a dispatch.
+   * @param instanceId the unique identifier of an InfoLetter instance.
+   * @return true if the dispatch exists and is a sending of a newsletter of the instance.
+   * @throws SQLException if an error occurs while requesting the database.
+   */
+  static boolean isDispatchOf(final String dispatchId, final String instanceId)
+      throws SQLException {
+    return JdbcSqlQuery.createCountFor(DISPATCH_TABLE)
+        .where("id = ?", Integer.parseInt(dispatchId))
+        .and("instanceId = ?", instanceId)
+        .execute() > 0;
+  }
+
+  /**
+   * Gets the identifier of the last dispatch of the specified publication.
+   * @param publicationId the unique identifier of a newsletter publication.
+   * @return the identifier of the last dispatch or null if the publication was never sent.
+   * @throws SQLException if an error occurs while requesting the database.
+   */
+  static String getLastDispatchId(final String publicationId) throws SQLException {
+    // the identifiers of the dispatches start at 1, so 0 means no dispatch
+    Integer id = JdbcSqlQuery.createSelect("MAX(id)")
+        .from(DISPATCH_TABLE)
+        .where("publicationId = ?", Integer.parseInt(publicationId))
+        .executeUnique(row -> row.getInt(1));
+    return id == null || id == 0 ? null : String.valueOf(id);
+  }
+
+  /**
+   * Gets the identifiers of the dispatches having recipients to which the newsletter has to be
+   * sent at the specified time.
+   * @param time the time in milliseconds from which a pending recipient is due.
+   * @return the identifiers of the dispatches in their creation order.
+   * @throws SQLException if an error occurs while requesting the database.
+   */
+  static List<String> getDueDispatchIds(final long time) throws SQLException {
+    return JdbcSqlQuery.createSelect("DISTINCT dispatchId")
+        .from(RECIPIENT_TABLE)
+        .where("status = ?", PENDING)
+        .and("nextAttempt <= ?", time)
+        .orderBy("dispatchId")
+        .execute(row -> String.valueOf(row.getInt(1)));
+  }
+
+  /**
+   * Gets the recipients of the specified dispatch to which the newsletter has to be sent at the
+   * specified time.
+   * @param dispatchId the unique identifier of a dispatch.
+   * @param time the time in milliseconds from which a pending recipient is due.
+   * @param limit the maximum number of recipients to get.
+   * @return a list of due recipients.
+   * @throws SQLException if an error occurs while requesting the database.
+   */
+  static List<Recipient> getDueRecipients(final String dispatchId, final long time,
+      final int limit) throws SQLException {
+    return JdbcSqlQuery.createSelect("email, attempts")
+        .from(RECIPIENT_TABLE)
+        .where(DISPATCH_ID, Integer.parseInt(dispatchId))
+        .and("status = ?", PENDING)
+        .and("nextAttempt <= ?", time)
+        .limit(limit)
+        .execute(row -> new Recipient(row.getString(1), row.getInt(2)));
+  }
+
+  /**
+   * Gets the e-mail addresses of the recipients of the specified dispatch to which the newsletter
+   * cannot be sent.
+   * @param dispatchId the unique identifier of a dispatch.
+   * @return a list of e-mail addresses.
+   * @throws SQLException if an error occurs while requesting the database.
+   */
+  static List<String> getFailedRecipients(final String dispatchId) throws SQLException {
+    return JdbcSqlQuery.createSelect("email")
+        .from(RECIPIENT_TABLE)
+        .where(DISPATCH_ID, Integer.parseInt(dispatchId))
+        .and("status = ?", FAILED)
+        .orderBy("email")
+        .execute(row -> row.getString(1));
+  }
+
+  /**
+   * Computes the progress of the specified dispatch.
+   * @param dispatchId the unique identifier of a dispatch.
+   * @return the progress of the dispatch.
+   * @throws SQLException if an error occurs while requesting the database.
+   */
+  static DispatchProgress getProgress(final String dispatchId) throws SQLException {
+    final int[] counts = new int[3];
+    JdbcSqlQuery.createSelect("status, COUNT(*)")
+        .from(RECIPIENT_TABLE)
+        .where(DISPATCH_ID, Integer.parseInt(dispatchId))
+        .addSqlPart("GROUP BY status")
+        .execute(row -> {
+          counts[row.getInt(1)] = row.getInt(2);
+          return null;
+        });
+    return new DispatchProgress(dispatchId, counts[PENDING], counts[SENT], counts[FAILED]);
+  }
+
+  /**
+   * Saves the outcome of the sending of the newsletter to the specified recipients.
+   * @param dispatchId the unique identifier of a dispatch.
+   * @param recipients the processed recipients.
+   * @throws SQLException if an error occurs while updating the database.
+   */
+  static void updateRecipients(final String dispatchId, final Collection<Recipient> recipients)
+      throws SQLException {
+    try (Connection con = DBUtil.openConnection();
+         PreparedStatement stmt = con.prepareStatement(UPDATE_RECIPIENT)) {
+      int count = 0;
+      for (Recipient recipient : recipients) {
+        stmt.setInt(1, recipient.getStatus());
+        stmt.setInt(2, recipient.getAttempts());
+        stmt.setLong(3, recipient.getNextAttempt());
+        stmt.setString(4, truncate(recipient.getLastError()));
+        stmt.setInt(5, Integer.parseInt(dispatchId));
+        stmt.setString(6, recipient.getEmail());
+        stmt.addBatch();
+        if (++count % BATCH_SIZE == 0) {
+          stmt.executeBatch();
+        }
+      }
+      stmt.executeBatch();
+    }
+  }
+
+  /**
+   * Deletes all the dispatches of the specified component instance.
+   * @param instanceId the unique identifier of an InfoLetter instance.
+   * @throws SQLException if an error occurs while deleting the dispatches.
+   */
+  static void deleteDispatches(final String instanceId) throws SQLException {
+    Transaction.performInOne(() -> {
+      JdbcSqlQuery.createDeleteFor(RECIPIENT_TABLE)
+          .where("dispatchId IN (SELECT id FROM " + DISPATCH_TABLE + " WHERE instanceId = ?)",
+              instanceId)
+          .execute();
+      JdbcSqlQuery.createDeleteFor(DISPATCH_TABLE).where("instanceId = ?", instanceId).execute();
+      return null;
+    });
+  }
+
+  private static String truncate(final String error) {
+    if (error != null && error.length() > MAX_ERROR_LENGTH) {
+      return error.substring(0, MAX_ERROR_LENGTH);
+    }
+    return error;
+  }
+}
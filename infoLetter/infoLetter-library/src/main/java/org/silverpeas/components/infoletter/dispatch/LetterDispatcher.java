@@ -0,0 +1,420 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.infoletter.dispatch;
+
+import org.silverpeas.components.infoletter.InfoLetterException;
+import org.silverpeas.components.infoletter.model.InfoLetterPublicationPdC;
+import org.silverpeas.components.infoletter.model.InfoLetterService;
+import org.silverpeas.core.annotation.Service;
+import org.silverpeas.core.persistence.jdbc.bean.IdPK;
+import org.silverpeas.core.thread.ManagedThreadPool;
+import org.silverpeas.core.util.ResourceLocator;
+import org.silverpeas.core.util.ServiceProvider;
+import org.silverpeas.core.util.SettingBundle;
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Singleton;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Multipart;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Dispatcher of the newsletters by e-mail.
+ * <p>
+ * The sending of a newsletter to its recipients is first persisted as a dispatch whose
+ * recipients are queued. The queue is then processed in the background, within the
+ * {@link ManagedThreadPool} of the platform: the recipients are split into batches sent in
+ * parallel, each batch over its own connection to the mail server, at a rate bounded for all
+ * the workers. The outcome of the sending is recorded per recipient and
+ * the failed sendings are retried later, up to a maximum number of attempts. The queue is
+ * processed right after each new dispatch and periodically by the
+ * {@link org.silverpeas.components.infoletter.ScheduledLetterDispatch} job, so that the
+ * retries and the dispatches interrupted by a shutdown are carried on.
+ * </p>
+ * <p>
+ * A dispatch is locked in the database while it is sent, with a lock renewed at each round of
+ * batches, so that the nodes of a cluster never send the same dispatch at the same time. The
+ * lock of a node stopped abruptly expires after a while.
+ * </p>
+ */
+@Service
+@Singleton
+public class LetterDispatcher {
+
+  private static final String SETTINGS_PATH =
+      "org.silverpeas.infoLetter.settings.infoLetterSettings";
+  private static final long LOCK_DURATION = TimeUnit.MINUTES.toMillis(10);
+
+  private final int parallelism;
+  private final int batchSize;
+  private final int maxRate;
+  private final int maxAttempts;
+  private final long retryDelay;
+  private final AtomicBoolean running = new AtomicBoolean(false);
+  private final String nodeId = UUID.randomUUID().toString();
+  private volatile boolean stopped = false;
+  private Supplier<RecipientMailer> mailers;
+
+  protected LetterDispatcher() {
+    final SettingBundle settings = ResourceLocator.getSettingBundle(SETTINGS_PATH);
+    this.parallelism = Math.max(1, settings.getInteger("dispatch.parallelism", 4));
+    this.batchSize = Math.max(1, settings.getInteger("dispatch.batchSize", 100));
+    this.maxRate = settings.getInteger("dispatch.maxRate", 20);
+    this.maxAttempts = Math.max(1, settings.getInteger("dispatch.maxAttempts", 3));
+    this.retryDelay = TimeUnit.SECONDS.toMillis(settings.getInteger("dispatch.retryDelay", 300));
+    final int messagesPerConnection = settings.getInteger("dispatch.messagesPerConnection", 100);
+    this.mailers = () -> new SmtpMailer(messagesPerConnection);
+  }
+
+  public static LetterDispatcher get() {
+    return ServiceProvider.getService(LetterDispatcher.class);
+  }
+
+  /**
+   * Sets the provider of the mailers with which the e-mails are sent. Used by the tests to stub
+   * the mail server.
+   * @param mailers a provider of {@link RecipientMailer} instances.
+   */
+  void setMailers(final Supplier<RecipientMailer> mailers) {
+    this.mailers = mailers;
+  }
+
+  /**
+   * Queues the sending of the specified newsletter publication to the given recipients and
+   * starts to process the queue in the background. The invalid e-mail addresses are recorded
+   * as failed at once.
+   * @param ilp the newsletter publication to send.
+   * @param mimeMultipart the MIME multipart subtype of the e-mails.
+   * @param emails the e-mail addresses of the recipients.
+   * @param subject the subject of the e-mails.
+   * @param emailFrom the e-mail address of the sender.
+   * @return the progress of the new dispatch.
+   */
+  public DispatchProgress enqueue(final InfoLetterPublicationPdC ilp, final String mimeMultipart,
+      final Collection<String> emails, final String subject, final String emailFrom) {
+    final List<String> recipients = new ArrayList<>(emails.size());
+    final List<String> invalidRecipients = new ArrayList<>();
+    for (String email : emails) {
+      if (isValid(email)) {
+        recipients.add(email);
+      } else {
+        invalidRecipients.add(email);
+      }
+    }
+    final Dispatch dispatch = new Dispatch(ilp.getPK().getId(), ilp.getComponentInstanceId(),
+        subject, emailFrom, mimeMultipart);
+    try {
+      InfoLetterDispatchDAO.saveDispatch(dispatch, recipients, invalidRecipients);
+      dispatchInBackground();
+      return InfoLetterDispatchDAO.getProgress(dispatch.getId());
+    } catch (SQLException e) {
+      throw new InfoLetterException(e);
+    }
+  }
+
+  /**
+   * Gets the progress of the specified dispatch of a newsletter of the given InfoLetter instance.
+   * @param dispatchId the unique identifier of a dispatch.
+   * @param instanceId the unique identifier of the InfoLetter instance.
+   * @return the progress of the dispatch or null if there is no such dispatch in the instance.
+   */
+  public DispatchProgress getProgress(final String dispatchId, final String instanceId) {
+    try {
+      return InfoLetterDispatchDAO.isDispatchOf(dispatchId, instanceId) ?
+          InfoLetterDispatchDAO.getProgress(dispatchId) : null;
+    } catch (SQLException e) {
+      throw new InfoLetterException(e);
+    }
+  }
+
+  /**
+   * Gets the e-mail addresses of the recipients of the specified dispatch to which the
+   * newsletter cannot be sent.
+   * @param dispatchId the unique identifier of a dispatch.
+   * @return a list of e-mail addresses.
+   */
+  public List<String> getFailedRecipients(final String dispatchId) {
+    try {
+      return InfoLetterDispatchDAO.getFailedRecipients(dispatchId);
+    } catch (SQLException e) {
+      throw new InfoLetterException(e);
+    }
+  }
+
+  /**
+   * Deletes all the dispatches of the specified InfoLetter instance, whatever their progress.
+   * @param instanceId the unique identifier of an InfoLetter instance.
+   */
+  public void deleteDispatches(final String instanceId) {
+    try {
+      InfoLetterDispatchDAO.deleteDispatches(instanceId);
+    } catch (SQLException e) {
+      throw new InfoLetterException(e);
+    }
+  }
+
+  /**
+   * Processes the queue of the dispatches in the background. Does nothing if the queue is already
+   * being processed.
+   */
+  public void dispatchInBackground() {
+    if (stopped) {
+      SilverLogger.getLogger(this).warn("The newsletter dispatcher is stopped");
+      return;
+    }
+    try {
+      ManagedThreadPool.getPool().invoke(this::dispatch);
+    } catch (RuntimeException e) {
+      // the pending recipients are taken again by the next scheduled dispatching
+      SilverLogger.getLogger(this).error(e);
+    }
+  }
+
+  /**
+   * Sends the newsletters to all the recipients that are due in the queue. Returns once all of
+   * them are processed. Does nothing if the queue is already being processed.
+   */
+  public void dispatch() {
+    if (!running.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      for (String dispatchId : InfoLetterDispatchDAO.getDueDispatchIds(now())) {
+        final Dispatch dispatch = InfoLetterDispatchDAO.getDispatch(dispatchId);
+        if (dispatch != null && lock(dispatch)) {
+          try {
+            dispatch(dispatch);
+          } finally {
+            InfoLetterDispatchDAO.unlockDispatch(dispatch.getId(), nodeId);
+          }
+        }
+      }
+    } catch (Exception e) {
+      SilverLogger.getLogger(this).error(e);
+    } finally {
+      running.set(false);
+    }
+  }
+
+  private void dispatch(final Dispatch dispatch) throws SQLException {
+    final Multipart content;
+    try {
+      content = LetterMailContent.build(getPublication(dispatch), dispatch.getMimeMultipart());
+    } catch (Exception e) {
+      SilverLogger.getLogger(this)
+          .error("Cannot build the content of the newsletter {0}: {1}",
+              dispatch.getPublicationId(), e.getMessage());
+      failAll(dispatch, e.getMessage());
+      return;
+    }
+
+    final SendRateLimiter rateLimiter = new SendRateLimiter(maxRate);
+    final AtomicInteger sent = new AtomicInteger(0);
+    final List<Future<Void>> batches = new ArrayList<>(parallelism);
+    // at most parallelism batches are fetched at a time, each of them sent by its own worker
+    List<Recipient> recipients =
+        InfoLetterDispatchDAO.getDueRecipients(dispatch.getId(), now(), parallelism * batchSize);
+    while (!recipients.isEmpty() && !stopped) {
+      final List<Throwable> errors;
+      try {
+        for (int i = 0; i < recipients.size(); i += batchSize) {
+          final List<Recipient> batch =
+              recipients.subList(i, Math.min(i + batchSize, recipients.size()));
+          batches.add(ManagedThreadPool.getPool().invoke(() -> {
+            try {
+              sendBatch(dispatch, content, batch, rateLimiter, sent);
+            } finally {
+              // the recipients not processed are left unchanged, that is to say pending
+              InfoLetterDispatchDAO.updateRecipients(dispatch.getId(), batch);
+            }
+            return null;
+          }));
+        }
+      } finally {
+        errors = awaitAll(batches);
+        batches.clear();
+      }
+      if (!errors.isEmpty()) {
+        reportErrors(dispatch, errors);
+        break;
+      }
+      if (Thread.currentThread().isInterrupted() || !lock(dispatch)) {
+        break;
+      }
+      recipients = InfoLetterDispatchDAO.getDueRecipients(dispatch.getId(), now(),
+          parallelism * batchSize);
+    }
+    SilverLogger.getLogger(this)
+        .info("Newsletter {0}: {1} e-mails sent for the dispatch {2}",
+            dispatch.getPublicationId(), sent.get(), dispatch.getId());
+  }
+
+  /**
+   * Takes or renews the lock of this node on the specified dispatch.
+   * @return true if the dispatch is locked by this node, false if it is sent by another node.
+   */
+  private boolean lock(final Dispatch dispatch) throws SQLException {
+    final long now = now();
+    return InfoLetterDispatchDAO.lockDispatch(dispatch.getId(), nodeId, now, now + LOCK_DURATION);
+  }
+
+  /**
+   * Waits for all the given batches to be sent, whatever the failure of some of them or the
+   * interruption of the current thread, so that no batch is still sending once the dispatch
+   * has returned. The interruption status of the current thread is restored at the end.
+   * @param batches the batches being sent.
+   * @return the errors with which the failed batches ended.
+   */
+  static List<Throwable> awaitAll(final List<Future<Void>> batches) {
+    final List<Throwable> errors = new ArrayList<>();
+    boolean interrupted = false;
+    for (Future<Void> batch : batches) {
+      boolean done = false;
+      while (!done) {
+        try {
+          batch.get();
+          done = true;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          errors.add(e.getCause());
+          done = true;
+        } catch (CancellationException e) {
+          done = true;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    return errors;
+  }
+
+  private void reportErrors(final Dispatch dispatch, final List<Throwable> errors) {
+    final InfoLetterException error = new InfoLetterException(
+        errors.size() + " batches of the dispatch " + dispatch.getId() + " of the newsletter " +
+            dispatch.getPublicationId() + " failed");
+    errors.forEach(error::addSuppressed);
+    SilverLogger.getLogger(this).error(error);
+  }
+
+  /**
+   * Sends the newsletter to the specified recipients over a same connection to the mail server.
+   * The outcome of the sending is set to each recipient. The sending stops at once with the
+   * dispatcher: the remaining recipients are then left pending.
+   */
+  void sendBatch(final Dispatch dispatch, final Multipart content,
+      final List<Recipient> batch, final SendRateLimiter rateLimiter, final AtomicInteger sent)
+      throws InterruptedException {
+    try (RecipientMailer mailer = mailers.get()) {
+      for (Recipient recipient : batch) {
+        if (stopped) {
+          break;
+        }
+        rateLimiter.acquire();
+        try {
+          mailer.send(newMessage(mailer, dispatch, content, recipient.getEmail()));
+          recipient.sent();
+          sent.incrementAndGet();
+        } catch (MessagingException e) {
+          SilverLogger.getLogger(this)
+              .warn("Cannot send the newsletter {0} to {1}: {2}", dispatch.getPublicationId(),
+                  recipient.getEmail(), e.getMessage());
+          recipient.failed(e.getMessage(), maxAttempts, now() + retryDelay);
+        }
+      }
+    }
+  }
+
+  private MimeMessage newMessage(final RecipientMailer mailer, final Dispatch dispatch,
+      final Multipart content, final String email) throws MessagingException {
+    final MimeMessage message = new MimeMessage(mailer.getSession());
+    message.setFrom(new InternetAddress(dispatch.getEmailFrom()));
+    message.setRecipient(Message.RecipientType.TO, new InternetAddress(email));
+    message.setSubject(dispatch.getSubject(), StandardCharsets.UTF_8.name());
+    message.setContent(content);
+    message.setSentDate(new Date());
+    message.saveChanges();
+    return message;
+  }
+
+  private InfoLetterPublicationPdC getPublication(final Dispatch dispatch) {
+    final InfoLetterPublicationPdC ilp = InfoLetterService.get()
+        .getInfoLetterPublication(new IdPK(dispatch.getPublicationId()));
+    if (ilp == null) {
+      throw new InfoLetterException(
+          "The newsletter " + dispatch.getPublicationId() + " doesn't exist anymore");
+    }
+    ilp.setInstanceId(dispatch.getInstanceId());
+    return ilp;
+  }
+
+  private void failAll(final Dispatch dispatch, final String error) throws SQLException {
+    List<Recipient> recipients =
+        InfoLetterDispatchDAO.getDueRecipients(dispatch.getId(), Long.MAX_VALUE, batchSize);
+    while (!recipients.isEmpty()) {
+      recipients.forEach(r -> r.failed(error, 0, 0));
+      InfoLetterDispatchDAO.updateRecipients(dispatch.getId(), recipients);
+      recipients =
+          InfoLetterDispatchDAO.getDueRecipients(dispatch.getId(), Long.MAX_VALUE, batchSize);
+    }
+  }
+
+  private static boolean isValid(final String email) {
+    try {
+      new InternetAddress(email, true);
+      return true;
+    } catch (Exception e) {
+      return false;
+    }
+  }
+
+  private static long now() {
+    return System.currentTimeMillis();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    // the dispatches in progress stop after their current batches; the remaining recipients
+    // are kept pending in the queue
+    stopped = true;
+  }
+}
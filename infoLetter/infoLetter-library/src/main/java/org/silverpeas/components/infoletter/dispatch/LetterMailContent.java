@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.infoletter.dispatch;
+
+import org.silverpeas.components.infoletter.model.InfoLetterPublicationPdC;
+import org.silverpeas.core.ResourceReference;
+import org.silverpeas.core.SilverpeasException;
+import org.silverpeas.core.contribution.attachment.AttachmentServiceProvider;
+import org.silverpeas.core.contribution.attachment.model.DocumentType;
+import org.silverpeas.core.contribution.attachment.model.SimpleDocument;
+import org.silverpeas.core.contribution.attachment.model.SimpleDocumentMailAttachedFile;
+import org.silverpeas.core.contribution.content.wysiwyg.service.WysiwygContentTransformer;
+import org.silverpeas.core.contribution.content.wysiwyg.service.WysiwygController;
+import org.silverpeas.core.contribution.content.wysiwyg.service.process.MailContentProcess;
+
+import javax.mail.MessagingException;
+import javax.mail.Multipart;
+import javax.mail.internet.MimeMultipart;
+import java.util.List;
+
+import static org.silverpeas.core.mail.MailContent.extractTextBodyPartFromHtmlContent;
+import static org.silverpeas.core.mail.MailContent.getHtmlBodyPartFromHtmlContent;
+
+/**
+ * Builder of the content of the e-mails carrying a newsletter publication. The content is built
+ * once per dispatch and shared by the e-mails sent to all the recipients.
+ */
+class LetterMailContent {
+
+  private LetterMailContent() {
+  }
+
+  static Multipart build(InfoLetterPublicationPdC ilp, String mimeMultipart)
+      throws MessagingException, SilverpeasException {
+    Multipart multipart = new MimeMultipart(mimeMultipart);
+
+    // create and fill the first message part
+    ResourceReference foreignKey =
+        new ResourceReference(ilp.getPK().getId(), ilp.getComponentInstanceId());
+
+    // Load and transform WYSIWYG content for mailing
+    String wysiwygContent =
+        WysiwygController.load(foreignKey.getInstanceId(), foreignKey.getId(), null);
+    MailContentProcess.MailResult wysiwygMailTransformResult =
+        WysiwygContentTransformer.on(wysiwygContent).toMailContent();
+
+    // Prepare Mail parts
+    final String htmlContent = wysiwygMailTransformResult.getWysiwygContent();
+    if ("alternative".equals(mimeMultipart)) {
+      // First the WYSIWYG as brut text
+      multipart.addBodyPart(extractTextBodyPartFromHtmlContent(htmlContent));
+      // Then all the referenced media content
+      wysiwygMailTransformResult.applyOn(multipart);
+      // Finally the WYSIWYG (the preferred one)
+      multipart.addBodyPart(getHtmlBodyPartFromHtmlContent(htmlContent));
+    } else {
+      // First the WYSIWYG (the main one)
+      multipart.addBodyPart(getHtmlBodyPartFromHtmlContent(htmlContent));
+      // Then all the referenced media content
+      wysiwygMailTransformResult.applyOn(multipart);
+      // Finally the WYSIWYG as brut text
+      multipart.addBodyPart(extractTextBodyPartFromHtmlContent(htmlContent));
+    }
+
+    // Finally explicit attached files
+    List<SimpleDocument> listAttachedFilesFromTab =
+        AttachmentServiceProvider.getAttachmentService().
+            listDocumentsByForeignKeyAndType(foreignKey, DocumentType.attachment, null);
+    attachFilesToMail(multipart, listAttachedFilesFromTab);
+
+    // The completed multipart mail to send
+    return multipart;
+  }
+
+  private static void attachFilesToMail(Multipart mp, List<SimpleDocument> listAttachedFiles)
+      throws MessagingException {
+    for (final SimpleDocument attachment : listAttachedFiles) {
+      mp.addBodyPart(new SimpleDocumentMailAttachedFile(attachment).toBodyPart());
+    }
+  }
+}
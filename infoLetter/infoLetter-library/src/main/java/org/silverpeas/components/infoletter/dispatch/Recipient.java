@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.infoletter.dispatch;
+
+/**
+ * A recipient of a newsletter dispatch with the status of the sending of the newsletter to it.
+ */
+class Recipient {
+
+  private final String email;
+  private int attempts;
+  private int status = InfoLetterDispatchDAO.PENDING;
+  private long nextAttempt;
+  private String lastError;
+
+  Recipient(final String email, final int attempts) {
+    this.email = email;
+    this.attempts = attempts;
+  }
+
+  String getEmail() {
+    return email;
+  }
+
+  int getAttempts() {
+    return attempts;
+  }
+
+  int getStatus() {
+    return status;
+  }
+
+  long getNextAttempt() {
+    return nextAttempt;
+  }
+
+  String getLastError() {
+    return lastError;
+  }
+
+  /**
+   * The newsletter has been sent to this recipient.
+   */
+  void sent() {
+    attempts++;
+    status = InfoLetterDispatchDAO.SENT;
+    lastError = null;
+  }
+
+  /**
+   * The sending of the newsletter to this recipient has failed. The recipient is kept pending for
+   * a next attempt unless the maximum number of attempts is reached.
+   * @param error the cause of the failure.
+   * @param maxAttempts the maximum number of sending attempts.
+   * @param retryTime the time in milliseconds at which the next attempt can be made.
+   */
+  void failed(final String error, final int maxAttempts, final long retryTime) {
+    attempts++;
+    lastError = error;
+    if (attempts >= maxAttempts) {
+      status = InfoLetterDispatchDAO.FAILED;
+    } else {
+      nextAttempt = retryTime;
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.infoletter.dispatch;
+
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+
+/**
+ * A sender of e-mails over a connection to a mail server that is kept open between the
+ * sendings. A mailer isn't thread-safe: it is used by one worker at a time.
+ */
+interface RecipientMailer extends AutoCloseable {
+
+  /**
+   * Gets the mail session with which the messages to send have to be built.
+   * @return the mail session of the mailer.
+   */
+  Session getSession();
+
+  /**
+   * Sends the specified message to its recipients, opening the connection to the mail server if
+   * it isn't yet open.
+   * @param message the message to send.
+   * @throws MessagingException if the message cannot be sent.
+   */
+  void send(MimeMessage message) throws MessagingException;
+
+  /**
+   * Closes the connection to the mail server.
+   */
+  @Override
+  void close();
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.infoletter.dispatch;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the number of e-mails sent per second by all the workers of a dispatch. Each sending
+ * reserves the next free time slot and waits for it.
+ */
+class SendRateLimiter {
+
+  private final long interval;
+  private long nextSlot;
+
+  /**
+   * @param maxPerSecond the maximum number of sendings per second. Unlimited if 0 or negative.
+   */
+  SendRateLimiter(final int maxPerSecond) {
+    this.interval = maxPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxPerSecond : 0;
+    this.nextSlot = System.nanoTime();
+  }
+
+  /**
+   * Waits until the next sending is allowed.
+   * @throws InterruptedException if the waiting thread is interrupted.
+   */
+  void acquire() throws InterruptedException {
+    if (interval > 0) {
+      final long wait = reserve();
+      if (wait > 0) {
+        TimeUnit.NANOSECONDS.sleep(wait);
+      }
+    }
+  }
+
+  private synchronized long reserve() {
+    final long now = System.nanoTime();
+    final long slot = nextSlot - now > 0 ? nextSlot : now;
+    nextSlot = slot + interval;
+    return slot - now;
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.infoletter.dispatch;
+
+import org.silverpeas.core.mail.engine.SmtpConfiguration;
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+import java.util.Properties;
+
+/**
+ * A {@link RecipientMailer} sending the e-mails with the SMTP server configured in Silverpeas.
+ * The connection to the server is reused for several messages and it is renewed after a given
+ * number of messages or when the server has closed it.
+ */
+class SmtpMailer implements RecipientMailer {
+
+  private final Session session;
+  private final SmtpConfiguration config;
+  private final int maxMessagesPerConnection;
+  private Transport transport;
+  private int sentOnConnection = 0;
+  private int connections = 0;
+
+  SmtpMailer(final int maxMessagesPerConnection) {
+    this.config = SmtpConfiguration.fromDefaultSettings();
+    this.maxMessagesPerConnection = Math.max(1, maxMessagesPerConnection);
+    final String protocol = getProtocol();
+    final Properties properties = new Properties();
+    properties.put("mail.transport.protocol", protocol);
+    properties.put("mail." + protocol + ".host", config.getServer());
+    properties.put("mail." + protocol + ".port", String.valueOf(config.getPort()));
+    properties.put("mail." + protocol + ".auth", String.valueOf(config.isAuthenticate()));
+    this.session = Session.getInstance(properties);
+    this.session.setDebug(config.isDebug());
+  }
+
+  @Override
+  public Session getSession() {
+    return session;
+  }
+
+  @Override
+  public void send(final MimeMessage message) throws MessagingException {
+    if (transport == null || !transport.isConnected() ||
+        sentOnConnection >= maxMessagesPerConnection) {
+      connect();
+    }
+    transport.sendMessage(message, message.getAllRecipients());
+    sentOnConnection++;
+  }
+
+  /**
+   * Gets the number of connections opened to the mail server by this mailer.
+   * @return the count of the connections opened so far.
+   */
+  int getConnectionCount() {
+    return connections;
+  }
+
+  @Override
+  public void close() {
+    if (transport != null) {
+      try {
+        transport.close();
+      } catch (MessagingException e) {
+        SilverLogger.getLogger(this).silent(e);
+      }
+      transport = null;
+    }
+  }
+
+  private void connect() throws MessagingException {
+    close();
+    transport = session.getTransport(getProtocol());
+    if (config.isAuthenticate()) {
+      transport.connect(config.getServer(), config.getPort(), config.getUsername(),
+          config.getPassword());
+    } else {
+      transport.connect();
+    }
+    sentOnConnection = 0;
+    connections++;
+  }
+
+  private String getProtocol() {
+    return config.isSecure() ? "smtps" : "smtp";
+  }
+}
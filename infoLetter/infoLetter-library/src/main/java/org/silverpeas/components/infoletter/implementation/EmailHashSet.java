@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.infoletter.implementation;
+
+/**
+ * A compact set of e-mail addresses used to deduplicate large lists of external subscribers.
+ * Only a 64-bit hash of each address is kept in an open addressing table, so that the memory
+ * footprint is about 16 bytes per address whatever its length. Two distinct addresses sharing
+ * the same hash are taken as equal; with 64 bits the probability of such a collision is
+ * negligible for lists of some millions of addresses.
+ */
+class EmailHashSet {
+
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final long FREE = 0L;
+
+  private long[] table = new long[INITIAL_CAPACITY];
+  private int size = 0;
+
+  /**
+   * Adds the specified e-mail address into this set.
+   * @param email an e-mail address.
+   * @return true if the address wasn't already in this set, false otherwise.
+   */
+  boolean add(final String email) {
+    if ((size + 1) * 2 > table.length) {
+      resize();
+    }
+    if (insert(table, hash(email))) {
+      size++;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Is the specified e-mail address in this set?
+   * @param email an e-mail address.
+   * @return true if the address is in this set, false otherwise.
+   */
+  boolean contains(final String email) {
+    final long hash = hash(email);
+    final int mask = table.length - 1;
+    int i = index(hash, mask);
+    while (table[i] != FREE) {
+      if (table[i] == hash) {
+        return true;
+      }
+      i = (i + 1) & mask;
+    }
+    return false;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  private void resize() {
+    final long[] newTable = new long[table.length * 2];
+    for (long hash : table) {
+      if (hash != FREE) {
+        insert(newTable, hash);
+      }
+    }
+    table = newTable;
+  }
+
+  private static boolean insert(final long[] table, final long hash) {
+    final int mask = table.length - 1;
+    int i = index(hash, mask);
+    while (table[i] != FREE) {
+      if (table[i] == hash) {
+        return false;
+      }
+      i = (i + 1) & mask;
+    }
+    table[i] = hash;
+    return true;
+  }
+
+  private static int index(final long hash, final int mask) {
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+
+  /**
+   * Computes a 64-bit hash of the specified address by combining the hash code of the string
+   * with a FNV-1a hash of its characters.
+   */
+  private static long hash(final String email) {
+    int fnv = 0x811c9dc5;
+    for (int i = 0; i < email.length(); i++) {
+      fnv ^= email.charAt(i);
+      fnv *= 0x01000193;
+    }
+    final long hash = ((long) email.hashCode() << 32) | (fnv & 0xffffffffL);
+    return hash == FREE ? 1L : hash;
+  }
+}
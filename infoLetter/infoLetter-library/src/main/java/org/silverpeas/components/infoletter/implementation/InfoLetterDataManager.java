@@ -25,12 +25,13 @@ package org.silverpeas.components.infoletter.implementation;
 
 import org.silverpeas.components.infoletter.InfoLetterContentManager;
 import org.silverpeas.components.infoletter.InfoLetterException;
+import org.silverpeas.components.infoletter.dispatch.DispatchProgress;
+import org.silverpeas.components.infoletter.dispatch.LetterDispatcher;
 import org.silverpeas.components.infoletter.model.InfoLetter;
 import org.silverpeas.components.infoletter.model.InfoLetterPublication;
 import org.silverpeas.components.infoletter.model.InfoLetterPublicationPdC;
 import org.silverpeas.components.infoletter.model.InfoLetterService;
 import org.silverpeas.core.ResourceReference;
-import org.silverpeas.core.SilverpeasException;
 import org.silverpeas.core.WAPrimaryKey;
 import org.silverpeas.core.admin.component.model.ComponentInst;
 import org.silverpeas.core.admin.service.OrganizationController;
@@ -38,15 +39,9 @@ import org.silverpeas.core.admin.service.OrganizationControllerProvider;
 import org.silverpeas.core.admin.user.model.Group;
 import org.silverpeas.core.admin.user.model.UserDetail;
 import org.silverpeas.core.annotation.Service;
-import org.silverpeas.core.contribution.attachment.AttachmentServiceProvider;
-import org.silverpeas.core.contribution.attachment.model.DocumentType;
-import org.silverpeas.core.contribution.attachment.model.SimpleDocument;
-import org.silverpeas.core.contribution.attachment.model.SimpleDocumentMailAttachedFile;
-import org.silverpeas.core.contribution.content.wysiwyg.service.WysiwygContentTransformer;
 import org.silverpeas.core.contribution.content.wysiwyg.service.WysiwygController;
-import org.silverpeas.core.contribution.content.wysiwyg.service.process.MailContentProcess;
 import org.silverpeas.core.i18n.I18NHelper;
-import org.silverpeas.core.mail.MailSending;
+import org.silverpeas.core.persistence.Transaction;
 import org.silverpeas.core.persistence.jdbc.DBUtil;
 import org.silverpeas.core.persistence.jdbc.bean.IdPK;
 import org.silverpeas.core.persistence.jdbc.bean.PersistenceException;
@@ -60,26 +55,23 @@ import org.silverpeas.core.subscription.service.GroupSubscriptionSubscriber;
 import org.silverpeas.core.subscription.service.ResourceSubscriptionProvider;
 import org.silverpeas.core.subscription.service.UserSubscriptionSubscriber;
 import org.silverpeas.core.subscription.util.SubscriptionSubscriberList;
-import org.silverpeas.core.util.logging.SilverLogger;
 
 import javax.inject.Inject;
-import javax.mail.MessagingException;
-import javax.mail.Multipart;
-import javax.mail.internet.InternetAddress;
-import javax.mail.internet.MimeMultipart;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.Statement;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-
-import static org.silverpeas.core.mail.MailAddress.eMail;
-import static org.silverpeas.core.mail.MailContent.extractTextBodyPartFromHtmlContent;
-import static org.silverpeas.core.mail.MailContent.getHtmlBodyPartFromHtmlContent;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Class declaration
@@ -89,6 +81,14 @@ import static org.silverpeas.core.mail.MailContent.getHtmlBodyPartFromHtmlConten
 public class InfoLetterDataManager implements InfoLetterService {
 
   private static final String TABLE_EXTERNAL_EMAILS = "SC_IL_ExtSus";
+  private static final String SELECT_EXTERNAL_EMAILS =
+      "SELECT email FROM " + TABLE_EXTERNAL_EMAILS + " WHERE instanceId = ? AND letter = ?";
+  private static final String INSERT_EXTERNAL_EMAIL =
+      "INSERT INTO " + TABLE_EXTERNAL_EMAILS + " (letter, email, instanceId) VALUES (?, ?, ?)";
+  private static final String DELETE_EXTERNAL_EMAILS =
+      "DELETE FROM " + TABLE_EXTERNAL_EMAILS + " WHERE instanceId = ? AND letter = ?";
+  private static final String DELETE_EXTERNAL_EMAIL = DELETE_EXTERNAL_EMAILS + " AND email = ?";
+  private static final int BATCH_SIZE = 500;
   private static final String INSTANCE_ID = "instanceId = '";
 
   private SilverpeasBeanDAO<InfoLetter> infoLetterDAO;
@@ -244,6 +244,7 @@ public class InfoLetterDataManager implements InfoLetterService {
         statement.setString(1, componentId);
         statement.execute();
       }
+      LetterDispatcher.get().deleteDispatches(componentId);
     } catch (Exception e) {
       throw new InfoLetterException(e);
     }
@@ -303,19 +304,9 @@ public class InfoLetterDataManager implements InfoLetterService {
   @Override
   public Set<String> getEmailsExternalsSuscribers(WAPrimaryKey letterPK) {
     Set<String> retour = new LinkedHashSet<>();
+    InfoLetter letter = getInfoLetter(letterPK);
     try (Connection con = openConnection()) {
-      InfoLetter letter = getInfoLetter(letterPK);
-      String selectQuery = "SELECT * FROM " + TABLE_EXTERNAL_EMAILS;
-      selectQuery += " where instanceId = '" + letter.getInstanceId() + "' ";
-      selectQuery += " and letter = " + letterPK.getId() + " ";
-
-      try (Statement selectStmt = con.createStatement()) {
-        try (ResultSet rs = selectStmt.executeQuery(selectQuery)) {
-          while (rs.next()) {
-            retour.add(rs.getString("email"));
-          }
-        }
-      }
+      forEachEmailExternalSubscriber(con, letter.getInstanceId(), letterPK, retour::add);
     } catch (Exception e) {
       throw new InfoLetterException(e);
     }
@@ -324,31 +315,118 @@ public class InfoLetterDataManager implements InfoLetterService {
 
   @Override
   public void setEmailsExternalsSubscribers(WAPrimaryKey letterPK, Set<String> emails) {
-    try (Connection con = openConnection()) {
-      InfoLetter letter = getInfoLetter(letterPK);
-      String query = "DELETE FROM " + TABLE_EXTERNAL_EMAILS;
-      query += " where instanceId = '" + letter.getInstanceId() + "' ";
-      query += " and letter = " + letterPK.getId() + " ";
+    setEmailsExternalsSubscribers(letterPK, emails.stream());
+  }
 
-      try (Statement stmt = con.createStatement()) {
-        stmt.executeUpdate(query);
-      }
-      if (!emails.isEmpty()) {
-        for (String email : emails) {
-          query = "INSERT INTO " + TABLE_EXTERNAL_EMAILS + "(letter, email, instanceId)";
-          query +=
-              " values (" + letterPK.getId() + ", '" + email + "', '" + letter.getInstanceId() +
-                  "')";
-          try (Statement stmt = con.createStatement()) {
-            stmt.executeUpdate(query);
+  @Override
+  public void setEmailsExternalsSubscribers(WAPrimaryKey letterPK, Stream<String> emails) {
+    InfoLetter letter = getInfoLetter(letterPK);
+    String instanceId = letter.getInstanceId();
+    int letterId = Integer.parseInt(letterPK.getId());
+    try {
+      Transaction.performInOne(() -> {
+        try (Connection con = openConnection()) {
+          EmailHashSet existing = new EmailHashSet();
+          forEachEmailExternalSubscriber(con, instanceId, letterPK, existing::add);
+          EmailHashSet saved = new EmailHashSet();
+          try (PreparedStatement insert = con.prepareStatement(INSERT_EXTERNAL_EMAIL)) {
+            int count = 0;
+            for (Iterator<String> it = emails.iterator(); it.hasNext(); ) {
+              String email = it.next();
+              if (saved.add(email) && !existing.contains(email)) {
+                insert.setInt(1, letterId);
+                insert.setString(2, email);
+                insert.setString(3, instanceId);
+                insert.addBatch();
+                if (++count % BATCH_SIZE == 0) {
+                  insert.executeBatch();
+                }
+              }
+            }
+            insert.executeBatch();
           }
+          deleteEmailsExternalsSubscribersNotIn(con, instanceId, letterPK, saved);
         }
-      }
+        return null;
+      });
     } catch (Exception e) {
       throw new InfoLetterException(e);
     }
   }
 
+  @Override
+  public void writeEmailsExternalsSubscribers(WAPrimaryKey letterPK, Writer writer)
+      throws IOException {
+    InfoLetter letter = getInfoLetter(letterPK);
+    try (Connection con = openConnection()) {
+      forEachEmailExternalSubscriber(con, letter.getInstanceId(), letterPK, email -> {
+        try {
+          writer.write(email);
+          writer.write('\n');
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } catch (SQLException e) {
+      throw new InfoLetterException(e);
+    }
+    writer.flush();
+  }
+
+  /**
+   * Passes each external subscriber email of the specified letter to the given action as they
+   * are read from the database.
+   */
+  private void forEachEmailExternalSubscriber(Connection con, String instanceId,
+      WAPrimaryKey letterPK, Consumer<String> action) throws SQLException {
+    try (PreparedStatement stmt = con.prepareStatement(SELECT_EXTERNAL_EMAILS)) {
+      stmt.setString(1, instanceId);
+      stmt.setInt(2, Integer.parseInt(letterPK.getId()));
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          action.accept(rs.getString(1));
+        }
+      }
+    }
+  }
+
+  /**
+   * Deletes the external subscriber emails of the specified letter that aren't in the given set.
+   */
+  private void deleteEmailsExternalsSubscribersNotIn(Connection con, String instanceId,
+      WAPrimaryKey letterPK, EmailHashSet emailsToKeep) throws SQLException {
+    int letterId = Integer.parseInt(letterPK.getId());
+    if (emailsToKeep.isEmpty()) {
+      try (PreparedStatement delete = con.prepareStatement(DELETE_EXTERNAL_EMAILS)) {
+        delete.setString(1, instanceId);
+        delete.setInt(2, letterId);
+        delete.executeUpdate();
+      }
+      return;
+    }
+    List<String> emailsToDelete = new ArrayList<>();
+    forEachEmailExternalSubscriber(con, instanceId, letterPK, email -> {
+      if (!emailsToKeep.contains(email)) {
+        emailsToDelete.add(email);
+      }
+    });
+    try (PreparedStatement delete = con.prepareStatement(DELETE_EXTERNAL_EMAIL)) {
+      int count = 0;
+      for (String email : emailsToDelete) {
+        delete.setString(1, instanceId);
+        delete.setInt(2, letterId);
+        delete.setString(3, email);
+        delete.addBatch();
+        if (++count % BATCH_SIZE == 0) {
+          delete.executeBatch();
+        }
+      }
+      delete.executeBatch();
+    }
+  }
+
   @Override
   public void toggleSuscriber(String userId, String componentId, boolean isUserSubscribing) {
     Subscription subscription =
@@ -393,91 +471,12 @@ public class InfoLetterDataManager implements InfoLetterService {
     return con;
   }
 
-  private void attachFilesToMail(Multipart mp, List<SimpleDocument> listAttachedFiles)
-      throws MessagingException {
-    for (final SimpleDocument attachment : listAttachedFiles) {
-      mp.addBodyPart(new SimpleDocumentMailAttachedFile(attachment).toBodyPart());
-    }
-  }
-
-  private Multipart createContentMessageMail(InfoLetterPublicationPdC ilp, String mimeMultipart)
-      throws MessagingException, SilverpeasException {
-    Multipart multipart = new MimeMultipart(mimeMultipart);
-
-    // create and fill the first message part
-    ResourceReference foreignKey = new ResourceReference(ilp.getPK().getId(), ilp.getComponentInstanceId());
-
-    // Load and transform WYSIWYG content for mailing
-    String wysiwygContent =
-        WysiwygController.load(foreignKey.getInstanceId(), foreignKey.getId(), null);
-    MailContentProcess.MailResult wysiwygMailTransformResult =
-        WysiwygContentTransformer.on(wysiwygContent).toMailContent();
-
-    // Prepare Mail parts
-    final String htmlContent = wysiwygMailTransformResult.getWysiwygContent();
-    if ("alternative".equals(mimeMultipart)) {
-      // First the WYSIWYG as brut text
-      multipart.addBodyPart(extractTextBodyPartFromHtmlContent(htmlContent));
-      // Then all the referenced media content
-      wysiwygMailTransformResult.applyOn(multipart);
-      // Finally the WYSIWYG (the preferred one)
-      multipart.addBodyPart(getHtmlBodyPartFromHtmlContent(htmlContent));
-    } else {
-      // First the WYSIWYG (the main one)
-      multipart.addBodyPart(getHtmlBodyPartFromHtmlContent(htmlContent));
-      // Then all the referenced media content
-      wysiwygMailTransformResult.applyOn(multipart);
-      // Finally the WYSIWYG as brut text
-      multipart.addBodyPart(extractTextBodyPartFromHtmlContent(htmlContent));
-    }
-
-    // Finally explicit attached files
-    List<SimpleDocument> listAttachedFilesFromTab =
-        AttachmentServiceProvider.getAttachmentService().
-            listDocumentsByForeignKeyAndType(foreignKey, DocumentType.attachment, null);
-    attachFilesToMail(multipart, listAttachedFilesFromTab);
-
-    // The completed multipart mail to send
-    return multipart;
-  }
-
   @Override
-  public Set<String> sendLetterByMail(InfoLetterPublicationPdC ilp, String server,
+  public DispatchProgress sendLetterByMail(InfoLetterPublicationPdC ilp, String server,
       String mimeMultipart, Set<String> listEmailDest, String subject, String emailFrom) {
-
-    Set<String> emailErrors = new LinkedHashSet<>();
-
-    if (!listEmailDest.isEmpty()) {
-      try {
-        // create the Multipart and its parts to it
-        Multipart mp = createContentMessageMail(ilp, mimeMultipart);
-        for (String receiverEmail : listEmailDest) {
-          sendMail(subject, emailFrom, emailErrors, mp, receiverEmail);
-        }
-      } catch (Exception e) {
-        throw new InfoLetterException(e);
-      }
-    }
-    return emailErrors;
-  }
-
-  private void sendMail(final String subject, final String emailFrom, final Set<String> emailErrors,
-      final Multipart mp, final String receiverEmail) {
-    try {
-      // Verifying the email
-      new InternetAddress(receiverEmail);
-
-      // Prepare the mail
-      MailSending mail =
-          MailSending.from(eMail(emailFrom)).to(eMail(receiverEmail)).withSubject(subject)
-              .withContent(mp);
-
-      // Sending the mail
-      mail.send();
-
-    } catch (Exception ex) {
-      SilverLogger.getLogger(this).error(ex);
-      emailErrors.add(receiverEmail);
+    if (listEmailDest.isEmpty()) {
+      return null;
     }
+    return LetterDispatcher.get().enqueue(ilp, mimeMultipart, listEmailDest, subject, emailFrom);
   }
 }
@@ -23,14 +23,18 @@
  */
 package org.silverpeas.components.infoletter.model;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import org.silverpeas.core.subscription.util.SubscriptionSubscriberList;
 import org.silverpeas.core.admin.user.model.Group;
 import org.silverpeas.core.admin.user.model.UserDetail;
 import org.silverpeas.core.util.ServiceProvider;
 import org.silverpeas.core.WAPrimaryKey;
+import org.silverpeas.components.infoletter.dispatch.DispatchProgress;
 
 /**
  * Contract to access info letter data
@@ -144,6 +148,24 @@ public interface InfoLetterService {
    */
   void setEmailsExternalsSubscribers(WAPrimaryKey letterPK, Set<String> emails);
 
+  /**
+   * Save external subscriber emails address as they are read from the specified stream. Only the
+   * emails that differ from the current ones are inserted or deleted, so that large lists of
+   * subscribers can be imported without being loaded in memory.
+   * @param letterPK the letter primary key
+   * @param emails a stream of the external emails to save. Duplicates are ignored.
+   */
+  void setEmailsExternalsSubscribers(WAPrimaryKey letterPK, Stream<String> emails);
+
+  /**
+   * Write the external subscriber emails address, one per line, as they are read from the
+   * data source.
+   * @param letterPK the letter primary key
+   * @param writer the writer into which the emails are written
+   * @throws IOException if the emails cannot be written
+   */
+  void writeEmailsExternalsSubscribers(WAPrimaryKey letterPK, Writer writer) throws IOException;
+
   /**
    * Toggle subscription unsubscription of a user to the news letter
    * @param userId the user identifier
@@ -171,15 +193,17 @@ public interface InfoLetterService {
   int getSilverObjectId(String pubId, String componentId);
 
   /**
-   * Send letter by mail
+   * Send letter by mail. The sending is queued and performed in the background, so this method
+   * returns without waiting for the e-mails to be sent.
    * @param ilp the information letter
    * @param server
    * @param mimeMultipart
    * @param listEmailDest
    * @param subject
    * @param emailFrom
-   * @return list of emails in error
+   * @return the progress of the sending, null if there is no recipient. The invalid e-mail
+   * addresses are already counted as failed.
    */
-  Set<String> sendLetterByMail(InfoLetterPublicationPdC ilp, String server,
+  DispatchProgress sendLetterByMail(InfoLetterPublicationPdC ilp, String server,
       String mimeMultipart, Set<String> listEmailDest, String subject, String emailFrom);
 }
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.infoletter.dispatch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+import org.silverpeas.core.test.extention.SettingBundleStub;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Multipart;
+import javax.mail.Session;
+import javax.mail.internet.MimeBodyPart;
+import javax.mail.internet.MimeMessage;
+import javax.mail.internet.MimeMultipart;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Checks the sending of the newsletters to their recipients with a stub of mail server.
+ */
+@EnableSilverTestEnv
+class LetterDispatcherTest {
+
+  private static final int MAX_ATTEMPTS = 3;
+  private static final int RETRY_DELAY_IN_SECONDS = 60;
+  private static final String REJECTED = "rejected@silverpeas.org";
+
+  @RegisterExtension
+  static SettingBundleStub settings =
+      new SettingBundleStub("org.silverpeas.infoLetter.settings.infoLetterSettings");
+
+  private final StubMailer mailer = new StubMailer();
+  private final Dispatch dispatch =
+      new Dispatch("1", "infoLetter1", "News", "sender@silverpeas.org", "mixed");
+  private LetterDispatcher dispatcher;
+  private Multipart content;
+
+  @BeforeEach
+  void setup() throws MessagingException {
+    settings.put("dispatch.maxAttempts", String.valueOf(MAX_ATTEMPTS));
+    settings.put("dispatch.retryDelay", String.valueOf(RETRY_DELAY_IN_SECONDS));
+    dispatcher = new LetterDispatcher();
+    dispatcher.setMailers(() -> mailer);
+    content = new MimeMultipart();
+    final MimeBodyPart text = new MimeBodyPart();
+    text.setText("The news of the month");
+    content.addBodyPart(text);
+  }
+
+  @Test
+  void theNewsletterIsSentToAllTheRecipientsOverASameConnection() throws Exception {
+    final List<Recipient> batch = recipients("a@silverpeas.org", "b@silverpeas.org");
+    final AtomicInteger sent = new AtomicInteger(0);
+
+    dispatcher.sendBatch(dispatch, content, batch, new SendRateLimiter(0), sent);
+
+    assertThat(sent.get(), is(2));
+    assertThat(mailer.recipients, contains("a@silverpeas.org", "b@silverpeas.org"));
+    assertThat(mailer.closings, is(1));
+    for (Recipient recipient : batch) {
+      assertThat(recipient.getStatus(), is(InfoLetterDispatchDAO.SENT));
+      assertThat(recipient.getAttempts(), is(1));
+      assertThat(recipient.getLastError(), nullValue());
+    }
+  }
+
+  @Test
+  void aFailedSendingIsRecordedAndScheduledForRetry() throws Exception {
+    final List<Recipient> batch = recipients("a@silverpeas.org", REJECTED, "b@silverpeas.org");
+    final AtomicInteger sent = new AtomicInteger(0);
+    final long start = System.currentTimeMillis();
+
+    dispatcher.sendBatch(dispatch, content, batch, new SendRateLimiter(0), sent);
+
+    assertThat(sent.get(), is(2));
+    assertThat(mailer.recipients, contains("a@silverpeas.org", "b@silverpeas.org"));
+    final Recipient rejected = batch.get(1);
+    assertThat(rejected.getStatus(), is(InfoLetterDispatchDAO.PENDING));
+    assertThat(rejected.getAttempts(), is(1));
+    assertThat(rejected.getLastError(), is("Recipient address rejected"));
+    assertThat(rejected.getNextAttempt(),
+        greaterThanOrEqualTo(start + TimeUnit.SECONDS.toMillis(RETRY_DELAY_IN_SECONDS)));
+    assertThat(batch.get(2).getStatus(), is(InfoLetterDispatchDAO.SENT));
+  }
+
+  @Test
+  void aSendingFailingAtTheLastAttemptIsDefinitivelyFailed() throws Exception {
+    final Recipient rejected = new Recipient(REJECTED, MAX_ATTEMPTS - 1);
+
+    dispatcher.sendBatch(dispatch, content, Arrays.asList(rejected), new SendRateLimiter(0),
+        new AtomicInteger(0));
+
+    assertThat(rejected.getStatus(), is(InfoLetterDispatchDAO.FAILED));
+    assertThat(rejected.getAttempts(), is(MAX_ATTEMPTS));
+    assertThat(rejected.getLastError(), is("Recipient address rejected"));
+  }
+
+  @Test
+  void theSendingRateIsBounded() throws Exception {
+    final List<Recipient> batch = recipients("a@silverpeas.org", "b@silverpeas.org",
+        "c@silverpeas.org", "d@silverpeas.org", "e@silverpeas.org", "f@silverpeas.org");
+    final long start = System.nanoTime();
+
+    // 10 e-mails per second: the 6 e-mails are sent in at least 5 intervals of 100ms
+    dispatcher.sendBatch(dispatch, content, batch, new SendRateLimiter(10), new AtomicInteger(0));
+
+    final long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    assertThat(mailer.recipients, hasSize(6));
+    assertThat(duration, greaterThanOrEqualTo(490L));
+  }
+
+  @Test
+  void theSendingRateIsUnboundedWithoutMaximumRate() throws Exception {
+    final SendRateLimiter rateLimiter = new SendRateLimiter(0);
+    final long start = System.nanoTime();
+    for (int i = 0; i < 1000; i++) {
+      rateLimiter.acquire();
+    }
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), lessThan(100L));
+  }
+
+  @Test
+  void allTheBatchesAreAwaitedAndAllTheirFailuresReported() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      final CountDownLatch release = new CountDownLatch(1);
+      final AtomicInteger finished = new AtomicInteger(0);
+      final List<Future<Void>> batches = new ArrayList<>();
+      batches.add(executor.submit(() -> {
+        throw new MessagingException("first failure");
+      }));
+      batches.add(executor.submit(() -> {
+        release.await();
+        finished.incrementAndGet();
+        return null;
+      }));
+      batches.add(executor.submit(() -> {
+        throw new MessagingException("second failure");
+      }));
+      executor.submit(() -> {
+        Thread.sleep(200);
+        release.countDown();
+        return null;
+      });
+
+      final List<Throwable> errors = LetterDispatcher.awaitAll(batches);
+
+      assertThat(finished.get(), is(1));
+      assertThat(errors, hasSize(2));
+      assertThat(errors.get(0).getMessage(), is("first failure"));
+      assertThat(errors.get(1).getMessage(), is("second failure"));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static List<Recipient> recipients(final String... emails) {
+    final List<Recipient> recipients = new ArrayList<>(emails.length);
+    for (String email : emails) {
+      recipients.add(new Recipient(email, 0));
+    }
+    return recipients;
+  }
+
+  private static class StubMailer implements RecipientMailer {
+    private final Session session = Session.getInstance(new Properties());
+    private final Set<String> rejected = new HashSet<>(Arrays.asList(REJECTED));
+    private final List<String> recipients = new ArrayList<>();
+    private int closings = 0;
+
+    @Override
+    public Session getSession() {
+      return session;
+    }
+
+    @Override
+    public void send(final MimeMessage message) throws MessagingException {
+      final String recipient = message.getRecipients(Message.RecipientType.TO)[0].toString();
+      if (rejected.contains(recipient)) {
+        throw new MessagingException("Recipient address rejected");
+      }
+      recipients.add(recipient);
+    }
+
+    @Override
+    public void close() {
+      closings++;
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.infoletter.dispatch;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+import org.silverpeas.core.test.extention.SettingBundleStub;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Checks the reuse of the connections to the mail server by the {@link SmtpMailer} against a
+ * GreenMail SMTP server.
+ */
+@EnableSilverTestEnv
+class SmtpMailerTest {
+
+  @RegisterExtension
+  static SettingBundleStub smtpSettings =
+      new SettingBundleStub("org.silverpeas.notificationserver.channel.smtp.smtpSettings");
+
+  private final GreenMail greenMail = new GreenMail(ServerSetupTest.SMTP);
+
+  @BeforeEach
+  void setup() {
+    smtpSettings.put("SMTPServer", "localhost");
+    smtpSettings.put("SMTPPort", String.valueOf(ServerSetupTest.SMTP.getPort()));
+    smtpSettings.put("SMTPAuthentication", "false");
+    smtpSettings.put("SMTPSecure", "false");
+    smtpSettings.put("SMTPDebug", "false");
+    greenMail.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    greenMail.stop();
+  }
+
+  @Test
+  void theConnectionIsReusedUpToTheMaximumNumberOfMessages() throws Exception {
+    try (SmtpMailer mailer = new SmtpMailer(2)) {
+      for (int i = 1; i <= 5; i++) {
+        mailer.send(newMessage(mailer, "user" + i + "@silverpeas.org"));
+      }
+      assertThat(mailer.getConnectionCount(), is(3));
+    }
+    assertThat(greenMail.waitForIncomingEmail(5000, 5), is(true));
+    assertThat(greenMail.getReceivedMessages().length, is(5));
+  }
+
+  @Test
+  void aNewConnectionIsOpenedOnceTheMailerClosed() throws Exception {
+    SmtpMailer mailer = new SmtpMailer(100);
+    mailer.send(newMessage(mailer, "user1@silverpeas.org"));
+    mailer.send(newMessage(mailer, "user2@silverpeas.org"));
+    assertThat(mailer.getConnectionCount(), is(1));
+
+    mailer.close();
+    mailer.send(newMessage(mailer, "user3@silverpeas.org"));
+    mailer.close();
+    assertThat(mailer.getConnectionCount(), is(2));
+    assertThat(greenMail.waitForIncomingEmail(5000, 3), is(true));
+  }
+
+  private static MimeMessage newMessage(final SmtpMailer mailer, final String recipient)
+      throws MessagingException {
+    final MimeMessage message = new MimeMessage(mailer.getSession());
+    message.setFrom(new InternetAddress("sender@silverpeas.org"));
+    message.setRecipient(Message.RecipientType.TO, new InternetAddress(recipient));
+    message.setSubject("News");
+    message.setText("The news of the month");
+    message.saveChanges();
+    return message;
+  }
+}
@@ -27,6 +27,8 @@ import org.apache.commons.fileupload.FileItem;
 import org.apache.commons.io.FileUtils;
 import org.silverpeas.components.infoletter.InfoLetterException;
 import org.silverpeas.components.infoletter.InfoLetterPeasTrappedException;
+import org.silverpeas.components.infoletter.dispatch.DispatchProgress;
+import org.silverpeas.components.infoletter.dispatch.LetterDispatcher;
 import org.silverpeas.components.infoletter.model.InfoLetter;
 import org.silverpeas.components.infoletter.model.InfoLetterPublication;
 import org.silverpeas.components.infoletter.model.InfoLetterPublicationPdC;
@@ -40,7 +42,6 @@ import org.silverpeas.core.admin.user.model.UserDetail;
 import org.silverpeas.core.contribution.content.wysiwyg.service.WysiwygController;
 import org.silverpeas.core.exception.DecodingException;
 import org.silverpeas.core.exception.SilverpeasException;
-import org.silverpeas.core.exception.UtilTrappedException;
 import org.silverpeas.core.i18n.I18NHelper;
 import org.silverpeas.core.index.indexing.model.FullIndexEntry;
 import org.silverpeas.core.index.indexing.model.IndexEngineProxy;
@@ -55,9 +56,6 @@ import org.silverpeas.core.util.DateUtil;
 import org.silverpeas.core.util.Pair;
 import org.silverpeas.core.util.StringUtil;
 import org.silverpeas.core.util.URLUtil;
-import org.silverpeas.core.util.csv.CSVReader;
-import org.silverpeas.core.util.csv.Variant;
-import org.silverpeas.core.util.file.FileRepositoryManager;
 import org.silverpeas.core.util.logging.SilverLogger;
 import org.silverpeas.core.web.mvc.controller.AbstractComponentSessionController;
 import org.silverpeas.core.web.mvc.controller.ComponentContext;
@@ -66,9 +64,12 @@ import org.silverpeas.core.web.selection.Selection;
 import org.silverpeas.core.web.selection.SelectionUsersGroups;
 import org.silverpeas.core.webapi.pdc.PdcClassificationEntity;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -91,6 +92,7 @@ public class InfoLetterSessionController extends AbstractComponentSessionControl
   private InfoLetterService dataInterface = null;
 
   public final static String EXPORT_CSV_NAME = "_emails.csv";
+  private static final char CSV_SEPARATOR = ';';
 
   /**
    * Standard Session Controller Constructeur
@@ -253,15 +255,15 @@ public class InfoLetterSessionController extends AbstractComponentSessionControl
 
 
   /**
-   * Send letter by mail
+   * Send letter by mail. The e-mails are sent in the background.
    * @param ilp
    * @param server
    * @param emails
-   * @return tab of dest emails in error
+   * @return the progress of the sending, null if there is no email
    */
-  public String[] sendLetterByMail(InfoLetterPublicationPdC ilp, String server,
+  public DispatchProgress sendLetterByMail(InfoLetterPublicationPdC ilp, String server,
       Set<String> emails) {
-    Set<String> emailErrors = new LinkedHashSet<>();
+    DispatchProgress progress = null;
 
     if (emails.size() > 0) {
       // create the Multipart and its parts to it
@@ -274,20 +276,43 @@ public class InfoLetterSessionController extends AbstractComponentSessionControl
       String emailFrom = getUserDetail().geteMail();
 
       ilp.setInstanceId(getComponentId());
-      emailErrors =
+      progress =
           dataInterface.sendLetterByMail(ilp, server, mimeMultipart, emails, subject, emailFrom);
 
     }
-    return emailErrors.toArray(new String[emailErrors.size()]);
+    return progress;
+  }
+
+  /**
+   * Gets the progress of the specified sending of a letter of this instance by mail
+   * @param dispatchId the identifier of the sending
+   * @return the progress of the sending or null if there is no such sending in this instance
+   */
+  public DispatchProgress getDispatchProgress(String dispatchId) {
+    return LetterDispatcher.get().getProgress(dispatchId, getComponentId());
+  }
+
+  /**
+   * Gets the emails to which the specified sending of a letter by mail has failed
+   * @param progress the progress of a sending, can be null
+   * @return tab of dest emails in error
+   */
+  public String[] getEmailErrors(DispatchProgress progress) {
+    if (progress == null || progress.getFailed() == 0) {
+      return new String[0];
+    }
+    List<String> emailErrors = LetterDispatcher.get().getFailedRecipients(progress.getDispatchId());
+    return emailErrors.toArray(new String[0]);
   }
 
   /**
    * Send letter by mail to external subscribers
    * @param ilp
    * @param server
-   * @return tab of emails in error
+   * @return the progress of the sending
    */
-  public String[] sendByMailToExternalSubscribers(InfoLetterPublicationPdC ilp, String server) {
+  public DispatchProgress sendByMailToExternalSubscribers(InfoLetterPublicationPdC ilp,
+      String server) {
     IdPK letterPK = new IdPK(String.valueOf(ilp.getLetterId()));
 
     // Recuperation de la liste de emails
@@ -309,9 +334,9 @@ public class InfoLetterSessionController extends AbstractComponentSessionControl
    * Send letter to managers
    * @param ilp
    * @param server
-   * @return
+   * @return the progress of the sending
    */
-  public String[] notifyManagers(InfoLetterPublicationPdC ilp, String server) {
+  public DispatchProgress notifyManagers(InfoLetterPublicationPdC ilp, String server) {
     // Recuperation de la liste de emails
     Set<String> extmails = getEmailsManagers();
 
@@ -457,55 +482,41 @@ public class InfoLetterSessionController extends AbstractComponentSessionControl
   }
 
   /**
-   * Import Csv emails
+   * Import Csv emails. The file is read line by line twice: a first time to check the emails and
+   * a second time to save them, so that large files aren't loaded in memory.
    * @param filePart
-   * @throws UtilTrappedException
    * @throws InfoLetterPeasTrappedException
    * @throws InfoLetterException
    */
   public void importCsvEmails(FileItem filePart)
-      throws UtilTrappedException, InfoLetterPeasTrappedException, InfoLetterException {
-    InputStream is;
-    try {
-      is = filePart.getInputStream();
-    } catch (IOException e) {
-      InfoLetterPeasTrappedException ie =
-          new InfoLetterPeasTrappedException("InfoLetterSessionController.importCsvEmails",
-              SilverpeasException.ERROR, "infoLetter.EX_CSV_FILE", e);
-      ie.setGoBackPage("Emails");
-      throw ie;
-    }
-    CSVReader csvReader = new CSVReader(getLanguage());
-    csvReader.initCSVFormat("org.silverpeas.infoLetter.settings.usersCSVFormat", "User", ";");
-
-    Variant[][] csvValues;
-    try {
-      csvValues = csvReader.parseStream(is);
-    } catch (UtilTrappedException ute) {
-      ute.setGoBackPage("Emails");
-      throw ute;
-    }
-
+      throws InfoLetterPeasTrappedException, InfoLetterException {
     StringBuilder listErrors = new StringBuilder("");
-    String email;
-
-    for (int i = 0; i < csvValues.length; i++) {
-      // email
-      email = csvValues[i][0].getValueString();
-      if (email.length() == 0) {// champ obligatoire
-        listErrors.append(getString("GML.ligne")).append(" = ").append(Integer.toString(i + 1))
-            .append(", ");
-        listErrors.append(getString("GML.colonne")).append(" = 1, ");
-        listErrors.append(getString("GML.valeur")).append(" = ").append(email).append(", ");
-        listErrors.append(getString("GML.obligatoire")).append("<BR>");
-      } else if (email.length() > 100) {// verifier 100 char max
-        listErrors.append(getString("GML.ligne")).append(" = ").append(Integer.toString(i + 1))
-            .append(", ");
-        listErrors.append(getString("GML.colonne")).append(" = 1, ");
-        listErrors.append(getString("GML.valeur")).append(" = ").append(email).append(", ");
-        listErrors.append(getString("GML.nbCarMax")).append(" 100 ")
-            .append(getString("GML.caracteres")).append("<BR>");
+    try (BufferedReader reader = openCsvFile(filePart)) {
+      String line;
+      int i = 0;
+      while ((line = reader.readLine()) != null) {
+        i++;
+        if (line.trim().isEmpty()) {
+          continue;
+        }
+        String email = getCsvEmail(line);
+        if (email.length() == 0) {// champ obligatoire
+          listErrors.append(getString("GML.ligne")).append(" = ").append(Integer.toString(i))
+              .append(", ");
+          listErrors.append(getString("GML.colonne")).append(" = 1, ");
+          listErrors.append(getString("GML.valeur")).append(" = ").append(email).append(", ");
+          listErrors.append(getString("GML.obligatoire")).append("<BR>");
+        } else if (email.length() > 100) {// verifier 100 char max
+          listErrors.append(getString("GML.ligne")).append(" = ").append(Integer.toString(i))
+              .append(", ");
+          listErrors.append(getString("GML.colonne")).append(" = 1, ");
+          listErrors.append(getString("GML.valeur")).append(" = ").append(email).append(", ");
+          listErrors.append(getString("GML.nbCarMax")).append(" 100 ")
+              .append(getString("GML.caracteres")).append("<BR>");
+        }
       }
+    } catch (IOException e) {
+      throw csvFileError(e);
     }
 
     if (listErrors.length() > 0) {
@@ -517,41 +528,48 @@ public class InfoLetterSessionController extends AbstractComponentSessionControl
     }
 
     // pas d'erreur, on importe les emails
-    Set<String> emails = new LinkedHashSet<>();
-    for (final Variant[] csvValue : csvValues) {
-      // Email
-      email = csvValue[0].getValueString();
-      emails.add(email);
+    try (BufferedReader reader = openCsvFile(filePart)) {
+      dataInterface.setEmailsExternalsSubscribers(this.getCurrentLetter().getPK(),
+          reader.lines()
+              .filter(line -> !line.trim().isEmpty())
+              .map(InfoLetterSessionController::getCsvEmail));
+    } catch (IOException e) {
+      throw csvFileError(e);
     }
+  }
+
+  private BufferedReader openCsvFile(FileItem filePart) throws IOException {
+    return new BufferedReader(
+        new InputStreamReader(filePart.getInputStream(), StandardCharsets.UTF_8));
+  }
 
-    dataInterface.setEmailsExternalsSubscribers(this.getCurrentLetter().getPK(), emails);
+  private InfoLetterPeasTrappedException csvFileError(IOException e) {
+    InfoLetterPeasTrappedException ie =
+        new InfoLetterPeasTrappedException("InfoLetterSessionController.importCsvEmails",
+            SilverpeasException.ERROR, "infoLetter.EX_CSV_FILE", e);
+    ie.setGoBackPage("Emails");
+    return ie;
   }
 
   /**
-   * Export Csv emails
-   * @return boolean
-   * @throws IOException
-   * @throws InfoLetterException
+   * Gets the email in the first column of the specified CSV line.
    */
-  public boolean exportCsvEmails() throws IOException, InfoLetterException {
-    File fileOutput =
-        new File(FileRepositoryManager.getTemporaryPath(), getComponentId() + EXPORT_CSV_NAME);
-
-    if (fileOutput.exists()) {//delete the existing file and recreate new one
-      FileUtils.forceDelete(fileOutput);
-      fileOutput =
-          new File(FileRepositoryManager.getTemporaryPath(), getComponentId() + EXPORT_CSV_NAME);
+  private static String getCsvEmail(String line) {
+    int end = line.indexOf(CSV_SEPARATOR);
+    String email = (end < 0 ? line : line.substring(0, end)).replace("\uFEFF", "").trim();
+    if (email.length() > 1 && email.startsWith("\"") && email.endsWith("\"")) {
+      email = email.substring(1, email.length() - 1).trim();
     }
-    try {
-      Set<String> emails = getEmailsExternalsSuscribers(getCurrentLetter().getPK());
+    return email;
+  }
 
-      for (String email : emails) {
-        FileUtils.writeStringToFile(fileOutput, email + "\n", true);
-      }
-    } catch (Exception e) {
-      throw new InfoLetterException(e);
-    }
-    return true;
+  /**
+   * Export Csv emails, one per line, into the specified writer.
+   * @param writer the writer into which the emails are written
+   * @throws IOException if the emails cannot be written
+   */
+  public void exportCsvEmails(Writer writer) throws IOException {
+    dataInterface.writeEmailsExternalsSubscribers(getCurrentLetter().getPK(), writer);
   }
 
   /**
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.infoletter.servlets;
+
+import org.silverpeas.components.commons.export.StreamedExport;
+import org.silverpeas.components.commons.export.StreamedExportServlet;
+import org.silverpeas.components.infoletter.control.InfoLetterSessionController;
+import org.silverpeas.core.admin.user.model.SilverpeasRole;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Downloads the external subscribers of a newsletter as a CSV file, the emails being sent as they
+ * are read from the database.
+ */
+public class InfoLetterEmailsExportServlet extends StreamedExportServlet {
+
+  private static final long serialVersionUID = -6392457104470722146L;
+
+  @Override
+  protected StreamedExport getExport(String componentId, HttpServletRequest req,
+      HttpServletResponse res) {
+    InfoLetterSessionController infoLetterSC = (InfoLetterSessionController) req.getSession()
+        .getAttribute("Silverpeas_infoLetter_" + componentId);
+    // the same profiles as the ones managing the newsletter in the request router
+    SilverpeasRole role = infoLetterSC == null ? null : infoLetterSC.getHighestSilverpeasUserRole();
+    if (role == null || !role.isGreaterThanOrEquals(SilverpeasRole.PUBLISHER)) {
+      throwHttpForbiddenError();
+    }
+
+    return StreamedExport.csv(componentId + InfoLetterSessionController.EXPORT_CSV_NAME,
+        infoLetterSC::exportCsvEmails);
+  }
+}
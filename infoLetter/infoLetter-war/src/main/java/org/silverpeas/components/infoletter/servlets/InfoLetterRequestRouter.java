@@ -25,6 +25,7 @@ package org.silverpeas.components.infoletter.servlets;
 
 import org.apache.commons.fileupload.FileItem;
 import org.silverpeas.components.infoletter.control.InfoLetterSessionController;
+import org.silverpeas.components.infoletter.dispatch.DispatchProgress;
 import org.silverpeas.components.infoletter.model.InfoLetter;
 import org.silverpeas.components.infoletter.model.InfoLetterPublication;
 import org.silverpeas.components.infoletter.model.InfoLetterPublicationPdC;
@@ -309,7 +310,7 @@ public class InfoLetterRequestRouter extends ComponentRequestRouter<InfoLetterSe
         destination = "headerLetter.jsp";
       } else if (function.startsWith("ValidateParution")) {
         String parution = param(request, "parution");
-        String[] emailErrors = new String[0];
+        DispatchProgress progress = null;
         if (StringUtil.isDefined(parution)) {
           IdPK publiPK = new IdPK();
 
@@ -324,10 +325,28 @@ public class InfoLetterRequestRouter extends ComponentRequestRouter<InfoLetterSe
               request.getRequestURL().toString().indexOf(URLUtil.getApplicationURL()));
           infoLetterSC.notifyInternalSuscribers(ilp, server);
 
-          emailErrors = infoLetterSC.sendByMailToExternalSubscribers(ilp, server);
+          progress = infoLetterSC.sendByMailToExternalSubscribers(ilp, server);
         }
-        request.setAttribute("EmailErrors", emailErrors);
+        request.setAttribute("DispatchProgress", progress);
+        request.setAttribute("EmailErrors", infoLetterSC.getEmailErrors(progress));
         destination = "infoLetterSended.jsp";
+      } else if (function.startsWith("DispatchProgress")) {
+        String dispatchId = param(request, "dispatch");
+        DispatchProgress progress = null;
+        if (("publisher".equals(flag) || "admin".equals(flag)) &&
+            StringUtil.isInteger(dispatchId)) {
+          progress = infoLetterSC.getDispatchProgress(dispatchId);
+        }
+        if (progress == null) {
+          destination = setMainContext(infoLetterSC, request);
+        } else {
+          request.setAttribute("DispatchProgress", progress);
+          request.setAttribute("EmailErrors", infoLetterSC.getEmailErrors(progress));
+          if (StringUtil.isDefined(request.getParameter("ReturnUrl"))) {
+            request.setAttribute("ReturnUrl", request.getParameter("ReturnUrl"));
+          }
+          destination = "infoLetterSended.jsp";
+        }
       } else if (function.startsWith("ChangeParutionHeaders")) {
         String parution = param(request, "parution");
         String title = param(request, "title");
@@ -483,17 +502,9 @@ public class InfoLetterRequestRouter extends ComponentRequestRouter<InfoLetterSe
         FileItem fileItem = request.getSingleFile();
         infoLetterSC.importCsvEmails(fileItem);
         destination = "importEmailsCsv.jsp?Result=OK";
-      } else if (function.equals("ExportEmailsCsv")) {
-        boolean exportOk = infoLetterSC.exportCsvEmails();
-        request.setAttribute("ExportOk", Boolean.toString(exportOk));
-        if (exportOk) {
-          request.setAttribute("EmailCsvName",
-              infoLetterSC.getComponentId() + InfoLetterSessionController.EXPORT_CSV_NAME);
-        }
-        destination = "exportEmailsCsv.jsp";
       } else if (function.startsWith("SendLetterToManager")) {
         String parution = param(request, "parution");
-        String[] emailErrors = new String[0];
+        DispatchProgress progress = null;
         if (StringUtil.isDefined(parution)) {
           IdPK publiPK = new IdPK();
           publiPK.setId(parution);
@@ -501,9 +512,10 @@ public class InfoLetterRequestRouter extends ComponentRequestRouter<InfoLetterSe
 
           String server = request.getRequestURL().substring(0,
               request.getRequestURL().toString().indexOf(URLUtil.getApplicationURL()));
-          emailErrors = infoLetterSC.notifyManagers(ilp, server);
+          progress = infoLetterSC.notifyManagers(ilp, server);
         }
-        request.setAttribute("EmailErrors", emailErrors);
+        request.setAttribute("DispatchProgress", progress);
+        request.setAttribute("EmailErrors", infoLetterSC.getEmailErrors(progress));
         request
             .setAttribute("ReturnUrl", request.getParameter("ReturnUrl") + "?parution=" + parution);
 
@@ -35,7 +35,6 @@
 <view:looknfeel withCheckFormScript="true"/>
 <script type="text/javascript">
 	var importFileWindow = window;
-	var exportFileWindow = window;
 	function deleteCheckedEmails() {
 	    if (confirm("<%= resource.getString("infoLetter.confirmDeleteEmails") %>"))
 	    {
@@ -66,14 +65,7 @@
 
 	function displayEmailsCsvExport()
 	{
-	    url = "ExportEmailsCsv";
-	    windowName = "exportFileWindow";
-	    windowParams = "directories=0,menubar=0,toolbar=0,alwaysRaised,scrollbars=1";
-			larg = "640";
-			haut = "370";
-			if (!exportFileWindow.closed && exportFileWindow.name=="exportFileWindow")
-				exportFileWindow.close();
-			exportFileWindow = SP_openWindow(url, windowName, larg, haut, windowParams);
+	    window.location.href = "<%=m_context%>/InfoLetterEmailsExport/<%=componentId%>?ComponentId=<%=componentId%>";
 	}
 
 </script>
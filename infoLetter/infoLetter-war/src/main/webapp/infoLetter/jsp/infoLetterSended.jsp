@@ -61,6 +61,23 @@ response.setDateHeader ("Expires",-1); //prevents caching at the proxy server
   <c:out value="${messageSent}"/>
 </div>
 <br clear="all"/>
+<c:set var="progress" value="${requestScope.DispatchProgress}"/>
+<c:if test="${progress != null and not progress.done}">
+  <div class="inlineMessage">
+    <fmt:message key="infoLetter.dispatch.progress">
+      <fmt:param value="${progress.sent}"/>
+      <fmt:param value="${progress.total}"/>
+      <fmt:param value="${progress.failed}"/>
+      <fmt:param value="${progress.pending}"/>
+    </fmt:message>
+    <c:url var="refreshUrl" value="DispatchProgress">
+      <c:param name="dispatch" value="${progress.dispatchId}"/>
+      <c:param name="ReturnUrl" value="<%=returnUrl%>"/>
+    </c:url>
+    <a href="${refreshUrl}"><fmt:message key="infoLetter.dispatch.refresh"/></a>
+  </div>
+  <br clear="all"/>
+</c:if>
 <% if (emailErrors.length > 0) { %>
 	<div class="inlineMessage-nok">
 		<%=WebEncodeHelper.javaStringToHtmlString(resource.getString("infoLetter.emailErrors"))%> : <br/>
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ * <p>
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * <p>
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ * <p>
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.kmelia;
+
+import org.silverpeas.components.kmelia.service.KmeliaPublicationDistribution;
+import org.silverpeas.core.admin.component.ComponentInstancePreDestruction;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+/**
+ * Before an instance of the Kmelia application is deleted, forgets the distribution of its
+ * publications computed in memory for the treeview.
+ */
+@Named
+public class KmeliaInstancePreDestruction implements ComponentInstancePreDestruction {
+
+  @Inject
+  private KmeliaPublicationDistribution publicationDistribution;
+
+  @Override
+  public void preDestroy(final String componentInstanceId) {
+    publicationDistribution.invalidate(componentInstanceId);
+  }
+}
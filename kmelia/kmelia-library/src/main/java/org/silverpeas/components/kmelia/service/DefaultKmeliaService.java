@@ -188,6 +188,10 @@ public class DefaultKmeliaService implements KmeliaService {
   private PdcSubscriptionManager pdcSubscriptionManager;
   @Inject
   private KmeliaContentManager kmeliaContentManager;
+  @Inject
+  private KmeliaPublicationDistribution publicationDistribution;
+  @Inject
+  private KmeliaUserNodeRights nodeRights;
 
   private int getNbPublicationsOnRoot(String componentId) {
     String parameterValue =
@@ -315,12 +319,10 @@ public class DefaultKmeliaService implements KmeliaService {
   private void addAccordingToRights(final String userId, final List<NodeDetail> availableChildren,
       final NodeDetail child) {
     final String rightsDependsOn = child.getRightsDependsOn();
-    final boolean nodeAvailable = getOrganisationController()
-        .isObjectAvailableToUser(ProfiledObjectId.fromNode(rightsDependsOn),
-            child.getNodePK().getInstanceId(), userId);
-    if (nodeAvailable) {
+    if (nodeRights.isAvailable(userId, child)) {
       availableChildren.add(child);
-    } else { // check if at least one descendant is available
+    } else if (nodeRights.isAnyNodeAvailable(userId, child.getNodePK().getInstanceId())) {
+      // check if at least one descendant is available
       Iterator<NodeDetail> descendants = nodeService.getDescendantDetails(child).iterator();
       addDescendantIfAvailable(userId, availableChildren, child, rightsDependsOn, descendants);
     }
@@ -333,8 +335,7 @@ public class DefaultKmeliaService implements KmeliaService {
     while (!childAllowed && descendants.hasNext()) {
       NodeDetail descendant = descendants.next();
       if (!descendant.getRightsDependsOn().equals(rightsDependsOn)
-          && getOrganisationController().isObjectAvailableToUser(ProfiledObjectId.fromNode(descendant.getRightsDependsOn()),
-              descendant.getNodePK().getInstanceId(), userId)) {
+          && nodeRights.isAvailable(userId, descendant)) {
         // different rights of father check if it is available
         childAllowed = true;
         if (!availableChildren.contains(child)) {
@@ -468,6 +469,7 @@ public class DefaultKmeliaService implements KmeliaService {
         newNode.setRightsDependsOnMe();
       }
       nodeService.updateRightsDependency(newNode);
+      nodeRights.invalidate(newNode.getNodePK().getInstanceId());
     }
   }
 
@@ -519,12 +521,14 @@ public class DefaultKmeliaService implements KmeliaService {
             // remove only the alias
             final Collection<Location> aliases = singletonList(kmeliaPub.getLocation());
             publicationService.removeAliases(kmeliaPub.getPk(), aliases);
+            publicationDistribution.refresh(kmeliaPub.getPk());
           }
         }
       }
 
       // Delete the topic
       nodeService.removeNode(pkToDelete);
+      publicationDistribution.removeNodes(nodesToDelete);
     } catch (Exception e) {
       throw new KmeliaRuntimeException(e);
     }
@@ -665,6 +669,7 @@ public class DefaultKmeliaService implements KmeliaService {
 
     KmeliaUserTreeViewFilter
         .from(userId, instanceId, nodePK, profile, isRightsOnTopicsUsed)
+        .withNodeUserRoles(() -> nodeRights.getNodeUserRoles(userId, instanceId))
         .setBestUserRoleAndFilter(allowedTree);
 
     if (displayNb) {
@@ -678,6 +683,20 @@ public class DefaultKmeliaService implements KmeliaService {
   private void buildTreeView(final NodePK nodePK, final String profile,
       final boolean coWritingEnable, final boolean draftVisibleWithCoWriting, final String userId,
       final List<NodeDetail> allowedTree) {
+    final Map<String, Integer> numbers;
+    if (KmeliaPublicationDistribution.isEnabled()) {
+      numbers = publicationDistribution.getDistribution(nodePK.getInstanceId(), profile,
+          coWritingEnable, draftVisibleWithCoWriting, userId);
+    } else {
+      numbers = computeDistributionTree(nodePK, profile, coWritingEnable,
+          draftVisibleWithCoWriting, userId);
+    }
+    decorateWithNumberOfPublications(allowedTree, numbers);
+  }
+
+  private Map<String, Integer> computeDistributionTree(final NodePK nodePK, final String profile,
+      final boolean coWritingEnable, final boolean draftVisibleWithCoWriting,
+      final String userId) {
     boolean checkVisibility = false;
     StringBuilder statusSubQuery = new StringBuilder();
     if (profile == null || profile.equals("user")) {
@@ -731,8 +750,7 @@ public class DefaultKmeliaService implements KmeliaService {
     NodePK trashPk = new NodePK(NodePK.BIN_NODE_ID, nodePK.getInstanceId());
     int nbPubsInTrash = getPublicationsInBasket(trashPk, profile, userId).size();
     numbers.put(NodePK.BIN_NODE_ID, nbPubsInTrash);
-
-    decorateWithNumberOfPublications(allowedTree, numbers);
+    return numbers;
   }
 
   private void decorateWithNumberOfPublications(List<NodeDetail> nodes,
@@ -743,7 +761,7 @@ public class DefaultKmeliaService implements KmeliaService {
   }
 
   private int decorateWithNumberOfPublications(NodeDetail node, Map<String, Integer> numbers) {
-    Integer nb = numbers.get(node.getNodePK().getId());
+    int nb = numbers.getOrDefault(node.getNodePK().getId(), 0);
     for (NodeDetail child : node.getChildrenDetails()) {
       nb += decorateWithNumberOfPublications(child, numbers);
     }
@@ -1162,6 +1180,7 @@ public class DefaultKmeliaService implements KmeliaService {
       newLocation.setAsAlias(pasteContext.getUserId());
       publicationService.removeAliases(pubPK, singletonList(publication.getLocation()));
       publicationService.addAliases(pubPK, singletonList(newLocation));
+      publicationDistribution.refresh(pubPK);
     } else if (fromNode.getInstanceId().equals(to.getInstanceId())) {
       movePublicationInSameApplication(publication.getDetail(), to, pasteContext);
     } else {
@@ -1200,6 +1219,7 @@ public class DefaultKmeliaService implements KmeliaService {
       // update parent
       publicationService.removeAllFathers(pub.getPK());
       publicationService.addFather(pub.getPK(), to);
+      publicationDistribution.refresh(pub.getPK());
       pub.setTargetValidatorId(pasteContext.getTargetValidatorIds());
       processPublicationAfterMove(pub, to, pasteContext.getUserId());
     }
@@ -1284,6 +1304,7 @@ public class DefaultKmeliaService implements KmeliaService {
       // move publication itself
       publicationService.movePublication(pub.getPK(), to, false);
       pub.getPK().setComponentName(to.getInstanceId());
+      publicationDistribution.refresh(pub.getPK());
 
       pub.setTargetValidatorId(pasteContext.getTargetValidatorIds());
 
@@ -1437,6 +1458,7 @@ public class DefaultKmeliaService implements KmeliaService {
       publicationService.removeAllFathers(pubPK);
       // delete the publication
       publicationService.removePublication(pubPK);
+      publicationDistribution.remove(pubPK.getId());
       // delete reference to contentManager
       deleteSilverContent(pubPK);
     } catch (Exception e) {
@@ -1481,6 +1503,7 @@ public class DefaultKmeliaService implements KmeliaService {
       publicationService.removeAllFathers(pubPK);
       // add link between this publication and the basket topic
       publicationService.addFather(pubPK, new NodePK("1", pubPK));
+      publicationDistribution.refresh(pubPK);
 
       // remove all the todos attached to the publication
       removeAllTodosForPublication(pubPK);
@@ -1556,6 +1579,7 @@ public class DefaultKmeliaService implements KmeliaService {
       } else {
         publicationService.addFather(pubPK, fatherPK);
       }
+      publicationDistribution.refresh(pubPK);
       // index publication to index path
       publicationService.createIndex(pubPK);
     } catch (Exception e) {
@@ -1644,6 +1668,7 @@ public class DefaultKmeliaService implements KmeliaService {
         sendPublicationToBasket(pubPK);
       } else {
         publicationService.removeFather(pubPK, fatherPK);
+        publicationDistribution.refresh(pubPK);
       }
     } catch (Exception e) {
       throw new KmeliaRuntimeException(e);
@@ -2542,22 +2567,16 @@ public class DefaultKmeliaService implements KmeliaService {
     }
 
     if (pubs != null) {
-      for (PublicationDetail pub : pubs) {
-        processPublicationIndexation(pub);
-      }
-    }
-  }
-
-  private void processPublicationIndexation(final PublicationDetail pub) {
-    final PublicationPK pk = pub.getPK();
-    try {
-      // index only valid publications which are not an alias and not in trash
-      if (pub.isValid() && !isPublicationInBasket(pub.getPK())) {
-        indexPublication(pub);
-      }
-    } catch (Exception e) {
-      SilverLogger.getLogger(this)
-          .error("Error during indexation of publication {0}", pk.getId(), e);
+      // index only valid publications which are not in trash
+      final Set<String> idsInBasket = publicationService
+          .getPubPKsInFatherPK(new NodePK(NodePK.BIN_NODE_ID, componentId))
+          .stream()
+          .map(PublicationPK::getId)
+          .collect(Collectors.toSet());
+      new KmeliaPublicationIndexation(componentId,
+          settings.getInteger("kmelia.indexation.parallelism", 4),
+          settings.getInteger("kmelia.indexation.batch.size", 50), this::indexPublication)
+          .index(pubs, idsInBasket);
     }
   }
 
@@ -3432,6 +3451,7 @@ public class DefaultKmeliaService implements KmeliaService {
 
     Pair<Collection<Location>, Collection<Location>> result =
         publicationService.setAliases(pubPK, locations);
+    publicationDistribution.refresh(pubPK);
 
     // Send subscriptions to aliases subscribers
     getRequestCacheService()
@@ -3752,8 +3772,23 @@ public class DefaultKmeliaService implements KmeliaService {
   }
 
   private void setRole(Collection<NodeDetail> nodes, String userId) {
+    if (nodes.isEmpty() ||
+        !isRightsOnTopicsEnabled(nodes.iterator().next().getNodePK().getInstanceId())) {
+      return;
+    }
+    String componentProfile = null;
     for (NodeDetail node : nodes) {
-      setRole(node, userId);
+      if (node.haveRights()) {
+        // the roles of the user on all the folders are got at once
+        node.setUserRole(KmeliaHelper.getProfile(
+            nodeRights.getUserRoles(userId, node).toArray(new String[0])));
+      } else {
+        if (componentProfile == null) {
+          componentProfile =
+              KmeliaHelper.getProfile(getUserRoles(node.getNodePK().getInstanceId(), userId));
+        }
+        node.setUserRole(componentProfile);
+      }
     }
   }
 
@@ -4018,6 +4053,8 @@ public class DefaultKmeliaService implements KmeliaService {
 
     // move node and subtree
     nodeService.moveNode(nodePK, to);
+    nodeRights.invalidate(nodePK.getInstanceId());
+    nodeRights.invalidate(to.getInstanceId());
 
     for (NodeDetail fromNode : treeToPaste) {
       if (fromNode != null) {
@@ -4109,6 +4146,7 @@ public class DefaultKmeliaService implements KmeliaService {
 
             // Add the profile
             adminController.addProfileInst(nodeProfileInst, userId);
+            nodeRights.invalidate(nodePK.getInstanceId());
           }
         }
       }
@@ -4211,6 +4249,7 @@ public class DefaultKmeliaService implements KmeliaService {
         Location location = new Location(copyDetail.getToNodePK().getId(), toComponentId);
         location.setAsAlias(userId);
         publicationService.addAliases(publiToCopy.getPK(), singletonList(location));
+        publicationDistribution.refresh(publiToCopy.getPK());
         return publiToCopy.getPK();
       } else {
         PublicationDetail newPubli =
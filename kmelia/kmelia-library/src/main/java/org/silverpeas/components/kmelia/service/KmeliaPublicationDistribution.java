@@ -0,0 +1,310 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.kmelia.service;
+
+import org.silverpeas.components.kmelia.service.PublicationDistributionIndex.CountingRule;
+import org.silverpeas.core.admin.user.model.SilverpeasRole;
+import org.silverpeas.core.annotation.Service;
+import org.silverpeas.core.contribution.publication.model.Location;
+import org.silverpeas.core.contribution.publication.model.PublicationDetail;
+import org.silverpeas.core.contribution.publication.model.PublicationPK;
+import org.silverpeas.core.contribution.publication.service.PublicationService;
+import org.silverpeas.core.node.model.NodeDetail;
+import org.silverpeas.core.node.model.NodePK;
+import org.silverpeas.core.node.service.NodeService;
+import org.silverpeas.core.util.ResourceLocator;
+import org.silverpeas.core.util.ServiceProvider;
+import org.silverpeas.core.util.SettingBundle;
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.silverpeas.core.contribution.publication.model.PublicationDetail.*;
+
+/**
+ * In-memory index of the number of publications in each folder of the Kmelia instances. It
+ * avoids computing for each display of a treeview with numbers an aggregate of all the
+ * publications of a Kmelia instance.
+ * <p>
+ * The distribution of the publications of a Kmelia instance is computed once, at the first
+ * request, and then it is kept up to date by the Kmelia service each time a publication is
+ * created, moved, deleted or its status changed. As the publications can also be modified out of
+ * the Kmelia service, the distribution is fully computed again after a maximum age defined by the
+ * {@code kmelia.treeview.count.maxAge} property. The changes are applied once the transaction
+ * committed so that a rolled back change is never seen.
+ * </p>
+ */
+@Service
+@Singleton
+public class KmeliaPublicationDistribution {
+
+  private static final String SETTINGS_PATH = "org.silverpeas.kmelia.settings.kmeliaSettings";
+  private static final long MINUTE = 60000L;
+  private static final String TRANSACTION_REGISTRY = "java:comp/TransactionSynchronizationRegistry";
+
+  private final Map<String, PublicationDistributionIndex> indexes = new ConcurrentHashMap<>();
+
+  @Inject
+  private NodeService nodeService;
+  @Inject
+  private PublicationService publicationService;
+
+  public static KmeliaPublicationDistribution get() {
+    return ServiceProvider.getSingleton(KmeliaPublicationDistribution.class);
+  }
+
+  /**
+   * Is the in-memory distribution of the publications enabled?
+   * @return true if the number of publications in the folders has to be computed from the
+   * in-memory distribution, false if it has to be computed from the database.
+   */
+  public static boolean isEnabled() {
+    return getSettings().getBoolean("kmelia.treeview.count.index.enabled", true);
+  }
+
+  /**
+   * Gets the number of publications the specified user can see in each folder of the given
+   * Kmelia instance according to its profile. The sub-folders aren't taken into account.
+   * @param instanceId the identifier of the Kmelia instance.
+   * @param profile the profile of the user in the Kmelia instance.
+   * @param coWritingEnable is the co-writing mode enabled?
+   * @param draftVisibleWithCoWriting are the drafts visible with the co-writing mode?
+   * @param userId the identifier of the user.
+   * @return the number of publications per folder identifier.
+   */
+  public Map<String, Integer> getDistribution(final String instanceId, final String profile,
+      final boolean coWritingEnable, final boolean draftVisibleWithCoWriting,
+      final String userId) {
+    final CountingRule rule;
+    if (profile == null || SilverpeasRole.USER.isInRole(profile)) {
+      rule = CountingRule.ofStatus(VALID_STATUS).visibleOnly(true);
+    } else if (SilverpeasRole.WRITER.isInRole(profile)) {
+      if (coWritingEnable && draftVisibleWithCoWriting) {
+        rule = CountingRule.ofStatus(VALID_STATUS, DRAFT_STATUS, REFUSED_STATUS)
+            .orUpdatedByUser();
+      } else {
+        rule = CountingRule.ofStatus(VALID_STATUS).orUpdatedByUser().visibleOnly(true);
+      }
+    } else if (coWritingEnable && draftVisibleWithCoWriting) {
+      rule = CountingRule.ofStatus(VALID_STATUS, TO_VALIDATE_STATUS, DRAFT_STATUS)
+          .orUpdatedByUser();
+    } else {
+      rule = CountingRule.ofStatus(VALID_STATUS, TO_VALIDATE_STATUS)
+          .orUpdatedByUser()
+          .visibleOnly(SilverpeasRole.PUBLISHER.isInRole(profile));
+    }
+    final PublicationDistributionIndex index = getIndex(instanceId);
+    synchronized (index) {
+      final Map<String, Integer> numbers = index.count(rule, userId);
+      // in the basket, an admin sees all the publications whereas the others see only theirs
+      final CountingRule binRule = SilverpeasRole.ADMIN.isInRole(profile)
+          ? CountingRule.ofAnyStatus()
+          : CountingRule.ofStatus().orUpdatedByUser();
+      numbers.put(NodePK.BIN_NODE_ID,
+          index.count(binRule, userId).getOrDefault(NodePK.BIN_NODE_ID, 0));
+      return numbers;
+    }
+  }
+
+  /**
+   * Refreshes the location and the state of the specified publication in all the computed
+   * distributions. This method has to be invoked each time a publication is added into or removed
+   * from a folder.
+   * @param pubPK the primary key of the publication.
+   */
+  public void refresh(final PublicationPK pubPK) {
+    if (indexes.isEmpty()) {
+      return;
+    }
+    afterCommit(() -> refreshNow(pubPK));
+  }
+
+  private void refreshNow(final PublicationPK pubPK) {
+    final PublicationDetail detail = publicationService.getDetail(pubPK);
+    if (detail == null) {
+      removeNow(pubPK.getId());
+      return;
+    }
+    final List<Location> locations = publicationService.getAllLocations(pubPK);
+    for (PublicationDistributionIndex index : indexes.values()) {
+      final List<String> nodeIds = locations.stream()
+          .filter(l -> l.getInstanceId().equals(index.getInstanceId()))
+          .map(Location::getId)
+          .collect(Collectors.toList());
+      synchronized (index) {
+        index.put(detail.getId(), detail.getStatus(), detail.getUpdaterId(), nodeIds,
+            visibilityOf(detail));
+      }
+    }
+  }
+
+  /**
+   * Updates the state of the specified publication in all the computed distributions in which
+   * it is. This method has to be invoked each time the status, the last updater or the visibility
+   * period of a publication is modified.
+   * @param detail the publication.
+   */
+  public void update(final PublicationDetail detail) {
+    afterCommit(() -> updateNow(detail));
+  }
+
+  private void updateNow(final PublicationDetail detail) {
+    for (PublicationDistributionIndex index : indexes.values()) {
+      synchronized (index) {
+        index.update(detail.getId(), detail.getStatus(), detail.getUpdaterId(),
+            visibilityOf(detail));
+      }
+    }
+  }
+
+  /**
+   * Removes the specified publication from all the computed distributions.
+   * @param pubId the unique identifier of a publication.
+   */
+  public void remove(final String pubId) {
+    afterCommit(() -> removeNow(pubId));
+  }
+
+  private void removeNow(final String pubId) {
+    for (PublicationDistributionIndex index : indexes.values()) {
+      synchronized (index) {
+        index.remove(pubId);
+      }
+    }
+  }
+
+  /**
+   * Removes the specified folders from the distribution of their Kmelia instance.
+   * @param nodePKs the primary keys of the removed folders.
+   */
+  public void removeNodes(final Collection<NodePK> nodePKs) {
+    afterCommit(() -> removeNodesNow(nodePKs));
+  }
+
+  private void removeNodesNow(final Collection<NodePK> nodePKs) {
+    for (NodePK nodePK : nodePKs) {
+      final PublicationDistributionIndex index = indexes.get(nodePK.getInstanceId());
+      if (index != null) {
+        synchronized (index) {
+          index.removeNode(nodePK.getId());
+        }
+      }
+    }
+  }
+
+  /**
+   * Forgets the distribution of the publications of the specified Kmelia instance. It will be
+   * computed again at the next request. It is forgotten both at once and after the commit of the
+   * transaction so that a distribution computed meanwhile isn't kept.
+   * @param instanceId the identifier of a Kmelia instance.
+   */
+  public void invalidate(final String instanceId) {
+    indexes.remove(instanceId);
+    afterCommit(() -> indexes.remove(instanceId));
+  }
+
+  private PublicationDistributionIndex getIndex(final String instanceId) {
+    final long maxAge = getSettings().getLong("kmelia.treeview.count.maxAge", 60) * MINUTE;
+    return indexes.compute(instanceId,
+        (i, index) -> index == null || index.isOlderThan(maxAge) ? computeIndex(i) : index);
+  }
+
+  private PublicationDistributionIndex computeIndex(final String instanceId) {
+    final List<String> nodeIds =
+        nodeService.getSubTree(new NodePK(NodePK.ROOT_NODE_ID, instanceId))
+            .stream()
+            .map(NodeDetail::getNodePK)
+            .map(NodePK::getId)
+            .collect(Collectors.toList());
+    final PublicationDistributionIndex index =
+        new PublicationDistributionIndex(instanceId, nodeIds);
+    final Collection<PublicationDetail> publications =
+        publicationService.getDetailsByFatherIds(new ArrayList<>(nodeIds), instanceId, false);
+    final Map<String, List<Location>> locations = publicationService.getAllLocationsByPublicationIds(
+        publications.stream().map(PublicationDetail::getId).collect(Collectors.toSet()));
+    for (PublicationDetail publication : publications) {
+      final List<String> nodeIdsOfPub = locations
+          .getOrDefault(publication.getId(), Collections.emptyList())
+          .stream()
+          .filter(l -> l.getInstanceId().equals(instanceId))
+          .map(Location::getId)
+          .collect(Collectors.toList());
+      index.put(publication.getId(), publication.getStatus(), publication.getUpdaterId(),
+          nodeIdsOfPub, visibilityOf(publication));
+    }
+    SilverLogger.getLogger(this)
+        .debug("Distribution of the {0} publications of {1} computed", publications.size(),
+            instanceId);
+    return index;
+  }
+
+  private void afterCommit(final Runnable change) {
+    try {
+      final TransactionSynchronizationRegistry registry =
+          (TransactionSynchronizationRegistry) new InitialContext().lookup(TRANSACTION_REGISTRY);
+      if (registry.getTransactionStatus() == Status.STATUS_ACTIVE) {
+        registry.registerInterposedSynchronization(new Synchronization() {
+          @Override
+          public void beforeCompletion() {
+            // nothing to do before the commit
+          }
+
+          @Override
+          public void afterCompletion(final int status) {
+            if (status == Status.STATUS_COMMITTED) {
+              change.run();
+            }
+          }
+        });
+        return;
+      }
+    } catch (NamingException e) {
+      SilverLogger.getLogger(this).silent(e);
+    }
+    change.run();
+  }
+
+  private static BooleanSupplier visibilityOf(final PublicationDetail publication) {
+    return publication.getVisibility().getSpecificPeriod().isPresent() ? publication::isVisible :
+        null;
+  }
+
+  private static SettingBundle getSettings() {
+    return ResourceLocator.getSettingBundle(SETTINGS_PATH);
+  }
+}
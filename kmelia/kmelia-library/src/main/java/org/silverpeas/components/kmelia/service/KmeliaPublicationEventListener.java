@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.silverpeas.components.kmelia.service;
+
+import org.silverpeas.core.annotation.Bean;
+import org.silverpeas.core.contribution.publication.notification.PublicationEvent;
+import org.silverpeas.core.notification.system.CDIResourceEventListener;
+
+import javax.inject.Inject;
+
+/**
+ * Listens the changes of the publications to keep up to date the in-memory distribution of the
+ * publications among the Kmelia folders, whatever the origin of the changes.
+ */
+@Bean
+public class KmeliaPublicationEventListener extends CDIResourceEventListener<PublicationEvent> {
+
+  @Inject
+  private KmeliaPublicationDistribution publicationDistribution;
+
+  @Override
+  public void onUpdate(final PublicationEvent event) {
+    publicationDistribution.update(event.getTransition().getAfter());
+  }
+
+  @Override
+  public void onDeletion(final PublicationEvent event) {
+    publicationDistribution.remove(event.getTransition().getBefore().getId());
+  }
+}
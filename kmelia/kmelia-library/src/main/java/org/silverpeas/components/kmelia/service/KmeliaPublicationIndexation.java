@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.kmelia.service;
+
+import org.silverpeas.core.contribution.publication.model.PublicationDetail;
+import org.silverpeas.core.thread.ManagedThreadPool;
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Indexation of all the publications of a Kmelia instance.
+ * <p>
+ * The publications to index are filtered once against the set of the publications in the
+ * basket, then they are split into batches that are indexed concurrently by a bounded number of
+ * workers run by the {@link ManagedThreadPool} of the platform. The progress and the throughput
+ * of the indexation are logged at regular intervals so the duration of a full re-indexation can
+ * be anticipated.
+ * </p>
+ */
+class KmeliaPublicationIndexation {
+
+  private static final long PROGRESS_LOG_INTERVAL = 30000L;
+
+  private final String instanceId;
+  private final int parallelism;
+  private final int batchSize;
+  private final Consumer<PublicationDetail> indexer;
+  private final AtomicInteger indexed = new AtomicInteger(0);
+  private final AtomicInteger failed = new AtomicInteger(0);
+  private long startTime;
+  private volatile long lastProgressLog;
+  private int total;
+
+  /**
+   * Constructs a new indexation of the publications of the given Kmelia instance.
+   * @param instanceId the identifier of the Kmelia instance.
+   * @param parallelism the maximum number of publications indexed at the same time.
+   * @param batchSize the number of publications indexed by a worker in one go.
+   * @param indexer the indexer of a single publication.
+   */
+  KmeliaPublicationIndexation(final String instanceId, final int parallelism,
+      final int batchSize, final Consumer<PublicationDetail> indexer) {
+    this.instanceId = instanceId;
+    this.parallelism = Math.max(1, parallelism);
+    this.batchSize = Math.max(1, batchSize);
+    this.indexer = indexer;
+  }
+
+  /**
+   * Indexes the given publications. Only the valid publications that aren't in the basket are
+   * indexed. This method returns once all the publications are indexed.
+   * @param publications the publications of the Kmelia instance.
+   * @param idsInBasket the identifiers of the publications in the basket.
+   * @return the number of indexed publications.
+   */
+  int index(final Collection<PublicationDetail> publications, final Set<String> idsInBasket) {
+    final List<PublicationDetail> toIndex = new ArrayList<>(publications.size());
+    for (PublicationDetail pub : publications) {
+      if (pub.isValid() && !idsInBasket.contains(pub.getId())) {
+        toIndex.add(pub);
+      }
+    }
+    total = toIndex.size();
+    startTime = System.currentTimeMillis();
+    lastProgressLog = startTime;
+    if (parallelism == 1 || total <= batchSize) {
+      indexBatch(toIndex);
+    } else {
+      indexConcurrently(toIndex);
+    }
+    final long duration = Math.max(1, System.currentTimeMillis() - startTime);
+    SilverLogger.getLogger(this)
+        .info("{0}: {1} publications indexed in {2} ms ({3} publications/s, {4} failures)",
+            instanceId, indexed.get(), duration, indexed.get() * 1000L / duration, failed.get());
+    return indexed.get();
+  }
+
+  private void indexConcurrently(final List<PublicationDetail> toIndex) {
+    final Queue<List<PublicationDetail>> batches = new ConcurrentLinkedQueue<>();
+    for (int i = 0; i < toIndex.size(); i += batchSize) {
+      batches.add(toIndex.subList(i, Math.min(i + batchSize, toIndex.size())));
+    }
+    final int workerCount = Math.min(parallelism, batches.size());
+    final List<Future<Void>> workers = new ArrayList<>(workerCount);
+    try {
+      for (int i = 0; i < workerCount; i++) {
+        workers.add(ManagedThreadPool.getPool().invoke(() -> {
+          List<PublicationDetail> batch;
+          while ((batch = batches.poll()) != null && !Thread.currentThread().isInterrupted()) {
+            indexBatch(batch);
+          }
+          return null;
+        }));
+      }
+      for (Future<Void> worker : workers) {
+        worker.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      batches.clear();
+      workers.forEach(w -> w.cancel(true));
+      SilverLogger.getLogger(this).warn("{0}: indexation interrupted", instanceId);
+    } catch (ExecutionException e) {
+      batches.clear();
+      SilverLogger.getLogger(this).error(e.getCause());
+    }
+  }
+
+  private void indexBatch(final List<PublicationDetail> batch) {
+    for (PublicationDetail pub : batch) {
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+      try {
+        indexer.accept(pub);
+        indexed.incrementAndGet();
+      } catch (Exception e) {
+        failed.incrementAndGet();
+        SilverLogger.getLogger(this)
+            .error("Error during indexation of publication {0}", new String[]{pub.getId()}, e);
+      }
+    }
+    logProgress();
+  }
+
+  private void logProgress() {
+    final long now = System.currentTimeMillis();
+    if (now - lastProgressLog >= PROGRESS_LOG_INTERVAL) {
+      lastProgressLog = now;
+      final int done = indexed.get() + failed.get();
+      final long elapsed = Math.max(1, now - startTime);
+      SilverLogger.getLogger(this)
+          .info("{0}: {1}/{2} publications indexed ({3} publications/s)", instanceId, done, total,
+              done * 1000L / elapsed);
+    }
+  }
+}
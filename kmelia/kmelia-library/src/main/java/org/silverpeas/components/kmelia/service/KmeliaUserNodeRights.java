@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.kmelia.service;
+
+import org.silverpeas.core.admin.ProfiledObjectType;
+import org.silverpeas.core.admin.service.OrganizationController;
+import org.silverpeas.core.annotation.Service;
+import org.silverpeas.core.node.model.NodeDetail;
+import org.silverpeas.core.util.ResourceLocator;
+import org.silverpeas.core.util.ServiceProvider;
+
+import javax.inject.Singleton;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the roles the users have on the folders of the Kmelia instances with rights on
+ * folders.
+ * <p>
+ * All the roles of a user on the folders of a Kmelia instance are loaded in one request and then
+ * kept for a short time (defined by the {@code kmelia.rights.cache.ttl} property), so the display
+ * of a folder doesn't request the rights of the user for each of its sub-folders. The roles cached
+ * for a Kmelia instance are cleared as soon as the rights on one of its folders are modified. The
+ * whole cache is cleared when a group is modified as the roles can be given through groups.
+ * </p>
+ */
+@Service
+@Singleton
+public class KmeliaUserNodeRights {
+
+  private static final String SETTINGS_PATH = "org.silverpeas.kmelia.settings.kmeliaSettings";
+  private static final long SECOND = 1000L;
+
+  private final Map<String, Map<String, CachedRoles>> cache = new ConcurrentHashMap<>();
+
+  public static KmeliaUserNodeRights get() {
+    return ServiceProvider.getSingleton(KmeliaUserNodeRights.class);
+  }
+
+  /**
+   * Gets the roles the specified user has on the folders of the given Kmelia instance. Only the
+   * folders with their own rights are concerned.
+   * @param userId the identifier of a user.
+   * @param instanceId the identifier of a Kmelia instance.
+   * @return the roles of the user indexed by folder identifier.
+   */
+  public Map<String, List<String>> getNodeUserRoles(final String userId,
+      final String instanceId) {
+    final long ttl = ResourceLocator.getSettingBundle(SETTINGS_PATH)
+        .getLong("kmelia.rights.cache.ttl", 120) * SECOND;
+    final Map<String, CachedRoles> rolesByUser =
+        cache.computeIfAbsent(instanceId, i -> new ConcurrentHashMap<>());
+    CachedRoles roles = rolesByUser.get(userId);
+    if (roles == null || roles.isOlderThan(ttl)) {
+      roles = new CachedRoles(OrganizationController.get()
+          .getUserObjectProfiles(userId, instanceId, ProfiledObjectType.NODE));
+      rolesByUser.put(userId, roles);
+    }
+    return roles.roles;
+  }
+
+  /**
+   * Gets the roles the specified user has on the given folder. The roles are those defined on the
+   * folder on which the rights of the given folder depend.
+   * @param userId the identifier of a user.
+   * @param node a folder with rights.
+   * @return the roles of the user on the folder. Empty if the user has no role.
+   */
+  public List<String> getUserRoles(final String userId, final NodeDetail node) {
+    return getNodeUserRoles(userId, node.getNodePK().getInstanceId())
+        .getOrDefault(node.getRightsDependsOn(), Collections.emptyList());
+  }
+
+  /**
+   * Is the specified folder available to the given user? A folder is available to a user if the
+   * user has at least one role on it.
+   * @param userId the identifier of a user.
+   * @param node a folder with rights.
+   * @return true if the user can access the folder, false otherwise.
+   */
+  public boolean isAvailable(final String userId, final NodeDetail node) {
+    return !getUserRoles(userId, node).isEmpty();
+  }
+
+  /**
+   * Is there at least one folder with rights in the given Kmelia instance that is available to the
+   * specified user?
+   * @param userId the identifier of a user.
+   * @param instanceId the identifier of a Kmelia instance.
+   * @return true if the user has at least one role on a folder of the Kmelia instance.
+   */
+  public boolean isAnyNodeAvailable(final String userId, final String instanceId) {
+    return getNodeUserRoles(userId, instanceId).values().stream().anyMatch(r -> !r.isEmpty());
+  }
+
+  /**
+   * Clears the roles cached for the specified Kmelia instance. This method has to be invoked each
+   * time the rights on a folder of the Kmelia instance are modified.
+   * @param instanceId the identifier of a Kmelia instance.
+   */
+  public void invalidate(final String instanceId) {
+    cache.remove(instanceId);
+  }
+
+  /**
+   * Clears the whole cache.
+   */
+  public void invalidateAll() {
+    cache.clear();
+  }
+
+  private static class CachedRoles {
+    private final long creationTime = System.currentTimeMillis();
+    private final Map<String, List<String>> roles;
+
+    private CachedRoles(final Map<String, List<String>> roles) {
+      this.roles = roles;
+    }
+
+    private boolean isOlderThan(final long ttl) {
+      return System.currentTimeMillis() - creationTime > ttl;
+    }
+  }
+}
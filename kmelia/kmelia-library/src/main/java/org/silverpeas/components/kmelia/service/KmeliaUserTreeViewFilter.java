@@ -32,6 +32,7 @@ import org.silverpeas.core.util.ArrayUtil;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import static org.silverpeas.core.util.StringUtil.defaultStringIfNotDefined;
 
@@ -55,7 +56,7 @@ class KmeliaUserTreeViewFilter {
   private final String bestUserComponentInstanceRole;
   private final boolean isRightsOnTopicsUsed;
 
-
+  private Supplier<Map<String, List<String>>> nodeUserRolesSupplier;
   private Map<String, List<String>> nodeUserRoles = null;
 
   /**
@@ -85,6 +86,20 @@ class KmeliaUserTreeViewFilter {
     this.initialNodeIdentifier = initialNodeIdentifier;
     this.bestUserComponentInstanceRole = bestUserComponentInstanceRole;
     this.isRightsOnTopicsUsed = isRightsOnTopicsUsed;
+    this.nodeUserRolesSupplier =
+        () -> orga.getUserObjectProfiles(userId, instanceId, ProfiledObjectType.NODE);
+  }
+
+  /**
+   * Sets the provider of the roles of the user on the nodes of the component instance. By
+   * default, the roles are requested from the organization controller.
+   * @param nodeUserRolesSupplier a provider of the user roles indexed by node identifier.
+   * @return itself.
+   */
+  KmeliaUserTreeViewFilter withNodeUserRoles(
+      final Supplier<Map<String, List<String>>> nodeUserRolesSupplier) {
+    this.nodeUserRolesSupplier = nodeUserRolesSupplier;
+    return this;
   }
 
   /**
@@ -173,7 +188,7 @@ class KmeliaUserTreeViewFilter {
    */
   private String[] getNodeUserRoles(String nodeId) {
     if (nodeUserRoles == null) {
-      nodeUserRoles = orga.getUserObjectProfiles(userId, instanceId, ProfiledObjectType.NODE);
+      nodeUserRoles = nodeUserRolesSupplier.get();
     }
     List<String> roles = nodeUserRoles.get(nodeId);
     return (roles != null) ? roles.toArray(new String[0]) : new String[0];
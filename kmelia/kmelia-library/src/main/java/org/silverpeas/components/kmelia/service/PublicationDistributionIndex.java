@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.kmelia.service;
+
+import org.silverpeas.core.contribution.publication.model.PublicationDetail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The distribution of the publications among the folders of a single Kmelia instance.
+ * <p>
+ * For each folder, the number of publications is maintained per status and, for each of these
+ * statuses, per last updater. Counting the publications a user can see in a folder is then just
+ * a matter of summing some of these counters, whatever the number of publications. The
+ * publications with a specific visibility period cannot be counted in advance: they are kept
+ * aside and their visibility is checked each time the distribution is computed.
+ * </p>
+ * <p>
+ * This class isn't thread safe: the concurrent accesses are expected to be handled by the
+ * caller.
+ * </p>
+ */
+class PublicationDistributionIndex {
+
+  private static final String[] STATUSES =
+      {PublicationDetail.VALID_STATUS, PublicationDetail.TO_VALIDATE_STATUS,
+          PublicationDetail.DRAFT_STATUS, PublicationDetail.REFUSED_STATUS};
+  private static final int OTHER_STATUS = STATUSES.length;
+
+  private final String instanceId;
+  private final long creationTime = System.currentTimeMillis();
+  private final Map<String, Entry> entries = new HashMap<>();
+  private final Map<String, NodeCounter> counters = new HashMap<>();
+  private final Map<String, Entry> entriesWithVisibilityPeriod = new HashMap<>();
+
+  /**
+   * Constructs an empty distribution for the given Kmelia instance.
+   * @param instanceId the identifier of a Kmelia instance.
+   * @param nodeIds the identifiers of all the folders of the Kmelia instance.
+   */
+  PublicationDistributionIndex(final String instanceId, final Collection<String> nodeIds) {
+    this.instanceId = instanceId;
+    nodeIds.forEach(this::getCounter);
+  }
+
+  String getInstanceId() {
+    return instanceId;
+  }
+
+  /**
+   * Is this distribution older than the given age?
+   * @param maxAge a duration in milliseconds. 0 or a negative value means no limit.
+   * @return true if the distribution was computed for longer than the specified duration.
+   */
+  boolean isOlderThan(final long maxAge) {
+    return maxAge > 0 && System.currentTimeMillis() - creationTime > maxAge;
+  }
+
+  /**
+   * Puts the specified publication into the given folders. If the publication was already
+   * indexed, its previous state is replaced by the new one. If no folders are given, the
+   * publication is removed from the distribution.
+   * @param pubId the unique identifier of the publication.
+   * @param status the status of the publication.
+   * @param updaterId the identifier of the last user who updated the publication.
+   * @param nodeIds the identifiers of the folders in which the publication is located.
+   * @param visibility a predicate on the visibility of the publication or null if the publication
+   * has no specific visibility period.
+   */
+  void put(final String pubId, final String status, final String updaterId,
+      final Collection<String> nodeIds, final BooleanSupplier visibility) {
+    remove(pubId);
+    if (!nodeIds.isEmpty()) {
+      final Entry entry =
+          new Entry(indexOf(status), updaterId, new ArrayList<>(nodeIds), visibility);
+      entries.put(pubId, entry);
+      if (visibility == null) {
+        entry.nodeIds.forEach(n -> getCounter(n).add(entry, 1));
+      } else {
+        entriesWithVisibilityPeriod.put(pubId, entry);
+      }
+    }
+  }
+
+  /**
+   * Updates the state of the specified publication without changing its locations. Nothing is
+   * done if the publication isn't in the distribution.
+   * @param pubId the unique identifier of the publication.
+   * @param status the status of the publication.
+   * @param updaterId the identifier of the last user who updated the publication.
+   * @param visibility a predicate on the visibility of the publication or null if the publication
+   * has no specific visibility period.
+   */
+  void update(final String pubId, final String status, final String updaterId,
+      final BooleanSupplier visibility) {
+    final Entry entry = entries.get(pubId);
+    if (entry != null) {
+      put(pubId, status, updaterId, entry.nodeIds, visibility);
+    }
+  }
+
+  /**
+   * Removes the specified publication from the distribution.
+   * @param pubId the unique identifier of the publication.
+   */
+  void remove(final String pubId) {
+    final Entry entry = entries.remove(pubId);
+    if (entry != null && entriesWithVisibilityPeriod.remove(pubId) == null) {
+      entry.nodeIds.forEach(n -> getCounter(n).add(entry, -1));
+    }
+  }
+
+  /**
+   * Removes the specified folder from the distribution. The publications located in this folder
+   * are forgotten for it, so that their later changes don't bring back a counter for the folder;
+   * those that were only in this folder are removed from the distribution.
+   * @param nodeId the identifier of the folder.
+   */
+  void removeNode(final String nodeId) {
+    counters.remove(nodeId);
+    entries.values().removeIf(e -> e.nodeIds.remove(nodeId) && e.nodeIds.isEmpty());
+    entriesWithVisibilityPeriod.values().removeIf(e -> e.nodeIds.isEmpty());
+  }
+
+  /**
+   * Is the specified publication in the distribution?
+   * @param pubId the unique identifier of a publication.
+   * @return true if the publication is located in at least one folder of the distribution.
+   */
+  boolean contains(final String pubId) {
+    return entries.containsKey(pubId);
+  }
+
+  /**
+   * Counts the publications matching the given rule in each folder of the Kmelia instance.
+   * The sub-folders aren't taken into account.
+   * @param rule the rule the publications have to satisfy to be counted.
+   * @param userId the identifier of the user for whom the publications are counted.
+   * @return the number of publications per folder identifier.
+   */
+  Map<String, Integer> count(final CountingRule rule, final String userId) {
+    final Map<String, Integer> numbers = new HashMap<>(counters.size());
+    counters.forEach((nodeId, counter) -> numbers.put(nodeId, counter.count(rule, userId)));
+    for (Entry entry : entriesWithVisibilityPeriod.values()) {
+      if (rule.matches(entry, userId) &&
+          (!rule.visibilityChecked || entry.visibility.getAsBoolean())) {
+        entry.nodeIds.forEach(n -> numbers.merge(n, 1, Integer::sum));
+      }
+    }
+    return numbers;
+  }
+
+  private NodeCounter getCounter(final String nodeId) {
+    return counters.computeIfAbsent(nodeId, n -> new NodeCounter());
+  }
+
+  private static int indexOf(final String status) {
+    for (int i = 0; i < STATUSES.length; i++) {
+      if (STATUSES[i].equalsIgnoreCase(status)) {
+        return i;
+      }
+    }
+    return OTHER_STATUS;
+  }
+
+  /**
+   * A rule on the publications to count. A publication is counted if its status is one of the
+   * statuses of the rule or, when the rule says so, if it was last updated by the user for whom
+   * the publications are counted.
+   */
+  static class CountingRule {
+
+    private final boolean[] statuses = new boolean[OTHER_STATUS + 1];
+    private boolean updatedByUserCounted = false;
+    private boolean visibilityChecked = false;
+
+    static CountingRule ofStatus(final String... statuses) {
+      final CountingRule rule = new CountingRule();
+      for (String status : statuses) {
+        rule.statuses[indexOf(status)] = true;
+      }
+      return rule;
+    }
+
+    static CountingRule ofAnyStatus() {
+      final CountingRule rule = new CountingRule();
+      Arrays.fill(rule.statuses, true);
+      return rule;
+    }
+
+    /**
+     * The publications last updated by the user are counted whatever their status.
+     * @return itself.
+     */
+    CountingRule orUpdatedByUser() {
+      this.updatedByUserCounted = true;
+      return this;
+    }
+
+    /**
+     * Only the publications that are visible at the time of the counting are taken into account.
+     * @param visibilityChecked true if the visibility period of the publications has to be
+     * checked.
+     * @return itself.
+     */
+    CountingRule visibleOnly(final boolean visibilityChecked) {
+      this.visibilityChecked = visibilityChecked;
+      return this;
+    }
+
+    private boolean matches(final Entry entry, final String userId) {
+      return statuses[entry.status] ||
+          (updatedByUserCounted && entry.updaterId != null && entry.updaterId.equals(userId));
+    }
+  }
+
+  private static class Entry {
+    private final int status;
+    private final String updaterId;
+    private final List<String> nodeIds;
+    private final BooleanSupplier visibility;
+
+    private Entry(final int status, final String updaterId, final List<String> nodeIds,
+        final BooleanSupplier visibility) {
+      this.status = status;
+      this.updaterId = updaterId;
+      this.nodeIds = nodeIds;
+      this.visibility = visibility;
+    }
+  }
+
+  private static class NodeCounter {
+    private final int[] byStatus = new int[OTHER_STATUS + 1];
+    private final Map<String, int[]> byUpdater = new HashMap<>();
+
+    private void add(final Entry entry, final int delta) {
+      byStatus[entry.status] += delta;
+      if (entry.updaterId != null) {
+        final int[] updaterCounts =
+            byUpdater.computeIfAbsent(entry.updaterId, u -> new int[OTHER_STATUS + 1]);
+        updaterCounts[entry.status] += delta;
+      }
+    }
+
+    private int count(final CountingRule rule, final String userId) {
+      int nb = 0;
+      final int[] updaterCounts = rule.updatedByUserCounted && userId != null
+          ? byUpdater.get(userId)
+          : null;
+      for (int i = 0; i < byStatus.length; i++) {
+        if (rule.statuses[i]) {
+          nb += byStatus[i];
+        } else if (updaterCounts != null) {
+          nb += updaterCounts[i];
+        }
+      }
+      return nb;
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have recieved a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.kmelia.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.components.kmelia.service.PublicationDistributionIndex.CountingRule;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.silverpeas.core.contribution.publication.model.PublicationDetail.*;
+
+class PublicationDistributionIndexTest {
+
+  private static final String INSTANCE_ID = "kmelia26";
+  private static final String WRITER_ID = "2";
+  private static final String OTHER_WRITER_ID = "3";
+
+  private PublicationDistributionIndex index;
+
+  @BeforeEach
+  void setup() {
+    index = new PublicationDistributionIndex(INSTANCE_ID, Arrays.asList("0", "1", "10", "11"));
+    index.put("100", VALID_STATUS, WRITER_ID, Collections.singletonList("10"), null);
+    index.put("101", DRAFT_STATUS, WRITER_ID, Collections.singletonList("10"), null);
+    index.put("102", DRAFT_STATUS, OTHER_WRITER_ID, Arrays.asList("10", "11"), null);
+    index.put("103", TO_VALIDATE_STATUS, OTHER_WRITER_ID, Collections.singletonList("11"), null);
+    index.put("104", VALID_STATUS, OTHER_WRITER_ID, Collections.singletonList("1"), null);
+  }
+
+  @Test
+  void emptyFoldersAreCounted() {
+    Map<String, Integer> numbers = index.count(CountingRule.ofStatus(VALID_STATUS), WRITER_ID);
+    assertThat(numbers.get("0"), is(0));
+  }
+
+  @Test
+  void countByStatus() {
+    Map<String, Integer> numbers = index.count(CountingRule.ofStatus(VALID_STATUS), WRITER_ID);
+    assertThat(numbers.get("10"), is(1));
+    assertThat(numbers.get("11"), is(0));
+
+    numbers = index.count(CountingRule.ofStatus(VALID_STATUS, DRAFT_STATUS), WRITER_ID);
+    assertThat(numbers.get("10"), is(3));
+    assertThat(numbers.get("11"), is(1));
+  }
+
+  @Test
+  void countByStatusOrUpdatedByUser() {
+    Map<String, Integer> numbers =
+        index.count(CountingRule.ofStatus(VALID_STATUS).orUpdatedByUser(), WRITER_ID);
+    assertThat(numbers.get("10"), is(2));
+    assertThat(numbers.get("11"), is(0));
+
+    numbers = index.count(CountingRule.ofStatus(VALID_STATUS).orUpdatedByUser(), OTHER_WRITER_ID);
+    assertThat(numbers.get("10"), is(2));
+    assertThat(numbers.get("11"), is(2));
+    assertThat(numbers.get("1"), is(1));
+  }
+
+  @Test
+  void statusChangeIsTakenIntoAccount() {
+    index.update("101", VALID_STATUS, WRITER_ID, null);
+    Map<String, Integer> numbers = index.count(CountingRule.ofStatus(VALID_STATUS), WRITER_ID);
+    assertThat(numbers.get("10"), is(2));
+  }
+
+  @Test
+  void moveAndDeletionAreTakenIntoAccount() {
+    index.put("102", DRAFT_STATUS, OTHER_WRITER_ID, Collections.singletonList("1"), null);
+    index.remove("100");
+    Map<String, Integer> numbers = index.count(CountingRule.ofAnyStatus(), WRITER_ID);
+    assertThat(numbers.get("10"), is(1));
+    assertThat(numbers.get("11"), is(1));
+    assertThat(numbers.get("1"), is(2));
+  }
+
+  @Test
+  void visibilityPeriodIsCheckedOnlyWhenRequired() {
+    index.put("105", VALID_STATUS, WRITER_ID, Collections.singletonList("11"), () -> false);
+    index.put("106", VALID_STATUS, WRITER_ID, Collections.singletonList("11"), () -> true);
+    Map<String, Integer> numbers =
+        index.count(CountingRule.ofStatus(VALID_STATUS).visibleOnly(true), WRITER_ID);
+    assertThat(numbers.get("11"), is(1));
+
+    numbers = index.count(CountingRule.ofStatus(VALID_STATUS), WRITER_ID);
+    assertThat(numbers.get("11"), is(2));
+
+    index.remove("106");
+    numbers = index.count(CountingRule.ofStatus(VALID_STATUS), WRITER_ID);
+    assertThat(numbers.get("11"), is(1));
+  }
+
+  @Test
+  void removedFolderIsNoMoreCountedAfterChangesOfItsPublications() {
+    index.put("105", VALID_STATUS, WRITER_ID, Arrays.asList("10", "11"), () -> true);
+    index.removeNode("10");
+    assertThat(index.contains("100"), is(false));
+    assertThat(index.contains("102"), is(true));
+
+    index.remove("101");
+    index.put("102", VALID_STATUS, OTHER_WRITER_ID, Collections.singletonList("1"), null);
+    index.update("105", DRAFT_STATUS, WRITER_ID, () -> true);
+    Map<String, Integer> numbers = index.count(CountingRule.ofAnyStatus(), WRITER_ID);
+    assertThat(numbers.containsKey("10"), is(false));
+    assertThat(numbers.get("11"), is(2));
+    assertThat(numbers.get("1"), is(2));
+  }
+}
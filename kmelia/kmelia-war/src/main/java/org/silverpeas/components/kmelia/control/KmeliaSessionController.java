@@ -39,6 +39,7 @@ import org.silverpeas.components.kmelia.model.*;
 import org.silverpeas.components.kmelia.search.KmeliaSearchServiceProvider;
 import org.silverpeas.components.kmelia.service.KmeliaHelper;
 import org.silverpeas.components.kmelia.service.KmeliaService;
+import org.silverpeas.components.kmelia.service.KmeliaUserNodeRights;
 import org.silverpeas.core.ResourceReference;
 import org.silverpeas.core.admin.ProfiledObjectId;
 import org.silverpeas.core.admin.ProfiledObjectType;
@@ -2148,6 +2149,7 @@ public class KmeliaSessionController extends AbstractComponentSessionController
   private void deleteTopicRole(String profileId) {
     // Remove the profile
     getAdmin().deleteProfileInst(profileId);
+    KmeliaUserNodeRights.get().invalidate(getComponentId());
   }
 
   public void updateTopicRole(String role, String nodeId, String[] groupIds, String[] userIds) {
@@ -2174,6 +2176,7 @@ public class KmeliaSessionController extends AbstractComponentSessionController
       // Create the profile
       getAdmin().addProfileInst(profile);
     }
+    KmeliaUserNodeRights.get().invalidate(getComponentId());
   }
 
   public ProfileInst getTopicProfile(String role, String topicId) {
@@ -0,0 +1,7 @@
+CREATE TABLE sc_mailinglist_mailbox (
+  mailbox     VARCHAR(255) NOT NULL,
+  uidValidity INT8 NOT NULL,
+  lastUid     INT8 NOT NULL,
+  failedUid   INT8 DEFAULT 0 NOT NULL,
+  failures    INT DEFAULT 0 NOT NULL
+);
@@ -48,3 +48,11 @@ CREATE TABLE sc_mailinglist_internal_sub (
   externalid      VARCHAR(255) NOT NULL,
   mailinglistid   VARCHAR(255) NOT NULL
 );
+
+CREATE TABLE sc_mailinglist_mailbox (
+  mailbox     VARCHAR(255) NOT NULL,
+  uidValidity BIGINT NOT NULL,
+  lastUid     BIGINT NOT NULL,
+  failedUid   BIGINT DEFAULT 0 NOT NULL,
+  failures    INT DEFAULT 0 NOT NULL
+);
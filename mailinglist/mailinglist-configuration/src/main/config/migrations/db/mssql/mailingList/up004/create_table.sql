@@ -0,0 +1,7 @@
+CREATE TABLE sc_mailinglist_mailbox (
+  mailbox     VARCHAR(255) NOT NULL,
+  uidValidity BIGINT NOT NULL,
+  lastUid     BIGINT NOT NULL,
+  failedUid   BIGINT DEFAULT 0 NOT NULL,
+  failures    INT DEFAULT 0 NOT NULL
+);
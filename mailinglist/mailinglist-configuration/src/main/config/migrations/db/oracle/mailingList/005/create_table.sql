@@ -49,3 +49,11 @@ CREATE TABLE sc_mailinglist_internal_sub (
   externalid      VARCHAR2(255) NOT NULL,
   mailinglistid   VARCHAR2(255) NOT NULL
 );
+
+CREATE TABLE sc_mailinglist_mailbox (
+  mailbox     VARCHAR2(255) NOT NULL,
+  uidValidity NUMBER(19, 0) NOT NULL,
+  lastUid     NUMBER(19, 0) NOT NULL,
+  failedUid   NUMBER(19, 0) DEFAULT 0 NOT NULL,
+  failures    NUMBER(10, 0) DEFAULT 0 NOT NULL
+);
@@ -0,0 +1,3 @@
+ALTER TABLE sc_mailinglist_mailbox
+ADD CONSTRAINT pk_mailinglist_mailbox
+PRIMARY KEY (mailbox);
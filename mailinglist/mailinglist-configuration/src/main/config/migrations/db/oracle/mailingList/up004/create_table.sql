@@ -0,0 +1,7 @@
+CREATE TABLE sc_mailinglist_mailbox (
+  mailbox     VARCHAR2(255) NOT NULL,
+  uidValidity NUMBER(19, 0) NOT NULL,
+  lastUid     NUMBER(19, 0) NOT NULL,
+  failedUid   NUMBER(19, 0) DEFAULT 0 NOT NULL,
+  failures    NUMBER(10, 0) DEFAULT 0 NOT NULL
+);
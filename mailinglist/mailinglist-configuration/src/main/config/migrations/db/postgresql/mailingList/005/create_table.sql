@@ -49,3 +49,11 @@ CREATE TABLE sc_mailinglist_internal_sub (
   externalid      VARCHAR(255) NOT NULL,
   mailinglistid   VARCHAR(255) NOT NULL
 );
+
+CREATE TABLE sc_mailinglist_mailbox (
+  mailbox     VARCHAR(255) NOT NULL,
+  uidValidity INT8 NOT NULL,
+  lastUid     INT8 NOT NULL,
+  failedUid   INT8 DEFAULT 0 NOT NULL,
+  failures    INT DEFAULT 0 NOT NULL
+);
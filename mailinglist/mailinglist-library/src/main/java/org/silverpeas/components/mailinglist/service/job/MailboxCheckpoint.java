@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.mailinglist.service.job;
+
+import org.silverpeas.core.persistence.jdbc.sql.JdbcSqlQuery;
+
+import java.sql.SQLException;
+import java.util.Optional;
+
+import static org.silverpeas.core.persistence.jdbc.sql.JdbcSqlQuery.createInsertFor;
+import static org.silverpeas.core.persistence.jdbc.sql.JdbcSqlQuery.createSelect;
+import static org.silverpeas.core.persistence.jdbc.sql.JdbcSqlQuery.createUpdateFor;
+
+/**
+ * The position reached by the checking of the messages of an IMAP mailbox. It is made up of the
+ * UIDVALIDITY of the mailbox and of the highest UID of the messages already checked: as long as
+ * the UIDVALIDITY doesn't change, only the messages with a greater UID have to be fetched.
+ * <p>
+ * The checkpoint also counts the consecutive failed attempts to process the message at which the
+ * checking is blocked, so that a message that can never be processed is skipped after a given
+ * number of attempts instead of blocking the checking forever.
+ * </p>
+ */
+public class MailboxCheckpoint {
+
+  private static final String MAILBOX_TABLE = "sc_mailinglist_mailbox";
+  private static final String MAILBOX_CRITERION = "mailbox = ?";
+
+  private final String mailbox;
+  private long uidValidity;
+  private long lastUid;
+  private long failedUid = 0;
+  private int failures = 0;
+
+  MailboxCheckpoint(final String mailbox, final long uidValidity, final long lastUid) {
+    this.mailbox = mailbox;
+    this.uidValidity = uidValidity;
+    this.lastUid = lastUid;
+  }
+
+  MailboxCheckpoint(final String mailbox, final long uidValidity, final long lastUid,
+      final long failedUid, final int failures) {
+    this(mailbox, uidValidity, lastUid);
+    this.failedUid = failedUid;
+    this.failures = failures;
+  }
+
+  /**
+   * Gets the checkpoint persisted for the given mailbox.
+   * @param mailbox the unique name of a mailbox.
+   * @return the checkpoint of the mailbox or nothing if the mailbox has never been checked.
+   * @throws SQLException on a database error.
+   */
+  public static Optional<MailboxCheckpoint> get(final String mailbox) throws SQLException {
+    return Optional.ofNullable(createSelect("uidValidity, lastUid, failedUid, failures")
+        .from(MAILBOX_TABLE)
+        .where(MAILBOX_CRITERION, mailbox)
+        .executeUnique(row -> new MailboxCheckpoint(mailbox, row.getLong(1), row.getLong(2),
+            row.getLong(3), row.getInt(4))));
+  }
+
+  public String getMailbox() {
+    return mailbox;
+  }
+
+  public long getUidValidity() {
+    return uidValidity;
+  }
+
+  public long getLastUid() {
+    return lastUid;
+  }
+
+  public long getFailedUid() {
+    return failedUid;
+  }
+
+  public int getFailures() {
+    return failures;
+  }
+
+  /**
+   * Gets the UID of the first message to fetch in the mailbox having the given UIDVALIDITY.
+   * @param currentUidValidity the current UIDVALIDITY of the mailbox.
+   * @return the UID following the last checked one or 1 if the UIDs of the mailbox have been
+   * reassigned since the last checking.
+   */
+  public long getNextUid(final long currentUidValidity) {
+    return currentUidValidity == uidValidity ? lastUid + 1 : 1;
+  }
+
+  /**
+   * Moves this checkpoint to the given message of the mailbox.
+   * @param currentUidValidity the current UIDVALIDITY of the mailbox.
+   * @param uid the UID of the last checked message.
+   */
+  public void moveTo(final long currentUidValidity, final long uid) {
+    if (currentUidValidity != uidValidity) {
+      this.uidValidity = currentUidValidity;
+      this.lastUid = uid;
+    } else {
+      this.lastUid = Math.max(lastUid, uid);
+    }
+  }
+
+  /**
+   * Records a failed attempt to process the given message of the mailbox. The attempts are
+   * counted as long as they concern the same message.
+   * @param currentUidValidity the current UIDVALIDITY of the mailbox.
+   * @param uid the UID of the message whose the processing failed.
+   * @return the number of consecutive failed attempts to process the message.
+   */
+  public int failedOn(final long currentUidValidity, final long uid) {
+    if (currentUidValidity != uidValidity || uid != failedUid) {
+      this.failedUid = uid;
+      this.failures = 0;
+    }
+    this.failures++;
+    return failures;
+  }
+
+  /**
+   * Forgets the failed attempts to process a message of the mailbox.
+   */
+  public void clearFailures() {
+    this.failedUid = 0;
+    this.failures = 0;
+  }
+
+  /**
+   * Persists this checkpoint.
+   * @throws SQLException on a database error.
+   */
+  public void save() throws SQLException {
+    JdbcSqlQuery update = createUpdateFor(MAILBOX_TABLE);
+    update.addUpdateParam("uidValidity", uidValidity);
+    update.addUpdateParam("lastUid", lastUid);
+    update.addUpdateParam("failedUid", failedUid);
+    update.addUpdateParam("failures", failures);
+    update.where(MAILBOX_CRITERION, mailbox);
+    if (update.execute() == 0) {
+      JdbcSqlQuery insert = createInsertFor(MAILBOX_TABLE);
+      insert.addInsertParam("mailbox", mailbox);
+      insert.addInsertParam("uidValidity", uidValidity);
+      insert.addInsertParam("lastUid", lastUid);
+      insert.addInsertParam("failedUid", failedUid);
+      insert.addInsertParam("failures", failures);
+      insert.execute();
+    }
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.mailinglist.service.job;
+
+import com.sun.mail.imap.IMAPFolder;
+import com.sun.mail.imap.IMAPStore;
+import org.silverpeas.core.thread.ManagedThreadPool;
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import javax.mail.Folder;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Store;
+import java.util.Date;
+import java.util.Properties;
+import java.util.concurrent.Future;
+
+/**
+ * Watches the IMAP INBOX of the mailing lists with IMAP IDLE so that the messages are checked
+ * as soon as they are received by the mail server. The watching is run by the
+ * {@link ManagedThreadPool} of the platform with its own connection to the server; on any
+ * connection failure, it reconnects after a while and checks the messages received in the
+ * meantime.
+ */
+class MailboxIdleWatcher {
+
+  private static final long RECONNECTION_DELAY = 30000L;
+  /**
+   * The mail servers may end an IDLE command after 30 minutes of inactivity: the socket timeout
+   * makes the watcher to reconnect before.
+   */
+  private static final int IDLE_TIMEOUT = 20 * 60 * 1000;
+
+  private final MessageChecker checker;
+  private final Session session;
+  private volatile boolean running = false;
+  private volatile Store store;
+  private Future<Void> watching;
+
+  MailboxIdleWatcher(final MessageChecker checker) {
+    this.checker = checker;
+    Properties properties = new Properties();
+    properties.setProperty("mail." + checker.getProtocol() + ".timeout",
+        String.valueOf(IDLE_TIMEOUT));
+    this.session = Session.getInstance(properties);
+  }
+
+  synchronized void start() {
+    if (!running) {
+      running = true;
+      watching = ManagedThreadPool.getPool().invoke(() -> {
+        watchUntilStopped();
+        return null;
+      });
+    }
+  }
+
+  /**
+   * Watches the INBOX in the current thread until this watcher is stopped.
+   */
+  void run() {
+    running = true;
+    watchUntilStopped();
+  }
+
+  synchronized void stop() {
+    running = false;
+    closeStore();
+    if (watching != null) {
+      watching.cancel(true);
+      watching = null;
+    }
+  }
+
+  private void watchUntilStopped() {
+    while (running) {
+      try {
+        watch();
+      } catch (Exception e) {
+        if (running) {
+          SilverLogger.getLogger(this)
+              .warn("IMAP IDLE on {0} interrupted ({1}): reconnection in {2}s",
+                  checker.getMailboxName(), e.getMessage(), RECONNECTION_DELAY / 1000);
+        }
+      } finally {
+        closeStore();
+      }
+      if (running) {
+        try {
+          Thread.sleep(RECONNECTION_DELAY);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  private void watch() throws MessagingException {
+    store = session.getStore(checker.getProtocol());
+    store.connect(checker.getMailServer(), checker.getPort(), checker.getLogin(),
+        checker.getPassword());
+    if (!((IMAPStore) store).hasCapability("IDLE")) {
+      SilverLogger.getLogger(this)
+          .warn("IMAP IDLE not supported by {0}: only the scheduled checking is performed",
+              checker.getMailServer());
+      running = false;
+      return;
+    }
+    IMAPFolder inbox = (IMAPFolder) store.getFolder("INBOX");
+    inbox.open(Folder.READ_ONLY);
+    // the count is read before any checking so that a message received just after it isn't
+    // missed
+    int count = inbox.getMessageCount();
+    // the messages received while the watcher was disconnected
+    checker.checkNewMessages(new Date());
+    while (running) {
+      inbox.idle(true);
+      int newCount = inbox.getMessageCount();
+      if (running && newCount != count) {
+        count = newCount;
+        checker.checkNewMessages(new Date());
+      }
+    }
+  }
+
+  private void closeStore() {
+    Store current = store;
+    store = null;
+    if (current != null) {
+      try {
+        current.close();
+      } catch (MessagingException e) {
+        SilverLogger.getLogger(this).silent(e);
+      }
+    }
+  }
+}
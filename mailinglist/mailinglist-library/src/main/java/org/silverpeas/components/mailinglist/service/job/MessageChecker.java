@@ -39,6 +39,7 @@ import org.silverpeas.core.util.ResourceLocator;
 import org.silverpeas.core.util.SettingBundle;
 import org.silverpeas.core.util.logging.SilverLogger;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.mail.FetchProfile;
 import javax.mail.Flags.Flag;
@@ -48,16 +49,22 @@ import javax.mail.Message.RecipientType;
 import javax.mail.MessagingException;
 import javax.mail.Session;
 import javax.mail.Store;
+import javax.mail.UIDFolder;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
 import java.io.IOException;
+import java.sql.SQLException;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class MessageChecker {
@@ -67,6 +74,8 @@ public class MessageChecker {
   public static final String IMAP_PROTOCOL = "imap";
   public static final String IMAP_SSL_PROTOCOL = "imaps";
   public static final String POP3_PROTOCOL = "pop3";
+  private static final String INBOX = "INBOX";
+  private static final int DEFAULT_MAX_ATTEMPTS = 3;
   private Map<String, MessageListener> listeners;
   @Inject
   private MailProcessor processor;
@@ -76,7 +85,12 @@ public class MessageChecker {
   private String protocol;
   private int port;
   private boolean leaveOnServer;
+  private boolean incremental;
+  private boolean idle;
+  private int maxAttempts;
   private Session mailSession;
+  private final ReentrantLock checking = new ReentrantLock();
+  private MailboxIdleWatcher idleWatcher;
   @Inject
   private MailingListService mailingListService;
 
@@ -89,18 +103,44 @@ public class MessageChecker {
     return mailSession;
   }
 
+  /**
+   * Schedules the checking of the new messages. If the IMAP IDLE is enabled, the INBOX is also
+   * watched so that the new messages are checked as soon as they are received, the scheduled
+   * checking being then only a safety net.
+   * @param trigger the trigger of the checking.
+   * @throws SchedulerException if the checking cannot be scheduled.
+   */
   public void schedule(final JobTrigger trigger) throws SchedulerException {
     Scheduler scheduler = SchedulerProvider.getVolatileScheduler();
     scheduler.scheduleJob(MAILING_LIST_JOB_NAME, trigger, new MessageCheckingListener());
+    if (isIdle()) {
+      synchronized (this) {
+        idleWatcher = new MailboxIdleWatcher(this);
+        idleWatcher.start();
+      }
+    }
   }
 
   public void unschedule() throws SchedulerException {
+    stopIdleWatching();
     Scheduler scheduler = SchedulerProvider.getVolatileScheduler();
     if (scheduler.isJobScheduled(MAILING_LIST_JOB_NAME)) {
       scheduler.unscheduleJob(MAILING_LIST_JOB_NAME);
     }
   }
 
+  /**
+   * Stops the watching of the INBOX with IMAP IDLE if any. It is also invoked when this checker
+   * is disposed so that no watching survives the shutdown of Silverpeas.
+   */
+  @PreDestroy
+  public synchronized void stopIdleWatching() {
+    if (idleWatcher != null) {
+      idleWatcher.stop();
+      idleWatcher = null;
+    }
+  }
+
   /**
    * Default constructor
    */
@@ -115,6 +155,9 @@ public class MessageChecker {
     password = notifConfig.getString("mail.server.password");
     port = notifConfig.getInteger("mail.server.port", smtpConfig.getPort());
     leaveOnServer = notifConfig.getBoolean("mail.server.leave", true);
+    incremental = notifConfig.getBoolean("mail.server.imap.incremental", true);
+    idle = notifConfig.getBoolean("mail.server.imap.idle", false);
+    maxAttempts = notifConfig.getInteger("mail.server.imap.maxAttempts", DEFAULT_MAX_ATTEMPTS);
     mailSession = Session.getInstance(new Properties());
   }
 
@@ -137,6 +180,34 @@ public class MessageChecker {
     return leaveOnServer;
   }
 
+  /**
+   * Are the messages of an IMAP INBOX checked incrementally? In this case, only the messages
+   * received since the last checking are fetched from the server, whatever the number of
+   * messages left on it.
+   * @return true if the INBOX is an IMAP one and the incremental checking is enabled.
+   */
+  public boolean isIncremental() {
+    return isImap() && incremental;
+  }
+
+  /**
+   * Is the IMAP INBOX watched with IMAP IDLE in order to process the new messages as soon as
+   * they are received?
+   * @return true if the INBOX is an IMAP one and IMAP IDLE is enabled.
+   */
+  public boolean isIdle() {
+    return isImap() && idle;
+  }
+
+  /**
+   * Gets the unique name of the checked mailbox.
+   * @return the name of the INBOX of the account on the mail server.
+   */
+  public String getMailboxName() {
+    return getProtocol() + "://" + getLogin() + "@" + getMailServer() + ":" + getPort() + "/" +
+        INBOX;
+  }
+
   public int getPort() {
     if (port <= 0) {
       if (POP3_PROTOCOL.equals(getProtocol())) {
@@ -180,17 +251,27 @@ public class MessageChecker {
   }
 
   /**
-   * Gets the new messages on the Mail Server and processes them.
+   * Gets the new messages on the Mail Server and processes them. The checking is never performed
+   * twice at the same time: a checking requested while another one is running waits for its end.
    * @param date the date of the checking.
    */
   public void checkNewMessages(Date date) {
+    checking.lock();
+    try {
+      checkInbox();
+    } finally {
+      checking.unlock();
+    }
+  }
+
+  private void checkInbox() {
     Store mailAccount = null;
     Folder inbox = null;
     Map<String, MessageListener> listenersByEmail = prepareListeners();
     try {
       mailAccount = mailSession.getStore(getProtocol());
       mailAccount.connect(getMailServer(), getPort(), getLogin(), getPassword());
-      inbox = mailAccount.getFolder("INBOX");
+      inbox = mailAccount.getFolder(INBOX);
       if (inbox == null) {
         throw new MessagingException("No POP3 INBOX");
       }
@@ -198,20 +279,29 @@ public class MessageChecker {
       inbox.open(Folder.READ_WRITE);
 
       // -- Get the message wrappers and process them --
-      Message[] msgs = inbox.getMessages();
-      if (isImap()) {
-        FetchProfile profile = new FetchProfile();
-        profile.add(FetchProfile.Item.FLAGS);
-        inbox.fetch(msgs, profile);
-      }
       Map<MessageListener, MessageEvent> eventsMap = new HashMap<>();
-      for (final Message msg : msgs) {
-        processMessage(inbox, listenersByEmail, eventsMap, msg);
+      MailboxCheckpoint checkpoint = null;
+      if (isIncremental()) {
+        checkpoint = checkNewMessagesSinceLastCheck(inbox, listenersByEmail, eventsMap);
+      } else {
+        Message[] msgs = inbox.getMessages();
+        if (isImap()) {
+          FetchProfile profile = new FetchProfile();
+          profile.add(FetchProfile.Item.FLAGS);
+          profile.add(FetchProfile.Item.ENVELOPE);
+          inbox.fetch(msgs, profile);
+        }
+        for (final Message msg : msgs) {
+          processMessage(inbox, listenersByEmail, eventsMap, msg);
+        }
       }
       for (final Map.Entry<MessageListener, MessageEvent> entry : eventsMap.entrySet()) {
         MessageListener mailingList = entry.getKey();
         mailingList.onMessage(entry.getValue());
       }
+      if (checkpoint != null) {
+        saveCheckpoint(checkpoint);
+      }
     } catch (Exception mex) {
       SilverLogger.getLogger(this).error(mex);
     } finally {
@@ -230,13 +320,106 @@ public class MessageChecker {
 
   }
 
-  private void processMessage(final Folder inbox,
+  /**
+   * Processes only the messages of the IMAP INBOX received since the last checking, that is to
+   * say the ones with an UID greater than the last checked one. Only the envelope, the flags and
+   * the structure of these messages are first fetched; the content of a message is downloaded
+   * only if it is sent to a mailing list.
+   * <p>
+   * The checkpoint isn't moved beyond a message whose the processing failed so that it is
+   * processed again at the next checking; the messages successfully processed after it are then
+   * skipped as they are already flagged as seen or deleted. After
+   * <code>mail.server.imap.maxAttempts</code> failed attempts, the message is given up: it is
+   * left on the server flagged and seen, and the checkpoint moves beyond it.
+   * </p>
+   * @return the checkpoint of the INBOX to save once the processed messages sent to their
+   * listeners.
+   */
+  private MailboxCheckpoint checkNewMessagesSinceLastCheck(final Folder inbox,
+      final Map<String, MessageListener> listenersByEmail,
+      final Map<MessageListener, MessageEvent> eventsMap) throws MessagingException, SQLException {
+    UIDFolder uidFolder = (UIDFolder) inbox;
+    final long uidValidity = uidFolder.getUIDValidity();
+    MailboxCheckpoint checkpoint = findCheckpoint(getMailboxName())
+        .orElseGet(() -> new MailboxCheckpoint(getMailboxName(), uidValidity, 0));
+    long nextUid = checkpoint.getNextUid(uidValidity);
+    Message[] msgs = uidFolder.getMessagesByUID(nextUid, UIDFolder.LASTUID);
+    FetchProfile profile = new FetchProfile();
+    profile.add(UIDFolder.FetchProfileItem.UID);
+    profile.add(FetchProfile.Item.FLAGS);
+    profile.add(FetchProfile.Item.ENVELOPE);
+    profile.add(FetchProfile.Item.CONTENT_INFO);
+    inbox.fetch(msgs, profile);
+    long lastUid = nextUid - 1;
+    SortedSet<Long> failedUids = new TreeSet<>();
+    for (final Message msg : msgs) {
+      long uid = uidFolder.getUID(msg);
+      // the range n:* always matches the last message of the mailbox, even if its UID is lower
+      if (uid >= nextUid) {
+        lastUid = Math.max(lastUid, uid);
+        if (!processMessage(inbox, listenersByEmail, eventsMap, msg)) {
+          failedUids.add(uid);
+        }
+      }
+    }
+    long checkedUid = lastUid;
+    for (final Long failedUid : failedUids) {
+      if (checkpoint.failedOn(uidValidity, failedUid) < maxAttempts) {
+        checkedUid = failedUid - 1;
+        break;
+      }
+      giveUpMessage(uidFolder, failedUid);
+    }
+    if (checkedUid == lastUid) {
+      checkpoint.clearFailures();
+    }
+    checkpoint.moveTo(uidValidity, checkedUid);
+    return checkpoint;
+  }
+
+  /**
+   * Gives up the processing of the given message: it is left on the server, flagged and seen,
+   * so that it can be examined by the administrator of the mailbox.
+   */
+  private void giveUpMessage(final UIDFolder inbox, final long uid) throws MessagingException {
+    SilverLogger.getLogger(this)
+        .error("Message {0} of {1} not processed after {2} attempts: it is skipped", uid,
+            getMailboxName(), maxAttempts);
+    Message msg = inbox.getMessageByUID(uid);
+    if (msg != null) {
+      msg.setFlag(Flag.FLAGGED, true);
+      msg.setFlag(Flag.SEEN, true);
+    }
+  }
+
+  /**
+   * Gets the checkpoint of the given mailbox.
+   * @param mailbox the unique name of the mailbox.
+   * @return the checkpoint of the mailbox or nothing if the mailbox has never been checked.
+   * @throws SQLException on a database error.
+   */
+  protected Optional<MailboxCheckpoint> findCheckpoint(final String mailbox) throws SQLException {
+    return MailboxCheckpoint.get(mailbox);
+  }
+
+  /**
+   * Saves the given checkpoint of a mailbox.
+   * @param checkpoint the checkpoint to save.
+   * @throws SQLException on a database error.
+   */
+  protected void saveCheckpoint(final MailboxCheckpoint checkpoint) throws SQLException {
+    checkpoint.save();
+  }
+
+  private boolean processMessage(final Folder inbox,
       final Map<String, MessageListener> listenersByEmail,
       final Map<MessageListener, MessageEvent> eventsMap, final Message msg) {
     try {
       MimeMessage message = (MimeMessage) msg;
       if (isImap()) {
-        if (!message.isSet(Flag.SEEN) && !message.isSet(Flag.DELETED)) {
+        if (!message.isSet(Flag.SEEN) && !message.isSet(Flag.DELETED) &&
+            !getRecipientMailingLists(getAllRecipients(message), listenersByEmail).isEmpty()) {
+          // the content of the message is downloaded only here
           message = new MimeMessage(message);
           processEmail(message, eventsMap, listenersByEmail);
         }
@@ -249,8 +432,10 @@ public class MessageChecker {
       } else {
         msg.setFlag(Flag.DELETED, true);
       }
+      return true;
     } catch (MessagingException | IOException e) {
       SilverLogger.getLogger(this).error(e);
+      return false;
     }
   }
 
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.mailinglist.service.job;
+
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.test.UnitTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@UnitTest
+public class MailboxCheckpointTest {
+
+  private static final String MAILBOX = "imap://list@localhost:143/INBOX";
+
+  @Test
+  public void theNextUidFollowsTheLastCheckedOne() {
+    MailboxCheckpoint checkpoint = new MailboxCheckpoint(MAILBOX, 42, 10);
+    assertEquals(11, checkpoint.getNextUid(42));
+  }
+
+  @Test
+  public void allTheMessagesAreCheckedAgainWhenTheUidValidityChanges() {
+    MailboxCheckpoint checkpoint = new MailboxCheckpoint(MAILBOX, 42, 10);
+    assertEquals(1, checkpoint.getNextUid(43));
+    checkpoint.moveTo(43, 3);
+    assertEquals(43, checkpoint.getUidValidity());
+    assertEquals(3, checkpoint.getLastUid());
+  }
+
+  @Test
+  public void theCheckpointNeverMovesBackward() {
+    MailboxCheckpoint checkpoint = new MailboxCheckpoint(MAILBOX, 42, 10);
+    checkpoint.moveTo(42, 15);
+    assertEquals(15, checkpoint.getLastUid());
+    checkpoint.moveTo(42, 12);
+    assertEquals(15, checkpoint.getLastUid());
+  }
+
+  @Test
+  public void theFailuresAreCountedAsLongAsTheyConcernTheSameMessage() {
+    MailboxCheckpoint checkpoint = new MailboxCheckpoint(MAILBOX, 42, 10);
+    assertEquals(1, checkpoint.failedOn(42, 11));
+    assertEquals(2, checkpoint.failedOn(42, 11));
+    assertEquals(1, checkpoint.failedOn(42, 12));
+    assertEquals(12, checkpoint.getFailedUid());
+    assertEquals(1, checkpoint.failedOn(43, 12));
+    checkpoint.clearFailures();
+    assertEquals(0, checkpoint.getFailures());
+  }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.mailinglist.service.job;
+
+import com.icegreen.greenmail.user.GreenMailUser;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.silverpeas.components.mailinglist.service.event.MessageListener;
+import org.silverpeas.components.mailinglist.service.model.MailingListService;
+import org.silverpeas.components.mailinglist.service.model.beans.MailingList;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+import org.silverpeas.core.test.extention.SettingBundleStub;
+
+import javax.mail.Flags.Flag;
+import javax.mail.Folder;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Store;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.commons.lang3.reflect.FieldUtils.writeField;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests the checking of the messages of an IMAP INBOX served by GreenMail: the incremental
+ * fetching of the new messages, the retry of a failed message and the watching with IMAP IDLE.
+ */
+@EnableSilverTestEnv
+class MessageCheckerTest {
+
+  private static final String COMPONENT_ID = "mailinglist1";
+  private static final String LIST_ADDRESS = "list@silverpeas.org";
+  private static final String LOGIN = "list";
+  private static final String PASSWORD = "secret";
+
+  @RegisterExtension
+  static SettingBundleStub notificationSettings =
+      new SettingBundleStub("org.silverpeas.mailinglist.notification");
+
+  @RegisterExtension
+  static SettingBundleStub smtpSettings =
+      new SettingBundleStub("org.silverpeas.notificationserver.channel.smtp.smtpSettings");
+
+  private final GreenMail greenMail = new GreenMail(ServerSetupTest.IMAP);
+  private final MailProcessor processor = mock(MailProcessor.class);
+  private final MessageListener listener = mock(MessageListener.class);
+  private GreenMailUser user;
+  private InMemoryMessageChecker checker;
+
+  @BeforeEach
+  void setup() throws Exception {
+    smtpSettings.put("SMTPServer", "localhost");
+    smtpSettings.put("SMTPPort", "25");
+    smtpSettings.put("SMTPAuthentication", "false");
+    smtpSettings.put("SMTPSecure", "false");
+    smtpSettings.put("SMTPDebug", "false");
+    notificationSettings.put("mail.server.protocol", MessageChecker.IMAP_PROTOCOL);
+    notificationSettings.put("mail.server.host", "localhost");
+    notificationSettings.put("mail.server.login", LOGIN);
+    notificationSettings.put("mail.server.password", PASSWORD);
+    notificationSettings.put("mail.server.port", String.valueOf(ServerSetupTest.IMAP.getPort()));
+    notificationSettings.put("mail.server.leave", "true");
+    notificationSettings.put("mail.server.imap.incremental", "true");
+    notificationSettings.put("mail.server.imap.idle", "true");
+    notificationSettings.put("mail.server.imap.maxAttempts", "3");
+
+    greenMail.start();
+    user = greenMail.setUser(LIST_ADDRESS, LOGIN, PASSWORD);
+
+    MailingList list = new MailingList();
+    list.setComponentId(COMPONENT_ID);
+    list.setSubscribedAddress(LIST_ADDRESS);
+    MailingListService mailingListService = mock(MailingListService.class);
+    when(mailingListService.findMailingList(COMPONENT_ID)).thenReturn(list);
+    when(listener.getComponentId()).thenReturn(COMPONENT_ID);
+
+    checker = new InMemoryMessageChecker();
+    writeField(checker, "processor", processor, true);
+    writeField(checker, "mailingListService", mailingListService, true);
+    checker.addMessageListener(listener);
+  }
+
+  @AfterEach
+  void tearDown() {
+    checker.stopIdleWatching();
+    greenMail.stop();
+  }
+
+  @Test
+  void onlyTheMessagesReceivedSinceTheLastCheckingAreFetched() throws Exception {
+    deliver("first");
+    deliver("second");
+    checker.checkNewMessages(new Date());
+    assertThat(checker.checkpoint.getLastUid(), is(2L));
+
+    // even unseen, the messages already checked aren't fetched again
+    markAllAsUnseen();
+    deliver("third");
+    checker.checkNewMessages(new Date());
+    assertThat(checker.checkpoint.getLastUid(), is(3L));
+
+    verify(processor, times(1)).prepareMessage(withSubject("first"), eq(listener), any());
+    verify(processor, times(1)).prepareMessage(withSubject("second"), eq(listener), any());
+    verify(processor, times(1)).prepareMessage(withSubject("third"), eq(listener), any());
+    verify(listener, times(2)).onMessage(any());
+  }
+
+  @Test
+  void aFailedMessageIsProcessedAgainAtTheNextChecking() throws Exception {
+    doThrow(new MessagingException("failure")).doNothing()
+        .when(processor).prepareMessage(withSubject("first"), any(), any());
+    deliver("first");
+    deliver("second");
+
+    checker.checkNewMessages(new Date());
+    assertThat(checker.checkpoint.getLastUid(), is(0L));
+    assertThat(checker.checkpoint.getFailedUid(), is(1L));
+    assertThat(checker.checkpoint.getFailures(), is(1));
+
+    checker.checkNewMessages(new Date());
+    assertThat(checker.checkpoint.getLastUid(), is(2L));
+    assertThat(checker.checkpoint.getFailures(), is(0));
+
+    verify(processor, times(2)).prepareMessage(withSubject("first"), any(), any());
+    verify(processor, times(1)).prepareMessage(withSubject("second"), any(), any());
+  }
+
+  @Test
+  void aMessageFailingAtEachAttemptIsFinallySkipped() throws Exception {
+    doThrow(new MessagingException("failure"))
+        .when(processor).prepareMessage(withSubject("poison"), any(), any());
+    deliver("poison");
+    deliver("second");
+
+    checker.checkNewMessages(new Date());
+    checker.checkNewMessages(new Date());
+    assertThat(checker.checkpoint.getLastUid(), is(0L));
+    assertThat(checker.checkpoint.getFailures(), is(2));
+
+    checker.checkNewMessages(new Date());
+    assertThat(checker.checkpoint.getLastUid(), is(2L));
+    assertThat(checker.checkpoint.getFailures(), is(0));
+
+    checker.checkNewMessages(new Date());
+    verify(processor, times(3)).prepareMessage(withSubject("poison"), any(), any());
+    verify(processor, times(1)).prepareMessage(withSubject("second"), any(), any());
+    assertThat(isFlagged("poison"), is(true));
+  }
+
+  @Test
+  void aMessageIsCheckedAsSoonAsReceivedWithImapIdle() throws Exception {
+    MailboxIdleWatcher watcher = new MailboxIdleWatcher(checker);
+    Thread watching = new Thread(watcher::run);
+    watching.start();
+    try {
+      // the watcher checks first the messages received while it was disconnected
+      assertThat(checker.firstChecking.await(10, TimeUnit.SECONDS), is(true));
+      deliver("first");
+      verify(processor, timeout(10000)).prepareMessage(withSubject("first"), eq(listener), any());
+      verify(listener, timeout(10000)).onMessage(any());
+    } finally {
+      watcher.stop();
+      watching.join(10000);
+    }
+  }
+
+  private void deliver(final String subject) throws MessagingException {
+    MimeMessage message = new MimeMessage(Session.getInstance(new Properties()));
+    message.setFrom(new InternetAddress("sender@silverpeas.org"));
+    message.setRecipient(Message.RecipientType.TO, new InternetAddress(LIST_ADDRESS));
+    message.setSubject(subject);
+    message.setText("The message " + subject);
+    message.setSentDate(new Date());
+    user.deliver(message);
+  }
+
+  private void markAllAsUnseen() throws MessagingException {
+    Store store = openStore();
+    try {
+      Folder inbox = store.getFolder("INBOX");
+      inbox.open(Folder.READ_WRITE);
+      for (Message message : inbox.getMessages()) {
+        message.setFlag(Flag.SEEN, false);
+      }
+      inbox.close(false);
+    } finally {
+      store.close();
+    }
+  }
+
+  private boolean isFlagged(final String subject) throws MessagingException {
+    Store store = openStore();
+    try {
+      Folder inbox = store.getFolder("INBOX");
+      inbox.open(Folder.READ_ONLY);
+      try {
+        for (Message message : inbox.getMessages()) {
+          if (subject.equals(message.getSubject())) {
+            return message.isSet(Flag.FLAGGED) && message.isSet(Flag.SEEN);
+          }
+        }
+        return false;
+      } finally {
+        inbox.close(false);
+      }
+    } finally {
+      store.close();
+    }
+  }
+
+  private Store openStore() throws MessagingException {
+    Store store = Session.getInstance(new Properties()).getStore(MessageChecker.IMAP_PROTOCOL);
+    store.connect("localhost", ServerSetupTest.IMAP.getPort(), LOGIN, PASSWORD);
+    return store;
+  }
+
+  private static MimeMessage withSubject(final String subject) {
+    return argThat(m -> {
+      try {
+        return m != null && subject.equals(m.getSubject());
+      } catch (MessagingException e) {
+        return false;
+      }
+    });
+  }
+
+  /**
+   * A checker keeping the checkpoint of the INBOX in memory instead of in the database.
+   */
+  private static class InMemoryMessageChecker extends MessageChecker {
+    private final CountDownLatch firstChecking = new CountDownLatch(1);
+    private MailboxCheckpoint checkpoint;
+
+    @Override
+    public void checkNewMessages(final Date date) {
+      super.checkNewMessages(date);
+      firstChecking.countDown();
+    }
+
+    @Override
+    protected Optional<MailboxCheckpoint> findCheckpoint(final String mailbox) {
+      return Optional.ofNullable(checkpoint).map(this::copy);
+    }
+
+    @Override
+    protected void saveCheckpoint(final MailboxCheckpoint checkpoint) throws SQLException {
+      this.checkpoint = copy(checkpoint);
+    }
+
+    private MailboxCheckpoint copy(final MailboxCheckpoint checkpoint) {
+      return new MailboxCheckpoint(checkpoint.getMailbox(), checkpoint.getUidValidity(),
+          checkpoint.getLastUid(), checkpoint.getFailedUid(), checkpoint.getFailures());
+    }
+  }
+}
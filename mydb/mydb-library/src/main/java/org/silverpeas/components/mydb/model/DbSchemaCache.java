@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.mydb.model;
+
+import org.silverpeas.core.annotation.Service;
+import org.silverpeas.core.util.ResourceLocator;
+import org.silverpeas.core.util.ServiceProvider;
+
+import javax.inject.Singleton;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A cache of the schema of the databases browsed by the MyDB instances: the names of the tables
+ * and the description of their columns with their keys. Walking the metadata of a remote
+ * database is costly, so the schema of a database as seen by a given
+ * {@link MyDBConnectionInfo} is kept for a while and it can be explicitly refreshed. The data
+ * sources got by their JNDI name are cached also.
+ */
+@Service
+@Singleton
+public class DbSchemaCache {
+
+  private static final int DEFAULT_TTL_MINUTES = 10;
+
+  private final Map<String, DataSource> dataSources = new ConcurrentHashMap<>();
+  private final Map<String, Schema> schemas = new ConcurrentHashMap<>();
+  private final long ttl;
+
+  protected DbSchemaCache() {
+    this(TimeUnit.MINUTES.toMillis(
+        ResourceLocator.getSettingBundle("org.silverpeas.mydb.settings.dataSources")
+            .getInteger("schema.cache.ttl", DEFAULT_TTL_MINUTES)));
+  }
+
+  /**
+   * Constructs a cache keeping the schemas for the given time.
+   * @param ttl the time to live of a cached schema in milliseconds.
+   */
+  DbSchemaCache(final long ttl) {
+    this.ttl = ttl;
+  }
+
+  public static DbSchemaCache get() {
+    return ServiceProvider.getService(DbSchemaCache.class);
+  }
+
+  /**
+   * Gets the data source with the specified JNDI name.
+   * @param jndiName the JNDI name of a data source.
+   * @return the data source.
+   * @throws NamingException if no such data source exists.
+   */
+  DataSource getDataSource(final String jndiName) throws NamingException {
+    DataSource dataSource = dataSources.get(jndiName);
+    if (dataSource == null) {
+      dataSource = InitialContext.doLookup(jndiName);
+      dataSources.put(jndiName, dataSource);
+    }
+    return dataSource;
+  }
+
+  /**
+   * Gets the names of the tables in the database referred by the specified connection
+   * information, loading them with the given loader if they aren't cached.
+   * @param dsInfo the information about the connection to a database.
+   * @param loader the loader of the table names.
+   * @return a list with the names of the tables in the database.
+   */
+  List<String> getTableNames(final MyDBConnectionInfo dsInfo,
+      final Supplier<List<String>> loader) {
+    final Schema schema = getSchema(dsInfo);
+    List<String> tableNames = schema.tableNames;
+    if (tableNames == null) {
+      tableNames = loader.get();
+      schema.tableNames = tableNames;
+    }
+    return tableNames;
+  }
+
+  /**
+   * Gets the columns of the specified table in the database referred by the given connection
+   * information, loading them with the given loader if they aren't cached.
+   * @param dsInfo the information about the connection to a database.
+   * @param tableName the name of a table in the database.
+   * @param loader the loader of the columns of the table.
+   * @return a list with the descriptors of the columns of the table.
+   */
+  List<JdbcRequester.ColumnDescriptor> getColumns(final MyDBConnectionInfo dsInfo,
+      final String tableName,
+      final Function<String, List<JdbcRequester.ColumnDescriptor>> loader) {
+    final Map<String, List<JdbcRequester.ColumnDescriptor>> columns = getSchema(dsInfo).columns;
+    List<JdbcRequester.ColumnDescriptor> tableColumns = columns.get(tableName);
+    if (tableColumns == null) {
+      tableColumns = loader.apply(tableName);
+      // an unknown table has no columns: it isn't cached
+      if (!tableColumns.isEmpty()) {
+        columns.put(tableName, tableColumns);
+      }
+    }
+    return tableColumns;
+  }
+
+  /**
+   * Refreshes the schema of the database referred by the specified connection information: the
+   * tables and their columns will be loaded again at their next access.
+   * @param dsInfo the information about the connection to a database.
+   */
+  public void refresh(final MyDBConnectionInfo dsInfo) {
+    schemas.remove(getKey(dsInfo));
+    dataSources.remove(dsInfo.getDataSourceName());
+  }
+
+  private Schema getSchema(final MyDBConnectionInfo dsInfo) {
+    final String key = getKey(dsInfo);
+    Schema schema = schemas.get(key);
+    if (schema == null || schema.isExpired()) {
+      schema = new Schema(System.currentTimeMillis() + ttl);
+      schemas.put(key, schema);
+    }
+    return schema;
+  }
+
+  private static String getKey(final MyDBConnectionInfo dsInfo) {
+    // the tables a user can see depend on its credentials
+    return dsInfo.getDataSourceName() + "|" + dsInfo.getLogin();
+  }
+
+  private static class Schema {
+    private final long expiration;
+    private final Map<String, List<JdbcRequester.ColumnDescriptor>> columns =
+        new ConcurrentHashMap<>();
+    private volatile List<String> tableNames;
+
+    private Schema(final long expiration) {
+      this.expiration = expiration;
+    }
+
+    private boolean isExpired() {
+      return expiration < System.currentTimeMillis();
+    }
+  }
+}
@@ -28,6 +28,7 @@ import org.silverpeas.components.mydb.model.predicates.AbstractColumnValuePredic
 import org.silverpeas.components.mydb.model.predicates.ColumnValuePredicate;
 import org.silverpeas.components.mydb.service.MyDBRuntimeException;
 import org.silverpeas.core.admin.PaginationPage;
+import org.silverpeas.core.util.PaginationList;
 import org.silverpeas.core.util.SilverpeasList;
 import org.silverpeas.core.util.StringUtil;
 
@@ -37,6 +38,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -122,11 +124,8 @@ public class DbTable {
    */
   private void setJdbcRequester(final JdbcRequester requester) {
     this.requester = requester;
-    this.requester.perform((r, c) -> {
-      this.columns.clear();
-      r.loadColumns(c, this.name, d -> this.columns.add(new DbColumn(d)));
-      return null;
-    });
+    this.columns.clear();
+    this.requester.loadColumns(this.name, d -> this.columns.add(new DbColumn(d)));
   }
 
   /**
@@ -176,8 +175,93 @@ public class DbTable {
     return requester.perform((r, c) -> {
       final JdbcRequester.DataConverters<TableFieldValue, TableRow> converters =
           new JdbcRequester.DataConverters(TableFieldValue::new, TableRow::new);
-      return r.request(c, this.name, (AbstractColumnValuePredicate) filter, orderBy, converters,
-          pagination);
+      return r.request(c, this.name, (AbstractColumnValuePredicate) filter,
+          orderByOrDefault(orderBy), converters, pagination);
+    });
+  }
+
+  /**
+   * Can the content of this table be paged by keyset when ordered with the specified directive?
+   * It is the case for a table with a primary key when its content is ordered by default or by
+   * its single-column primary key.
+   * @param orderBy a order by directive already built (without the clause key words). Null for
+   * the default order.
+   * @return true if the content of this table can be paged by keyset with the given order.
+   */
+  public boolean isKeysetPageable(final String orderBy) {
+    final List<String> pks = getPrimaryKeyNames();
+    if (pks.isEmpty()) {
+      return false;
+    }
+    return orderBy == null || (pks.size() == 1 &&
+        (orderBy.equals(pks.get(0) + " asc") || orderBy.equals(pks.get(0) + " desc")));
+  }
+
+  /**
+   * Gets a page of the contents of this table as a list of rows by seeking the rows that follow
+   * the last row of the previous page along the primary key of this table. The deeper the page
+   * is, the more efficient it is compared with {@link #getRows(ColumnValuePredicate, String,
+   * PaginationPage)}. The content must be keyset pageable with the given order (see {@link
+   * #isKeysetPageable(String)}), otherwise an {@link IllegalArgumentException} is thrown.
+   * @param filter a predicate to use for filtering the table content.
+   * @param orderBy a order by directive already built (without the clause key words). Null for
+   * the default order, that is the ascending primary key.
+   * @param pagination the page to get.
+   * @param previousPageLastRow the last row of the page preceding the asked one. Null for the
+   * first page.
+   * @return a list of table rows whose the original size is the count of all the rows matching
+   * the filter.
+   */
+  @SuppressWarnings("unchecked")
+  public SilverpeasList<TableRow> getRowsAfter(final ColumnValuePredicate filter,
+      final String orderBy, final PaginationPage pagination, final TableRow previousPageLastRow) {
+    if (!(filter instanceof AbstractColumnValuePredicate)) {
+      throw new IllegalArgumentException(
+          "DbTable doesn't support predicate other than AbstractColumnValuePredicate objects");
+    }
+    if (!isKeysetPageable(orderBy)) {
+      throw new IllegalArgumentException("The table " + name + " isn't keyset pageable");
+    }
+    final List<String> pks = getPrimaryKeyNames();
+    final Object[] lastKey = previousPageLastRow == null ? null : pks.stream()
+        .map(pk -> previousPageLastRow.getFieldValue(pk).toSQLObject())
+        .toArray();
+    final Keyset keyset =
+        new Keyset(pks, orderBy != null && orderBy.endsWith(" desc"), lastKey);
+    return requester.perform((r, c) -> {
+      final JdbcRequester.DataConverters<TableFieldValue, TableRow> converters =
+          new JdbcRequester.DataConverters(TableFieldValue::new, TableRow::new);
+      final SilverpeasList<TableRow> rows =
+          r.request(c, this.name, (AbstractColumnValuePredicate) filter, keyset, converters,
+              pagination.getPageSize());
+      // the rows before the page are skipped by the keyset and hence they aren't counted
+      final long rowsBefore = (long) (pagination.getPageNumber() - 1) * pagination.getPageSize();
+      return PaginationList.from(rows, rowsBefore + rows.originalListSize());
+    });
+  }
+
+  /**
+   * Walks the contents of this table and passes each row to the specified consumer as soon as
+   * it is read. Unlike {@link #getRows(ColumnValuePredicate, String, PaginationPage)}, the rows
+   * aren't kept in memory, so it is dedicated to the processing of the whole content of the
+   * table, like an export.
+   * @param filter a predicate to use for filtering the table content.
+   * @param orderBy a order by directive already built (without the clause key words).
+   * @param consumer the consumer of the table rows.
+   */
+  @SuppressWarnings("unchecked")
+  public void forEachRow(final ColumnValuePredicate filter, final String orderBy,
+      final Consumer<TableRow> consumer) {
+    if (!(filter instanceof AbstractColumnValuePredicate)) {
+      throw new IllegalArgumentException(
+          "DbTable doesn't support predicate other than AbstractColumnValuePredicate objects");
+    }
+    requester.perform((r, c) -> {
+      final JdbcRequester.DataConverters<TableFieldValue, TableRow> converters =
+          new JdbcRequester.DataConverters(TableFieldValue::new, TableRow::new);
+      r.forEach(c, this.name, (AbstractColumnValuePredicate) filter, orderByOrDefault(orderBy),
+          converters, consumer);
+      return null;
     });
   }
 
@@ -217,6 +301,26 @@ public class DbTable {
     });
   }
 
+  /**
+   * Gets the specified order by directive or, if not set, the default order of the rows of this
+   * table, that is by ascending primary key. So the rows are in the same order whether they are
+   * paged by keyset or by offset.
+   */
+  private String orderByOrDefault(final String orderBy) {
+    if (orderBy != null) {
+      return orderBy;
+    }
+    final List<String> pks = getPrimaryKeyNames();
+    return pks.isEmpty() ? null : new Keyset(pks, false, null).getOrderBy();
+  }
+
+  private List<String> getPrimaryKeyNames() {
+    return columns.stream()
+        .filter(DbColumn::isPrimaryKey)
+        .map(DbColumn::getName)
+        .collect(Collectors.toList());
+  }
+
   private Map<String, Object> getCriteriaFrom(final TableRow row) {
     final List<DbColumn> pkColumns =
         columns.stream().filter(DbColumn::isPrimaryKey).collect(Collectors.toList());
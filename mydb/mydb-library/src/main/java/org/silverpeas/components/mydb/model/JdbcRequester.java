@@ -26,6 +26,7 @@ package org.silverpeas.components.mydb.model;
 
 import org.jetbrains.annotations.NotNull;
 import org.silverpeas.components.mydb.model.predicates.AbstractColumnValuePredicate;
+import org.silverpeas.components.mydb.model.predicates.Identity;
 import org.silverpeas.components.mydb.service.MyDBException;
 import org.silverpeas.components.mydb.service.MyDBRuntimeException;
 import org.silverpeas.core.admin.PaginationPage;
@@ -38,14 +39,17 @@ import org.silverpeas.core.util.logging.SilverLogger;
 
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * A requester of a remote enterprise data source by using the yet configured
@@ -56,6 +60,12 @@ import java.util.Objects;
  */
 class JdbcRequester {
 
+  /**
+   * The number of rows fetched at a time from the database when the content of a table is
+   * walked.
+   */
+  private static final int FETCH_SIZE = 500;
+
   private final MyDBConnectionInfo currentConnectionInfo;
 
   /**
@@ -79,15 +89,19 @@ class JdbcRequester {
 
   /**
    * Gets all the tables in the data source (only public tables and views are fetched). If an error
-   * occurs while requesting the data source, a {@link MyDBRuntimeException} is thrown.
+   * occurs while requesting the data source, a {@link MyDBRuntimeException} is thrown. The names
+   * are got from the {@link DbSchemaCache} and they are loaded from the data source only when
+   * they aren't cached.
    * @return a list of table names.
    */
   List<String> getTableNames() {
-    try (Connection connection = currentConnectionInfo.openConnection()) {
-      return getTableNames(connection);
-    } catch (SQLException | MyDBException e) {
-      throw new MyDBRuntimeException(e);
-    }
+    return DbSchemaCache.get().getTableNames(currentConnectionInfo, () -> {
+      try (Connection connection = currentConnectionInfo.openConnection()) {
+        return Collections.unmodifiableList(getTableNames(connection));
+      } catch (SQLException | MyDBException e) {
+        throw new MyDBRuntimeException(e);
+      }
+    });
   }
 
   /**
@@ -117,19 +131,27 @@ class JdbcRequester {
     Objects.requireNonNull(connection);
     final List<String> tableNames = new ArrayList<>();
     DatabaseMetaData dbMetaData = connection.getMetaData();
-    ResultSet tables = dbMetaData.getTables(null, null, null, new String[]{"TABLE", "VIEW"});
-    while (tables.next()) {
-      String table = tables.getString("TABLE_NAME");
-      if (isAuthorizedTable(connection, table)) {
-        tableNames.add(table);
+    try (ResultSet tables = dbMetaData.getTables(null, null, null,
+        new String[]{"TABLE", "VIEW"})) {
+      while (tables.next()) {
+        String table = tables.getString("TABLE_NAME");
+        if (isAuthorizedTable(connection, table)) {
+          tableNames.add(table);
+        }
       }
     }
     return tableNames;
   }
 
+  /**
+   * Can the rows of the specified table be read with the given connection? The check is done
+   * with a query selecting no rows: the database checks the privileges on the table without
+   * reading any of them, whatever the size of the table.
+   */
   private boolean isAuthorizedTable(final Connection connection, String tableName) {
-    try {
-      JdbcSqlQuery.createCountFor(tableName).executeWith(connection);
+    try (PreparedStatement statement = connection.prepareStatement(
+        "SELECT * FROM " + tableName + " WHERE 1 = 0");
+         ResultSet rs = statement.executeQuery()) {
       return true;
     } catch (SQLException e) {
       return false;
@@ -138,13 +160,23 @@ class JdbcRequester {
 
   /**
    * Gets the definition of all the columns of the specified database table and passes them to the
-   * specified {@link ColumnConsumer} function.
-   * @param connection a connection to the database.
+   * specified {@link ColumnConsumer} function. The definitions are got from the
+   * {@link DbSchemaCache} and the database is requested only when they aren't cached. If an error
+   * occurs while requesting the database, a {@link MyDBRuntimeException} is thrown.
    * @param tableName the name of the table from which the columns have to be get.
    * @param consumer the consumer of the column definitions.
-   * @throws SQLException if an error occurs while requesting the database.
    */
-  void loadColumns(final Connection connection, final String tableName,
+  void loadColumns(final String tableName, final ColumnConsumer consumer) {
+    final List<ColumnDescriptor> columns =
+        DbSchemaCache.get().getColumns(currentConnectionInfo, tableName, t -> perform((r, c) -> {
+          final List<ColumnDescriptor> descriptors = new ArrayList<>();
+          r.loadColumns(c, t, descriptors::add);
+          return Collections.unmodifiableList(descriptors);
+        }));
+    columns.forEach(consumer::accept);
+  }
+
+  private void loadColumns(final Connection connection, final String tableName,
       final ColumnConsumer consumer) throws SQLException {
     Objects.requireNonNull(connection);
     final DatabaseMetaData dbMetaData = connection.getMetaData();
@@ -229,20 +261,111 @@ class JdbcRequester {
     if (pagination != null) {
       query.withPagination(pagination.asCriterion());
     }
-    return query.executeWith(connection, rs -> {
-      try {
-        final Map<String, V> row = new LinkedHashMap<>();
-        ResultSetMetaData rsMetaData = rs.getMetaData();
-        for (int i = 1; i <= rsMetaData.getColumnCount(); i++) {
-          V value = converters.getValueConverter()
-              .convert(rs.getObject(i), rs.getMetaData().getColumnType(i));
-          row.put(rsMetaData.getColumnName(i), value);
+    // the metadata of the columns are the same for all the rows: they are got only once
+    final ResultSetColumns columns = new ResultSetColumns();
+    return query.executeWith(connection, rs -> convertRow(rs, columns, converters));
+  }
+
+  /**
+   * Requests a page of the content of the specified table by applying the given predicate and
+   * by seeking the rows that follow the bound of the given keyset. Unlike an offset, the database
+   * doesn't have to walk all the rows before the asked page, whatever the position of the page.
+   * The specified converters are used to convert each row and each row's value to their
+   * corresponding business object.
+   * @param <V> the type of the business objects representing the row's values.
+   * @param <R> the type of the business objects representing the rows.
+   * @param connection a connection to the database.
+   * @param tableName the name of the table to request.
+   * @param predicate a predicate to use to filter the table's content.
+   * @param keyset the keyset ordering the rows and from which the page starts.
+   * @param converters the converters to use to convert each row and each row's value to a business
+   * object.
+   * @param pageSize the maximum number of rows to get.
+   * @return a list of rows, matching the given predicate and following the keyset bound, in their
+   * business representation. Its original size is the number of such rows.
+   * @throws SQLException if an error occurs while requesting the database.
+   */
+  <V, R> SilverpeasList<R> request(final Connection connection, final String tableName,
+      final AbstractColumnValuePredicate predicate, final Keyset keyset,
+      final DataConverters<V, R> converters, final int pageSize) throws SQLException {
+    Objects.requireNonNull(connection);
+    Objects.requireNonNull(tableName);
+    Objects.requireNonNull(predicate);
+    Objects.requireNonNull(keyset);
+    JdbcSqlQuery query = predicate.apply(JdbcSqlQuery.createSelect("*").from(tableName));
+    query = keyset.apply(query, !(predicate instanceof Identity)).orderBy(keyset.getOrderBy());
+    query.withPagination(new PaginationPage(1, pageSize).asCriterion());
+    final ResultSetColumns columns = new ResultSetColumns();
+    return query.executeWith(connection, rs -> convertRow(rs, columns, converters));
+  }
+
+  /**
+   * Walks the content of the specified table by applying the given predicate and passes each row,
+   * converted with the specified converters, to the given consumer. The rows aren't gathered into
+   * a list: they are passed to the consumer as soon as they are read.
+   * <p>
+   * The rows are fetched from the database by chunks of {@link #FETCH_SIZE} rows. Some JDBC
+   * drivers, like the PostgreSQL one, honour the fetch size only within a transaction: if the
+   * connection is in auto-commit mode, it is switched off for the walk.
+   * </p>
+   * @param <V> the type of the business objects representing the row's values.
+   * @param <R> the type of the business objects representing the rows.
+   * @param connection a connection to the database.
+   * @param tableName the name of the table to request.
+   * @param predicate a predicate to use to filter the table's content.
+   * @param orderBy a order by directive already built (without the clause key words).
+   * @param converters the converters to use to convert each row and each row's value to a business
+   * object.
+   * @param consumer the consumer of the rows.
+   * @throws SQLException if an error occurs while requesting the database.
+   */
+  <V, R> void forEach(final Connection connection, final String tableName,
+      final AbstractColumnValuePredicate predicate, final String orderBy,
+      final DataConverters<V, R> converters, final Consumer<R> consumer) throws SQLException {
+    Objects.requireNonNull(connection);
+    Objects.requireNonNull(tableName);
+    Objects.requireNonNull(predicate);
+    final JdbcSqlQuery query =
+        predicate.apply(JdbcSqlQuery.createSelect("*").from(tableName)).orderBy(orderBy);
+    final boolean autoCommit = connection.getAutoCommit();
+    if (autoCommit) {
+      connection.setAutoCommit(false);
+    }
+    try (PreparedStatement statement = connection.prepareStatement(query.getSqlQuery(),
+        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+      int i = 1;
+      for (Object parameter : query.getParameters()) {
+        statement.setObject(i++, parameter);
+      }
+      statement.setFetchSize(FETCH_SIZE);
+      try (ResultSet rs = statement.executeQuery()) {
+        final ResultSetColumns columns = new ResultSetColumns();
+        while (rs.next()) {
+          // nothing is kept
+          consumer.accept(convertRow(rs, columns, converters));
         }
-        return converters.getRowConverter().convert(row);
-      } catch (SQLException e) {
-        throw new MyDBRuntimeException(e);
       }
-    });
+    } finally {
+      if (autoCommit) {
+        // nothing has been modified
+        connection.rollback();
+        connection.setAutoCommit(true);
+      }
+    }
+  }
+
+  private <V, R> R convertRow(final ResultSet rs, final ResultSetColumns columns,
+      final DataConverters<V, R> converters) {
+    try {
+      columns.resolve(rs);
+      final List<V> values = new ArrayList<>(columns.types.length);
+      for (int i = 0; i < columns.types.length; i++) {
+        values.add(converters.getValueConverter().convert(rs.getObject(i + 1), columns.types[i]));
+      }
+      return converters.getRowConverter().convert(columns.indexes, values);
+    } catch (SQLException e) {
+      throw new MyDBRuntimeException(e);
+    }
   }
 
   /**
@@ -310,6 +433,30 @@ class JdbcRequester {
     return new DefaultValue(defaultValue);
   }
 
+  /**
+   * The positions and the SQL types of the columns of a result set. The positions are indexed by
+   * the column names and they are shared by all the rows of the result set.
+   */
+  private static class ResultSetColumns {
+    private Map<String, Integer> indexes;
+    private int[] types;
+
+    private void resolve(final ResultSet rs) throws SQLException {
+      if (indexes == null) {
+        final ResultSetMetaData rsMetaData = rs.getMetaData();
+        final int count = rsMetaData.getColumnCount();
+        final Map<String, Integer> columnIndexes = new LinkedHashMap<>(count * 2);
+        final int[] columnTypes = new int[count];
+        for (int i = 0; i < count; i++) {
+          columnIndexes.put(rsMetaData.getColumnName(i + 1), i);
+          columnTypes[i] = rsMetaData.getColumnType(i + 1);
+        }
+        types = columnTypes;
+        indexes = Collections.unmodifiableMap(columnIndexes);
+      }
+    }
+  }
+
   /**
    * A provider of converters of data. They convert database data to their corresponding business
    * data.
@@ -580,7 +727,14 @@ class JdbcRequester {
    */
   @FunctionalInterface
   interface RowConverter<V, R> {
-    R convert(final Map<String, V> row);
+    /**
+     * Converts the specified row values.
+     * @param columnIndexes the position of each column in the values, indexed by the column name.
+     * It is shared by all the rows of a same request.
+     * @param values the values of the row ordered as the columns.
+     * @return the business row.
+     */
+    R convert(final Map<String, Integer> columnIndexes, final List<V> values);
   }
 
   /**
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.mydb.model;
+
+import org.silverpeas.core.persistence.jdbc.sql.JdbcSqlQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A keyset to page the rows of a table ordered by its primary key. A page is got by seeking the
+ * rows whose the primary key follows the one of the last row of the previous page, so the
+ * database walks the primary key index instead of counting and skipping all the rows before the
+ * page as with an offset.
+ */
+class Keyset {
+
+  private final List<String> keyColumns;
+  private final boolean descending;
+  private final Object[] lastKey;
+
+  /**
+   * Constructs a keyset on the specified primary key columns.
+   * @param keyColumns the names of the columns of the primary key.
+   * @param descending true if the rows are ordered by descending primary key.
+   * @param lastKey the values of the primary key of the last row of the previous page, in the
+   * order of the key columns. Null for the first page.
+   */
+  Keyset(final List<String> keyColumns, final boolean descending, final Object[] lastKey) {
+    this.keyColumns = keyColumns;
+    this.descending = descending;
+    this.lastKey = lastKey;
+  }
+
+  /**
+   * Gets the order by directive with which the rows have to be ordered for this keyset.
+   * @return a order by directive (without the clause key words).
+   */
+  String getOrderBy() {
+    final String direction = descending ? " desc" : " asc";
+    return keyColumns.stream().map(c -> c + direction).collect(Collectors.joining(", "));
+  }
+
+  /**
+   * Applies to the specified query the clause selecting the rows that follow the last key of
+   * this keyset. With a composite key (a, b), the clause is <code>(a > ?) or (a = ? and b >
+   * ?)</code>.
+   * @param query the query to which the clause is added.
+   * @param hasWhere true if the query has already a where clause.
+   * @return the query.
+   */
+  JdbcSqlQuery apply(final JdbcSqlQuery query, final boolean hasWhere) {
+    if (lastKey == null) {
+      return query;
+    }
+    final String comparator = descending ? " < ?" : " > ?";
+    final StringBuilder clause = new StringBuilder("(");
+    final List<Object> params = new ArrayList<>();
+    for (int i = 0; i < keyColumns.size(); i++) {
+      if (i > 0) {
+        clause.append(" or ");
+      }
+      clause.append("(");
+      for (int j = 0; j < i; j++) {
+        clause.append(keyColumns.get(j)).append(" = ? and ");
+        params.add(lastKey[j]);
+      }
+      clause.append(keyColumns.get(i)).append(comparator).append(")");
+      params.add(lastKey[i]);
+    }
+    clause.append(")");
+    return hasWhere ? query.and(clause.toString(), params.toArray()) :
+        query.where(clause.toString(), params.toArray());
+  }
+}
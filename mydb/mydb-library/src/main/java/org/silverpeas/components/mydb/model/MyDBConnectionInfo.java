@@ -27,7 +27,6 @@ import org.silverpeas.core.persistence.datasource.model.identifier.UniqueInteger
 import org.silverpeas.core.persistence.datasource.model.jpa.BasicJpaEntity;
 import org.silverpeas.core.util.StringUtil;
 
-import javax.naming.InitialContext;
 import javax.naming.NamingException;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -251,12 +250,13 @@ public class MyDBConnectionInfo
   }
 
   /**
-   * Opens a connection to the data source targeted by this connection information.
+   * Opens a connection to the data source targeted by this connection information. The data
+   * source is looked up only once and then it is got from the {@link DbSchemaCache}.
    * @return a connection against the data source referred by this object.
    */
   public Connection openConnection() throws MyDBException {
     try {
-      DataSource ds = InitialContext.doLookup(getDataSourceName());
+      DataSource ds = DbSchemaCache.get().getDataSource(getDataSourceName());
       return ds.getConnection(getLogin(), getPassword());
     } catch (NamingException | SQLException ex) {
       throw new MyDBException(ex.getMessage());
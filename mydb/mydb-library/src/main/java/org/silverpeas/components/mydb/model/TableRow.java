@@ -26,7 +26,7 @@ package org.silverpeas.components.mydb.model;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -34,11 +34,16 @@ import java.util.Map;
  * A row in a table in a data source. A row is a tuple whose each field matches a given column of
  * the requested table. Hence the field name in the row is the column name and its value the value
  * in the column.
+ * <p>
+ * The values are kept in an array ordered as the columns. The positions of the columns are
+ * indexed by their name in a dictionary that is shared by all the rows fetched by a same request.
+ * </p>
  * @author mmoquillon
  */
 public class TableRow {
 
-  private final Map<String, TableFieldValue> fields;
+  private final Map<String, Integer> columnIndexes;
+  private final TableFieldValue[] values;
 
   /**
    * Constructs the table row from the specified dictionary of fields.
@@ -46,7 +51,29 @@ public class TableRow {
    * name of a table's column.
    */
   public TableRow(final Map<String, TableFieldValue> fields) {
-    this.fields = fields;
+    this.columnIndexes = new LinkedHashMap<>(fields.size() * 2);
+    this.values = new TableFieldValue[fields.size()];
+    int i = 0;
+    for (Map.Entry<String, TableFieldValue> field : fields.entrySet()) {
+      this.columnIndexes.put(field.getKey(), i);
+      this.values[i++] = field.getValue();
+    }
+  }
+
+  /**
+   * Constructs the table row from the specified values.
+   * @param columnIndexes the position of each column in the values, indexed by the column name.
+   * It can be shared by several rows.
+   * @param values the values of the row ordered as the columns.
+   */
+  TableRow(final Map<String, Integer> columnIndexes, final List<TableFieldValue> values) {
+    this.columnIndexes = columnIndexes;
+    this.values = values.toArray(new TableFieldValue[0]);
+  }
+
+  private TableRow(final Map<String, Integer> columnIndexes, final TableFieldValue[] values) {
+    this.columnIndexes = columnIndexes;
+    this.values = values;
   }
 
   /**
@@ -54,7 +81,7 @@ public class TableRow {
    * @return a list with the name of all of the fields in this table row.
    */
   public List<String> getFieldNames() {
-    return new ArrayList<>(fields.keySet());
+    return new ArrayList<>(columnIndexes.keySet());
   }
 
   /**
@@ -62,6 +89,8 @@ public class TableRow {
    * @return a {@link Map} between a field name and its value.
    */
   public Map<String, TableFieldValue> getFields() {
+    final Map<String, TableFieldValue> fields = new LinkedHashMap<>(columnIndexes.size() * 2);
+    columnIndexes.forEach((name, index) -> fields.put(name, values[index]));
     return Collections.unmodifiableMap(fields);
   }
 
@@ -71,13 +100,15 @@ public class TableRow {
    * @return the value of the asked field.
    */
   public TableFieldValue getFieldValue(final String field) {
-    return fields.get(field);
+    final Integer index = columnIndexes.get(field);
+    return index == null ? null : values[index];
   }
 
   public TableRow getCopy() {
-    final Map<String, TableFieldValue> copyOfFields = new HashMap<>();
-    fields.forEach((key, value) -> copyOfFields.put(key, value.getCopy()));
-    return new TableRow(copyOfFields);
+    final TableFieldValue[] copyOfValues = new TableFieldValue[values.length];
+    for (int i = 0; i < values.length; i++) {
+      copyOfValues[i] = values[i] == null ? null : values[i].getCopy();
+    }
+    return new TableRow(columnIndexes, copyOfValues);
   }
 }
-  
\ No newline at end of file
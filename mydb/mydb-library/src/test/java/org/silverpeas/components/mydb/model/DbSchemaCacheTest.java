@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.mydb.model;
+
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+
+@EnableSilverTestEnv
+class DbSchemaCacheTest {
+
+  private static final String DATA_SOURCE = "java:/datasources/employees";
+  private static final long ONE_HOUR = TimeUnit.HOURS.toMillis(1);
+
+  private final AtomicInteger loadings = new AtomicInteger(0);
+  private final Supplier<List<String>> tableLoader = () -> {
+    loadings.incrementAndGet();
+    return Arrays.asList("employees", "departments");
+  };
+
+  @Test
+  void theTableNamesAreLoadedOnceDuringTheirTimeToLive() {
+    DbSchemaCache cache = new DbSchemaCache(ONE_HOUR);
+    MyDBConnectionInfo dsInfo = aConnectionInfo("hr");
+
+    List<String> tables = cache.getTableNames(dsInfo, tableLoader);
+    assertThat(cache.getTableNames(dsInfo, tableLoader), sameInstance(tables));
+    assertThat(loadings.get(), is(1));
+  }
+
+  @Test
+  void theTableNamesAreLoadedAgainOnceTheirTimeToLiveIsOver() throws InterruptedException {
+    DbSchemaCache cache = new DbSchemaCache(0);
+    MyDBConnectionInfo dsInfo = aConnectionInfo("hr");
+
+    cache.getTableNames(dsInfo, tableLoader);
+    Thread.sleep(5);
+    cache.getTableNames(dsInfo, tableLoader);
+    assertThat(loadings.get(), is(2));
+  }
+
+  @Test
+  void aRefreshedSchemaIsLoadedAgain() {
+    DbSchemaCache cache = new DbSchemaCache(ONE_HOUR);
+    MyDBConnectionInfo dsInfo = aConnectionInfo("hr");
+    List<JdbcRequester.ColumnDescriptor> columns =
+        Collections.singletonList(mock(JdbcRequester.ColumnDescriptor.class));
+    AtomicInteger columnLoadings = new AtomicInteger(0);
+
+    cache.getTableNames(dsInfo, tableLoader);
+    cache.getColumns(dsInfo, "employees", t -> {
+      columnLoadings.incrementAndGet();
+      return columns;
+    });
+    cache.refresh(dsInfo);
+    cache.getTableNames(dsInfo, tableLoader);
+    cache.getColumns(dsInfo, "employees", t -> {
+      columnLoadings.incrementAndGet();
+      return columns;
+    });
+
+    assertThat(loadings.get(), is(2));
+    assertThat(columnLoadings.get(), is(2));
+  }
+
+  @Test
+  void theSchemaIsCachedPerLogin() {
+    DbSchemaCache cache = new DbSchemaCache(ONE_HOUR);
+
+    cache.getTableNames(aConnectionInfo("hr"), tableLoader);
+    cache.getTableNames(aConnectionInfo("sales"), tableLoader);
+    cache.getTableNames(aConnectionInfo("hr"), tableLoader);
+    assertThat(loadings.get(), is(2));
+  }
+
+  @Test
+  void theColumnsOfAnUnknownTableAreNotCached() {
+    DbSchemaCache cache = new DbSchemaCache(ONE_HOUR);
+    MyDBConnectionInfo dsInfo = aConnectionInfo("hr");
+    AtomicInteger columnLoadings = new AtomicInteger(0);
+
+    for (int i = 0; i < 2; i++) {
+      cache.getColumns(dsInfo, "unknown", t -> {
+        columnLoadings.incrementAndGet();
+        return Collections.emptyList();
+      });
+    }
+    assertThat(columnLoadings.get(), is(2));
+  }
+
+  private static MyDBConnectionInfo aConnectionInfo(final String login) {
+    return new MyDBConnectionInfo(DATA_SOURCE, "myDB1").withLoginAndPassword(login, "secret");
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.mydb.model;
+
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.persistence.jdbc.sql.JdbcSqlQuery;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@EnableSilverTestEnv
+class KeysetTest {
+
+  private static final String TABLE = "employees";
+
+  @Test
+  void theRowsAreOrderedByAllTheColumnsOfTheKeyInTheKeysetDirection() {
+    assertThat(new Keyset(Collections.singletonList("id"), false, null).getOrderBy(),
+        is("id asc"));
+    assertThat(new Keyset(Arrays.asList("dept", "id"), false, null).getOrderBy(),
+        is("dept asc, id asc"));
+    assertThat(new Keyset(Arrays.asList("dept", "id"), true, null).getOrderBy(),
+        is("dept desc, id desc"));
+  }
+
+  @Test
+  void theFirstPageIsNotBounded() {
+    final Keyset keyset = new Keyset(Collections.singletonList("id"), false, null);
+    final JdbcSqlQuery query = keyset.apply(JdbcSqlQuery.createSelect("*").from(TABLE), false);
+    assertThat(query.getSqlQuery(), not(containsStringIgnoringCase("where")));
+    assertThat(query.getParameters(), empty());
+  }
+
+  @Test
+  void theRowsFollowingTheLastSingleKeyAreSeekedInAscendingOrder() {
+    final Keyset keyset = new Keyset(Collections.singletonList("id"), false, new Object[]{42});
+    final JdbcSqlQuery query = keyset.apply(JdbcSqlQuery.createSelect("*").from(TABLE), false);
+    assertThat(query.getSqlQuery(), containsStringIgnoringCase("where ((id > ?))"));
+    assertThat(query.getParameters(), contains(42));
+  }
+
+  @Test
+  void theRowsFollowingTheLastSingleKeyAreSeekedInDescendingOrder() {
+    final Keyset keyset = new Keyset(Collections.singletonList("id"), true, new Object[]{42});
+    final JdbcSqlQuery query = keyset.apply(JdbcSqlQuery.createSelect("*").from(TABLE), false);
+    assertThat(query.getSqlQuery(), containsStringIgnoringCase("where ((id < ?))"));
+    assertThat(query.getParameters(), contains(42));
+  }
+
+  @Test
+  void theRowsFollowingTheLastCompositeKeyAreSeekedColumnByColumn() {
+    final Keyset keyset =
+        new Keyset(Arrays.asList("dept", "team", "id"), false, new Object[]{"R&D", 3, 42});
+    final JdbcSqlQuery query = keyset.apply(JdbcSqlQuery.createSelect("*").from(TABLE), false);
+    assertThat(query.getSqlQuery(), containsStringIgnoringCase(
+        "where ((dept > ?) or (dept = ? and team > ?) or (dept = ? and team = ? and id > ?))"));
+    assertThat(query.getParameters(), contains("R&D", "R&D", 3, "R&D", 3, 42));
+  }
+
+  @Test
+  void theKeysetBoundIsAddedToAnExistingFilter() {
+    final Keyset keyset = new Keyset(Collections.singletonList("id"), false, new Object[]{42});
+    final JdbcSqlQuery filtered =
+        JdbcSqlQuery.createSelect("*").from(TABLE).where("name = ?", "Smith");
+    final JdbcSqlQuery query = keyset.apply(filtered, true);
+    assertThat(query.getSqlQuery(), containsStringIgnoringCase("where name = ?"));
+    assertThat(query.getSqlQuery(), containsStringIgnoringCase("and ((id > ?))"));
+    assertThat(query.getParameters(), contains("Smith", 42));
+  }
+}
@@ -28,6 +28,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.silverpeas.components.mydb.model.DataSourceDefinition;
 import org.silverpeas.components.mydb.model.DbColumn;
+import org.silverpeas.components.mydb.model.DbSchemaCache;
 import org.silverpeas.components.mydb.model.DbTable;
 import org.silverpeas.components.mydb.model.MyDBConnectionInfo;
 import org.silverpeas.components.mydb.model.TableFieldValue;
@@ -54,6 +55,8 @@ import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.Writer;
 import java.sql.JDBCType;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -184,6 +187,27 @@ public class MyDBWebController
     }
   }
 
+  /**
+   * Writes as CSV all the rows of the current table view that match its filter and in its
+   * order. The rows are streamed from the database into the specified output so that any table,
+   * whatever its size, can be exported.
+   * @param output the output into which the CSV content is written.
+   * @throws IOException if an error occurs while writing the CSV content.
+   */
+  public void exportTableAsCSV(final Writer output) throws IOException {
+    if (tableView.isDefined()) {
+      tableView.exportAsCSV(output);
+    }
+  }
+
+  /**
+   * Gets the name of the table currently viewed.
+   * @return the name of the table or an empty string if no table is viewed.
+   */
+  public String getTableName() {
+    return tableView.getName();
+  }
+
   @GET
   @Path("NewRow")
   @RedirectToInternalJsp("rowForm.jsp")
@@ -476,6 +500,7 @@ public class MyDBWebController
     // established. In that case, the current table view is cleared.
     if (connectionInfoIsValid(context)) {
       connectionInfo.save();
+      DbSchemaCache.get().refresh(connectionInfo);
       clearTableView();
       nextView = "ViewTable";
     } else {
@@ -484,6 +509,17 @@ public class MyDBWebController
     context.addRedirectVariable("nextView", nextView);
   }
 
+  @GET
+  @Path("RefreshSchema")
+  @RedirectToInternal("ViewTable")
+  @LowestRoleAccess(value = SilverpeasRole.ADMIN, onError = @RedirectTo("Main"))
+  public void refreshSchema(final MyDBWebRequestContext context) {
+    if (connectionInfo.isDefined()) {
+      DbSchemaCache.get().refresh(connectionInfo);
+      clearTableView();
+    }
+  }
+
   private boolean connectionInfoIsValid(final MyDBWebRequestContext context) {
     try {
       connectionInfo.checkConnection();
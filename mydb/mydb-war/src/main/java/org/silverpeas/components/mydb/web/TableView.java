@@ -25,6 +25,7 @@
 package org.silverpeas.components.mydb.web;
 
 import org.apache.commons.lang3.tuple.Pair;
+import org.silverpeas.components.commons.export.CSVLineWriter;
 import org.silverpeas.components.mydb.model.DbColumn;
 import org.silverpeas.components.mydb.model.DbTable;
 import org.silverpeas.components.mydb.model.TableRow;
@@ -36,11 +37,15 @@ import org.silverpeas.core.util.SilverpeasArrayList;
 import org.silverpeas.core.util.SilverpeasList;
 import org.silverpeas.core.util.logging.SilverLogger;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static java.text.MessageFormat.format;
 import static java.util.Collections.emptyList;
@@ -63,6 +68,12 @@ public class TableView {
   private String orderBy = null;
   private PaginationPage pagination = null;
   private SilverpeasList<TableRowUIEntity> lastRows = SilverpeasList.wrap(emptyList());
+  /**
+   * The last row of each page loaded by keyset for the current filter and order. The next page of
+   * a loaded one can then be got by keyset.
+   */
+  private final Map<Integer, TableRow> pagesLastRow = new HashMap<>();
+  private String pagesSignature = null;
 
   /**
    * Constructs an empty table view. This view is on nothing.
@@ -114,6 +125,7 @@ public class TableView {
     filter.clear();
     orderBy = null;
     lastRows = SilverpeasList.wrap(emptyList());
+    clearPagesLastRow();
   }
 
   /**
@@ -198,7 +210,7 @@ public class TableView {
    * Deletes the specified rows in the database table. The deletion is propagated to the wrapped
    * database table.
    * <p>
-   * If this view in on no database table, then nothing is done.
+   * If this view is on no database table, then nothing is done.
    * </p>
    * @param uiRowId the UI row id of the row in the list of the table's rows returned by the
    * {@link TableView#getRows()} method that takes into account the filtering criteria.
@@ -208,6 +220,7 @@ public class TableView {
     table.ifPresent(t -> {
       final TableRow previousRow = getTableRowFromUiId(uiRowId);
       result.set(t.delete(previousRow));
+      clearPagesLastRow();
     });
     return result.orElse(0L);
   }
@@ -226,6 +239,7 @@ public class TableView {
         throw new IllegalArgumentException("the row with new values must be a copy of previous row");
       }
       result.set(t.update(previousRow, row));
+      clearPagesLastRow();
     });
     return result.orElse(0L);
   }
@@ -244,10 +258,78 @@ public class TableView {
    * @param row the {@link TableRow} instance to add.
    */
   void addRow(final TableRow row) {
-    table.ifPresent(t -> t.add(row));
+    table.ifPresent(t -> {
+      t.add(row);
+      clearPagesLastRow();
+    });
   }
 
   private SilverpeasList<TableRow> applyFilter(final DbTable table) {
-    return table.getRows(getFilter().getFilteringPredicate(), orderBy , pagination);
+    final String signature = getPagesSignature();
+    if (!signature.equals(pagesSignature)) {
+      clearPagesLastRow();
+      pagesSignature = signature;
+    }
+    final SilverpeasList<TableRow> rows;
+    final int pageNumber = pagination == null ? 0 : pagination.getPageNumber();
+    if (pageNumber > 0 && table.isKeysetPageable(orderBy) &&
+        (pageNumber == 1 || pagesLastRow.containsKey(pageNumber - 1))) {
+      rows = table.getRowsAfter(getFilter().getFilteringPredicate(), orderBy, pagination,
+          pagesLastRow.get(pageNumber - 1));
+      if (!rows.isEmpty()) {
+        pagesLastRow.put(pageNumber, rows.get(rows.size() - 1));
+      }
+    } else {
+      // a page reached without walking the previous ones, another order or no primary key
+      rows = table.getRows(getFilter().getFilteringPredicate(), orderBy, pagination);
+    }
+    return rows;
+  }
+
+  /**
+   * Writes the content of the table on which this view is as CSV into the specified output. The
+   * filter and the order of this view are applied but not its pagination: all the matching rows
+   * are written as soon as they are read from the database.
+   * <p>
+   * If this view is on no database table, then nothing is done.
+   * </p>
+   * @param output the output into which the CSV is written.
+   * @throws IOException if an error occurs while writing the CSV.
+   */
+  void exportAsCSV(final Writer output) throws IOException {
+    if (!table.isPresent()) {
+      return;
+    }
+    final List<DbColumn> columns = getColumns();
+    final CSVLineWriter csv = new CSVLineWriter(output);
+    csv.writeLine(columns.stream().map(DbColumn::getName).collect(Collectors.toList()));
+    try {
+      table.get().forEachRow(getFilter().getFilteringPredicate(), orderBy, r -> {
+        try {
+          csv.writeLine(columns.stream()
+              .map(c -> r.getFieldValue(c.getName()))
+              .map(v -> v == null || v.toSQLObject() == null ? "" : v.toString())
+              .collect(Collectors.toList()));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    csv.flush();
+  }
+
+  /**
+   * The rows are modified or the filter or the order is changed: the pages are shifted.
+   */
+  private void clearPagesLastRow() {
+    pagesLastRow.clear();
+    pagesSignature = null;
+  }
+
+  private String getPagesSignature() {
+    return orderBy + "|" + getFilter().getColumn().map(DbColumn::getName).orElse("") + "|" +
+        getFilter().getComparator() + "|" + getFilter().getColumnValue();
   }
 }
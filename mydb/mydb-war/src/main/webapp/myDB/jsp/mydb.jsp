@@ -85,6 +85,8 @@
 <fmt:message var="noValue" key="mydb.error.noValue"/>
 <fmt:message var="modifyRow" key="mydb.modifyRow"/>
 <fmt:message var="newRow" key="mydb.insertRow"/>
+<fmt:message var="refreshSchema" key="mydb.refreshSchema"/>
+<fmt:message var="exportCSV" key="mydb.exportCSV"/>
 <fmt:message var="nullForbidden" key="mydb.error.mandatory"/>
 
 <fmt:message bundle="${icons}" var="infoIcon" key="mydb.icons.info"/>
@@ -340,11 +342,20 @@
 </head>
 <body>
 <view:browseBar componentId="${componentId}" path="${requestScope.navigationContext}" extraInformations="${crumbTitle}"/>
-<c:if test="${currentUserCanManageRows}">
 <view:operationPane>
-  <view:operationOfCreation action="javascript:newRow()" icon="${createIcons}" altText="${newRow}"/>
+  <c:if test="${currentUserCanManageRows}">
+    <view:operationOfCreation action="javascript:newRow()" icon="${createIcons}" altText="${newRow}"/>
+    <c:if test="${requestScope.highestUserRole.isGreaterThanOrEquals(adminRole)}">
+      <view:operation action="RefreshSchema" altText="${refreshSchema}"/>
+    </c:if>
+  </c:if>
+  <c:if test="${currentTable.defined}">
+    <c:url var="exportTableUrl" value="/MyDBTableExport/${componentId}">
+      <c:param name="ComponentId" value="${componentId}"/>
+    </c:url>
+    <view:operation action="${exportTableUrl}" altText="${exportCSV}"/>
+  </c:if>
 </view:operationPane>
-</c:if>
 <view:window>
   <view:componentInstanceIntro componentId="${componentId}" language="${currentUserLanguage}"/>
   <c:if test="${requestScope.highestUserRole.isGreaterThanOrEquals(adminRole)}">
@@ -433,7 +444,7 @@
       </form>
     </div>
     <div id="table-view">
-      <view:arrayPane var="${requestScope[mainArrayPaneName]}" routingAddress="ViewTable" export="true" numberLinesPerPage="${currentTable.pagination.pageSize}">
+      <view:arrayPane var="${requestScope[mainArrayPaneName]}" routingAddress="ViewTable" export="false" numberLinesPerPage="${currentTable.pagination.pageSize}">
         <c:forEach var="column" items="${columns}">
           <c:set var="columnName" value="${column.name}"/>
           <c:if test="${column.primaryKey}">
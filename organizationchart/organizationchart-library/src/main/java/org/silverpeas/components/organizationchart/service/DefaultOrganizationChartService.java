@@ -3,6 +3,7 @@ package org.silverpeas.components.organizationchart.service;
 import org.silverpeas.components.organizationchart.model.OrganizationalChart;
 import org.silverpeas.components.organizationchart.model.OrganizationalChartType;
 import org.silverpeas.core.annotation.Service;
+import org.silverpeas.core.util.ResourceLocator;
 
 /**
  * @author Yohann Chastagnier
@@ -10,6 +11,9 @@ import org.silverpeas.core.annotation.Service;
 @Service
 class DefaultOrganizationChartService implements OrganizationChartService {
 
+  private static final String SETTINGS =
+      "org.silverpeas.components.organizationchart.settings.OrganizationChartSettings";
+
   @SuppressWarnings("UnnecessaryLocalVariable")
   @Override
   public OrganizationalChart getOrganizationChart(
@@ -21,9 +25,13 @@ class DefaultOrganizationChartService implements OrganizationChartService {
       // LDAP case
 
       String baseOU = base;
-      organizationalChart =
-          LdapOrganizationChartBuilder.from((LdapOrganizationChartConfiguration) config)
-              .buildFor(baseOU, type);
+      LdapOrganizationChartConfiguration ldapConfig = (LdapOrganizationChartConfiguration) config;
+      boolean bulkMode = ResourceLocator.getSettingBundle(SETTINGS).getBoolean("ldap.bulk", false);
+      organizationalChart = OrganizationChartCache.get()
+          .get(ldapConfig.getCacheKey() + "|" + type + "|" + baseOU,
+              () -> LdapOrganizationChartBuilder.from(ldapConfig)
+                  .withBulkMode(bulkMode)
+                  .buildFor(baseOU, type));
 
     } else if (config instanceof GroupOrganizationChartConfiguration) {
 
@@ -39,4 +47,12 @@ class DefaultOrganizationChartService implements OrganizationChartService {
     }
     return organizationalChart;
   }
+
+  @Override
+  public void invalidateCache(final AbstractOrganizationChartConfiguration config) {
+    if (config instanceof LdapOrganizationChartConfiguration) {
+      OrganizationChartCache.get()
+          .invalidate(((LdapOrganizationChartConfiguration) config).getCacheKey() + "|");
+    }
+  }
 }
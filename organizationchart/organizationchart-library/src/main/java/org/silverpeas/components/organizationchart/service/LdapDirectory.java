@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.organizationchart.service;
+
+import javax.naming.NamingException;
+import javax.naming.directory.Attributes;
+import javax.naming.directory.SearchResult;
+import java.util.List;
+
+/**
+ * The LDAP directory from which an organization chart is built. The entries can be either read
+ * directly from the LDAP server or from a snapshot of the part of the directory covered by the
+ * organization chart.
+ */
+interface LdapDirectory extends AutoCloseable {
+
+  /**
+   * Gets the entries of the given object class that are directly under the given DN.
+   * @param dn the distinguished name of the parent entry.
+   * @param objectClass the LDAP object class of the entries to get.
+   * @return a list of entries, empty if no such entries.
+   * @throws NamingException if an error occurs while reading the directory.
+   */
+  List<SearchResult> getChildren(String dn, String objectClass) throws NamingException;
+
+  /**
+   * Is there at least one entry of the given object class directly under the given DN?
+   * @param dn the distinguished name of the parent entry.
+   * @param objectClass the LDAP object class of the entries to look for.
+   * @return true if there is at least one such entry, false otherwise.
+   * @throws NamingException if an error occurs while reading the directory.
+   */
+  boolean hasChildren(String dn, String objectClass) throws NamingException;
+
+  /**
+   * Gets the attributes of the entry with the given DN.
+   * @param dn the distinguished name of an entry.
+   * @return the attributes of the entry.
+   * @throws NamingException if the entry doesn't exist or if an error occurs while reading the
+   * directory.
+   */
+  Attributes getAttributes(String dn) throws NamingException;
+
+  @Override
+  void close();
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.organizationchart.service;
+
+import javax.naming.InvalidNameException;
+import javax.naming.NameNotFoundException;
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.directory.Attributes;
+import javax.naming.directory.SearchControls;
+import javax.naming.directory.SearchResult;
+import javax.naming.ldap.Control;
+import javax.naming.ldap.InitialLdapContext;
+import javax.naming.ldap.LdapContext;
+import javax.naming.ldap.LdapName;
+import javax.naming.ldap.PagedResultsControl;
+import javax.naming.ldap.PagedResultsResponseControl;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A snapshot in memory of the organizational units and of the persons under a base DN of an LDAP
+ * directory. The snapshot is loaded with one subtree search for the units and one for the persons
+ * whatever the number of units, and then any organization chart under the base DN is built from
+ * it without any other request to the LDAP server. The searches are paged so that the size limit
+ * of the LDAP server (1000 entries by default with Active Directory) doesn't truncate them.
+ * <p>
+ * Once loaded, a snapshot isn't modified anymore and then it can be shared between several
+ * threads.
+ * </p>
+ */
+class LdapDirectorySnapshot implements LdapDirectory {
+
+  private static final String OBJECT_CLASS = "(objectclass=";
+  private static final int PAGE_SIZE = 500;
+  private final LdapName baseDn;
+  private final String unitClass;
+  private final String personClass;
+  private final Map<LdapName, Attributes> entries = new HashMap<>();
+  private final Map<LdapName, List<SearchResult>> units = new HashMap<>();
+  private final Map<LdapName, List<SearchResult>> persons = new HashMap<>();
+
+  LdapDirectorySnapshot(final String baseDn, final String unitClass, final String personClass)
+      throws InvalidNameException {
+    this.baseDn = new LdapName(baseDn);
+    this.unitClass = unitClass;
+    this.personClass = personClass;
+  }
+
+  /**
+   * Loads the snapshot of the LDAP directory described by the given configuration. Only the
+   * attributes used by the organization charts are fetched.
+   * @param config the configuration of the LDAP organization chart.
+   * @return the snapshot of the units and persons under the root of the configuration.
+   * @throws NamingException if an error occurs while reading the directory.
+   */
+  static LdapDirectorySnapshot load(final LdapOrganizationChartConfiguration config)
+      throws NamingException {
+    LdapDirectorySnapshot snapshot =
+        new LdapDirectorySnapshot(config.getRoot(), config.getLdapClassUnit(),
+            config.getLdapClassPerson());
+    LdapContext ctx = new InitialLdapContext(new Hashtable<>(config.getEnv()), null);
+    try {
+      SearchControls ctls = new SearchControls();
+      ctls.setSearchScope(SearchControls.SUBTREE_SCOPE);
+      ctls.setCountLimit(0);
+      ctls.setReturningAttributes(config.getFetchedAttributes());
+      snapshot.putEntry(config.getRoot(), ctx.getAttributes(config.getRoot()));
+      snapshot.loadEntries(ctx, ctls, config.getLdapClassUnit());
+      snapshot.loadEntries(ctx, ctls, config.getLdapClassPerson());
+    } finally {
+      ctx.close();
+    }
+    return snapshot;
+  }
+
+  /**
+   * Is the entry with the given DN covered by this snapshot?
+   * @param dn the distinguished name of an entry.
+   * @return true if the entry is the base DN of the snapshot or one of its descendants.
+   */
+  boolean covers(final String dn) {
+    try {
+      return new LdapName(dn).startsWith(baseDn);
+    } catch (InvalidNameException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Puts the given entry into the snapshot.
+   * @param dn the distinguished name of the entry.
+   * @param attrs the attributes of the entry.
+   * @throws InvalidNameException if the DN isn't a valid LDAP name.
+   */
+  void putEntry(final String dn, final Attributes attrs) throws InvalidNameException {
+    entries.put(new LdapName(dn), attrs);
+  }
+
+  /**
+   * Puts the given entry of the given object class into the snapshot. The entry is then listed
+   * among the children of its parent.
+   * @param entry the entry found in the directory.
+   * @param objectClass the object class with which the entry has been found.
+   * @throws InvalidNameException if the DN of the entry isn't a valid LDAP name.
+   */
+  void putEntry(final SearchResult entry, final String objectClass) throws InvalidNameException {
+    LdapName dn = new LdapName(entry.getNameInNamespace());
+    entries.put(dn, entry.getAttributes());
+    if (dn.size() > baseDn.size()) {
+      LdapName parent = (LdapName) dn.getPrefix(dn.size() - 1);
+      Map<LdapName, List<SearchResult>> index = getIndex(objectClass);
+      if (index != null) {
+        index.computeIfAbsent(parent, p -> new ArrayList<>()).add(entry);
+      }
+    }
+  }
+
+  @Override
+  public List<SearchResult> getChildren(final String dn, final String objectClass)
+      throws NamingException {
+    Map<LdapName, List<SearchResult>> index = getIndex(objectClass);
+    if (index == null) {
+      return Collections.emptyList();
+    }
+    return Collections.unmodifiableList(index.getOrDefault(new LdapName(dn),
+        Collections.emptyList()));
+  }
+
+  @Override
+  public boolean hasChildren(final String dn, final String objectClass) throws NamingException {
+    return !getChildren(dn, objectClass).isEmpty();
+  }
+
+  @Override
+  public Attributes getAttributes(final String dn) throws NamingException {
+    Attributes attrs = entries.get(new LdapName(dn));
+    if (attrs == null) {
+      throw new NameNotFoundException(dn);
+    }
+    return attrs;
+  }
+
+  @Override
+  public void close() {
+    // nothing to release: the snapshot is kept in memory
+  }
+
+  private void loadEntries(final LdapContext ctx, final SearchControls ctls,
+      final String objectClass) throws NamingException {
+    byte[] cookie = null;
+    do {
+      setPagedResultsControl(ctx, cookie);
+      NamingEnumeration<SearchResult> results =
+          ctx.search(baseDn, OBJECT_CLASS + objectClass + ")", ctls);
+      try {
+        while (results.hasMore()) {
+          putEntry(results.next(), objectClass);
+        }
+      } finally {
+        results.close();
+      }
+      cookie = getPagedResultsCookie(ctx);
+    } while (cookie != null && cookie.length > 0);
+    ctx.setRequestControls(null);
+  }
+
+  private static void setPagedResultsControl(final LdapContext ctx, final byte[] cookie)
+      throws NamingException {
+    try {
+      // not critical: a server not supporting the paging returns all the entries at once
+      ctx.setRequestControls(
+          new Control[]{new PagedResultsControl(PAGE_SIZE, cookie, Control.NONCRITICAL)});
+    } catch (IOException e) {
+      NamingException ne = new NamingException(e.getMessage());
+      ne.setRootCause(e);
+      throw ne;
+    }
+  }
+
+  private static byte[] getPagedResultsCookie(final LdapContext ctx) throws NamingException {
+    Control[] controls = ctx.getResponseControls();
+    if (controls != null) {
+      for (Control control : controls) {
+        if (control instanceof PagedResultsResponseControl) {
+          return ((PagedResultsResponseControl) control).getCookie();
+        }
+      }
+    }
+    return null;
+  }
+
+  private Map<LdapName, List<SearchResult>> getIndex(final String objectClass) {
+    if (objectClass == null) {
+      return null;
+    } else if (objectClass.equalsIgnoreCase(unitClass)) {
+      return units;
+    } else if (objectClass.equalsIgnoreCase(personClass)) {
+      return persons;
+    }
+    return null;
+  }
+}
@@ -37,28 +37,28 @@ import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
 import javax.naming.directory.Attribute;
 import javax.naming.directory.Attributes;
-import javax.naming.directory.DirContext;
-import javax.naming.directory.InitialDirContext;
-import javax.naming.directory.SearchControls;
 import javax.naming.directory.SearchResult;
 import javax.naming.ldap.LdapName;
 import javax.naming.ldap.Rdn;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.silverpeas.components.organizationchart.model.OrganizationalChartType
     .TYPE_UNITCHART;
 
 class LdapOrganizationChartBuilder extends AbstractOrganizationChartBuilder {
 
-  private static final String OBJECT_CLASS = "(objectclass=";
+  private static final String SNAPSHOT_KEY = "|snapshot";
+  private static final long SNAPSHOT_RETRY_DELAY = 60000L;
+  private static final Map<String, Long> snapshotFailures = new ConcurrentHashMap<>();
   private final LdapOrganizationChartConfiguration config;
+  private boolean bulkMode = false;
 
   static LdapOrganizationChartBuilder from(LdapOrganizationChartConfiguration config) {
     return new LdapOrganizationChartBuilder(config);
@@ -68,9 +68,18 @@ class LdapOrganizationChartBuilder extends AbstractOrganizationChartBuilder {
     this.config = config;
   }
 
-  OrganizationalChart buildFor(String baseOu, OrganizationalChartType type) {
+  /**
+   * Sets the bulk mode: the units and the persons under the root of the configuration are
+   * fetched by subtree searches, once for all the charts, and the chart is then built in memory.
+   * @param bulkMode true to enable the bulk mode.
+   * @return itself.
+   */
+  LdapOrganizationChartBuilder withBulkMode(boolean bulkMode) {
+    this.bulkMode = bulkMode;
+    return this;
+  }
 
-    Map<String, String> env = config.getEnv();
+  OrganizationalChart buildFor(String baseOu, OrganizationalChartType type) {
 
     List<OrganizationalPerson> ouMembers = null;
     List<OrganizationalUnit> units = null;
@@ -84,39 +93,32 @@ class LdapOrganizationChartBuilder extends AbstractOrganizationChartBuilder {
     OrganizationalUnit parent = new OrganizationalUnit(firstOu[1], rootOu);
     setParents(parent, config.getAttUnit(), rootOu);
 
-    DirContext ctx = null;
+    LdapDirectory directory = null;
     try {
-      ctx = new InitialDirContext(new Hashtable<>(env));
-      SearchControls ctls = new SearchControls();
-      ctls.setSearchScope(SearchControls.ONELEVEL_SCOPE);
-      ctls.setCountLimit(0);
+      directory = openDirectory(rootOu);
 
       if (StringUtil.isDefined(config.getLdapAttCSSClass())) {
-        OrganizationalUnit root = getOrganizationalUnit(ctx, rootOu);
-        String cssClass = getSpecificCSSClass(ctx, root);
+        OrganizationalUnit root = getOrganizationalUnit(directory, rootOu);
+        String cssClass = getSpecificCSSClass(directory, root);
         parent.setSpecificCSSClass(cssClass);
         parent.setDetail(root.getDetail());
       }
 
       // get organization unit members
-      ouMembers = getOUMembers(ctx, ctls, rootOu, type);
+      ouMembers = getOUMembers(directory, rootOu, type);
       parent.setHasMembers(ouMembers.size() > 1);
 
       // get sub organization units
       if (type == TYPE_UNITCHART) {
-        units = getSubOrganizationUnits(ctx, ctls, rootOu);
+        units = getSubOrganizationUnits(directory, rootOu);
       }
 
     } catch (NamingException e) {
       SilverLogger.getLogger(this).error(e.getLocalizedMessage(), e);
       return null;
     } finally {
-      if (ctx != null) {
-        try {
-          ctx.close();
-        } catch (NamingException e) {
-          SilverLogger.getLogger(this).error(e.getLocalizedMessage(), e);
-        }
+      if (directory != null) {
+        directory.close();
       }
     }
 
@@ -133,6 +135,47 @@ class LdapOrganizationChartBuilder extends AbstractOrganizationChartBuilder {
     return chart;
   }
 
+  /**
+   * Opens the LDAP directory from which the chart of the given OU is built. In bulk mode, the
+   * chart is built from the snapshot of all the units and persons under the root of the
+   * configuration, loaded once and kept in the cache; otherwise, or if the snapshot cannot be
+   * loaded, the directory is read one level at a time with a connection taken from the LDAP
+   * connection pool. After a failure, the loading of the snapshot isn't tried again before a
+   * delay so that each request doesn't wait for a new failure.
+   * @param rootOu the OU at the top of the chart.
+   * @return the LDAP directory.
+   * @throws NamingException if the connection to the LDAP server fails.
+   */
+  private LdapDirectory openDirectory(String rootOu) throws NamingException {
+    if (bulkMode && StringUtil.isDefined(config.getRoot())) {
+      LdapDirectorySnapshot snapshot = getSnapshot();
+      if (snapshot != null && snapshot.covers(rootOu)) {
+        return snapshot;
+      }
+    }
+    return new LiveLdapDirectory(config.getEnv());
+  }
+
+  private LdapDirectorySnapshot getSnapshot() {
+    final String key = config.getCacheKey() + SNAPSHOT_KEY;
+    Long failureTime = snapshotFailures.get(key);
+    if (failureTime != null &&
+        System.currentTimeMillis() - failureTime < SNAPSHOT_RETRY_DELAY) {
+      return null;
+    }
+    return OrganizationChartCache.get().get(key, () -> {
+      try {
+        LdapDirectorySnapshot snapshot = LdapDirectorySnapshot.load(config);
+        snapshotFailures.remove(key);
+        return snapshot;
+      } catch (NamingException e) {
+        SilverLogger.getLogger(this).error(e.getLocalizedMessage(), e);
+        snapshotFailures.put(key, System.currentTimeMillis());
+        return null;
+      }
+    });
+  }
+
   private boolean isRoot(String ou) {
     return !StringUtil.isDefined(ou) || ou.equalsIgnoreCase(config.getRoot());
   }
@@ -176,26 +219,20 @@ class LdapOrganizationChartBuilder extends AbstractOrganizationChartBuilder {
 
   /**
    * Get person list for a given OU.
-   * @param ctx Search context
-   * @param ctls Search controls
+   * @param directory the LDAP directory
    * @param rootOu rootOu
    * @param type type
    * @return a List of OrganizationalPerson objects.
    * @throws NamingException
    */
-  private List<OrganizationalPerson> getOUMembers(DirContext ctx, SearchControls ctls,
-      String rootOu, OrganizationalChartType type) throws NamingException {
+  private List<OrganizationalPerson> getOUMembers(LdapDirectory directory, String rootOu,
+      OrganizationalChartType type) throws NamingException {
 
     List<OrganizationalPerson> personList = new ArrayList<>();
 
-    NamingEnumeration<SearchResult> results =
-        ctx.search(rootOu, OBJECT_CLASS + config.getLdapClassPerson() + ")", ctls);
-
-
     int i = 0;
 
-    while (results != null && results.hasMore()) {
-      SearchResult entry = results.next();
+    for (SearchResult entry : directory.getChildren(rootOu, config.getLdapClassPerson())) {
       if (StringUtil.isDefined(entry.getName())) {
         Attributes attrs = entry.getAttributes();
         if (isUserActive(config.getLdapAttActif(), attrs)) {
@@ -212,22 +249,17 @@ class LdapOrganizationChartBuilder extends AbstractOrganizationChartBuilder {
 
   /**
    * Get sub organization units of a given OU.
-   * @param ctx Search context
-   * @param ctls Search controls
+   * @param directory the LDAP directory
    * @param rootOu rootOu
    * @return a List of OrganizationalUnit objects.
    * @throws NamingException
    */
-  private List<OrganizationalUnit> getSubOrganizationUnits(DirContext ctx, SearchControls ctls,
+  private List<OrganizationalUnit> getSubOrganizationUnits(LdapDirectory directory,
       String rootOu) throws NamingException {
 
     ArrayList<OrganizationalUnit> units = new ArrayList<>();
 
-    NamingEnumeration<SearchResult> results =
-        ctx.search(rootOu, OBJECT_CLASS + config.getLdapClassUnit() + ")", ctls);
-
-    while (results != null && results.hasMore()) {
-      SearchResult entry = results.next();
+    for (SearchResult entry : directory.getChildren(rootOu, config.getLdapClassUnit())) {
       Attributes attrs = entry.getAttributes();
       String ou = getFirstAttributeValue(attrs.get(config.getAttUnit()));
       String completeOu = entry.getNameInNamespace();
@@ -245,14 +277,13 @@ class LdapOrganizationChartBuilder extends AbstractOrganizationChartBuilder {
 
     for (OrganizationalUnit unit : units) {
       boolean hasSubOrganizations =
-          hasResults(unit.getCompleteName(), OBJECT_CLASS + config.getLdapClassUnit() + ")", ctx,
-              ctls);
+          directory.hasChildren(unit.getCompleteName(), config.getLdapClassUnit());
       unit.setHasSubUnits(hasSubOrganizations);
 
       try {
         // set responsible of subunit
         List<OrganizationalPerson> users =
-            getOUMembers(ctx, ctls, unit.getCompleteName(), TYPE_UNITCHART);
+            getOUMembers(directory, unit.getCompleteName(), TYPE_UNITCHART);
         List<OrganizationalPerson> mainActors = getMainActors(users);
         unit.setMainActors(mainActors);
 
@@ -261,7 +292,7 @@ class LdapOrganizationChartBuilder extends AbstractOrganizationChartBuilder {
 
         // set css class
         if (StringUtil.isDefined(config.getLdapAttCSSClass())) {
-          String cssClass = getSpecificCSSClass(ctx, unit);
+          String cssClass = getSpecificCSSClass(directory, unit);
           unit.setSpecificCSSClass(cssClass);
         }
       } catch (Exception e) {
@@ -274,9 +305,9 @@ class LdapOrganizationChartBuilder extends AbstractOrganizationChartBuilder {
     return units;
   }
 
-  private OrganizationalUnit getOrganizationalUnit(DirContext ctx, String rootOu)
+  private OrganizationalUnit getOrganizationalUnit(LdapDirectory directory, String rootOu)
       throws NamingException {
-    Attributes attrs = ctx.getAttributes(rootOu);
+    Attributes attrs = directory.getAttributes(rootOu);
 
     String ou = getFirstAttributeValue(attrs.get(config.getAttUnit()));
     OrganizationalUnit unit = new OrganizationalUnit(ou, rootOu);
@@ -292,7 +323,7 @@ class LdapOrganizationChartBuilder extends AbstractOrganizationChartBuilder {
     return unit;
   }
 
-  private String getSpecificCSSClass(DirContext ctx, OrganizationalUnit unit)
+  private String getSpecificCSSClass(LdapDirectory directory, OrganizationalUnit unit)
       throws NamingException {
     String cssClass = unit.getSpecificCSSClass();
 
@@ -303,7 +334,7 @@ class LdapOrganizationChartBuilder extends AbstractOrganizationChartBuilder {
         OrganizationalUnit parent = getParentOU(ou);
         if (parent.getCompleteName() != null) {
           OrganizationalUnit fullParent =
-              getOrganizationalUnit(ctx, parent.getCompleteName());
+              getOrganizationalUnit(directory, parent.getCompleteName());
           cssClass = fullParent.getSpecificCSSClass();
           ou = parent.getCompleteName();
         } else {
@@ -315,26 +346,6 @@ class LdapOrganizationChartBuilder extends AbstractOrganizationChartBuilder {
     return cssClass;
   }
 
-  /**
-   * Launch a search and return true if there are results.
-   * @param baseDN baseDN for search
-   * @param filter search filter
-   * @param ctx search context
-   * @param ctls search controls
-   * @return true is at least one result is found.
-   * @throws NamingException
-   */
-  private boolean hasResults(String baseDN, String filter, DirContext ctx, SearchControls ctls)
-      throws NamingException {
-    NamingEnumeration<SearchResult> results = getResults(baseDN, filter, ctx, ctls);
-    return (results != null && results.hasMoreElements());
-  }
-
-  private NamingEnumeration<SearchResult> getResults(String baseDN, String filter, DirContext ctx,
-      SearchControls ctls) throws NamingException {
-    return ctx.search(baseDN, filter, ctls);
-  }
-
   /**
    * Build a OrganizationalPerson object by retrieving attributes values
    * @param id person Id
@@ -24,13 +24,21 @@
 package org.silverpeas.components.organizationchart.service;
 
 import java.util.Hashtable;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.naming.Context;
 
+import org.silverpeas.components.organizationchart.model.OrganizationalRole;
 import org.silverpeas.core.util.StringUtil;
 
 public class LdapOrganizationChartConfiguration extends AbstractOrganizationChartConfiguration {
+  // the connections to the LDAP server are taken from the JNDI LDAP connection pool
+  private static final String CONNECTION_POOL = "com.sun.jndi.ldap.connect.pool";
   private Map<String, String> env = null;
 
   private String ldapClassPerson = null;
@@ -45,6 +53,7 @@ public class LdapOrganizationChartConfiguration extends AbstractOrganizationChar
   public LdapOrganizationChartConfiguration() {
     this.env = new Hashtable<>();
     env.put(Context.REFERRAL, "ignore");
+    env.put(CONNECTION_POOL, "true");
   }
 
   /**
@@ -167,4 +176,46 @@ public class LdapOrganizationChartConfiguration extends AbstractOrganizationChar
     return ldapAttCSSClass;
   }
 
-}
\ No newline at end of file
+  /**
+   * Gets the LDAP attributes required to build the organization charts with this configuration.
+   * @return an array of LDAP attribute names.
+   */
+  String[] getFetchedAttributes() {
+    Set<String> attributes = new LinkedHashSet<>();
+    attributes.add("objectClass");
+    Stream.of(getAttUnit(), getAttName(), getAttTitle(), getAttDesc(), ldapAttAccount,
+        ldapAttCSSClass, ldapAttActif).filter(StringUtil::isDefined).forEach(attributes::add);
+    if (getUnitsChartOthersInfosKeys() != null) {
+      attributes.addAll(getUnitsChartOthersInfosKeys().keySet());
+    }
+    if (getPersonnsChartOthersInfosKeys() != null) {
+      attributes.addAll(getPersonnsChartOthersInfosKeys().keySet());
+    }
+    return attributes.toArray(new String[0]);
+  }
+
+  /**
+   * Gets a key identifying this configuration: two configurations with the same key produce the
+   * same organization charts. The credentials aren't part of the key.
+   * @return the key of this configuration.
+   */
+  String getCacheKey() {
+    return String.join("|", env.get(Context.PROVIDER_URL), env.get(Context.SECURITY_PRINCIPAL),
+        getRoot(), ldapClassUnit, ldapClassPerson, getAttUnit(), getAttName(), getAttTitle(),
+        getAttDesc(), ldapAttAccount, ldapAttCSSClass, ldapAttActif, domainId,
+        toKey(getUnitsChartCentralLabel()), toKey(getUnitsChartRightLabel()),
+        toKey(getUnitsChartLeftLabel()), toKey(getPersonnsChartCentralLabel()),
+        toKey(getPersonnsChartCategoriesLabel()), String.valueOf(getUnitsChartOthersInfosKeys()),
+        String.valueOf(getPersonnsChartOthersInfosKeys()));
+  }
+
+  private static String toKey(List<OrganizationalRole> roles) {
+    if (roles == null) {
+      return "";
+    }
+    return roles.stream()
+        .map(r -> r.getLabel() + "=" + r.getLdapKey())
+        .collect(Collectors.joining(";"));
+  }
+
+}
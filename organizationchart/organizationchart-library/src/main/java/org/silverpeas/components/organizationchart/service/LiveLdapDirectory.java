@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.organizationchart.service;
+
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.directory.Attributes;
+import javax.naming.directory.DirContext;
+import javax.naming.directory.InitialDirContext;
+import javax.naming.directory.SearchControls;
+import javax.naming.directory.SearchResult;
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An LDAP directory whose the entries are read directly from the LDAP server, one level at a
+ * time. The connection is taken from the JNDI LDAP connection pool (see
+ * {@link LdapOrganizationChartConfiguration}) and it is given back to the pool once the directory
+ * closed.
+ */
+class LiveLdapDirectory implements LdapDirectory {
+
+  private static final String OBJECT_CLASS = "(objectclass=";
+  private final DirContext ctx;
+  private final SearchControls ctls;
+
+  LiveLdapDirectory(final Map<String, String> env) throws NamingException {
+    this.ctx = new InitialDirContext(new Hashtable<>(env));
+    this.ctls = new SearchControls();
+    this.ctls.setSearchScope(SearchControls.ONELEVEL_SCOPE);
+    this.ctls.setCountLimit(0);
+  }
+
+  @Override
+  public List<SearchResult> getChildren(final String dn, final String objectClass)
+      throws NamingException {
+    List<SearchResult> children = new ArrayList<>();
+    NamingEnumeration<SearchResult> results =
+        ctx.search(dn, OBJECT_CLASS + objectClass + ")", ctls);
+    try {
+      while (results.hasMore()) {
+        children.add(results.next());
+      }
+    } finally {
+      results.close();
+    }
+    return children;
+  }
+
+  @Override
+  public boolean hasChildren(final String dn, final String objectClass) throws NamingException {
+    NamingEnumeration<SearchResult> results =
+        ctx.search(dn, OBJECT_CLASS + objectClass + ")", ctls);
+    try {
+      return results.hasMoreElements();
+    } finally {
+      results.close();
+    }
+  }
+
+  @Override
+  public Attributes getAttributes(final String dn) throws NamingException {
+    return ctx.getAttributes(dn);
+  }
+
+  @Override
+  public void close() {
+    try {
+      ctx.close();
+    } catch (NamingException e) {
+      SilverLogger.getLogger(this).error(e.getLocalizedMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.organizationchart.service;
+
+import org.silverpeas.core.util.ResourceLocator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A cache of the LDAP organization charts and of the directory snapshots from which they are
+ * built. The values are kept for a time to live defined by the <code>ldap.cache.ttl</code>
+ * setting and they can be invalidated explicitly for a given configuration.
+ * <p>
+ * The loading of a value is done only once even if several users request it at the same time:
+ * the other requesters wait for the value to be loaded instead of querying the LDAP server
+ * themselves.
+ * </p>
+ */
+class OrganizationChartCache {
+
+  private static final OrganizationChartCache INSTANCE = new OrganizationChartCache(
+      ResourceLocator.getSettingBundle(
+          "org.silverpeas.components.organizationchart.settings.OrganizationChartSettings")
+          .getInteger("ldap.cache.ttl", 300));
+
+  private final long timeToLive;
+  private final Map<String, CachedValue> values = new ConcurrentHashMap<>();
+  private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+  static OrganizationChartCache get() {
+    return INSTANCE;
+  }
+
+  /**
+   * @param timeToLive the time to live of the cached values in seconds. Zero or a negative value
+   * disables the cache.
+   */
+  OrganizationChartCache(final int timeToLive) {
+    this.timeToLive = timeToLive * 1000L;
+  }
+
+  /**
+   * Is the cache enabled?
+   * @return true if the values are kept in the cache, false otherwise.
+   */
+  boolean isEnabled() {
+    return timeToLive > 0;
+  }
+
+  /**
+   * Gets the value mapped to the given key. If there is no such value or if it is expired, the
+   * value is loaded with the given loader and then put into the cache. A null value isn't cached.
+   * @param key the key of the value.
+   * @param loader the loader of the value.
+   * @param <T> the type of the value.
+   * @return the value mapped to the key.
+   */
+  @SuppressWarnings("unchecked")
+  <T> T get(final String key, final Supplier<T> loader) {
+    if (!isEnabled()) {
+      return loader.get();
+    }
+    CachedValue cached = values.get(key);
+    if (cached != null && !cached.isExpired()) {
+      return (T) cached.value;
+    }
+    Object lock = locks.computeIfAbsent(key, k -> new Object());
+    try {
+      synchronized (lock) {
+        cached = values.get(key);
+        if (cached != null && !cached.isExpired()) {
+          return (T) cached.value;
+        }
+        T value = loader.get();
+        if (value != null) {
+          values.values().removeIf(CachedValue::isExpired);
+          values.put(key, new CachedValue(value, System.currentTimeMillis() + timeToLive));
+        }
+        return value;
+      }
+    } finally {
+      locks.remove(key, lock);
+    }
+  }
+
+  /**
+   * Invalidates all the values whose the key starts with the given prefix.
+   * @param keyPrefix the prefix of the keys of the values to remove from the cache.
+   */
+  void invalidate(final String keyPrefix) {
+    values.keySet().removeIf(k -> k.startsWith(keyPrefix));
+  }
+
+  private static class CachedValue {
+    private final Object value;
+    private final long expiry;
+
+    private CachedValue(final Object value, final long expiry) {
+      this.value = value;
+      this.expiry = expiry;
+    }
+
+    private boolean isExpired() {
+      return System.currentTimeMillis() >= expiry;
+    }
+  }
+}
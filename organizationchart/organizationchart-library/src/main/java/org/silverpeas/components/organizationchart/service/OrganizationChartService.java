@@ -42,4 +42,12 @@ public interface OrganizationChartService {
    */
   OrganizationalChart getOrganizationChart(AbstractOrganizationChartConfiguration config,
       String base, OrganizationalChartType type);
+
+  /**
+   * Invalidates the organizational charts kept in cache for the given configuration: they will
+   * be built again from the directory at their next request. Only the charts built from an LDAP
+   * directory are cached.
+   * @param config the configuration of the charts to invalidate.
+   */
+  void invalidateCache(AbstractOrganizationChartConfiguration config);
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.organizationchart.service;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.naming.NameNotFoundException;
+import javax.naming.directory.BasicAttributes;
+import javax.naming.directory.SearchResult;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class LdapDirectorySnapshotTest {
+
+  private static final String ROOT = "OU=Bands,dc=mondomain,dc=com";
+  private LdapDirectorySnapshot snapshot;
+
+  @Before
+  public void loadSnapshot() throws Exception {
+    snapshot = new LdapDirectorySnapshot(ROOT, "organizationalUnit", "person");
+    snapshot.putEntry(ROOT, attributes("ou", "Bands"));
+    snapshot.putEntry(entry("OU=Beatles," + ROOT), "organizationalUnit");
+    snapshot.putEntry(entry("OU=Stones," + ROOT), "organizationalUnit");
+    snapshot.putEntry(entry("OU=Wings,OU=Beatles," + ROOT), "organizationalUnit");
+    snapshot.putEntry(entry("CN=John Lennon,OU=Beatles," + ROOT), "person");
+    snapshot.putEntry(entry("CN=Paul McCartney,OU=Beatles," + ROOT), "person");
+    snapshot.putEntry(entry("CN=Linda McCartney,OU=Wings,OU=Beatles," + ROOT), "person");
+  }
+
+  @Test
+  public void childrenAreIndexedByTheirParentAndTheirClass() throws Exception {
+    assertThat(names(snapshot.getChildren(ROOT, "organizationalUnit")),
+        contains("OU=Beatles," + ROOT, "OU=Stones," + ROOT));
+    assertThat(names(snapshot.getChildren("ou=beatles,ou=bands,dc=mondomain,dc=com", "person")),
+        contains("CN=John Lennon,OU=Beatles," + ROOT, "CN=Paul McCartney,OU=Beatles," + ROOT));
+    assertThat(snapshot.getChildren(ROOT, "person"), is(empty()));
+    assertThat(snapshot.getChildren(ROOT, "group"), is(empty()));
+  }
+
+  @Test
+  public void subUnitsAreFoundInMemory() throws Exception {
+    assertThat(snapshot.hasChildren("OU=Beatles," + ROOT, "organizationalUnit"), is(true));
+    assertThat(snapshot.hasChildren("OU=Stones," + ROOT, "organizationalUnit"), is(false));
+  }
+
+  @Test
+  public void attributesOfAnyEntryOfTheSnapshotAreAvailable() throws Exception {
+    assertThat(snapshot.getAttributes(ROOT).get("ou").get(), is("Bands"));
+    assertThat(snapshot.getAttributes("OU=Wings,OU=Beatles," + ROOT).get("ou").get(),
+        is("Wings"));
+  }
+
+  @Test(expected = NameNotFoundException.class)
+  public void entriesOutsideTheSnapshotAreNotFound() throws Exception {
+    snapshot.getAttributes("OU=Other,dc=mondomain,dc=com");
+  }
+
+  @Test
+  public void onlyTheEntriesUnderTheBaseDnAreCovered() {
+    assertThat(snapshot.covers(ROOT), is(true));
+    assertThat(snapshot.covers("OU=Wings,OU=Beatles," + ROOT), is(true));
+    assertThat(snapshot.covers("OU=Other,dc=mondomain,dc=com"), is(false));
+  }
+
+  private static SearchResult entry(String dn) {
+    String[] rdn = dn.substring(0, dn.indexOf(',')).split("=");
+    SearchResult entry = new SearchResult(dn, null, attributes(rdn[0].toLowerCase(), rdn[1]));
+    entry.setNameInNamespace(dn);
+    return entry;
+  }
+
+  private static BasicAttributes attributes(String name, String value) {
+    return new BasicAttributes(name, value, true);
+  }
+
+  private static List<String> names(List<SearchResult> entries) {
+    return entries.stream().map(SearchResult::getNameInNamespace).collect(Collectors.toList());
+  }
+}
@@ -116,6 +116,25 @@ public class OrganizationChartSessionController extends AbstractComponentSession
     return getComponentId().startsWith("organizationchart");
   }
 
+  /**
+   * Is the current user allowed to refresh the organization chart? Only the administrators can
+   * invalidate the charts kept in cache.
+   * @return true if the user can refresh the chart, false otherwise.
+   */
+  public boolean isChartRefreshable() {
+    return isLDAP() && getUserDetail().isAccessAdmin();
+  }
+
+  /**
+   * Refreshes the organization charts of this instance: the charts kept in cache are invalidated
+   * and then they will be built again from the directory.
+   */
+  public void refreshChart() {
+    if (isChartRefreshable()) {
+      getService().invalidateCache(getConfig());
+    }
+  }
+
   public ChartVO getChart(String baseDN, OrganizationalChartType chartType) {
     String root = baseDN;
     if (StringUtil.isNotDefined(root)) {
@@ -75,10 +75,14 @@ public class OrganizationChartRequestRouter
     String destination;
     request.setAttribute("DisplayLabels", orgaSC.displayLabels());
     request.setAttribute("Breadcrumb", orgaSC.getBreadcrumb());
+    request.setAttribute("ChartRefreshable", orgaSC.isChartRefreshable());
 
     try {
       if (function.startsWith("Main")) {
         destination = OrganizationChartProcessor.processOrganizationChart(request, orgaSC);
+      } else if (function.startsWith("Refresh")) {
+        orgaSC.refreshChart();
+        destination = OrganizationChartProcessor.processOrganizationChart(request, orgaSC);
       } else if (function.startsWith("Details")) {
         destination = OrganizationChartProcessor.processSilverpeasUser(request, orgaSC);
       } else {
@@ -43,6 +43,7 @@
 
 <c:set var="displayLabels" value="${requestScope['DisplayLabels']}"/>
 <c:set var="breadcrumb" value="${requestScope['Breadcrumb']}"/>
+<c:set var="chartRefreshable" value="${requestScope['ChartRefreshable']}"/>
 
 <html>
   <head>
@@ -101,10 +102,14 @@
 
 	<fmt:message key="organizationchart.icons.print" var="printIcon" bundle="${icons}" />
 	<fmt:message key="organizationchart.message.print" var="printMessageAltText" />
+	<fmt:message key="organizationchart.message.refresh" var="refreshMessageAltText" />
 	<c:url var="printIconUrl" value="${printIcon}" />
 
 	<view:operationPane>
 		<view:operation altText="${printMessageAltText}" icon="${printIconUrl}" action="javascript:window.print();" />
+		<c:if test="${chartRefreshable}">
+			<view:operation altText="${refreshMessageAltText}" action="Refresh" />
+		</c:if>
 	</view:operationPane>
 	
 	<view:browseBar>
@@ -40,10 +40,9 @@ import org.silverpeas.core.workflow.api.instance.ProcessInstance;
 import org.silverpeas.core.workflow.api.model.ProcessModel;
 import org.silverpeas.core.workflow.api.model.State;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * A ProcessFilter is used to select some process from all the process.
@@ -180,36 +179,59 @@ public class ProcessFilter {
   }
 
   /**
-   * Returns only the process instance matching the filter.
+   * Returns only the process instance matching the filter. Without any criteria, no row record
+   * is built here: the returned list builds only those that are get. Otherwise, the row records
+   * of all the instances have to be built to be matched against the criteria, and only those of
+   * the matching instances are kept.
    */
   public List<DataRecord> filter(List<ProcessInstance> allInstances, String role, String lang)
       throws ProcessManagerException {
     try {
-      Stream<DataRecord> stream = allInstances.stream().map(p -> getDataRecord(p, role, lang));
-      if (getCriteriaRecord() != null) {
-        final RecordFilter recordFilter = filter.getRecordFilter(getCriteriaRecord());
-        stream = stream.filter(d -> matchCriteria(recordFilter, d));
+      if (!hasCriteria()) {
+        return new ProcessInstanceRowList(allInstances, role, lang);
       }
-      return stream.collect(Collectors.toList());
+      final RecordFilter recordFilter = filter.getRecordFilter(getCriteriaRecord());
+      final List<ProcessInstance> instances = new ArrayList<>();
+      final List<DataRecord> rows = new ArrayList<>();
+      for (ProcessInstance instance : allInstances) {
+        final DataRecord row = ProcessInstanceRowList.getRowDataRecord(instance, role, lang);
+        if (recordFilter.match(row)) {
+          instances.add(instance);
+          rows.add(row);
+        }
+      }
+      return new ProcessInstanceRowList(instances, rows, role, lang);
     } catch (SilverpeasRuntimeException | FormException e) {
       throw new ProcessManagerException(PROCESS_FILTER,
           "processFilter.FAIL_TO_USE_CRITERIA_RECORD", e);
     }
   }
 
-  private boolean matchCriteria(final RecordFilter recordFilter, final DataRecord dataRecord) {
-    try {
-      return recordFilter.match(dataRecord);
-    } catch (FormException e) {
-      throw new SilverpeasRuntimeException(e);
-    }
+  /**
+   * Is there at least one criterion filled in the current criteria?
+   */
+  private boolean hasCriteria() throws ProcessManagerException, FormException {
+    return hasCriteria(getCriteriaRecord(), filter.getCriteriaTemplate().getFieldNames());
   }
 
-  private DataRecord getDataRecord(final ProcessInstance p, final String role, final String lang) {
-    try {
-      return p.getRowDataRecord(role, lang);
-    } catch (WorkflowException e) {
-      throw new SilverpeasRuntimeException(e);
+  /**
+   * Is there at least one of the given criteria filled in the specified criteria record?
+   * @param criteriaRecord a criteria record or null.
+   * @param names the names of the criteria.
+   * @return true if at least one of the criteria isn't null.
+   * @throws FormException if a criterion cannot be get from the record.
+   */
+  static boolean hasCriteria(final DataRecord criteriaRecord, final String[] names)
+      throws FormException {
+    if (criteriaRecord == null) {
+      return false;
+    }
+    for (String name : names) {
+      final Field criterium = criteriaRecord.getField(name);
+      if (criterium != null && !criterium.isNull()) {
+        return true;
+      }
     }
+    return false;
   }
 }
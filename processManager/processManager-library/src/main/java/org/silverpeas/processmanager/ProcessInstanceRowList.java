@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have recieved a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.processmanager;
+
+import org.silverpeas.core.SilverpeasRuntimeException;
+import org.silverpeas.core.contribution.content.form.DataRecord;
+import org.silverpeas.core.workflow.api.WorkflowException;
+import org.silverpeas.core.workflow.api.instance.ProcessInstance;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A list of the row records of some process instances. Building the row record of a process
+ * instance requires to load its data folder, so a row record is built only when it is get for
+ * the first time and then it is kept for the next accesses.
+ * <p>
+ * The saving is effective only for an unfiltered and unsorted list, in which case a list page
+ * displaying only some of the instances builds only the row records of these instances. A list
+ * filtered by some criteria is given with all the row records of its instances already built, as
+ * they had to be matched against the criteria. And the array pane sorts the rows with the
+ * comparable values of their fields, so the first sort on a column gets every row and then builds
+ * all the row records that aren't built yet. They are kept in this list, so the next sorts and
+ * pages don't build them again.
+ * </p>
+ */
+public class ProcessInstanceRowList extends AbstractList<DataRecord> implements RandomAccess {
+
+  private final List<ProcessInstance> instances;
+  private final DataRecord[] rows;
+  private final String role;
+  private final String lang;
+
+  /**
+   * Builds a list of the row records of the given process instances as seen by the specified
+   * role.
+   * @param instances the process instances.
+   * @param role the role for which the rows are built.
+   * @param lang the language in which the rows are built.
+   */
+  public ProcessInstanceRowList(final List<ProcessInstance> instances, final String role,
+      final String lang) {
+    this.instances = instances;
+    this.rows = new DataRecord[instances.size()];
+    this.role = role;
+    this.lang = lang;
+  }
+
+  /**
+   * Builds a list of the row records of the given process instances with some of the rows
+   * already built. The rows not yet built are null.
+   */
+  ProcessInstanceRowList(final List<ProcessInstance> instances, final List<DataRecord> rows,
+      final String role, final String lang) {
+    this(instances, role, lang);
+    for (int i = 0; i < this.rows.length; i++) {
+      this.rows[i] = rows.get(i);
+    }
+  }
+
+  /**
+   * Gets the process instance at the specified position in this list.
+   * @param index the position of the process instance.
+   * @return the process instance.
+   */
+  public ProcessInstance getProcessInstance(final int index) {
+    return instances.get(index);
+  }
+
+  @Override
+  public DataRecord get(final int index) {
+    DataRecord row = rows[index];
+    if (row == null) {
+      row = getRowDataRecord(instances.get(index), role, lang);
+      rows[index] = row;
+    }
+    return row;
+  }
+
+  /**
+   * Gets the row record at the specified position without keeping it in this list when it isn't
+   * already built. It is for the iterations over all the rows, like an export, that mustn't keep
+   * in memory the row records of all the instances.
+   * @param index the position of the row record.
+   * @return the row record.
+   */
+  public DataRecord peek(final int index) {
+    final DataRecord row = rows[index];
+    return row != null ? row : getRowDataRecord(instances.get(index), role, lang);
+  }
+
+  @Override
+  public int size() {
+    return rows.length;
+  }
+
+  static DataRecord getRowDataRecord(final ProcessInstance instance, final String role,
+      final String lang) {
+    try {
+      return instance.getRowDataRecord(role, lang);
+    } catch (WorkflowException e) {
+      throw new SilverpeasRuntimeException(e);
+    }
+  }
+}
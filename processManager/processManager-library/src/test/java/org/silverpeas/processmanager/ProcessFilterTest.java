@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have recieved a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.processmanager;
+
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.contribution.content.form.DataRecord;
+import org.silverpeas.core.contribution.content.form.Field;
+import org.silverpeas.core.contribution.content.form.FormException;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@EnableSilverTestEnv
+class ProcessFilterTest {
+
+  private static final String[] CRITERIA = {"instance.state", "title", "category"};
+
+  @Test
+  void thereIsNoCriteriaWithoutCriteriaRecord() throws FormException {
+    assertThat(ProcessFilter.hasCriteria(null, CRITERIA), is(false));
+  }
+
+  @Test
+  void thereIsNoCriteriaWhenAllOfThemAreNull() throws FormException {
+    DataRecord record = aCriteriaRecord(null, null);
+    assertThat(ProcessFilter.hasCriteria(record, CRITERIA), is(false));
+  }
+
+  @Test
+  void thereAreCriteriaAsSoonAsOneOfThemIsFilled() throws FormException {
+    DataRecord record = aCriteriaRecord(null, "Urgent");
+    assertThat(ProcessFilter.hasCriteria(record, CRITERIA), is(true));
+  }
+
+  @Test
+  void theCriteriaMissingInTheRecordAreIgnored() throws FormException {
+    DataRecord record = aCriteriaRecord(null, null);
+    when(record.getField("category")).thenReturn(null);
+    assertThat(ProcessFilter.hasCriteria(record, CRITERIA), is(false));
+  }
+
+  /**
+   * A criteria record whose the state criterion is always null.
+   */
+  private static DataRecord aCriteriaRecord(final String title, final String category)
+      throws FormException {
+    DataRecord record = mock(DataRecord.class);
+    Field state = aField(null);
+    when(record.getField("instance.state")).thenReturn(state);
+    Field titleField = aField(title);
+    when(record.getField("title")).thenReturn(titleField);
+    Field categoryField = aField(category);
+    when(record.getField("category")).thenReturn(categoryField);
+    return record;
+  }
+
+  private static Field aField(final String value) {
+    Field field = mock(Field.class);
+    when(field.isNull()).thenReturn(value == null);
+    return field;
+  }
+}
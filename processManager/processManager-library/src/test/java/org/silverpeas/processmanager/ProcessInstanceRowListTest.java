@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have recieved a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.processmanager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.SilverpeasRuntimeException;
+import org.silverpeas.core.contribution.content.form.DataRecord;
+import org.silverpeas.core.workflow.api.WorkflowException;
+import org.silverpeas.core.workflow.api.instance.ProcessInstance;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@EnableSilverTestEnv
+class ProcessInstanceRowListTest {
+
+  private static final String ROLE = "supervisor";
+  private static final String LANG = "en";
+
+  private final List<ProcessInstance> instances = new ArrayList<>();
+  private final List<DataRecord> rows = new ArrayList<>();
+
+  @BeforeEach
+  void setup() throws WorkflowException {
+    for (int i = 0; i < 5; i++) {
+      ProcessInstance instance = mock(ProcessInstance.class);
+      DataRecord row = mock(DataRecord.class);
+      when(instance.getRowDataRecord(ROLE, LANG)).thenReturn(row);
+      instances.add(instance);
+      rows.add(row);
+    }
+  }
+
+  @Test
+  void noRowIsBuiltAtTheCreationOfTheList() throws WorkflowException {
+    ProcessInstanceRowList list = new ProcessInstanceRowList(instances, ROLE, LANG);
+    assertThat(list.size(), is(5));
+    for (ProcessInstance instance : instances) {
+      verify(instance, never()).getRowDataRecord(anyString(), anyString());
+    }
+  }
+
+  @Test
+  void onlyTheGotRowsAreBuiltAndOnlyOnce() throws WorkflowException {
+    ProcessInstanceRowList list = new ProcessInstanceRowList(instances, ROLE, LANG);
+    // a page of two rows
+    assertThat(list.get(2), sameInstance(rows.get(2)));
+    assertThat(list.get(3), sameInstance(rows.get(3)));
+    assertThat(list.get(2), sameInstance(rows.get(2)));
+
+    verify(instances.get(2), times(1)).getRowDataRecord(ROLE, LANG);
+    verify(instances.get(3), times(1)).getRowDataRecord(ROLE, LANG);
+    verify(instances.get(0), never()).getRowDataRecord(anyString(), anyString());
+    verify(instances.get(4), never()).getRowDataRecord(anyString(), anyString());
+  }
+
+  @Test
+  void aPeekedRowIsNotKept() throws WorkflowException {
+    ProcessInstanceRowList list = new ProcessInstanceRowList(instances, ROLE, LANG);
+    assertThat(list.peek(1), sameInstance(rows.get(1)));
+    assertThat(list.peek(1), sameInstance(rows.get(1)));
+    verify(instances.get(1), times(2)).getRowDataRecord(ROLE, LANG);
+
+    list.get(1);
+    list.peek(1);
+    verify(instances.get(1), times(3)).getRowDataRecord(ROLE, LANG);
+  }
+
+  @Test
+  void theRowsGivenAtTheCreationAreNotBuiltAgain() throws WorkflowException {
+    List<DataRecord> builtRows = Arrays.asList(rows.get(0), null, rows.get(2), null, null);
+    ProcessInstanceRowList list = new ProcessInstanceRowList(instances, builtRows, ROLE, LANG);
+    assertThat(list.get(0), sameInstance(rows.get(0)));
+    assertThat(list.get(1), sameInstance(rows.get(1)));
+    verify(instances.get(0), never()).getRowDataRecord(anyString(), anyString());
+    verify(instances.get(1), times(1)).getRowDataRecord(ROLE, LANG);
+  }
+
+  @Test
+  void aRowThatCannotBeBuiltIsAnError() throws WorkflowException {
+    when(instances.get(4).getRowDataRecord(ROLE, LANG)).thenThrow(WorkflowException.class);
+    ProcessInstanceRowList list = new ProcessInstanceRowList(instances, ROLE, LANG);
+    assertThrows(SilverpeasRuntimeException.class, () -> list.get(4));
+  }
+}
@@ -23,6 +23,7 @@
  */
 package org.silverpeas.processmanager;
 
+import org.silverpeas.components.commons.export.CSVLineWriter;
 import org.silverpeas.core.SilverpeasRuntimeException;
 import org.silverpeas.core.admin.user.model.Group;
 import org.silverpeas.core.admin.user.model.UserDetail;
@@ -45,9 +46,7 @@ import org.silverpeas.core.util.DateUtil;
 import org.silverpeas.core.util.MapUtil;
 import org.silverpeas.core.util.Mutable;
 import org.silverpeas.core.util.StringUtil;
-import org.silverpeas.core.util.csv.CSVRow;
 import org.silverpeas.core.util.logging.SilverLogger;
-import org.silverpeas.core.web.export.ExportCSVBuilder;
 import org.silverpeas.core.web.mvc.controller.AbstractComponentSessionController;
 import org.silverpeas.core.web.mvc.controller.ComponentContext;
 import org.silverpeas.core.web.mvc.controller.MainSessionController;
@@ -85,6 +84,8 @@ import org.silverpeas.processmanager.record.QuestionTemplate;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.Writer;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.function.Function;
@@ -1053,6 +1054,7 @@ public class ProcessManagerSessionController extends AbstractComponentSessionCon
         Workflow.getWorkflowEngine().process((TaskSavedEvent) event);
       } else {
         Workflow.getWorkflowEngine().process((TaskDoneEvent) event);
+        pendingInstanceId = event.getProcessInstance().getInstanceId();
         feedbackUser("processManager.createProcess.feedback");
       }
 
@@ -1073,15 +1075,61 @@ public class ProcessManagerSessionController extends AbstractComponentSessionCon
     MessageNotifier.addSuccess(getString(key)).setDisplayLiveTime(10000);
   }
 
+  /**
+   * Waits the last action done by the user is applied by the workflow engine. The engine locks
+   * the process instance in the name of the user while it applies the action, so the instance is
+   * polled until this lock is released, but never longer than the refresh delay. The locks held
+   * by other users are ignored as they aren't related to the action.
+   */
   private void doAPause() {
-    int duration = getSettings().getInteger("refresh.delay", 1000);
-    if (duration > 0) {
-      try {
-        Thread.sleep(duration);
-      } catch (InterruptedException ie) {
-        SilverLogger.getLogger(this).error(ie.getLocalizedMessage(), ie);
-        Thread.currentThread().interrupt();
+    final String instanceId = pendingInstanceId;
+    pendingInstanceId = null;
+    final int duration = getSettings().getInteger("refresh.delay", 1000);
+    if (instanceId == null || duration <= 0) {
+      return;
+    }
+    final int interval = Math.max(1, getSettings().getInteger("refresh.interval", 50));
+    final long deadline = System.currentTimeMillis() + duration;
+    try {
+      while (isBeingProcessed(instanceId)) {
+        final long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+          SilverLogger.getLogger(this)
+              .warn("Process instance {0} still being processed after {1} ms", instanceId,
+                  duration);
+          return;
+        }
+        Thread.sleep(Math.min(interval, remaining));
+      }
+    } catch (InterruptedException ie) {
+      SilverLogger.getLogger(this).error(ie.getLocalizedMessage(), ie);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private boolean isBeingProcessed(final String instanceId) {
+    try {
+      final ProcessInstance instance =
+          Workflow.getProcessInstanceManager().getProcessInstance(instanceId);
+      final String userId = getActiveUser().getUserId();
+      final String[] activeStates = instance.getActiveStates();
+      final List<String> states = activeStates != null ? asList(activeStates) : new ArrayList<>(1);
+      // special case : instance in creation step
+      states.add("");
+      for (final String stateName : states) {
+        // only the lock put by the engine for the action of the user matters: the locks of the
+        // other users and the one of a draft saved by the user aren't released by this action
+        final LockingUser lockingUser = instance.getLockingUser(stateName);
+        if (lockingUser != null && userId.equals(lockingUser.getUserId()) &&
+            instance.getSavedStep(userId) == null) {
+          return true;
+        }
       }
+      return false;
+    } catch (WorkflowException e) {
+      // the instance has been removed meanwhile
+      SilverLogger.getLogger(this).silent(e);
+      return false;
     }
   }
 
@@ -1227,6 +1275,7 @@ public class ProcessManagerSessionController extends AbstractComponentSessionCon
         event.setResumingAction(this.isResumingInstance);
         setSubstituteToEvent(event);
         Workflow.getWorkflowEngine().process(event);
+        pendingInstanceId = currentProcessInstance.getInstanceId();
         feedbackUser("processManager.action.feedback");
       }
     } catch (WorkflowException e) {
@@ -1837,120 +1886,106 @@ public class ProcessManagerSessionController extends AbstractComponentSessionCon
     return viewReturn;
   }
 
-  public ExportCSVBuilder exportListAsCSV() throws ProcessManagerException {
-    String fieldsToExport = getComponentParameterValue("fieldsToExport");
-    ExportCSVBuilder csvBuilder;
-    if (isDefined(fieldsToExport)) {
-      csvBuilder = exportDefinedItemsAsCSV();
-    } else {
-      csvBuilder = exportAllFolderAsCSV();
-    }
-    return csvBuilder;
-  }
-
-  private ExportCSVBuilder exportAllFolderAsCSV() throws ProcessManagerException {
+  /**
+   * Writes the current process instance list as CSV into the specified output. The lines are
+   * written as soon as they are computed and the row records are built one at a time, so the
+   * memory used by the export doesn't depend on the count of instances.
+   * @param output the output into which the CSV is written.
+   * @throws ProcessManagerException if the fields to export cannot be got.
+   * @throws IOException if an error occurs while writing the CSV.
+   */
+  public void exportListAsCSV(Writer output) throws ProcessManagerException, IOException {
     try {
       Item[] items = getFolderItems();
       RecordTemplate listHeaders = getProcessListHeaders();
       FieldTemplate[] headers = listHeaders.getFieldTemplates();
-
-      List<String> csvCols = getCSVCols();
-
-      ExportCSVBuilder csvBuilder = new ExportCSVBuilder();
+      String fieldsToExport = getComponentParameterValue("fieldsToExport");
+      List<String> csvCols;
+      if (isDefined(fieldsToExport)) {
+        csvCols = getDefinedCSVCols(items, fieldsToExport);
+      } else {
+        csvCols = getCSVCols();
+      }
       boolean processIdVisible = isProcessIdVisible();
 
-      setProcessHeaderToCSVBuilder(csvBuilder, items, processIdVisible, csvCols, headers);
+      CSVLineWriter csv = new CSVLineWriter(output);
+      csv.writeLine(getProcessCSVHeader(items, processIdVisible, csvCols, headers));
 
-      setProcessListToCSVBuilder(csvBuilder, items, processIdVisible, csvCols);
-
-      return csvBuilder;
+      writeProcessListAsCSV(csv, items, processIdVisible, csvCols);
+      csv.flush();
     } catch (FormException e) {
-      SilverLogger.getLogger(this).error(e.getLocalizedMessage(), e);
-      return null;
+      throw new ProcessManagerException(PROCESS_MANAGER_SESSION_CONTROLLER,
+          "processManager.EXPORT_CSV_FAILED", e);
     }
   }
 
-  private ExportCSVBuilder exportDefinedItemsAsCSV() throws ProcessManagerException {
-    try {
-      Item[] items = getFolderItems();
-      RecordTemplate listHeaders = getProcessListHeaders();
-      FieldTemplate[] headers = listHeaders.getFieldTemplates();
-      String fieldsToExport = getComponentParameterValue("fieldsToExport");
-
-      List<String> csvCols = new ArrayList<>();
-      StringTokenizer tokenizer = new StringTokenizer(fieldsToExport, ";");
-      while (tokenizer.hasMoreTokens()) {
-        String fieldName = tokenizer.nextToken();
-        ItemImpl item = (ItemImpl) getItemByName(items, fieldName);
-        if (item != null) {
-          csvCols.add(fieldName);
-        }
+  private List<String> getDefinedCSVCols(Item[] items, String fieldsToExport) {
+    List<String> csvCols = new ArrayList<>();
+    StringTokenizer tokenizer = new StringTokenizer(fieldsToExport, ";");
+    while (tokenizer.hasMoreTokens()) {
+      String fieldName = tokenizer.nextToken();
+      ItemImpl item = (ItemImpl) getItemByName(items, fieldName);
+      if (item != null) {
+        csvCols.add(fieldName);
       }
-
-      ExportCSVBuilder csvBuilder = new ExportCSVBuilder();
-      boolean processIdVisible = isProcessIdVisible();
-
-      setProcessHeaderToCSVBuilder(csvBuilder, items, processIdVisible, csvCols, headers);
-
-      setProcessListToCSVBuilder(csvBuilder, items, processIdVisible, csvCols);
-
-      return csvBuilder;
-    } catch (FormException e) {
-      SilverLogger.getLogger(this).error(e.getLocalizedMessage(), e);
-      return null;
     }
+    return csvCols;
   }
 
-  private void setProcessHeaderToCSVBuilder(ExportCSVBuilder csvBuilder, Item[] items,
-      boolean isProcessIdVisible, List<String> csvCols, FieldTemplate[] headers) {
-    CSVRow csvHeader = new CSVRow();
+  private List<String> getProcessCSVHeader(Item[] items, boolean isProcessIdVisible,
+      List<String> csvCols, FieldTemplate[] headers) {
+    List<String> csvHeader = new ArrayList<>(csvCols.size() + 4);
 
     if (isProcessIdVisible) {
-      csvHeader.addCell("#");
+      csvHeader.add("#");
     }
 
-    csvHeader.addCell("<>");
+    csvHeader.add("<>");
 
     // add title column
-    csvHeader.addCell(headers[0].getLabel(getLanguage()));
+    csvHeader.add(headers[0].getLabel(getLanguage()));
 
     // add state column
-    csvHeader.addCell(headers[1].getLabel(getLanguage()));
+    csvHeader.add(headers[1].getLabel(getLanguage()));
 
     for (String csvCol : csvCols) {
       ItemImpl item = (ItemImpl) getItemByName(items, csvCol);
       if (item != null) {
-        csvHeader.addCell(item.getLabel(getCurrentRole(), getLanguage()));
+        csvHeader.add(item.getLabel(getCurrentRole(), getLanguage()));
       }
     }
-    csvBuilder.setHeader(csvHeader);
+    return csvHeader;
   }
 
-  private void setProcessListToCSVBuilder(ExportCSVBuilder csvBuilder, Item[] items,
-      boolean isProcessIdVisible, List<String> csvCols) throws ProcessManagerException {
+  private void writeProcessListAsCSV(CSVLineWriter csv, Item[] items, boolean isProcessIdVisible,
+      List<String> csvCols) throws ProcessManagerException, IOException {
     List<DataRecord> processList = getCurrentProcessList();
-    for (final DataRecord aProcessList : processList) {
-      ProcessInstanceRowRecord instance = (ProcessInstanceRowRecord) aProcessList;
+    for (int i = 0; i < processList.size(); i++) {
+      // the rows aren't kept in the current list: only the displayed ones have to be
+      ProcessInstanceRowRecord instance = (ProcessInstanceRowRecord) (processList instanceof
+          ProcessInstanceRowList ? ((ProcessInstanceRowList) processList).peek(i) :
+          processList.get(i));
       if (instance != null) {
         try {
-          CSVRow csvRow = new CSVRow();
+          List<String> csvRow = new ArrayList<>(csvCols.size() + 4);
           if (isProcessIdVisible) {
-            csvRow.addCell(instance.getId());
+            csvRow.add(instance.getId());
           }
 
           // add internal status
-          csvRow.addCell(getLabelOfProcessInternalStatus(instance));
+          csvRow.add(getLabelOfProcessInternalStatus(instance));
 
           // add title
-          csvRow.addCell(instance.getField(0).getValue(getLanguage()));
+          csvRow.add(instance.getField(0).getValue(getLanguage()));
 
           // add state
-          csvRow.addCell(instance.getField(1).getValue(getLanguage()));
+          csvRow.add(instance.getField(1).getValue(getLanguage()));
 
+          ProcessInstance fullInstance = instance.getFullProcessInstance();
           for (String csvCol : csvCols) {
-            csvRow.addCell(getComputedFieldValue(csvCol, instance, items));
+            csvRow.add(getComputedFieldValue(csvCol, instance, fullInstance, items));
           }
-          csvBuilder.addLine(csvRow);
+          csv.writeLine(csvRow);
         } catch (FormException e) {
           SilverLogger.getLogger(this).error(e.getLocalizedMessage(), e);
         }
@@ -1959,11 +1994,11 @@ public class ProcessManagerSessionController extends AbstractComponentSessionCon
   }
 
   private String getComputedFieldValue(String fieldName, ProcessInstanceRowRecord instance,
-      Item[] items) {
+      ProcessInstance fullInstance, Item[] items) {
     if (fieldName.startsWith("${")) {
       return DataRecordUtil.applySubstitution(fieldName, instance, "fr");
     }
-    return getFieldValue(instance, items, fieldName);
+    return getFieldValue(fullInstance, items, fieldName);
   }
 
   private String getLabelOfProcessInternalStatus(ProcessInstanceRowRecord instance) {
@@ -1993,10 +2028,10 @@ public class ProcessManagerSessionController extends AbstractComponentSessionCon
     }
   }
 
-  private String getFieldValue(ProcessInstanceRowRecord instance, Item[] items, String fieldName) {
+  private String getFieldValue(ProcessInstance instance, Item[] items, String fieldName) {
     String fieldString;
     try {
-      Field field = instance.getFullProcessInstance().getField(fieldName);
+      Field field = instance.getField(fieldName);
       fieldString = field.getValue(getLanguage());
       if (!isDefined(fieldString) || !field.getTypeName().equals(DateField.TYPE)) {
         ItemImpl item = (ItemImpl) getItemByName(items, fieldName);
@@ -2281,6 +2316,10 @@ public class ProcessManagerSessionController extends AbstractComponentSessionCon
    * The session saves a current process instance list.
    */
   private List<DataRecord> currentProcessList = null;
+  /**
+   * The process instance on which the last action of the user is applied by the workflow engine.
+   */
+  private String pendingInstanceId = null;
   /**
    * The user settings
    */
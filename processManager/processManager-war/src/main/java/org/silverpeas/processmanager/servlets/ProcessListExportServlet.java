@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have recieved a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.processmanager.servlets;
+
+import org.silverpeas.components.commons.export.StreamedExport;
+import org.silverpeas.components.commons.export.StreamedExportServlet;
+import org.silverpeas.core.web.http.HttpRequest;
+import org.silverpeas.processmanager.ProcessManagerSessionController;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Downloads the current process instance list of the user as a CSV file. As for the function
+ * handlers of the request router, the download is refused when an action is being processed in
+ * another window of the same session.
+ */
+public class ProcessListExportServlet extends StreamedExportServlet {
+
+  private static final long serialVersionUID = 3307719471856530265L;
+
+  @Override
+  protected StreamedExport getExport(String componentId, HttpServletRequest req,
+      HttpServletResponse res) throws ServletException, IOException {
+    ProcessManagerSessionController session = (ProcessManagerSessionController) req.getSession()
+        .getAttribute("Silverpeas_processManager_" + componentId);
+    if (session == null || !session.isCSVExportEnabled()) {
+      throwHttpForbiddenError();
+    }
+    if (!SessionSafeFunctionHandler.checkTokenId(session, session.getCurrentTokenId(),
+        HttpRequest.decorate(req), null)) {
+      req.getRequestDispatcher(SessionSafeFunctionHandler.MULTI_WINDOW_DETECTED)
+          .forward(req, res);
+      return null;
+    }
+    return StreamedExport.csv(componentId + ".csv", session::exportListAsCSV);
+  }
+}
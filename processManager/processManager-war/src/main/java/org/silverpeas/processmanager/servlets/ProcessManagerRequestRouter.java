@@ -37,7 +37,6 @@ import org.silverpeas.core.util.CollectionUtil;
 import org.silverpeas.core.util.JSONCodec;
 import org.silverpeas.core.util.StringUtil;
 import org.silverpeas.core.util.file.FileUploadUtil;
-import org.silverpeas.core.web.export.ExportCSVBuilder;
 import org.silverpeas.core.web.http.HttpRequest;
 import org.silverpeas.core.web.mvc.controller.ComponentContext;
 import org.silverpeas.core.web.mvc.controller.MainSessionController;
@@ -916,15 +915,6 @@ public class ProcessManagerRequestRouter
     request.setAttribute("data", data);
   }
 
-  private static FunctionHandler exportCSVHandler = new SessionSafeFunctionHandler() {
-    protected String computeDestination(String function, ProcessManagerSessionController session,
-        HttpServletRequest request, List<FileItem> items) throws ProcessManagerException {
-      ExportCSVBuilder csvBuilder = session.exportListAsCSV();
-
-      return csvBuilder.setupRequest(HttpRequest.decorate(request));
-    }
-  };
-
   /**
    * Inits the function handler
    */
@@ -959,7 +949,6 @@ public class ProcessManagerRequestRouter
     handlerMap.put("searchResult.jsp", searchResultHandler);
     handlerMap.put("searchResult", searchResultHandler);
     handlerMap.put("attachmentManager", attachmentManagerHandler);
-    handlerMap.put("exportCSV", exportCSVHandler);
     handlerMap.put("adminRemoveProcess", adminRemoveProcessHandler);
     handlerMap.put("adminViewErrors", adminViewErrorsHandler);
     handlerMap.put("adminReAssign", adminReAssignHandler);
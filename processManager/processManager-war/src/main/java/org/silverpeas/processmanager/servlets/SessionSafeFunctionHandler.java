@@ -48,6 +48,7 @@ public abstract class SessionSafeFunctionHandler implements FunctionHandler {
 
   private static final String PROCESS_MANAGERTOKEN_ID = "processManagertokenId";
   private static final String CANCEL_PARAMETER = "cancel";
+  static final String MULTI_WINDOW_DETECTED = "/processManager/jsp/multiWindowDetected.jsp";
 
   @Override
   public final String getDestination(String function, ProcessManagerSessionController session,
@@ -73,7 +74,7 @@ public abstract class SessionSafeFunctionHandler implements FunctionHandler {
 
     // if multiple windows within the same session, user is redirected to an explicit error page
     if (!checkTokenId(session, currentTokenId, request, items)) {
-      return "/processManager/jsp/multiWindowDetected.jsp";
+      return MULTI_WINDOW_DETECTED;
     }
 
     // No weird usage detected, let's the handler do its stuff.
@@ -86,10 +87,11 @@ public abstract class SessionSafeFunctionHandler implements FunctionHandler {
    * @param session ProcessManager Session Controller
    * @param currentTokenId the current token Id to compare to parameter's value
    * @param request the HTTP request
-   * @param items FileItems list to be completed if request is multipart
+   * @param items FileItems list to be completed if request is multipart, null if the request is
+   * served outside the request router
    * @return false is parameter is not present or different from given token id
    */
-  private boolean checkTokenId(ProcessManagerSessionController session, String currentTokenId,
+  static boolean checkTokenId(ProcessManagerSessionController session, String currentTokenId,
       HttpRequest request, List<FileItem> items) {
 
     String givenTokenId;
@@ -113,7 +115,7 @@ public abstract class SessionSafeFunctionHandler implements FunctionHandler {
     }
 
     if (isCancellation) {
-      resetTokenId(session, request);
+      clearTokenId(session, request);
     }
 
     return doVerifications(currentTokenId, givenTokenId, isCancellation);
@@ -161,7 +163,7 @@ public abstract class SessionSafeFunctionHandler implements FunctionHandler {
    * @param isCancellation is cancellation
    * @return
    */
-  private boolean doVerifications(String currentTokenId, String givenTokenId,
+  private static boolean doVerifications(String currentTokenId, String givenTokenId,
       boolean isCancellation) {
     // CASE 1 : user cancels a current action (from action's form)
     if (isCancellation) {
@@ -171,7 +173,7 @@ public abstract class SessionSafeFunctionHandler implements FunctionHandler {
       // CASE 2 : an action is being processed, user open another window and try to access same
       // workflow
       if (!StringUtil.isDefined(givenTokenId)) {
-        SilverLogger.getLogger(this)
+        SilverLogger.getLogger(SessionSafeFunctionHandler.class)
             .error("Provided token empty! " +
                 "CASE 2: an action is being processed, user open another window and try to access" +
                 " same workflow");
@@ -188,7 +190,7 @@ public abstract class SessionSafeFunctionHandler implements FunctionHandler {
         // then user open a instance procedure from same workflow
         // and at least try submit action form from the first window
         else {
-          SilverLogger.getLogger(this)
+          SilverLogger.getLogger(SessionSafeFunctionHandler.class)
               .error("Bad token " + givenTokenId +
                   "CASE 4: an action is being processed, user open another window and logged in");
           return false;
@@ -198,7 +200,7 @@ public abstract class SessionSafeFunctionHandler implements FunctionHandler {
       // CASE 5 : an action is being processed, user open another window and logged in =>
       // previous Silverpeas session data is lost then try submit action form from the first window
       if (StringUtil.isDefined(givenTokenId)) {
-        SilverLogger.getLogger(this)
+        SilverLogger.getLogger(SessionSafeFunctionHandler.class)
             .error("No current token" +
                 "CASE 5: an action is being processed, user open another window and logged in");
         return false;
@@ -231,6 +233,11 @@ public abstract class SessionSafeFunctionHandler implements FunctionHandler {
    * @param request the http servlet request
    */
   protected void resetTokenId(ProcessManagerSessionController session, HttpServletRequest request) {
+    clearTokenId(session, request);
+  }
+
+  private static void clearTokenId(ProcessManagerSessionController session,
+      HttpServletRequest request) {
     session.setCurrentTokenId(null);
     request.removeAttribute("currentTokenId");
   }
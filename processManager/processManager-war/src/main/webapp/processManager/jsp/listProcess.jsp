@@ -198,7 +198,10 @@
     <fmt:message key="processManager.csvExport" var="opIcon" bundle="${icons}"/>
     <c:url var="opIcon" value="${opIcon}"/>
     <view:operationSeparator/>
-    <view:operation action="javascript:sp.preparedDownloadRequest('exportCSV').download()" altText="${csvExportLabel}" icon="${opIcon}"/>
+    <c:url var="exportCSVUrl" value="/ProcessListExport/${componentId}">
+      <c:param name="ComponentId" value="${componentId}"/>
+    </c:url>
+    <view:operation action="javascript:window.location.href='${exportCSVUrl}'" altText="${csvExportLabel}" icon="${opIcon}"/>
   </c:if>
 </view:operationPane>
 <view:window>
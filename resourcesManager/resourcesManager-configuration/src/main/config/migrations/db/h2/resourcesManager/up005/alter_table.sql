@@ -0,0 +1,4 @@
+ALTER TABLE SC_Resources_Reservation ADD COLUMN begintime BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE SC_Resources_Reservation ADD COLUMN endtime BIGINT DEFAULT 0 NOT NULL;
+
+UPDATE SC_Resources_Reservation SET begintime = CAST(begindate AS BIGINT), endtime = CAST(enddate AS BIGINT);
@@ -0,0 +1,2 @@
+CREATE INDEX Resources_ReservationTime
+ON SC_Resources_Reservation (instanceId, begintime, endtime);
@@ -40,6 +40,8 @@ CREATE TABLE SC_Resources_Reservation
 	updatedate 		VARCHAR(20) NOT NULL,
 	begindate 		VARCHAR(20) NOT NULL,
 	enddate 		VARCHAR(20) NOT NULL,
+	begintime 		BIGINT NOT NULL,
+	endtime 		BIGINT NOT NULL,
 	reason			VARCHAR(2000),
 	place 			VARCHAR(128),
     status          VARCHAR(50) NULL
@@ -0,0 +1,4 @@
+ALTER TABLE SC_Resources_Reservation ADD begintime BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE SC_Resources_Reservation ADD endtime BIGINT NOT NULL DEFAULT 0;
+
+UPDATE SC_Resources_Reservation SET begintime = CAST(begindate AS BIGINT), endtime = CAST(enddate AS BIGINT);
@@ -40,6 +40,8 @@ CREATE TABLE sc_resources_reservation
 	updatedate 		VARCHAR(20) NOT NULL,
 	begindate 		VARCHAR(20) NOT NULL,
 	enddate 		VARCHAR(20) NOT NULL,
+	begintime 		NUMBER(19, 0) NOT NULL,
+	endtime 		NUMBER(19, 0) NOT NULL,
 	reason			VARCHAR(2000),
 	place 			VARCHAR(128),
     status		    VARCHAR(50)
@@ -0,0 +1,4 @@
+ALTER TABLE sc_resources_reservation ADD (begintime NUMBER(19, 0) DEFAULT 0 NOT NULL);
+ALTER TABLE sc_resources_reservation ADD (endtime NUMBER(19, 0) DEFAULT 0 NOT NULL);
+
+UPDATE sc_resources_reservation SET begintime = TO_NUMBER(begindate), endtime = TO_NUMBER(enddate);
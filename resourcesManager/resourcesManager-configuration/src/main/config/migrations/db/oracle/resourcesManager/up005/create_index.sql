@@ -0,0 +1,2 @@
+CREATE INDEX Resources_ReservationTime
+ON sc_resources_reservation (instanceId, begintime, endtime);
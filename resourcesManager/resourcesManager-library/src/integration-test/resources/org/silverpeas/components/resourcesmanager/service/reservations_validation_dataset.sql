@@ -52,21 +52,21 @@ INSERT INTO sc_resources_managers (resourceid, managerid) VALUES (3, 9);
 INSERT INTO sc_resources_managers (resourceid, managerid) VALUES (5, 3);
 
 /* The reservations */
-INSERT INTO sc_resources_reservation (id, instanceId, evenement, userId, creationDate, updateDate, beginDate, endDate, reason, place, status)
+INSERT INTO sc_resources_reservation (id, instanceId, evenement, userId, creationDate, updateDate, beginDate, endDate, beginTime, endTime, reason, place, status)
 VALUES (3, 'resourcesManager42', 'Test de la Toussaint', 2, '1319811924467', '1319811924467',
-           '1320134400000', '1320163200000', 'To test', 'at work', 'test');
+           '1320134400000', '1320163200000', 1320134400000, 1320163200000, 'To test', 'at work', 'test');
 
-INSERT INTO sc_resources_reservation (id, instanceId, evenement, userId, creationDate, updateDate, beginDate, endDate, reason, place, status)
+INSERT INTO sc_resources_reservation (id, instanceId, evenement, userId, creationDate, updateDate, beginDate, endDate, beginTime, endTime, reason, place, status)
 VALUES (4, 'resourcesManager42', 'Test réservation 20/12/2011', 9, '1320225012008', '1320225012008',
-           '1324368000000', '1324375200000', 'To test a reservzation', 'at work', 'A');
+           '1324368000000', '1324375200000', 1324368000000, 1324375200000, 'To test a reservzation', 'at work', 'A');
 
-INSERT INTO sc_resources_reservation (id, instanceId, evenement, userId, creationDate, updateDate, beginDate, endDate, reason, place, status)
+INSERT INTO sc_resources_reservation (id, instanceId, evenement, userId, creationDate, updateDate, beginDate, endDate, beginTime, endTime, reason, place, status)
 VALUES (5, 'resourcesManager42', 'Test réservation validée 20/12/2011', 2, '1319811924467', '1319811924467',
-           '1324368000000', '1324375200000', 'To test a reservzation validated', 'at work', 'V');
+           '1324368000000', '1324375200000', 1324368000000, 1324375200000, 'To test a reservzation validated', 'at work', 'V');
 
-INSERT INTO sc_resources_reservation (id, instanceId, evenement, userId, creationDate, updateDate, beginDate, endDate, reason, place, status)
+INSERT INTO sc_resources_reservation (id, instanceId, evenement, userId, creationDate, updateDate, beginDate, endDate, beginTime, endTime, reason, place, status)
 VALUES (6, 'resourcesManager42', 'Test réservation refusée 20/12/2011', 2, '1319811924467', '1319811924467',
-           '1324375200000', '1324382400000', 'To test a reservzation refused', 'at work', 'R');
+           '1324375200000', '1324382400000', 1324375200000, 1324382400000, 'To test a reservzation refused', 'at work', 'R');
 
 
 /* The resources reserved in the reservations */
@@ -29,6 +29,7 @@ import org.silverpeas.components.resourcesmanager.repository.CategoryRepository;
 import org.silverpeas.components.resourcesmanager.repository.ReservationRepository;
 import org.silverpeas.components.resourcesmanager.repository.ReservedResourceRepository;
 import org.silverpeas.components.resourcesmanager.repository.ResourceValidatorRepository;
+import org.silverpeas.components.resourcesmanager.service.ResourceAvailabilityIndex;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -52,6 +53,8 @@ public class ResourcesManagerInstancePreDestruction implements ComponentInstance
   private ResourceRepository resourceRepository;
   @Inject
   private ResourceValidatorRepository resourceValidatorRepository;
+  @Inject
+  private ResourceAvailabilityIndex availabilityIndex;
 
   /**
    * Performs pre destruction tasks in the behalf of the specified ResourcesManager instance.
@@ -65,5 +68,6 @@ public class ResourcesManagerInstancePreDestruction implements ComponentInstance
     resourceValidatorRepository.deleteByComponentInstanceId(componentInstanceId);
     resourceRepository.deleteByComponentInstanceId(componentInstanceId);
     categoryRepository.deleteByComponentInstanceId(componentInstanceId);
+    availabilityIndex.invalidate(componentInstanceId);
   }
 }
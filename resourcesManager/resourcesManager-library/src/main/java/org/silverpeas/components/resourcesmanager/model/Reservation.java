@@ -37,11 +37,11 @@ import java.util.Date;
 @NamedQueries({@NamedQuery(name = "reservation.findAllReservationsInRange",
     query = "SELECT reservation FROM Reservation reservation " +
         "WHERE reservation.instanceId = :instanceId " +
-        "AND reservation.beginDate < :endPeriod  AND reservation.endDate > :startPeriod "),
+        "AND reservation.beginTime < :endPeriod  AND reservation.endTime > :startPeriod "),
     @NamedQuery(name = "reservation.findAllReservationsForUserInRange",
         query = "SELECT reservation FROM Reservation reservation " +
             "WHERE reservation.instanceId = :instanceId AND reservation.userId= :userId " +
-            "AND reservation.beginDate < :endPeriod AND reservation.endDate > :startPeriod "),
+            "AND reservation.beginTime < :endPeriod AND reservation.endTime > :startPeriod "),
     @NamedQuery(name = "reservation.findAllReservationsForUser",
         query = "SELECT reservation FROM Reservation reservation " +
             "WHERE reservation.instanceId = :instanceId AND reservation.userId= :userId"),
@@ -49,37 +49,37 @@ import java.util.Date;
         query = "SELECT DISTINCT reservedResource.reservation FROM ReservedResource reservedResource " +
             "JOIN reservedResource.resource.managers manager WHERE reservedResource.status = 'A' " +
             "AND manager.id.managerId = :managerId AND reservedResource.reservation.instanceId = :instanceId " +
-            "AND reservedResource.reservation.beginDate < :endPeriod " +
-            "AND reservedResource.reservation.endDate > :startPeriod "),
+            "AND reservedResource.reservation.beginTime < :endPeriod " +
+            "AND reservedResource.reservation.endTime > :startPeriod "),
     @NamedQuery(name = "reservation.findAllReservationsNotRefusedForResourceInRange",
         query = "SELECT DISTINCT reservedResource.reservation FROM ReservedResource reservedResource " +
             "WHERE reservedResource.resource.id = :resourceId AND reservedResource.status != 'R' " +
-            "AND reservedResource.reservation.beginDate < :endPeriod " +
-            "AND reservedResource.reservation.endDate > :startPeriod "),
+            "AND reservedResource.reservation.beginTime < :endPeriod " +
+            "AND reservedResource.reservation.endTime > :startPeriod "),
     @NamedQuery(name = "reservation.findAllReservationsForCategoryInRange",
         query = "SELECT DISTINCT reservedResource.reservation FROM ReservedResource reservedResource " +
             "WHERE reservedResource.resource.category.id = :categoryId " +
             "AND reservedResource.reservation.instanceId = :instanceId " +
-            "AND reservedResource.reservation.beginDate < :endPeriod " +
-            "AND reservedResource.reservation.endDate > :startPeriod "),
+            "AND reservedResource.reservation.beginTime < :endPeriod " +
+            "AND reservedResource.reservation.endTime > :startPeriod "),
     @NamedQuery(name = "reservation.findAllReservationsForUserAndCategoryInRange",
         query = "SELECT DISTINCT reservedResource.reservation FROM ReservedResource reservedResource " +
             "WHERE reservedResource.resource.category.id = :categoryId " +
             "AND reservedResource.reservation.instanceId = :instanceId AND reservedResource.reservation.userId = :userId " +
-            "AND reservedResource.reservation.beginDate < :endPeriod " +
-            "AND reservedResource.reservation.endDate > :startPeriod "),
+            "AND reservedResource.reservation.beginTime < :endPeriod " +
+            "AND reservedResource.reservation.endTime > :startPeriod "),
     @NamedQuery(name = "reservation.findAllReservationsForResourceInRange",
         query ="SELECT DISTINCT reservedResource.reservation FROM ReservedResource reservedResource " +
             "WHERE reservedResource.resource.id = :resourceId " +
             "AND reservedResource.reservation.instanceId = :instanceId " +
-            "AND reservedResource.reservation.beginDate < :endPeriod " +
-            "AND reservedResource.reservation.endDate > :startPeriod "),
+            "AND reservedResource.reservation.beginTime < :endPeriod " +
+            "AND reservedResource.reservation.endTime > :startPeriod "),
     @NamedQuery(name = "reservation.findAllReservationsForUserAndResourceInRange",
         query = "SELECT DISTINCT reservedResource.reservation FROM ReservedResource reservedResource " +
             "WHERE reservedResource.resource.id = :resourceId " +
             "AND reservedResource.reservation.instanceId = :instanceId AND reservedResource.reservation.userId = :userId " +
-            "AND reservedResource.reservation.beginDate < :endPeriod " +
-            "AND reservedResource.reservation.endDate > :startPeriod "),
+            "AND reservedResource.reservation.beginTime < :endPeriod " +
+            "AND reservedResource.reservation.endTime > :startPeriod "),
     @NamedQuery(name = "reservation.findAllReservations",
         query = "SELECT DISTINCT reservation FROM Reservation reservation WHERE reservation.instanceId = :instanceId")
 })
@@ -93,6 +93,10 @@ public class Reservation extends BasicJpaEntity<Reservation, UniqueLongIdentifie
   private String beginDate;
   @Column(length = 20, nullable = false)
   private String endDate;
+  @Column(nullable = false)
+  private long beginTime;
+  @Column(nullable = false)
+  private long endTime;
   @Column(length = 2000, nullable = true)
   private String reason;
   @Column(length = 128, nullable = true)
@@ -198,6 +202,7 @@ public class Reservation extends BasicJpaEntity<Reservation, UniqueLongIdentifie
   public void setBeginDate(Date beginDate) {
     if (beginDate != null) {
       this.beginDate = String.valueOf(beginDate.getTime());
+      this.beginTime = beginDate.getTime();
     }
   }
 
@@ -213,9 +218,26 @@ public class Reservation extends BasicJpaEntity<Reservation, UniqueLongIdentifie
   public void setEndDate(Date endDate) {
     if (endDate != null) {
       this.endDate = String.valueOf(endDate.getTime());
+      this.endTime = endDate.getTime();
     }
   }
 
+  /**
+   * Gets the begin date of the reservation as the number of milliseconds since the epoch.
+   * @return the begin time of the reservation.
+   */
+  public long getBeginTime() {
+    return beginTime;
+  }
+
+  /**
+   * Gets the end date of the reservation as the number of milliseconds since the epoch.
+   * @return the end time of the reservation.
+   */
+  public long getEndTime() {
+    return endTime;
+  }
+
   public String getEvent() {
     return event;
   }
@@ -49,15 +49,15 @@ import java.io.Serializable;
                 "WHERE reservedResource.reservation.id != :reservationIdToSkip AND " +
                 "reservedResource.status != 'R'" +
                 "AND reservedResource.resource.id.id IN :aimedResourceIds " +
-                "AND reservedResource.reservation.beginDate < :endPeriod " +
-                "AND reservedResource.reservation.endDate > :startPeriod "),
+                "AND reservedResource.reservation.beginTime < :endPeriod " +
+                "AND reservedResource.reservation.endTime > :startPeriod "),
     @NamedQuery(name = "reservedResource.findAllReservedResourcesWithProblem",
     query = "SELECT DISTINCT reservedResource FROM ReservedResource reservedResource " +
         "WHERE reservedResource.reservation.id != :currentReservationId " +
         "AND reservedResource.status != 'R'" +
         "AND reservedResource.resource.id.id IN :futureReservedResourceIds " +
-        "AND reservedResource.reservation.beginDate < :endPeriod " +
-        "AND reservedResource.reservation.endDate > :startPeriod "),
+        "AND reservedResource.reservation.beginTime < :endPeriod " +
+        "AND reservedResource.reservation.endTime > :startPeriod "),
     @NamedQuery(name = "reservedResource.findAllReservedResourcesForReservation",
         query = "SELECT DISTINCT reservedResource FROM ReservedResource reservedResource " +
             "WHERE reservedResource.reservation.id = :currentReservationId"),
@@ -71,6 +71,10 @@ import java.io.Serializable;
         query = "DELETE FROM ReservedResource reservedResource " +
             "WHERE reservedResource.reservation IN (SELECT reservation FROM Reservation " +
             "reservation WHERE reservation.instanceId = :instanceId)"),
+    @NamedQuery(name = "reservedResource.findAllNotRefusedReservedResourcesOfInstance",
+        query = "SELECT reservedResource FROM ReservedResource reservedResource " +
+            "JOIN FETCH reservedResource.reservation reservation " +
+            "WHERE reservation.instanceId = :instanceId AND reservedResource.status != 'R'"),
     @NamedQuery(name = "reservedResource.findAllReservedResourcesOfReservation",
         query = "SELECT DISTINCT reservedResource FROM ReservedResource reservedResource " +
             "WHERE reservedResource.id.reservationId = :currentReservationId")})
@@ -42,6 +42,9 @@ import java.io.Serializable;
     query = "SELECT DISTINCT resourceValidator FROM ResourceValidator resourceValidator " +
         "WHERE resourceValidator.id.managerId = :currentUserId AND " +
         "resourceValidator.id.resourceId = :resourceId"),
+    @NamedQuery(name = "resourceValidator.findAllResourceValidatorsOfResources",
+        query = "SELECT resourceValidator FROM ResourceValidator resourceValidator " +
+            "WHERE resourceValidator.id.resourceId IN :resourceIds"),
     @NamedQuery(name = "resourceValidator.deleteAllResourceValidatorsForComponentInstance",
         query = "DELETE FROM ResourceValidator resourceValidator " +
             "WHERE resourceValidator.resource IN (SELECT resource FROM Resource resource " +
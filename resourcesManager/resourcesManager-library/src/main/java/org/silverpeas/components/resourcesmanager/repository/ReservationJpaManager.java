@@ -42,8 +42,9 @@ public class ReservationJpaManager extends BasicJpaEntityRepository<Reservation>
   public List<Reservation> findAllReservationsInRange(final String instanceId,
       final String startPeriod, final String endPeriod) {
     return listFromNamedQuery("reservation.findAllReservationsInRange",
-        newNamedParameters().add("instanceId", instanceId).add("startPeriod", startPeriod)
-            .add("endPeriod", endPeriod));
+        newNamedParameters().add("instanceId", instanceId)
+            .add("startPeriod", Long.parseLong(startPeriod))
+            .add("endPeriod", Long.parseLong(endPeriod)));
   }
 
   @Override
@@ -51,7 +52,8 @@ public class ReservationJpaManager extends BasicJpaEntityRepository<Reservation>
       final Integer userId, final String startPeriod, final String endPeriod) {
     return listFromNamedQuery("reservation.findAllReservationsForUserInRange",
         newNamedParameters().add("instanceId", instanceId).add("userId", userId)
-            .add("startPeriod", startPeriod).add("endPeriod", endPeriod));
+            .add("startPeriod", Long.parseLong(startPeriod))
+            .add("endPeriod", Long.parseLong(endPeriod)));
   }
 
   @Override
@@ -66,7 +68,8 @@ public class ReservationJpaManager extends BasicJpaEntityRepository<Reservation>
       final Long managerId, final String startPeriod, final String endPeriod) {
     return listFromNamedQuery("reservation.findAllReservationsForValidation",
         newNamedParameters().add("instanceId", instanceId).add("managerId", managerId)
-            .add("startPeriod", startPeriod).add("endPeriod", endPeriod));
+            .add("startPeriod", Long.parseLong(startPeriod))
+            .add("endPeriod", Long.parseLong(endPeriod)));
   }
 
   @Override
@@ -74,7 +77,8 @@ public class ReservationJpaManager extends BasicJpaEntityRepository<Reservation>
       final String startPeriod, final String endPeriod) {
     return listFromNamedQuery("reservation.findAllReservationsNotRefusedForResourceInRange",
         newNamedParameters().add("resourceId", UniqueLongIdentifier.from(resourceId))
-            .add("startPeriod", startPeriod).add("endPeriod", endPeriod));
+            .add("startPeriod", Long.parseLong(startPeriod))
+            .add("endPeriod", Long.parseLong(endPeriod)));
   }
 
   @Override
@@ -83,7 +87,8 @@ public class ReservationJpaManager extends BasicJpaEntityRepository<Reservation>
     return listFromNamedQuery("reservation.findAllReservationsForCategoryInRange",
         newNamedParameters().add("instanceId", instanceId)
             .add("categoryId", UniqueLongIdentifier.from(categoryId))
-            .add("startPeriod", startPeriod).add("endPeriod", endPeriod));
+            .add("startPeriod", Long.parseLong(startPeriod))
+            .add("endPeriod", Long.parseLong(endPeriod)));
   }
 
   @Override
@@ -93,7 +98,8 @@ public class ReservationJpaManager extends BasicJpaEntityRepository<Reservation>
     return listFromNamedQuery("reservation.findAllReservationsForUserAndCategoryInRange",
         newNamedParameters().add("instanceId", instanceId).add("userId", userId)
             .add("categoryId", UniqueLongIdentifier.from(categoryId))
-            .add("startPeriod", startPeriod).add("endPeriod", endPeriod));
+            .add("startPeriod", Long.parseLong(startPeriod))
+            .add("endPeriod", Long.parseLong(endPeriod)));
   }
 
   @Override
@@ -102,7 +108,8 @@ public class ReservationJpaManager extends BasicJpaEntityRepository<Reservation>
     return listFromNamedQuery("reservation.findAllReservationsForResourceInRange",
         newNamedParameters().add("instanceId", instanceId)
             .add("resourceId", UniqueLongIdentifier.from(resourceId))
-            .add("startPeriod", startPeriod).add("endPeriod", endPeriod));
+            .add("startPeriod", Long.parseLong(startPeriod))
+            .add("endPeriod", Long.parseLong(endPeriod)));
   }
 
   @Override
@@ -112,7 +119,8 @@ public class ReservationJpaManager extends BasicJpaEntityRepository<Reservation>
     return listFromNamedQuery("reservation.findAllReservationsForUserAndResourceInRange",
         newNamedParameters().add("instanceId", instanceId).add("userId", userId)
             .add("resourceId", UniqueLongIdentifier.from(resourceId))
-            .add("startPeriod", startPeriod).add("endPeriod", endPeriod));
+            .add("startPeriod", Long.parseLong(startPeriod))
+            .add("endPeriod", Long.parseLong(endPeriod)));
   }
 
   @Override
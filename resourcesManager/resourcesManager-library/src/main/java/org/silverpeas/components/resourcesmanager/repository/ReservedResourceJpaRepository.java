@@ -44,7 +44,8 @@ public class ReservedResourceJpaRepository extends BasicJpaEntityRepository<Rese
         newNamedParameters()
             .add("currentReservationId", UniqueLongIdentifier.from(currentReservationId))
             .add("futureReservedResourceIds", futureReservedResourceIds)
-            .add("startPeriod", startPeriod).add("endPeriod", endPeriod));
+            .add("startPeriod", Long.parseLong(startPeriod))
+            .add("endPeriod", Long.parseLong(endPeriod)));
   }
 
   @Override
@@ -74,6 +75,13 @@ public class ReservedResourceJpaRepository extends BasicJpaEntityRepository<Rese
         newNamedParameters().add("currentReservationId", currentReservationId));
   }
 
+  @Override
+  public List<ReservedResource> findAllNotRefusedReservedResourcesOfInstance(
+      final String instanceId) {
+    return listFromNamedQuery("reservedResource.findAllNotRefusedReservedResourcesOfInstance",
+        newNamedParameters().add("instanceId", instanceId));
+  }
+
   /**
    * Deletes all entities belonging to the specified component instance.
    * @param instanceId the unique instance identifier.
@@ -45,4 +45,12 @@ public interface ReservedResourceRepository
   void deleteAllReservedResourcesForResource(Long currentResourceId);
 
   List<ReservedResource> findAllReservedResourcesOfReservation(Long currentReservationId);
+
+  /**
+   * Finds all the reserved resources of the given instance that aren't refused, with their
+   * reservation.
+   * @param instanceId the identifier of the ResourcesManager instance.
+   * @return a list of reserved resources.
+   */
+  List<ReservedResource> findAllNotRefusedReservedResourcesOfInstance(String instanceId);
 }
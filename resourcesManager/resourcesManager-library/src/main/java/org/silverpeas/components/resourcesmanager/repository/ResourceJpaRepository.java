@@ -60,8 +60,9 @@ public class ResourceJpaRepository extends BasicJpaEntityRepository<Resource>
       final List<Long> aimedResourceIds, final String startPeriod, final String endPeriod) {
     return listFromNamedQuery("reservedResource.findAllReservedResources", newNamedParameters()
             .add("reservationIdToSkip", UniqueLongIdentifier.from(reservationIdToSkip))
-            .add("aimedResourceIds", aimedResourceIds).add("startPeriod", startPeriod)
-            .add("endPeriod", endPeriod));
+            .add("aimedResourceIds", aimedResourceIds)
+            .add("startPeriod", Long.parseLong(startPeriod))
+            .add("endPeriod", Long.parseLong(endPeriod)));
   }
 
   @Override
@@ -28,6 +28,10 @@ import org.silverpeas.components.resourcesmanager.model.ResourceValidator;
 import org.silverpeas.core.annotation.Repository;
 import org.silverpeas.core.persistence.datasource.repository.jpa.BasicJpaEntityRepository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * @author ebonnet
  */
@@ -42,6 +46,16 @@ public class ResourceValidatorJpaRepository extends BasicJpaEntityRepository<Res
         .add("resourceId", currentResourceId).add("currentUserId", currentUserId));
   }
 
+  @Override
+  public List<ResourceValidator> findAllResourceValidatorsOfResources(
+      final Collection<Long> resourceIds) {
+    if (resourceIds.isEmpty()) {
+      return new ArrayList<>();
+    }
+    return listFromNamedQuery("resourceValidator.findAllResourceValidatorsOfResources",
+        newNamedParameters().add("resourceIds", resourceIds));
+  }
+
   /**
    * Deletes all entities belonging to the specified component instance.
    * @param instanceId the unique instance identifier.
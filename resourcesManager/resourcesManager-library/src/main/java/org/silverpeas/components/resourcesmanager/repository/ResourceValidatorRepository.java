@@ -27,6 +27,9 @@ package org.silverpeas.components.resourcesmanager.repository;
 import org.silverpeas.components.resourcesmanager.model.ResourceValidator;
 import org.silverpeas.core.persistence.datasource.repository.EntityRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * @author ebonnet
  */
@@ -35,4 +38,11 @@ public interface ResourceValidatorRepository extends EntityRepository<ResourceVa
   ResourceValidator getResourceValidator(final Long currentResourceId,
       final Long currentUserId);
 
+  /**
+   * Finds in one request the validators of all the given resources.
+   * @param resourceIds the identifiers of the resources.
+   * @return a list of the validators of the resources.
+   */
+  List<ResourceValidator> findAllResourceValidatorsOfResources(
+      final Collection<Long> resourceIds);
 }
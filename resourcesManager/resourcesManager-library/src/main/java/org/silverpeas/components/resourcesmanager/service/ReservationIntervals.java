@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.resourcesmanager.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The time intervals during which a resource is reserved. The intervals are sorted by their begin
+ * time and each node of the implicit balanced binary tree formed by the sorted array keeps the
+ * greatest end time of its subtree, so that the intervals overlapping a given period are found in
+ * O(log n + k) where k is the number of overlapping intervals.
+ * <p>
+ * An instance is immutable: adding or removing an interval returns a new instance and then the
+ * intervals can be read concurrently without any lock.
+ * </p>
+ */
+final class ReservationIntervals {
+
+  static final ReservationIntervals EMPTY =
+      new ReservationIntervals(new long[0], new long[0], new long[0]);
+
+  private final long[] begins;
+  private final long[] ends;
+  private final long[] reservationIds;
+  private final long[] maxEnds;
+
+  private ReservationIntervals(final long[] begins, final long[] ends,
+      final long[] reservationIds) {
+    this.begins = begins;
+    this.ends = ends;
+    this.reservationIds = reservationIds;
+    this.maxEnds = new long[begins.length];
+    computeMaxEnd(0, begins.length);
+  }
+
+  /**
+   * Gets the number of intervals.
+   * @return the number of reservations of the resource.
+   */
+  int size() {
+    return begins.length;
+  }
+
+  /**
+   * Gets the intervals with the given reservation: if the reservation was already in these
+   * intervals, its interval is replaced.
+   * @param reservationId the identifier of the reservation.
+   * @param begin the begin time of the reservation (inclusive).
+   * @param end the end time of the reservation (exclusive).
+   * @return the new intervals.
+   */
+  ReservationIntervals with(final long reservationId, final long begin, final long end) {
+    ReservationIntervals intervals = without(reservationId);
+    int position = intervals.positionOf(begin);
+    long[] newBegins = insert(intervals.begins, position, begin);
+    long[] newEnds = insert(intervals.ends, position, end);
+    long[] newIds = insert(intervals.reservationIds, position, reservationId);
+    return new ReservationIntervals(newBegins, newEnds, newIds);
+  }
+
+  /**
+   * Gets the intervals without the given reservation.
+   * @param reservationId the identifier of the reservation.
+   * @return the new intervals or itself if the reservation isn't in these intervals.
+   */
+  ReservationIntervals without(final long reservationId) {
+    for (int i = 0; i < reservationIds.length; i++) {
+      if (reservationIds[i] == reservationId) {
+        return new ReservationIntervals(remove(begins, i), remove(ends, i),
+            remove(reservationIds, i));
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Is there a reservation, other than the given one, overlapping the given period?
+   * @param start the start of the period (inclusive).
+   * @param end the end of the period (exclusive).
+   * @param reservationIdToSkip the identifier of a reservation to ignore.
+   * @return true if at least one reservation overlaps the period, false otherwise.
+   */
+  boolean overlaps(final long start, final long end, final long reservationIdToSkip) {
+    return overlaps(0, begins.length, start, end, reservationIdToSkip);
+  }
+
+  private boolean overlaps(final int lo, final int hi, final long start, final long end,
+      final long reservationIdToSkip) {
+    if (lo >= hi) {
+      return false;
+    }
+    int mid = (lo + hi) >>> 1;
+    if (maxEnds[mid] <= start) {
+      // no interval of this subtree ends after the start of the period
+      return false;
+    }
+    if (overlaps(lo, mid, start, end, reservationIdToSkip)) {
+      return true;
+    }
+    if (begins[mid] >= end) {
+      // this interval and those of the right subtree begin after the end of the period
+      return false;
+    }
+    if (ends[mid] > start && reservationIds[mid] != reservationIdToSkip) {
+      return true;
+    }
+    return overlaps(mid + 1, hi, start, end, reservationIdToSkip);
+  }
+
+  private long computeMaxEnd(final int lo, final int hi) {
+    if (lo >= hi) {
+      return Long.MIN_VALUE;
+    }
+    int mid = (lo + hi) >>> 1;
+    long max = Math.max(ends[mid],
+        Math.max(computeMaxEnd(lo, mid), computeMaxEnd(mid + 1, hi)));
+    maxEnds[mid] = max;
+    return max;
+  }
+
+  private int positionOf(final long begin) {
+    int position = Arrays.binarySearch(begins, begin);
+    if (position < 0) {
+      return -position - 1;
+    }
+    while (position < begins.length && begins[position] == begin) {
+      position++;
+    }
+    return position;
+  }
+
+  private static long[] insert(final long[] values, final int position, final long value) {
+    long[] newValues = new long[values.length + 1];
+    System.arraycopy(values, 0, newValues, 0, position);
+    newValues[position] = value;
+    System.arraycopy(values, position, newValues, position + 1, values.length - position);
+    return newValues;
+  }
+
+  private static long[] remove(final long[] values, final int position) {
+    long[] newValues = new long[values.length - 1];
+    System.arraycopy(values, 0, newValues, 0, position);
+    System.arraycopy(values, position + 1, newValues, position, values.length - position - 1);
+    return newValues;
+  }
+
+  /**
+   * A builder of intervals, to use when loading a lot of reservations at once.
+   */
+  static final class Builder {
+    private final List<long[]> intervals = new ArrayList<>();
+
+    Builder add(final long reservationId, final long begin, final long end) {
+      intervals.add(new long[]{begin, end, reservationId});
+      return this;
+    }
+
+    ReservationIntervals build() {
+      intervals.sort(Comparator.comparingLong(i -> i[0]));
+      int n = intervals.size();
+      long[] begins = new long[n];
+      long[] ends = new long[n];
+      long[] reservationIds = new long[n];
+      for (int i = 0; i < n; i++) {
+        long[] interval = intervals.get(i);
+        begins[i] = interval[0];
+        ends[i] = interval[1];
+        reservationIds[i] = interval[2];
+      }
+      return new ReservationIntervals(begins, ends, reservationIds);
+    }
+  }
+}
@@ -25,17 +25,20 @@ package org.silverpeas.components.resourcesmanager.service;
 
 import org.silverpeas.components.resourcesmanager.model.Reservation;
 import org.silverpeas.components.resourcesmanager.model.ReservedResource;
-import org.silverpeas.components.resourcesmanager.model.Resource;
 import org.silverpeas.components.resourcesmanager.model.ResourceStatus;
+import org.silverpeas.components.resourcesmanager.model.ResourceValidator;
 import org.silverpeas.components.resourcesmanager.repository.ReservationRepository;
 import org.silverpeas.components.resourcesmanager.repository.ReservedResourceRepository;
-import org.silverpeas.components.resourcesmanager.repository.ResourceRepository;
 import org.silverpeas.components.resourcesmanager.repository.ResourceValidatorRepository;
 import org.silverpeas.core.annotation.Service;
 
 import javax.inject.Inject;
 import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author ehugonnet
@@ -50,39 +53,62 @@ public class ReservationService {
   @Inject
   private ReservedResourceRepository reservedResourceRepository;
 
-  @Inject
-  private ResourceRepository resourceRepository;
-
   @Inject
   private ResourceValidatorRepository resourceValidatorRepository;
 
-  public void createReservation(Reservation reservation, List<Long> resourceIds) {
+  public List<ReservedResource> createReservation(Reservation reservation,
+      List<Long> resourceIds) {
     reservation.setStatus(ResourceStatus.STATUS_VALIDATE);
     repository.save(reservation);
+    Map<Long, String> statuses =
+        computeReservedResourceStatuses(reservation.getUserId(), resourceIds);
+    List<ReservedResource> reservedResources = new ArrayList<>(resourceIds.size());
     for (Long resourceId : resourceIds) {
       ReservedResource reservedResource = new ReservedResource();
       reservedResource.setReservedResourceId(Long.toString(resourceId), reservation.getId());
-      Resource resource = resourceRepository.getById(Long.toString(resourceId));
-      if (!resource.getManagers().isEmpty()) {
-        if (resourceValidatorRepository
-            .getResourceValidator(resourceId, Long.parseLong(reservation.getUserId())) == null) {
-          reservedResource.setStatus(ResourceStatus.STATUS_FOR_VALIDATION);
-        } else {
-          reservedResource.setStatus(ResourceStatus.STATUS_VALIDATE);
-        }
-      } else {
-        reservedResource.setStatus(reservation.getStatus());
-      }
-      reservedResourceRepository.save(reservedResource);
+      reservedResource.setStatus(statuses.get(resourceId));
+      reservedResources.add(reservedResource);
     }
-    reservation.setStatus(computeReservationStatus(reservation));
+    reservedResourceRepository.save(reservedResources);
+    reservation.setStatus(computeReservationStatus(reservedResources));
     repository.save(reservation);
+    return reservedResources;
+  }
+
+  /**
+   * Computes the status of the reservation of each of the given resources by the given user. The
+   * reservation of a resource without any manager or managed by the user is validated whereas the
+   * others have to be validated by a manager. The managers of all the resources are got in a
+   * single request.
+   * @param userId the identifier of the user reserving the resources.
+   * @param resourceIds the identifiers of the reserved resources.
+   * @return the status of the reservation of each resource, indexed by the resource identifier.
+   */
+  public Map<Long, String> computeReservedResourceStatuses(String userId,
+      Collection<Long> resourceIds) {
+    long managerId = Long.parseLong(userId);
+    Map<Long, Boolean> managedByUser = new HashMap<>(resourceIds.size());
+    for (ResourceValidator validator : resourceValidatorRepository
+        .findAllResourceValidatorsOfResources(resourceIds)) {
+      managedByUser.merge(validator.getResourceId(), validator.getManagerId() == managerId,
+          Boolean::logicalOr);
+    }
+    Map<Long, String> statuses = new HashMap<>(resourceIds.size());
+    for (Long resourceId : resourceIds) {
+      Boolean managed = managedByUser.get(resourceId);
+      statuses.put(resourceId, managed == null || managed ? ResourceStatus.STATUS_VALIDATE :
+          ResourceStatus.STATUS_FOR_VALIDATION);
+    }
+    return statuses;
   }
 
   public String computeReservationStatus(Reservation reservation) {
+    return computeReservationStatus(reservedResourceRepository.
+        findAllReservedResourcesForReservation(reservation.getIdAsLong()));
+  }
+
+  private String computeReservationStatus(List<ReservedResource> reservedResources) {
     boolean validated = true;
-    List<ReservedResource> reservedResources = reservedResourceRepository.
-        findAllReservedResourcesForReservation(reservation.getIdAsLong());
     for (ReservedResource reservedResource : reservedResources) {
       String status = reservedResource.getStatus();
       if (ResourceStatus.STATUS_FOR_VALIDATION.equals(status)) {
@@ -54,6 +54,17 @@ public class ReservedResourceService {
     repository.saveAndFlush(resource);
   }
 
+  /**
+   * Saves all the given reserved resources at once, the new ones as the updated ones, so that
+   * they are written in a single flush.
+   * @param resources the reserved resources to save.
+   */
+  public void saveAll(List<ReservedResource> resources) {
+    if (!resources.isEmpty()) {
+      repository.save(resources);
+    }
+  }
+
   public void delete(ReservedResource reservedResource) {
     repository.delete(reservedResource);
   }
@@ -0,0 +1,314 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.resourcesmanager.service;
+
+import org.silverpeas.components.resourcesmanager.model.Reservation;
+import org.silverpeas.components.resourcesmanager.model.ReservedResource;
+import org.silverpeas.components.resourcesmanager.repository.ReservedResourceRepository;
+import org.silverpeas.core.annotation.Service;
+import org.silverpeas.core.util.ServiceProvider;
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An index in memory of the periods during which the resources of the ResourcesManager instances
+ * are reserved. It answers the question "which of these resources are free or reserved on a given
+ * period" without any request to the database.
+ * <p>
+ * The reservations of an instance are loaded at the first request on the instance and then the
+ * index is kept in sync with the creation, update and deletion of the reservations. The changes
+ * are applied once the transaction committed so that a rolled back change is never seen. The
+ * index of an instance is reloaded after a time to live, which covers the changes done by other
+ * nodes of a cluster; meanwhile, the conflicts are checked against the database before saving a
+ * reservation and the index is invalidated as soon as it disagrees with the database.
+ * </p>
+ */
+@Service
+@Singleton
+public class ResourceAvailabilityIndex {
+
+  private static final long TIME_TO_LIVE = 3600000L;
+  private static final String TRANSACTION_REGISTRY = "java:comp/TransactionSynchronizationRegistry";
+
+  @Inject
+  private ReservedResourceRepository reservedResourceRepository;
+
+  private final Map<String, InstanceIndex> instances = new ConcurrentHashMap<>();
+
+  public static ResourceAvailabilityIndex get() {
+    return ServiceProvider.getService(ResourceAvailabilityIndex.class);
+  }
+
+  /**
+   * Gets among the given resources those that are free on the given period.
+   * @param instanceId the identifier of the ResourcesManager instance.
+   * @param resourceIds the identifiers of the resources.
+   * @param start the start of the period in milliseconds since the epoch (inclusive).
+   * @param end the end of the period in milliseconds since the epoch (exclusive).
+   * @return the identifiers of the free resources in the order of the given ones.
+   */
+  public List<Long> getFreeResources(String instanceId, Collection<Long> resourceIds, long start,
+      long end) {
+    InstanceIndex index = getInstanceIndex(instanceId);
+    List<Long> free = new ArrayList<>(resourceIds.size());
+    for (Long resourceId : resourceIds) {
+      if (!index.getIntervals(resourceId).overlaps(start, end, -1)) {
+        free.add(resourceId);
+      }
+    }
+    return free;
+  }
+
+  /**
+   * Gets among the given resources those that are reserved on the given period by other
+   * reservations than the given one. The refused reservations aren't taken into account.
+   * @param instanceId the identifier of the ResourcesManager instance.
+   * @param resourceIds the identifiers of the resources.
+   * @param start the start of the period in milliseconds since the epoch (inclusive).
+   * @param end the end of the period in milliseconds since the epoch (exclusive).
+   * @param reservationIdToSkip the identifier of the reservation to ignore, -1 if none.
+   * @return the identifiers of the reserved resources in the order of the given ones.
+   */
+  public List<Long> getReservedResources(String instanceId, Collection<Long> resourceIds,
+      long start, long end, long reservationIdToSkip) {
+    InstanceIndex index = getInstanceIndex(instanceId);
+    List<Long> reserved = new ArrayList<>();
+    for (Long resourceId : resourceIds) {
+      if (index.getIntervals(resourceId).overlaps(start, end, reservationIdToSkip)) {
+        reserved.add(resourceId);
+      }
+    }
+    return reserved;
+  }
+
+  /**
+   * The given reservation has been saved with the given reserved resources.
+   * @param reservation the saved reservation.
+   * @param reservedResources all the resources reserved by the reservation.
+   */
+  public void reservationSaved(Reservation reservation,
+      Collection<ReservedResource> reservedResources) {
+    final long reservationId = reservation.getIdAsLong();
+    final long begin = reservation.getBeginTime();
+    final long end = reservation.getEndTime();
+    final Set<Long> resourceIds = new HashSet<>(reservedResources.size());
+    for (ReservedResource reservedResource : reservedResources) {
+      if (isNotRefused(reservedResource.getStatus())) {
+        resourceIds.add(reservedResource.getResourceId());
+      }
+    }
+    afterCommit(reservation.getInstanceId(),
+        index -> index.putReservation(reservationId, begin, end, resourceIds));
+  }
+
+  /**
+   * The status of a resource reserved by the given reservation has been changed.
+   * @param reservation the reservation.
+   * @param resourceId the identifier of the reserved resource.
+   * @param status the new status of the reserved resource.
+   */
+  public void reservedResourceChanged(Reservation reservation, long resourceId, String status) {
+    final long reservationId = reservation.getIdAsLong();
+    final long begin = reservation.getBeginTime();
+    final long end = reservation.getEndTime();
+    final boolean reserved = isNotRefused(status);
+    afterCommit(reservation.getInstanceId(),
+        index -> index.putReservedResource(reservationId, begin, end, resourceId, reserved));
+  }
+
+  /**
+   * The given reservation has been deleted.
+   * @param instanceId the identifier of the ResourcesManager instance.
+   * @param reservationId the identifier of the deleted reservation.
+   */
+  public void reservationDeleted(String instanceId, long reservationId) {
+    afterCommit(instanceId, index -> index.removeReservation(reservationId));
+  }
+
+  /**
+   * The given resource has been deleted.
+   * @param instanceId the identifier of the ResourcesManager instance.
+   * @param resourceId the identifier of the deleted resource.
+   */
+  public void resourceDeleted(String instanceId, long resourceId) {
+    afterCommit(instanceId, index -> index.removeResource(resourceId));
+  }
+
+  /**
+   * Invalidates the index of the given instance: it will be loaded again at the next request.
+   * @param instanceId the identifier of the ResourcesManager instance.
+   */
+  public void invalidate(String instanceId) {
+    instances.remove(instanceId);
+  }
+
+  private InstanceIndex getInstanceIndex(String instanceId) {
+    InstanceIndex index = instances.computeIfAbsent(instanceId, InstanceIndex::new);
+    index.load(reservedResourceRepository);
+    return index;
+  }
+
+  private void afterCommit(String instanceId, IndexUpdate update) {
+    Runnable change = () -> {
+      InstanceIndex index = instances.get(instanceId);
+      if (index != null) {
+        // an index not loaded yet will read the committed change from the database
+        update.apply(index);
+      }
+    };
+    try {
+      TransactionSynchronizationRegistry registry =
+          (TransactionSynchronizationRegistry) new InitialContext().lookup(TRANSACTION_REGISTRY);
+      if (registry.getTransactionStatus() == Status.STATUS_ACTIVE) {
+        registry.registerInterposedSynchronization(new Synchronization() {
+          @Override
+          public void beforeCompletion() {
+            // nothing to do before the commit
+          }
+
+          @Override
+          public void afterCompletion(final int status) {
+            if (status == Status.STATUS_COMMITTED) {
+              change.run();
+            }
+          }
+        });
+        return;
+      }
+    } catch (NamingException e) {
+      SilverLogger.getLogger(this).silent(e);
+    }
+    change.run();
+  }
+
+  private static boolean isNotRefused(String status) {
+    return status != null && !Reservation.STATUS_REFUSED.equals(status);
+  }
+
+  @FunctionalInterface
+  private interface IndexUpdate {
+    void apply(InstanceIndex index);
+  }
+
+  /**
+   * The index of the reservations of a ResourcesManager instance. The intervals of a resource are
+   * replaced at each change and the whole map of intervals is replaced at each loading, so that
+   * they are read without any lock; the changes and the loading are serialized.
+   */
+  private static class InstanceIndex {
+    private final String instanceId;
+    private volatile Map<Long, ReservationIntervals> intervals = new ConcurrentHashMap<>();
+    private Map<Long, Set<Long>> resourcesByReservation = new HashMap<>();
+    private volatile long loadTime = 0;
+
+    private InstanceIndex(final String instanceId) {
+      this.instanceId = instanceId;
+    }
+
+    private void load(final ReservedResourceRepository repository) {
+      if (System.currentTimeMillis() - loadTime < TIME_TO_LIVE) {
+        return;
+      }
+      synchronized (this) {
+        if (System.currentTimeMillis() - loadTime < TIME_TO_LIVE) {
+          return;
+        }
+        Map<Long, ReservationIntervals.Builder> builders = new HashMap<>();
+        Map<Long, Set<Long>> reservations = new HashMap<>();
+        for (ReservedResource reservedResource : repository
+            .findAllNotRefusedReservedResourcesOfInstance(instanceId)) {
+          Reservation reservation = reservedResource.getReservation();
+          long resourceId = reservedResource.getResourceId();
+          builders.computeIfAbsent(resourceId, r -> new ReservationIntervals.Builder())
+              .add(reservation.getIdAsLong(), reservation.getBeginTime(),
+                  reservation.getEndTime());
+          reservations.computeIfAbsent(reservation.getIdAsLong(), r -> new HashSet<>())
+              .add(resourceId);
+        }
+        Map<Long, ReservationIntervals> loaded = new ConcurrentHashMap<>(builders.size());
+        builders.forEach((resourceId, builder) -> loaded.put(resourceId, builder.build()));
+        resourcesByReservation = reservations;
+        intervals = loaded;
+        loadTime = System.currentTimeMillis();
+      }
+    }
+
+    private ReservationIntervals getIntervals(final long resourceId) {
+      return intervals.getOrDefault(resourceId, ReservationIntervals.EMPTY);
+    }
+
+    private synchronized void putReservation(final long reservationId, final long begin,
+        final long end, final Set<Long> resourceIds) {
+      removeReservation(reservationId);
+      for (Long resourceId : resourceIds) {
+        intervals.put(resourceId, getIntervals(resourceId).with(reservationId, begin, end));
+      }
+      if (!resourceIds.isEmpty()) {
+        resourcesByReservation.put(reservationId, new HashSet<>(resourceIds));
+      }
+    }
+
+    private synchronized void putReservedResource(final long reservationId, final long begin,
+        final long end, final long resourceId, final boolean reserved) {
+      Set<Long> resourceIds =
+          resourcesByReservation.computeIfAbsent(reservationId, r -> new HashSet<>());
+      if (reserved) {
+        intervals.put(resourceId, getIntervals(resourceId).with(reservationId, begin, end));
+        resourceIds.add(resourceId);
+      } else {
+        intervals.put(resourceId, getIntervals(resourceId).without(reservationId));
+        resourceIds.remove(resourceId);
+      }
+    }
+
+    private synchronized void removeReservation(final long reservationId) {
+      Set<Long> resourceIds = resourcesByReservation.remove(reservationId);
+      if (resourceIds != null) {
+        for (Long resourceId : resourceIds) {
+          intervals.put(resourceId, getIntervals(resourceId).without(reservationId));
+        }
+      }
+    }
+
+    private synchronized void removeResource(final long resourceId) {
+      intervals.remove(resourceId);
+      resourcesByReservation.values().forEach(r -> r.remove(resourceId));
+    }
+  }
+}
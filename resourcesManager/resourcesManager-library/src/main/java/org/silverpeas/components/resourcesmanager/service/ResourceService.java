@@ -35,7 +35,9 @@ import org.silverpeas.core.annotation.Service;
 import javax.inject.Inject;
 import javax.transaction.Transactional;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -66,6 +68,17 @@ public class ResourceService {
     return repository.getById(Long.toString(id));
   }
 
+  public List<Resource> getResources(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return new ArrayList<>();
+    }
+    return repository.getById(ids.stream().map(String::valueOf).collect(Collectors.toList()));
+  }
+
+  public List<Resource> getBookableResources(String instanceId) {
+    return repository.findAllBookableResources(instanceId);
+  }
+
   public void deleteResource(long id) {
     reservedResourceRepository.deleteAllReservedResourcesForResource(id);
     repository.deleteById(Long.toString(id));
@@ -46,10 +46,14 @@ import org.silverpeas.core.util.StringUtil;
 import javax.inject.Inject;
 import javax.transaction.Transactional;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author
@@ -67,6 +71,8 @@ public class SimpleResourcesManager implements ResourcesManager, Serializable {
   private ReservationService reservationService;
   @Inject
   private ReservedResourceService reservedResourceService;
+  @Inject
+  private ResourceAvailabilityIndex availabilityIndex;
 
   /**
    * Creating a new resource category.
@@ -99,6 +105,7 @@ public class SimpleResourcesManager implements ResourcesManager, Serializable {
     List<Resource> resources = getResourcesByCategory(id);
     for (Resource resource : resources) {
       resourceService.deleteResource(resource.getIdAsLong());
+      availabilityIndex.resourceDeleted(componentId, resource.getIdAsLong());
       deleteIndex(resource.getIdAsLong(), "Resource", componentId);
     }
     // Then delete category itself
@@ -128,13 +135,25 @@ public class SimpleResourcesManager implements ResourcesManager, Serializable {
   @Override
   public void deleteResource(Long id, String componentId) {
     resourceService.deleteResource(id);
+    availabilityIndex.resourceDeleted(componentId, id);
     deleteIndex(id, "Resource", componentId);
   }
 
   @Override
   public List<Resource> getResourcesReservable(String instanceId, Date startDate, Date endDate) {
-    return resourceService.listAvailableResources(instanceId, String.valueOf(startDate.getTime()),
-        String.valueOf(endDate.getTime()));
+    List<Resource> bookableResources = resourceService.getBookableResources(instanceId);
+    Map<Long, Resource> resourcesById = new LinkedHashMap<>(bookableResources.size());
+    for (Resource resource : bookableResources) {
+      resourcesById.put(resource.getIdAsLong(), resource);
+    }
+    List<Long> freeResourceIds = availabilityIndex
+        .getFreeResources(instanceId, resourcesById.keySet(), startDate.getTime(),
+            endDate.getTime());
+    List<Resource> availableResources = new ArrayList<>(freeResourceIds.size());
+    for (Long resourceId : freeResourceIds) {
+      availableResources.add(resourcesById.get(resourceId));
+    }
+    return availableResources;
   }
 
   @Override
@@ -151,32 +170,34 @@ public class SimpleResourcesManager implements ResourcesManager, Serializable {
     for (ReservedResource reservedResource : reservedResources) {
       oldReservedResources.put(reservedResource.getResourceId(), reservedResource);
     }
+    List<ReservedResource> finalReservedResources = new ArrayList<>(resourceIds.size());
     boolean refused = false;
     boolean forValidation = false;
     String reservationStatus = ResourceStatus.STATUS_VALIDATE;
+    List<Long> resourceIdsToSave = new ArrayList<>(resourceIds.size());
+    for (Long resourceId : resourceIds) {
+      if (updateDate || !oldReservedResources.containsKey(resourceId)) {
+        resourceIdsToSave.add(resourceId);
+      }
+    }
+    Map<Long, String> statuses =
+        reservationService.computeReservedResourceStatuses(reservation.getUserId(),
+            resourceIdsToSave);
+    List<ReservedResource> reservedResourcesToSave = new ArrayList<>(resourceIdsToSave.size());
     for (Long resourceId : resourceIds) {
       ReservedResource reservedResource = oldReservedResources.remove(resourceId);
-      boolean isCreation = (reservedResource == null);
-      if (isCreation || updateDate) {
+      if (statuses.containsKey(resourceId)) {
         if (reservedResource == null) {
           reservedResource = new ReservedResource();
           reservedResource.setReservedResourceId(Long.toString(resourceId), reservation.getId());
-        }
-        if (resourceService.isManager(Long.parseLong(reservation.getUserId()), resourceId)) {
-          reservedResource.setStatus(ResourceStatus.STATUS_VALIDATE);
-        } else if (resourceService.getManagers(resourceId).isEmpty()) {
-          reservedResource.setStatus(ResourceStatus.STATUS_VALIDATE);
-        } else {
-          reservedResource.setStatus(ResourceStatus.STATUS_FOR_VALIDATION);
-        }
-        if (isCreation) {
-          reservedResourceService.create(reservedResource);
         } else {
           reservedResource.setResource(null);
           reservedResource.setReservation(null);
-          reservedResourceService.update(reservedResource);
         }
+        reservedResource.setStatus(statuses.get(resourceId));
+        reservedResourcesToSave.add(reservedResource);
       }
+      finalReservedResources.add(reservedResource);
       if (reservedResource.isValidationRequired()) {
         forValidation = true;
       }
@@ -190,11 +211,13 @@ public class SimpleResourcesManager implements ResourcesManager, Serializable {
     if (refused) {
       reservationStatus = ResourceStatus.STATUS_REFUSED;
     }
+    reservedResourceService.saveAll(reservedResourcesToSave);
     for (ReservedResource oldReservedResource : oldReservedResources.values()) {
       reservedResourceService.delete(oldReservedResource);
     }
     reservation.setStatus(reservationStatus);
     reservationService.updateReservation(reservation);
+    availabilityIndex.reservationSaved(reservation, finalReservedResources);
     createReservationIndex(reservation);
   }
 
@@ -216,6 +239,11 @@ public class SimpleResourcesManager implements ResourcesManager, Serializable {
    * Get from the given aimed resources those that are unavailable on the given period. Resources
    * attached to reservationIdToSkip are excluded (but can still be returned if they are attached
    * to another reservation on the given period).
+   * <p>
+   * This is the check done before saving a reservation, so the answer comes from the database
+   * and not from the availability index, which can miss the reservations saved by other nodes
+   * of a cluster. When both disagree, the index of the instance is invalidated.
+   * </p>
    * @param instanceId the current component instance identifier
    * @param aimedResourceIds
    * @param startDate the start date
@@ -226,11 +254,21 @@ public class SimpleResourcesManager implements ResourcesManager, Serializable {
   @Override
   public List<Resource> getReservedResources(String instanceId, List<Long> aimedResourceIds,
       Date startDate, Date endDate, Long reservationIdToSkip) {
-    String startPeriod = String.valueOf(startDate.getTime());
-    String endPeriod = String.valueOf(endDate.getTime());
-    return resourceService
-        .findAllReservedResources((reservationIdToSkip != null ? reservationIdToSkip : -1),
-            aimedResourceIds, startPeriod, endPeriod);
+    long idToSkip = (reservationIdToSkip != null ? reservationIdToSkip : -1);
+    List<Resource> reservedResources = resourceService
+        .findAllReservedResources(idToSkip, aimedResourceIds, String.valueOf(startDate.getTime()),
+            String.valueOf(endDate.getTime()));
+    Set<Long> reservedResourceIds = new HashSet<>(reservedResources.size());
+    for (Resource resource : reservedResources) {
+      reservedResourceIds.add(resource.getIdAsLong());
+    }
+    Set<Long> indexedResourceIds = new HashSet<>(availabilityIndex
+        .getReservedResources(instanceId, aimedResourceIds, startDate.getTime(),
+            endDate.getTime(), idToSkip));
+    if (!indexedResourceIds.equals(reservedResourceIds)) {
+      availabilityIndex.invalidate(instanceId);
+    }
+    return reservedResources;
   }
 
   @Override
@@ -257,6 +295,7 @@ public class SimpleResourcesManager implements ResourcesManager, Serializable {
       AttachmentServiceProvider.getAttachmentService().deleteAttachment(document);
     }
     reservationService.deleteReservation(id);
+    availabilityIndex.reservationDeleted(componentId, id);
   }
 
   @Override
@@ -414,7 +453,9 @@ public class SimpleResourcesManager implements ResourcesManager, Serializable {
 
   @Override
   public void saveReservation(Reservation reservation, List<Long> resourceIds) {
-    reservationService.createReservation(reservation, resourceIds);
+    List<ReservedResource> reservedResources =
+        reservationService.createReservation(reservation, resourceIds);
+    availabilityIndex.reservationSaved(reservation, reservedResources);
     createReservationIndex(reservation);
   }
 
@@ -428,6 +469,7 @@ public class SimpleResourcesManager implements ResourcesManager, Serializable {
       Reservation reservation = reservedResource.getReservation();
       reservation.setStatus(reservationService.computeReservationStatus(reservation));
       reservationService.updateReservation(reservation);
+      availabilityIndex.reservedResourceChanged(reservation, resourceId, status);
     }
   }
 
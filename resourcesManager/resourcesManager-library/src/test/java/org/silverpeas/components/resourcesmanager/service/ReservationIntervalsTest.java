@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.resourcesmanager.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class ReservationIntervalsTest {
+
+  private static final long NONE = -1;
+
+  @Test
+  void noIntervalOverlapsNothing() {
+    assertThat(ReservationIntervals.EMPTY.size(), is(0));
+    assertThat(ReservationIntervals.EMPTY.overlaps(0, Long.MAX_VALUE, NONE), is(false));
+  }
+
+  @Test
+  void overlappingPeriodsAreDetected() {
+    ReservationIntervals intervals = ReservationIntervals.EMPTY.with(1, 10, 20);
+    assertThat(intervals.overlaps(15, 25, NONE), is(true));
+    assertThat(intervals.overlaps(5, 15, NONE), is(true));
+    assertThat(intervals.overlaps(12, 18, NONE), is(true));
+    assertThat(intervals.overlaps(0, 30, NONE), is(true));
+    assertThat(intervals.overlaps(10, 20, NONE), is(true));
+  }
+
+  @Test
+  void adjacentPeriodsDoNotOverlap() {
+    ReservationIntervals intervals = ReservationIntervals.EMPTY.with(1, 10, 20);
+    assertThat(intervals.overlaps(20, 30, NONE), is(false));
+    assertThat(intervals.overlaps(0, 10, NONE), is(false));
+  }
+
+  @Test
+  void boundariesAreInclusiveAtTheBeginAndExclusiveAtTheEnd() {
+    ReservationIntervals intervals = ReservationIntervals.EMPTY.with(1, 10, 20);
+    assertThat(intervals.overlaps(9, 10, NONE), is(false));
+    assertThat(intervals.overlaps(9, 11, NONE), is(true));
+    assertThat(intervals.overlaps(19, 20, NONE), is(true));
+    assertThat(intervals.overlaps(20, 21, NONE), is(false));
+  }
+
+  @Test
+  void theReservationToSkipIsIgnored() {
+    ReservationIntervals intervals = ReservationIntervals.EMPTY.with(1, 10, 20).with(2, 30, 40);
+    assertThat(intervals.overlaps(15, 25, 1), is(false));
+    assertThat(intervals.overlaps(15, 35, 1), is(true));
+  }
+
+  @Test
+  void aLongIntervalIsFoundBehindShorterOnes() {
+    ReservationIntervals intervals = new ReservationIntervals.Builder()
+        .add(1, 0, 100)
+        .add(2, 10, 11)
+        .add(3, 20, 21)
+        .add(4, 30, 31)
+        .add(5, 40, 41)
+        .add(6, 110, 120)
+        .build();
+    assertThat(intervals.size(), is(6));
+    assertThat(intervals.overlaps(50, 60, NONE), is(true));
+    assertThat(intervals.overlaps(50, 60, 1), is(false));
+    assertThat(intervals.overlaps(100, 110, NONE), is(false));
+  }
+
+  @Test
+  void intervalsBeginningAtTheSameTimeAreKept() {
+    ReservationIntervals intervals = ReservationIntervals.EMPTY
+        .with(1, 10, 20)
+        .with(2, 10, 50)
+        .with(3, 10, 15);
+    assertThat(intervals.size(), is(3));
+    assertThat(intervals.overlaps(40, 45, NONE), is(true));
+    assertThat(intervals.without(2).overlaps(40, 45, NONE), is(false));
+  }
+
+  @Test
+  void aReservationPutAgainReplacesItsInterval() {
+    ReservationIntervals intervals = ReservationIntervals.EMPTY.with(1, 10, 20).with(1, 30, 40);
+    assertThat(intervals.size(), is(1));
+    assertThat(intervals.overlaps(10, 20, NONE), is(false));
+    assertThat(intervals.overlaps(30, 40, NONE), is(true));
+  }
+
+  @Test
+  void removingAReservationFreesItsPeriod() {
+    ReservationIntervals intervals = ReservationIntervals.EMPTY.with(1, 10, 20).with(2, 30, 40);
+    ReservationIntervals remaining = intervals.without(1);
+    assertThat(remaining.size(), is(1));
+    assertThat(remaining.overlaps(10, 20, NONE), is(false));
+    assertThat(remaining.overlaps(30, 40, NONE), is(true));
+    assertThat(intervals.overlaps(10, 20, NONE), is(true));
+    assertThat(intervals.without(3), is(intervals));
+  }
+}
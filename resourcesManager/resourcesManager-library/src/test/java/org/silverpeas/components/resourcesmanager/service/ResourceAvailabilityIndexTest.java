@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.resourcesmanager.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.components.resourcesmanager.model.Reservation;
+import org.silverpeas.components.resourcesmanager.model.ReservedResource;
+import org.silverpeas.components.resourcesmanager.repository.ReservedResourceRepository;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+import org.silverpeas.core.test.extention.TestManagedMock;
+import org.silverpeas.core.test.extention.TestedBean;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.mockito.Mockito.*;
+import static org.silverpeas.components.resourcesmanager.model.ResourceStatus.*;
+
+@EnableSilverTestEnv
+class ResourceAvailabilityIndexTest {
+
+  private static final String INSTANCE_ID = "resourcesManager12";
+  private static final List<Long> RESOURCES = Arrays.asList(1L, 2L, 3L);
+
+  @TestManagedMock
+  private ReservedResourceRepository repository;
+
+  @TestedBean
+  private ResourceAvailabilityIndex index;
+
+  private Reservation morning;
+
+  @BeforeEach
+  void setup() {
+    morning = aReservation(10, 8, 12);
+    Reservation afternoon = aReservation(11, 14, 18);
+    when(repository.findAllNotRefusedReservedResourcesOfInstance(INSTANCE_ID)).thenReturn(
+        Arrays.asList(aReservedResource(morning, 1, STATUS_VALIDATE),
+            aReservedResource(morning, 2, STATUS_FOR_VALIDATION),
+            aReservedResource(afternoon, 1, STATUS_VALIDATE)));
+  }
+
+  @Test
+  void theIndexIsLoadedOnceFromTheRepository() {
+    assertThat(index.getFreeResources(INSTANCE_ID, RESOURCES, 9, 10), contains(3L));
+    assertThat(index.getFreeResources(INSTANCE_ID, RESOURCES, 12, 14), contains(1L, 2L, 3L));
+    verify(repository, times(1)).findAllNotRefusedReservedResourcesOfInstance(INSTANCE_ID);
+  }
+
+  @Test
+  void reservedResourcesOverlapTheBoundariesOfThePeriod() {
+    assertThat(index.getReservedResources(INSTANCE_ID, RESOURCES, 11, 15, -1), contains(1L, 2L));
+    assertThat(index.getReservedResources(INSTANCE_ID, RESOURCES, 12, 14, -1), empty());
+    assertThat(index.getReservedResources(INSTANCE_ID, RESOURCES, 17, 18, -1), contains(1L));
+    assertThat(index.getReservedResources(INSTANCE_ID, RESOURCES, 18, 20, -1), empty());
+  }
+
+  @Test
+  void theReservationToSkipIsIgnored() {
+    assertThat(index.getReservedResources(INSTANCE_ID, RESOURCES, 8, 12, 10), empty());
+    assertThat(index.getReservedResources(INSTANCE_ID, RESOURCES, 8, 16, 10), contains(1L));
+  }
+
+  @Test
+  void aRefusedReservedResourceIsFreed() {
+    index.getFreeResources(INSTANCE_ID, RESOURCES, 8, 12);
+    index.reservedResourceChanged(morning, 2, STATUS_REFUSED);
+    assertThat(index.getFreeResources(INSTANCE_ID, RESOURCES, 8, 12), contains(2L, 3L));
+
+    index.reservedResourceChanged(morning, 2, STATUS_VALIDATE);
+    assertThat(index.getFreeResources(INSTANCE_ID, RESOURCES, 8, 12), contains(3L));
+  }
+
+  @Test
+  void theRefusedResourcesOfASavedReservationAreNotReserved() {
+    index.getFreeResources(INSTANCE_ID, RESOURCES, 8, 12);
+    Reservation evening = aReservation(12, 18, 20);
+    index.reservationSaved(evening, Arrays.asList(aReservedResource(evening, 2, STATUS_REFUSED),
+        aReservedResource(evening, 3, STATUS_FOR_VALIDATION)));
+    assertThat(index.getReservedResources(INSTANCE_ID, RESOURCES, 18, 20, -1), contains(3L));
+  }
+
+  @Test
+  void aMovedReservationFreesItsPreviousPeriod() {
+    index.getFreeResources(INSTANCE_ID, RESOURCES, 8, 12);
+    Reservation moved = aReservation(10, 12, 14);
+    index.reservationSaved(moved, Collections.singletonList(aReservedResource(moved, 2,
+        STATUS_VALIDATE)));
+    assertThat(index.getFreeResources(INSTANCE_ID, RESOURCES, 8, 12), contains(1L, 2L, 3L));
+    assertThat(index.getFreeResources(INSTANCE_ID, RESOURCES, 12, 14), contains(1L, 3L));
+  }
+
+  @Test
+  void aDeletedReservationOrResourceIsForgotten() {
+    index.getFreeResources(INSTANCE_ID, RESOURCES, 8, 12);
+    index.reservationDeleted(INSTANCE_ID, 10);
+    assertThat(index.getFreeResources(INSTANCE_ID, RESOURCES, 8, 12), contains(1L, 2L, 3L));
+
+    index.resourceDeleted(INSTANCE_ID, 1);
+    assertThat(index.getFreeResources(INSTANCE_ID, RESOURCES, 14, 18), contains(1L, 2L, 3L));
+  }
+
+  @Test
+  void anInvalidatedIndexIsReloadedWithTheReservationsOfOtherNodes() {
+    assertThat(index.getFreeResources(INSTANCE_ID, RESOURCES, 18, 20), contains(1L, 2L, 3L));
+    Reservation evening = aReservation(12, 18, 20);
+    when(repository.findAllNotRefusedReservedResourcesOfInstance(INSTANCE_ID)).thenReturn(
+        Collections.singletonList(aReservedResource(evening, 3, STATUS_VALIDATE)));
+    assertThat(index.getFreeResources(INSTANCE_ID, RESOURCES, 18, 20), contains(1L, 2L, 3L));
+
+    index.invalidate(INSTANCE_ID);
+    assertThat(index.getFreeResources(INSTANCE_ID, RESOURCES, 18, 20), contains(1L, 2L));
+    assertThat(index.getFreeResources(INSTANCE_ID, RESOURCES, 8, 12), contains(1L, 2L, 3L));
+    verify(repository, times(2)).findAllNotRefusedReservedResourcesOfInstance(INSTANCE_ID);
+  }
+
+  private Reservation aReservation(final long id, final long begin, final long end) {
+    Reservation reservation = mock(Reservation.class);
+    when(reservation.getIdAsLong()).thenReturn(id);
+    when(reservation.getInstanceId()).thenReturn(INSTANCE_ID);
+    when(reservation.getBeginTime()).thenReturn(begin);
+    when(reservation.getEndTime()).thenReturn(end);
+    return reservation;
+  }
+
+  private ReservedResource aReservedResource(final Reservation reservation,
+      final long resourceId, final String status) {
+    ReservedResource reservedResource = mock(ReservedResource.class);
+    when(reservedResource.getReservation()).thenReturn(reservation);
+    when(reservedResource.getResourceId()).thenReturn(resourceId);
+    when(reservedResource.getStatus()).thenReturn(status);
+    return reservedResource;
+  }
+}
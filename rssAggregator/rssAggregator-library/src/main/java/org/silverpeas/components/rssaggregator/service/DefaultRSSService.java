@@ -25,28 +25,17 @@ package org.silverpeas.components.rssaggregator.service;
 
 import com.rometools.rome.feed.synd.SyndEntry;
 import com.rometools.rome.feed.synd.SyndFeed;
-import com.rometools.rome.io.SyndFeedInput;
-import com.rometools.rome.io.XmlReader;
-import org.apache.http.HttpHeaders;
 import org.silverpeas.components.rssaggregator.model.RSSItem;
 import org.silverpeas.components.rssaggregator.model.RssAgregatorException;
 import org.silverpeas.components.rssaggregator.model.SPChannel;
 import org.silverpeas.components.rssaggregator.model.SPChannelPK;
 import org.silverpeas.core.annotation.Service;
-import org.silverpeas.core.util.MimeTypes;
-import org.silverpeas.core.util.StringUtil;
-import org.silverpeas.core.util.logging.SilverLogger;
 
 import javax.inject.Inject;
-import java.io.InputStream;
-import java.net.http.HttpClient;
-import java.net.http.HttpResponse;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-
-import static java.net.http.HttpResponse.BodyHandlers.ofInputStream;
-import static org.silverpeas.core.util.HttpUtil.*;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class DefaultRSSService implements RSSService {
@@ -56,6 +45,8 @@ public class DefaultRSSService implements RSSService {
 
   private RssAggregatorCache cache = RssAggregatorCache.getInstance();
 
+  private RssFeedRefresher refresher = RssFeedRefresher.getInstance();
+
   @Override
   public List<RSSItem> getApplicationItems(String applicationId, boolean aggregateContent)
       throws RssAgregatorException {
@@ -63,55 +54,31 @@ public class DefaultRSSService implements RSSService {
     return buildRSSItemList(channels, aggregateContent);
   }
 
+  /**
+   * Gets the channels of the application with their feed as currently cached. The stale feeds
+   * are refreshed in background and are served until they are refreshed; only the feeds never
+   * fetched so far are waited for, and not more than a configured time.
+   */
   @Override
   public List<SPChannel> getAllChannels(String applicationId) throws RssAgregatorException {
     List<SPChannel> channelsFromDB = this.rssAggregator.getChannels(applicationId);
-    List<SPChannel> channels = new ArrayList<>();
+    List<CompletableFuture<Void>> firstFetching = new ArrayList<>();
     for (SPChannel channel : channelsFromDB) {
       SPChannelPK channelPK = (SPChannelPK) channel.getPK();
       if (cache.isContentNeedToRefresh(channelPK)) {
-        try {
-          applyFeedTo(channel);
-        } catch (Exception e) {
-          SilverLogger.getLogger(this).error("Syndication feed fetching error with channel " +
-              channelPK + " at " + channel.getUrl(), e);
-        } finally {
-          cache.addChannelToCache(channel);
+        CompletableFuture<Void> refresh = refresher.refresh(channel);
+        if (cache.getChannelFromCache(channelPK) == null) {
+          firstFetching.add(refresh);
         }
-      } else {
-        channel = cache.getChannelFromCache(channelPK);
       }
-      channels.add(channel);
     }
-    return channels;
-  }
-
-  /**
-   * Applies {@link SyndFeed} from {@link SPChannel} data.
-   * @param channel the channel with all necessary data to perform connexion.
-   * @throws RssAgregatorException if MalformedURL or Parse or IO problem occur
-   */
-  private void applyFeedTo(final SPChannel channel) throws RssAgregatorException {
-    final String channelUrl = channel.getUrl();
-    if (StringUtil.isDefined(channelUrl)) {
-      try {
-        final HttpClient httpClient = channel.isSafeUrl() ? httpClientTrustingAnySslContext() : httpClient();
-        final HttpResponse<InputStream> response = httpClient.send(toUrl(channelUrl)
-            .header(HttpHeaders.ACCEPT, MimeTypes.RSS_MIME_TYPE)
-            .build(), ofInputStream());
-        try (final InputStream body = response.body()) {
-          final SyndFeedInput input = new SyndFeedInput();
-          final SyndFeed feed = input.build(new XmlReader(body));
-          channel.setFeed(feed);
-        }
-      } catch (Exception e) {
-        SilverLogger.getLogger(this).silent(e);
-        if (e instanceof InterruptedException) {
-          Thread.currentThread().interrupt();
-        }
-        throw new RssAgregatorException(e.getMessage(), e);
-      }
+    refresher.awaitFirstFetching(firstFetching);
+    List<SPChannel> channels = new ArrayList<>(channelsFromDB.size());
+    for (SPChannel channel : channelsFromDB) {
+      SPChannel cachedChannel = cache.getChannelFromCache((SPChannelPK) channel.getPK());
+      channels.add(cachedChannel != null ? cachedChannel : channel);
     }
+    return channels;
   }
 
   /**
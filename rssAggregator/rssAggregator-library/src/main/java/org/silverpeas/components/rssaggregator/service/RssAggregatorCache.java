@@ -40,11 +40,14 @@ public class RssAggregatorCache {
   private Map<SPChannelPK, SPChannel> cache = new ConcurrentHashMap<>();
   // informations about cache refresh
   private Map<SPChannelPK, Long> cacheNextRefresh = new ConcurrentHashMap<>();
+  // validators of the cached content for the conditional fetching of the feeds
+  private Map<SPChannelPK, String> cacheETag = new ConcurrentHashMap<>();
+  private Map<SPChannelPK, String> cacheLastModified = new ConcurrentHashMap<>();
 
   /**
    * Default constructor
    */
-  private RssAggregatorCache() {
+  protected RssAggregatorCache() {
   }
 
   /**
@@ -79,12 +82,50 @@ public class RssAggregatorCache {
     cacheNextRefresh.put(key, currentTime + channelRefreshRate);
   }
 
+  /**
+   * Add or replace a content in the cache with the validators sent by the remote server with
+   * the feed: they are used to fetch the feed only if it has changed since.
+   * @param spChannel the channel with its feed.
+   * @param eTag the entity tag of the feed, null if none.
+   * @param lastModified the date of last modification of the feed, null if none.
+   */
+  public void addChannelToCache(SPChannel spChannel, String eTag, String lastModified) {
+    SPChannelPK key = (SPChannelPK) spChannel.getPK();
+    putOrRemove(cacheETag, key, eTag);
+    putOrRemove(cacheLastModified, key, lastModified);
+    addChannelToCache(spChannel);
+  }
+
+  /**
+   * @return the entity tag of the cached feed of the channel, null if none.
+   */
+  public String getETag(SPChannelPK key) {
+    return cacheETag.get(key);
+  }
+
+  /**
+   * @return the date of last modification of the cached feed of the channel, null if none.
+   */
+  public String getLastModified(SPChannelPK key) {
+    return cacheLastModified.get(key);
+  }
+
   /**
    * @param key of the channel to remove from the cache
    */
   public void removeChannelFromCache(SPChannelPK key) {
     cache.remove(key);
     cacheNextRefresh.remove(key);
+    cacheETag.remove(key);
+    cacheLastModified.remove(key);
+  }
+
+  private static void putOrRemove(Map<SPChannelPK, String> map, SPChannelPK key, String value) {
+    if (value == null) {
+      map.remove(key);
+    } else {
+      map.put(key, value);
+    }
   }
 
   /**
@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.rssaggregator.service;
+
+import com.rometools.rome.feed.synd.SyndFeed;
+import com.rometools.rome.io.SyndFeedInput;
+import com.rometools.rome.io.XmlReader;
+import org.apache.http.HttpHeaders;
+import org.silverpeas.components.rssaggregator.model.RssAgregatorException;
+import org.silverpeas.components.rssaggregator.model.SPChannel;
+import org.silverpeas.components.rssaggregator.model.SPChannelPK;
+import org.silverpeas.core.thread.ManagedThreadPool;
+import org.silverpeas.core.util.MimeTypes;
+import org.silverpeas.core.util.ResourceLocator;
+import org.silverpeas.core.util.ServiceProvider;
+import org.silverpeas.core.util.SettingBundle;
+import org.silverpeas.core.util.StringUtil;
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Singleton;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.net.http.HttpResponse.BodyHandlers.ofInputStream;
+import static org.silverpeas.core.util.HttpUtil.*;
+
+/**
+ * Refreshes in background the feeds of the syndication channels kept in the
+ * {@link RssAggregatorCache}.
+ * <p>
+ * The feeds are fetched in parallel by a bounded number of workers run by the
+ * {@link ManagedThreadPool} of the platform and only one fetching of a given channel is
+ * performed at a time whatever the number of users asking for it. The feeds
+ * are fetched with a conditional GET so that a feed that didn't change isn't downloaded and
+ * parsed again. Up to the end of the refresh, and if it fails, the last fetched feed of the
+ * channel is kept in the cache.
+ * </p>
+ */
+@Singleton
+public class RssFeedRefresher {
+
+  private static final int HTTP_NOT_MODIFIED = 304;
+
+  private final Semaphore workers;
+  private final int queueSize;
+  private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pendingCount = new AtomicInteger(0);
+  private volatile boolean stopped = false;
+  private final Duration fetchTimeout;
+  private final long firstFetchWait;
+  private final Map<SPChannelPK, CompletableFuture<Void>> refreshes = new ConcurrentHashMap<>();
+  private final RssAggregatorCache cache = RssAggregatorCache.getInstance();
+
+  protected RssFeedRefresher() {
+    SettingBundle settings = ResourceLocator.getSettingBundle(
+        "org.silverpeas.rssAgregator.settings.rssAgregatorSettings");
+    int parallelism = Math.max(1, settings.getInteger("refresh.parallelism", 4));
+    this.workers = new Semaphore(parallelism);
+    this.queueSize = Math.max(1, settings.getInteger("refresh.queueSize", 1000));
+    this.fetchTimeout = Duration.ofSeconds(settings.getInteger("refresh.fetchTimeout", 30));
+    this.firstFetchWait = settings.getInteger("refresh.firstFetchWait", 5) * 1000L;
+  }
+
+  /**
+   * Gets the refresher of the syndication feeds.
+   * @return the {@link RssFeedRefresher} instance.
+   */
+  public static RssFeedRefresher getInstance() {
+    return ServiceProvider.getService(RssFeedRefresher.class);
+  }
+
+  /**
+   * Refreshes asynchronously the feed of the given channel. If the feed of the channel is
+   * already being refreshed, no other refresh is triggered.
+   * @param channel the channel to refresh as it is persisted.
+   * @return the completion of the refresh. It is never completed exceptionally, the refresh
+   * failures being only logged.
+   */
+  public CompletableFuture<Void> refresh(final SPChannel channel) {
+    final SPChannelPK channelPK = (SPChannelPK) channel.getPK();
+    final CompletableFuture<Void> refresh = new CompletableFuture<>();
+    final CompletableFuture<Void> inProgress = refreshes.putIfAbsent(channelPK, refresh);
+    if (inProgress != null) {
+      return inProgress;
+    }
+    final boolean queued = enqueue(() -> {
+      try {
+        applyFeedTo(channel);
+      } finally {
+        refreshes.remove(channelPK, refresh);
+        refresh.complete(null);
+      }
+    });
+    if (!queued) {
+      SilverLogger.getLogger(this)
+          .warn("Too many feeds to refresh: the refresh of channel {0} is postponed", channelPK);
+      refreshes.remove(channelPK, refresh);
+      refresh.complete(null);
+    }
+    return refresh;
+  }
+
+  /**
+   * Waits for the first fetching of some feeds, but not more than the configured time, so that
+   * a channel can be displayed with its feed the first time it is asked.
+   * @param refreshes the refreshes to wait for.
+   */
+  public void awaitFirstFetching(final Collection<CompletableFuture<Void>> refreshes) {
+    if (!refreshes.isEmpty()) {
+      try {
+        CompletableFuture.allOf(refreshes.toArray(new CompletableFuture[0]))
+            .get(firstFetchWait, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException | TimeoutException e) {
+        SilverLogger.getLogger(this).silent(e);
+      }
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    stopped = true;
+    pending.clear();
+  }
+
+  private boolean enqueue(final Runnable task) {
+    if (stopped || pendingCount.incrementAndGet() > queueSize) {
+      pendingCount.decrementAndGet();
+      return false;
+    }
+    pending.add(task);
+    startWorkers();
+    return true;
+  }
+
+  /**
+   * Starts as many workers as possible, within the bound of the parallelism, to run the pending
+   * refreshes.
+   */
+  private void startWorkers() {
+    while (!stopped && !pending.isEmpty() && workers.tryAcquire()) {
+      try {
+        ManagedThreadPool.getPool().invoke(this::runPendingRefreshes);
+      } catch (RuntimeException e) {
+        workers.release();
+        SilverLogger.getLogger(this).error(e);
+        return;
+      }
+    }
+  }
+
+  private void runPendingRefreshes() {
+    try {
+      Runnable task;
+      while (!stopped && (task = pending.poll()) != null) {
+        pendingCount.decrementAndGet();
+        task.run();
+      }
+    } finally {
+      workers.release();
+    }
+    // a refresh can have been queued between the last polling and the release of the worker
+    startWorkers();
+  }
+
+  /**
+   * Fetches the feed of the channel and puts the channel into the cache. If the feed didn't
+   * change since the previous fetching, or if it cannot be fetched, the previous feed is kept.
+   * @param channel the channel with all necessary data to perform connexion.
+   */
+  void applyFeedTo(final SPChannel channel) {
+    final SPChannelPK channelPK = (SPChannelPK) channel.getPK();
+    final SPChannel cached = cache.getChannelFromCache(channelPK);
+    final SyndFeed previousFeed = cached != null ? cached.getFeed() : null;
+    String eTag = previousFeed != null ? cache.getETag(channelPK) : null;
+    String lastModified = previousFeed != null ? cache.getLastModified(channelPK) : null;
+    channel.setFeed(previousFeed);
+    try {
+      if (StringUtil.isDefined(channel.getUrl())) {
+        final HttpResponse<InputStream> response = fetch(channel, eTag, lastModified);
+        try (final InputStream body = response.body()) {
+          if (response.statusCode() != HTTP_NOT_MODIFIED) {
+            if (response.statusCode() >= 300) {
+              throw new RssAgregatorException("HTTP status " + response.statusCode());
+            }
+            final SyndFeedInput input = new SyndFeedInput();
+            final SyndFeed feed = input.build(new XmlReader(body));
+            channel.setFeed(feed);
+            eTag = response.headers().firstValue(HttpHeaders.ETAG).orElse(null);
+            lastModified = response.headers().firstValue(HttpHeaders.LAST_MODIFIED).orElse(null);
+          }
+        }
+      }
+    } catch (Exception e) {
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      SilverLogger.getLogger(this).error("Syndication feed fetching error with channel " +
+          channelPK + " at " + channel.getUrl(), e);
+    } finally {
+      cache.addChannelToCache(channel, eTag, lastModified);
+    }
+  }
+
+  private HttpResponse<InputStream> fetch(final SPChannel channel, final String eTag,
+      final String lastModified) throws Exception {
+    final HttpClient httpClient =
+        channel.isSafeUrl() ? httpClientTrustingAnySslContext() : httpClient();
+    final HttpRequest.Builder request = toUrl(channel.getUrl())
+        .header(HttpHeaders.ACCEPT, MimeTypes.RSS_MIME_TYPE)
+        .timeout(fetchTimeout);
+    if (eTag != null) {
+      request.header(HttpHeaders.IF_NONE_MATCH, eTag);
+    }
+    if (lastModified != null) {
+      request.header(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+    }
+    return httpClient.send(request.build(), ofInputStream());
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.rssaggregator.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.silverpeas.components.rssaggregator.model.SPChannel;
+import org.silverpeas.components.rssaggregator.model.SPChannelPK;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+import org.silverpeas.core.test.extention.SettingBundleStub;
+import org.silverpeas.core.test.extention.TestManagedBean;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Checks the conditional fetching of the syndication feeds against a stub of HTTP server.
+ */
+@EnableSilverTestEnv
+class RssFeedRefresherTest {
+
+  private static final String CHANNEL_ID = "1";
+  private static final String INSTANCE_ID = "rssAggregator1";
+  private static final String ETAG = "\"v1\"";
+  private static final String LAST_MODIFIED = "Mon, 01 Jul 2019 10:00:00 GMT";
+  private static final String FEED = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+      "<rss version=\"2.0\"><channel><title>Silverpeas</title><link>http://localhost</link>" +
+      "<description>News</description><item><title>Release</title></item></channel></rss>";
+
+  @RegisterExtension
+  static SettingBundleStub settings =
+      new SettingBundleStub("org.silverpeas.rssAgregator.settings.rssAgregatorSettings");
+
+  @TestManagedBean
+  private RssAggregatorCache cache;
+
+  private HttpServer server;
+  private final List<String> receivedETags = new ArrayList<>();
+  private volatile int status = 200;
+  private RssFeedRefresher refresher;
+
+  @BeforeEach
+  void setup() throws IOException {
+    settings.put("refresh.fetchTimeout", "5");
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/feed", this::serveFeed);
+    server.start();
+    refresher = new RssFeedRefresher();
+  }
+
+  @AfterEach
+  void stopServer() {
+    server.stop(0);
+  }
+
+  @Test
+  void aFeedFetchedForTheFirstTimeIsCachedWithItsValidators() {
+    refresher.applyFeedTo(aChannel());
+
+    final SPChannel cached = cache.getChannelFromCache(channelPK());
+    assertThat(cached.getFeed(), notNullValue());
+    assertThat(cached.getFeed().getTitle(), is("Silverpeas"));
+    assertThat(cache.getETag(channelPK()), is(ETAG));
+    assertThat(cache.getLastModified(channelPK()), is(LAST_MODIFIED));
+    assertThat(receivedETags, contains((String) null));
+  }
+
+  @Test
+  void aNotModifiedFeedIsNotParsedAgain() {
+    refresher.applyFeedTo(aChannel());
+    final Object firstFeed = cache.getChannelFromCache(channelPK()).getFeed();
+
+    refresher.applyFeedTo(aChannel());
+
+    assertThat(receivedETags, contains(null, ETAG));
+    assertThat(cache.getChannelFromCache(channelPK()).getFeed(), sameInstance(firstFeed));
+    assertThat(cache.getETag(channelPK()), is(ETAG));
+    assertThat(cache.isContentNeedToRefresh(channelPK()), is(false));
+  }
+
+  @Test
+  void theLastFeedIsKeptWhenTheFetchingFails() {
+    refresher.applyFeedTo(aChannel());
+    final Object firstFeed = cache.getChannelFromCache(channelPK()).getFeed();
+    status = 500;
+
+    refresher.applyFeedTo(aChannel());
+
+    assertThat(receivedETags, hasSize(2));
+    assertThat(cache.getChannelFromCache(channelPK()).getFeed(), sameInstance(firstFeed));
+    assertThat(cache.getETag(channelPK()), is(ETAG));
+    assertThat(cache.getLastModified(channelPK()), is(LAST_MODIFIED));
+  }
+
+  @Test
+  void aChannelWhoseFeedCannotBeFetchedIsCachedWithoutFeed() {
+    status = 500;
+
+    refresher.applyFeedTo(aChannel());
+
+    final SPChannel cached = cache.getChannelFromCache(channelPK());
+    assertThat(cached, notNullValue());
+    assertThat(cached.getFeed(), nullValue());
+    assertThat(cache.getETag(channelPK()), nullValue());
+  }
+
+  private SPChannel aChannel() {
+    final SPChannel channel = new SPChannel(CHANNEL_ID,
+        "http://localhost:" + server.getAddress().getPort() + "/feed", INSTANCE_ID);
+    channel.setPK(channelPK());
+    channel.setRefreshRate(10);
+    return channel;
+  }
+
+  private SPChannelPK channelPK() {
+    return new SPChannelPK(CHANNEL_ID, INSTANCE_ID);
+  }
+
+  private void serveFeed(final HttpExchange exchange) throws IOException {
+    final String eTag = exchange.getRequestHeaders().getFirst("If-None-Match");
+    receivedETags.add(eTag);
+    if (status != 200) {
+      exchange.sendResponseHeaders(status, -1);
+    } else if (ETAG.equals(eTag)) {
+      exchange.sendResponseHeaders(304, -1);
+    } else {
+      final byte[] body = FEED.getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("Content-Type", "application/rss+xml");
+      exchange.getResponseHeaders().add("ETag", ETAG);
+      exchange.getResponseHeaders().add("Last-Modified", LAST_MODIFIED);
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream output = exchange.getResponseBody()) {
+        output.write(body);
+      }
+    }
+    exchange.close();
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of the GPL, you may
+ * redistribute this Program in connection with Free/Libre Open Source Software ("FLOSS")
+ * applications as described in Silverpeas's FLOSS exception. You should have received a copy of the
+ * text describing the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.scheduleevent.service;
+
+import org.silverpeas.components.scheduleevent.service.model.AvailabilityTally;
+import org.silverpeas.components.scheduleevent.service.model.ScheduleEventBean;
+import org.silverpeas.core.annotation.Service;
+
+import javax.inject.Singleton;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of the {@link AvailabilityTally} of the schedule events. A tally is built at the first
+ * display of an event, then it is updated incrementally with the answers of the contributors. It
+ * is invalidated when the event itself is modified and in all cases it expires after a while.
+ */
+@Service
+@Singleton
+public class AvailabilityTallyCache {
+
+  private static final long TTL = TimeUnit.MINUTES.toMillis(10);
+
+  private final Map<String, AvailabilityTally> tallies = new ConcurrentHashMap<>();
+
+  /**
+   * Gets the tally of the specified event, building it if necessary.
+   * @param event a schedule event.
+   * @return the tally of the answers to the event.
+   */
+  AvailabilityTally get(final ScheduleEventBean event) {
+    AvailabilityTally tally = tallies.get(event.getId());
+    if (tally == null || tally.isExpired()) {
+      tally = new AvailabilityTally(event, System.currentTimeMillis() + TTL);
+      tallies.put(event.getId(), tally);
+    }
+    return tally;
+  }
+
+  /**
+   * Updates the tally of the specified event with the answers of the given contributor. Does
+   * nothing if the tally of the event isn't yet built.
+   * @param event the schedule event with the new responses of the contributor.
+   * @param userId the unique identifier of the contributor.
+   */
+  void update(final ScheduleEventBean event, final int userId) {
+    AvailabilityTally tally = tallies.get(event.getId());
+    if (tally != null && !tally.update(event, userId)) {
+      invalidate(event.getId());
+    }
+  }
+
+  /**
+   * Invalidates the tally of the specified event.
+   * @param eventId the unique identifier of a schedule event.
+   */
+  void invalidate(final String eventId) {
+    tallies.remove(eventId);
+  }
+}
@@ -21,6 +21,8 @@
 package org.silverpeas.components.scheduleevent.service;
 
 import org.silverpeas.core.ApplicationService;
+import org.silverpeas.components.scheduleevent.service.model.AvailabilityTally;
+import org.silverpeas.components.scheduleevent.service.model.ScheduleEventBean;
 import org.silverpeas.components.scheduleevent.service.model.beans.ScheduleEvent;
 import org.silverpeas.core.util.ServiceProvider;
 
@@ -44,6 +46,21 @@ public interface ScheduleEventService extends ApplicationService<ScheduleEvent>
 
   void updateScheduleEvent(ScheduleEvent scheduleEvent);
 
+  /**
+   * Saves the answers of the specified contributor to the given event and updates the tally of
+   * the answers accordingly.
+   * @param scheduleEvent the schedule event with the new responses of the contributor.
+   * @param userId the unique identifier of the contributor.
+   */
+  void updateContributorAvailabilities(ScheduleEvent scheduleEvent, int userId);
+
+  /**
+   * Gets the tally of the answers of the contributors to the specified event.
+   * @param scheduleEvent a schedule event.
+   * @return the tally of the answers.
+   */
+  AvailabilityTally getAvailabilityTally(ScheduleEventBean scheduleEvent);
+
   ScheduleEvent purgeOldResponseForUserId(ScheduleEvent scheduleEvent, int userId);
 
   void setLastVisited(ScheduleEvent event, int userId);
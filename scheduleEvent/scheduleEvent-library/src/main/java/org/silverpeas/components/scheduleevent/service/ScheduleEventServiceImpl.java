@@ -20,6 +20,8 @@
  */
 package org.silverpeas.components.scheduleevent.service;
 
+import org.silverpeas.components.scheduleevent.service.model.AvailabilityTally;
+import org.silverpeas.components.scheduleevent.service.model.ScheduleEventBean;
 import org.silverpeas.components.scheduleevent.service.model.beans.Contributor;
 import org.silverpeas.components.scheduleevent.service.model.beans.ScheduleEvent;
 import org.silverpeas.components.scheduleevent.service.model.dao.ScheduleEventDao;
@@ -43,6 +45,8 @@ public class ScheduleEventServiceImpl implements ScheduleEventService {
   private static final SettingBundle settings = ResourceLocator.getSettingBundle(SETTINGS_PATH);
   @Inject
   private ScheduleEventDao scheduleEventDao;
+  @Inject
+  private AvailabilityTallyCache tallyCache;
 
   @Override
   public String createScheduleEvent(ScheduleEvent scheduleEvent) {
@@ -52,6 +56,7 @@ public class ScheduleEventServiceImpl implements ScheduleEventService {
   @Override
   public void deleteScheduleEvent(ScheduleEvent scheduleEvent) {
     scheduleEventDao.deleteScheduleEvent(scheduleEvent);
+    tallyCache.invalidate(scheduleEvent.getId());
   }
 
   @Override
@@ -82,6 +87,18 @@ public class ScheduleEventServiceImpl implements ScheduleEventService {
   @Override
   public void updateScheduleEvent(ScheduleEvent scheduleEvent) {
     scheduleEventDao.updateScheduleEvent(scheduleEvent);
+    tallyCache.invalidate(scheduleEvent.getId());
+  }
+
+  @Override
+  public void updateContributorAvailabilities(ScheduleEvent scheduleEvent, int userId) {
+    scheduleEventDao.updateScheduleEvent(scheduleEvent);
+    tallyCache.update(scheduleEvent, userId);
+  }
+
+  @Override
+  public AvailabilityTally getAvailabilityTally(ScheduleEventBean scheduleEvent) {
+    return tallyCache.get(scheduleEvent);
   }
 
   @Override
@@ -103,6 +120,9 @@ public class ScheduleEventServiceImpl implements ScheduleEventService {
   public void deleteContributor(String id) {
     Contributor contrib = scheduleEventDao.getContributor(id);
     scheduleEventDao.deleteContributor(contrib);
+    if (contrib.getScheduleEvent() != null) {
+      tallyCache.invalidate(contrib.getScheduleEvent().getId());
+    }
   }
 
   @Override
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of the GPL, you may
+ * redistribute this Program in connection with Free/Libre Open Source Software ("FLOSS")
+ * applications as described in Silverpeas's FLOSS exception. You should have received a copy of the
+ * text describing the FLOSS exception, and it is also available here:
+ * "http://www.silverpeas.org/docs/core/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.scheduleevent.service.model;
+
+import org.silverpeas.components.scheduleevent.service.model.beans.Contributor;
+import org.silverpeas.components.scheduleevent.service.model.beans.DateOption;
+import org.silverpeas.components.scheduleevent.service.model.beans.Response;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The tally of the answers of the contributors of a schedule event. Each contributor is given
+ * an index and, for each date option of the event, the contributors available at this date are
+ * recorded in a bit set. So the presence counts and the best dates are computed with some word
+ * operations per date option whatever the number of contributors.
+ * <p>
+ * The tally is built once from an event and then it is updated incrementally each time a
+ * contributor answers. It is safe to be shared between threads.
+ * </p>
+ */
+public class AvailabilityTally {
+
+  private final Map<Integer, Integer> contributorIndexes = new HashMap<>();
+  private final Map<String, BitSet> availabilitiesByDate = new HashMap<>();
+  private final BitSet answered = new BitSet();
+  private final long expiration;
+
+  /**
+   * Constructs the tally of the answers of the contributors of the specified event.
+   * @param event a schedule event with its dates, its contributors and their responses.
+   * @param expiration the time in milliseconds after which this tally has to be rebuilt.
+   */
+  public AvailabilityTally(final ScheduleEventBean event, final long expiration) {
+    this.expiration = expiration;
+    int index = 0;
+    for (Contributor contributor : event.getContributors()) {
+      contributorIndexes.put(contributor.getUserId(), index);
+      answered.set(index, contributor.getLastValidation() != null);
+      index++;
+    }
+    for (DateOption date : event.getDates()) {
+      availabilitiesByDate.put(date.getId(), new BitSet(index));
+    }
+    for (Response response : event.getResponses()) {
+      set(response);
+    }
+  }
+
+  public boolean isExpired() {
+    return expiration < System.currentTimeMillis();
+  }
+
+  /**
+   * Updates the answers of the specified contributor from the responses of the given event.
+   * @param event the schedule event with the new responses of the contributor.
+   * @param userId the unique identifier of the contributor.
+   * @return false if the user isn't a contributor known by this tally; in that case the tally
+   * is out of date and has to be rebuilt.
+   */
+  public synchronized boolean update(final ScheduleEventBean event, final int userId) {
+    final Integer index = contributorIndexes.get(userId);
+    if (index == null) {
+      return false;
+    }
+    for (Contributor contributor : event.getContributors()) {
+      if (contributor.getUserId() == userId) {
+        answered.set(index, contributor.getLastValidation() != null);
+      }
+    }
+    for (BitSet availabilities : availabilitiesByDate.values()) {
+      availabilities.clear(index);
+    }
+    for (Response response : event.getResponses()) {
+      if (response.getUserId() == userId) {
+        set(response);
+      }
+    }
+    return true;
+  }
+
+  private void set(final Response response) {
+    final BitSet availabilities = availabilitiesByDate.get(response.getOptionId());
+    final Integer index = contributorIndexes.get(response.getUserId());
+    if (availabilities != null && index != null) {
+      availabilities.set(index);
+    }
+  }
+
+  /**
+   * Is the specified contributor available at the given date option?
+   * @param dateId the unique identifier of a date option.
+   * @param userId the unique identifier of a contributor.
+   * @return true if the contributor has answered he's available at this date.
+   */
+  public synchronized boolean isAvailable(final String dateId, final int userId) {
+    final BitSet availabilities = availabilitiesByDate.get(dateId);
+    final Integer index = contributorIndexes.get(userId);
+    return availabilities != null && index != null && availabilities.get(index);
+  }
+
+  /**
+   * Gets the number of contributors that have answered and that are available at the specified
+   * date option.
+   * @param dateId the unique identifier of a date option.
+   * @return the number of present contributors.
+   */
+  public synchronized int getPresentCount(final String dateId) {
+    final BitSet availabilities = availabilitiesByDate.get(dateId);
+    if (availabilities == null) {
+      return 0;
+    }
+    final BitSet presents = (BitSet) availabilities.clone();
+    presents.and(answered);
+    return presents.cardinality();
+  }
+
+  /**
+   * Gets the number of contributors that have answered.
+   * @return the number of answers.
+   */
+  public synchronized int getAnswerCount() {
+    return answered.cardinality();
+  }
+}
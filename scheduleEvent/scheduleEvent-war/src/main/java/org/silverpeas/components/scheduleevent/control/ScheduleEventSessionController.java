@@ -353,7 +353,8 @@ public class ScheduleEventSessionController extends AbstractComponentSessionCont
 
   public void updateUserAvailabilities(ScheduleEvent scheduleEvent) {
     updateValidationDate(scheduleEvent, getUserId());
-    getScheduleEventService().updateScheduleEvent(scheduleEvent);
+    getScheduleEventService().updateContributorAvailabilities(scheduleEvent,
+        Integer.parseInt(getUserId()));
   }
 
   private void updateValidationDate(ScheduleEvent scheduleEvent, String userId) {
@@ -9,6 +9,19 @@ public class AvailabilityVisitorPresenceCounter extends AbstractAvailabilityVisi
   private int present = 0;
   private int answers = 0;
 
+  public AvailabilityVisitorPresenceCounter() {
+  }
+
+  /**
+   * Constructs a counter initialized with counts already computed elsewhere.
+   * @param present the number of contributors available.
+   * @param answers the number of contributors that have answered.
+   */
+  public AvailabilityVisitorPresenceCounter(int present, int answers) {
+    this.present = present;
+    this.answers = answers;
+  }
+
   @Override
   public void visit(AgreeAvailability availability) {
     super.visit(availability);
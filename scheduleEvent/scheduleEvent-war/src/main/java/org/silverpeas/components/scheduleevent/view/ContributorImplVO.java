@@ -25,6 +25,11 @@ public class ContributorImplVO implements ContributorVO {
     return name;
   }
 
+  @Override
+  public int getUserId() {
+    return contributor.getUserId();
+  }
+
   @Override
   public int hashCode() {
     final int prime = 31;
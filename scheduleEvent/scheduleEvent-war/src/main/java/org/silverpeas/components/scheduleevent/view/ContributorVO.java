@@ -9,6 +9,8 @@ import org.silverpeas.components.scheduleevent.service.model.beans.Response;
 public interface ContributorVO {
   String getName();
 
+  int getUserId();
+
   String getHtmlClassAttribute();
 
   boolean hasAnswered();
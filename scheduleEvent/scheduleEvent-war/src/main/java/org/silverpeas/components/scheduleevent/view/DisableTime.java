@@ -58,6 +58,11 @@ public class DisableTime extends AbstractTimeVO {
     return new AvailabilityVisitorPresenceCounter();
   }
 
+  @Override
+  public void setPresentsCount(AvailabilityVisitorPresenceCounter presentsCount) {
+    // nobody can be present at a disabled time
+  }
+
   @Override
   public DateVO getDate() {
     return parent;
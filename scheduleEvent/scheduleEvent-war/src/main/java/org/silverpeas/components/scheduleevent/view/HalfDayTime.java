@@ -15,6 +15,7 @@ public class HalfDayTime extends AbstractTimeVO {
   private DateVO parent;
   private DateOption date;
   private Map<ContributorVO, AvailableVO> availabilities = new HashMap<ContributorVO, AvailableVO>();
+  private AvailabilityVisitorPresenceCounter presentsCount;
 
   public HalfDayTime(DateVO parent, DateOption date) {
     this.parent = parent;
@@ -67,6 +68,9 @@ public class HalfDayTime extends AbstractTimeVO {
 
   @Override
   public AvailabilityVisitorPresenceCounter getPresentsCount() {
+    if (presentsCount != null) {
+      return presentsCount;
+    }
     AvailabilityVisitorPresenceCounter presenceCounter = new AvailabilityVisitorPresenceCounter();
     for(AvailableVO availability: getAvailabilities().values()) {
       availability.accept(presenceCounter);
@@ -74,6 +78,11 @@ public class HalfDayTime extends AbstractTimeVO {
     return presenceCounter;
   }
 
+  @Override
+  public void setPresentsCount(AvailabilityVisitorPresenceCounter presentsCount) {
+    this.presentsCount = presentsCount;
+  }
+
   @Override
   public DateVO getDate() {
     return parent;
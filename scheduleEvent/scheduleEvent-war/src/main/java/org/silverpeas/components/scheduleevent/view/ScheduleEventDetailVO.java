@@ -5,12 +5,12 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
+import org.silverpeas.components.scheduleevent.service.ScheduleEventService;
+import org.silverpeas.components.scheduleevent.service.model.AvailabilityTally;
 import org.silverpeas.components.scheduleevent.service.model.ScheduleEventBean;
 import org.silverpeas.components.scheduleevent.service.model.beans.Contributor;
 import org.silverpeas.components.scheduleevent.service.model.beans.DateOption;
-import org.silverpeas.components.scheduleevent.service.model.beans.Response;
 import org.silverpeas.components.scheduleevent.service.model.beans.ScheduleEvent;
 import org.silverpeas.core.web.mvc.controller.AbstractComponentSessionController;
 import org.silverpeas.core.admin.user.model.UserDetail;
@@ -20,6 +20,7 @@ public class ScheduleEventDetailVO {
 
   int answers;
   private List<DateVO> dates;
+  private List<TimeVO> times;
   private String id;
   private String title;
   private String description;
@@ -46,8 +47,10 @@ public class ScheduleEventDetailVO {
     setModificationStatus(sessionController, currentEvent);
     setDates(currentEvent);
     setContributors(sessionController, currentEvent);
-    setEachContributorAvailabilities(currentEvent, getContributors());
-    setTimePresents(getTimes());
+    setTimes();
+    AvailabilityTally tally = ScheduleEventService.get().getAvailabilityTally(currentEvent);
+    setEachContributorAvailabilities(tally, getContributors());
+    setTimePresents(tally, getTimes());
     setBestSelectionTime(getTimes());
   }
 
@@ -166,40 +169,37 @@ public class ScheduleEventDetailVO {
     return new ContributorImplVO(name, contributor, AvailabilityContributorFactory.getInstance());
   }
 
-  private void setEachContributorAvailabilities(ScheduleEventBean currentEvent,
-      List<ContributorVO> contributors) throws Exception {
+  private void setEachContributorAvailabilities(AvailabilityTally tally,
+      List<ContributorVO> contributors) {
     for (ContributorVO contributor : contributors) {
       if (contributor.hasAnswered()) {
         incrementAnswers();
-        addContributorAvailabilities(contributor,
-            getContributorResponses(currentEvent, contributor));
+        addContributorAvailabilities(tally, contributor);
       } else {
         addWaitingContributorAvailabilities(contributor);
       }
     }
   }
 
-  private Set<Response> getContributorResponses(ScheduleEventBean currentEvent,
-      ContributorVO contributor) {
-    return contributor.match(currentEvent.getResponses());
-  }
-
   private void incrementAnswers() {
     ++answers;
   }
 
-  private void addContributorAvailabilities(ContributorVO contributor, Set<Response> responses) {
+  private void addContributorAvailabilities(AvailabilityTally tally, ContributorVO contributor) {
     for (TimeVO time : getTimes()) {
-      Set<Response> availabilities = time.match(responses);
-      addAvailabilities(contributor, time, availabilities);
+      addAvailabilities(contributor, time,
+          tally.isAvailable(time.getId(), contributor.getUserId()));
     }
   }
 
-  private List<TimeVO> getTimes() {
-    List<TimeVO> times = new ArrayList<TimeVO>();
+  private void setTimes() {
+    times = new ArrayList<TimeVO>();
     for (DateVO date : getDates()) {
       times.addAll(date.getTimes());
     }
+  }
+
+  private List<TimeVO> getTimes() {
     return times;
   }
 
@@ -207,10 +207,10 @@ public class ScheduleEventDetailVO {
     return dates;
   }
 
-  private void addAvailabilities(ContributorVO contributor, TimeVO time, Set<Response> responses) {
+  private void addAvailabilities(ContributorVO contributor, TimeVO time, boolean available) {
     AvailableVO availability =
-        responses.isEmpty() ? contributor.makeAvailabilty(AvailabilityFactoryVO.Availability.DISAGREE) : contributor
-            .makeAvailabilty(AvailabilityFactoryVO.Availability.AGREE);
+        available ? contributor.makeAvailabilty(AvailabilityFactoryVO.Availability.AGREE) : contributor
+            .makeAvailabilty(AvailabilityFactoryVO.Availability.DISAGREE);
     time.addAvailability(contributor, availability);
   }
 
@@ -221,8 +221,10 @@ public class ScheduleEventDetailVO {
     }
   }
 
-  private void setTimePresents(List<TimeVO> times) {
+  private void setTimePresents(AvailabilityTally tally, List<TimeVO> times) {
     for (TimeVO time : times) {
+      time.setPresentsCount(new AvailabilityVisitorPresenceCounter(
+          tally.getPresentCount(time.getId()), tally.getAnswerCount()));
       AnswerVO answer = time.getPresents();
       presentPercentageRates.put(time, answer);
     }
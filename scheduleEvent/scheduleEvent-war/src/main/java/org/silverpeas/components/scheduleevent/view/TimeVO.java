@@ -16,4 +16,5 @@ public interface TimeVO {
   void addAvailability(ContributorVO contributor, AvailableVO availability);
   AnswerVO getPresents();
   AvailabilityVisitorPresenceCounter getPresentsCount();
+  void setPresentsCount(AvailabilityVisitorPresenceCounter presentsCount);
 }
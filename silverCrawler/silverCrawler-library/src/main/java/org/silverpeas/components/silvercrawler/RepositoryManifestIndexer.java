@@ -0,0 +1,424 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.silvercrawler;
+
+import org.silverpeas.core.index.indexing.model.RepositoryIndexer;
+import org.silverpeas.core.util.Charsets;
+import org.silverpeas.core.util.file.FileRepositoryManager;
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Indexes incrementally the directory crawled by a SilverCrawler instance. The size and the date
+ * of last modification of each file of the directory are kept in a manifest, so that a new
+ * indexation only indexes the files added or modified since the previous one and unindexes the
+ * deleted ones.
+ * <p>
+ * The manifest is a text file sorted in the order in which the directory is walked (the entries
+ * of each directory sorted by name, each directory followed by its content): the changes are
+ * found by merging the walk with the previous manifest so the memory used doesn't depend on the
+ * number of files in the directory.
+ * </p>
+ * <p>
+ * The files indexed apart from an indexation of the whole directory, as by the
+ * {@link RepositoryWatcher}, are recorded in the manifest so that they aren't indexed again by
+ * the next indexation. The writings of the manifest of an instance are serialized.
+ * </p>
+ */
+public class RepositoryManifestIndexer {
+
+  private static final String MANIFEST_FILE_NAME = "silverCrawler.manifest";
+  private static final char SEPARATOR = '\t';
+  private static final Map<Path, Object> LOCKS = new ConcurrentHashMap<>();
+
+  private final String componentId;
+  private final Path repository;
+  private final Path manifest;
+  private final RepositoryIndexer indexer;
+  private final Object lock;
+
+  /**
+   * @param componentId the identifier of the SilverCrawler instance.
+   * @param repository the directory crawled by the instance.
+   */
+  public RepositoryManifestIndexer(final String componentId, final Path repository) {
+    this(componentId, repository,
+        Paths.get(FileRepositoryManager.getAbsolutePath(componentId), MANIFEST_FILE_NAME),
+        new RepositoryIndexer(null, componentId));
+  }
+
+  RepositoryManifestIndexer(final String componentId, final Path repository, final Path manifest,
+      final RepositoryIndexer indexer) {
+    this.componentId = componentId;
+    this.repository = repository;
+    this.manifest = manifest;
+    this.indexer = indexer;
+    this.lock = LOCKS.computeIfAbsent(manifest.toAbsolutePath(), m -> new Object());
+  }
+
+  /**
+   * Indexes the changes in the directory since the previous indexation. If the directory has
+   * never been indexed, all its files are indexed.
+   * @param userId the identifier of the user on behalf of whom the files are indexed.
+   * @throws IOException if the directory cannot be walked or the manifest cannot be written.
+   */
+  public void index(final String userId) throws IOException {
+    synchronized (lock) {
+      final long start = System.currentTimeMillis();
+      Files.createDirectories(manifest.getParent());
+      final Path newManifest = manifest.resolveSibling(MANIFEST_FILE_NAME + ".new");
+      try (ManifestReader previous = new ManifestReader(manifest);
+           BufferedWriter next = Files.newBufferedWriter(newManifest, Charsets.UTF_8)) {
+        final Merge merge = new Merge(previous, next, userId);
+        walk(repository, merge::accept);
+        merge.end();
+        next.flush();
+        SilverLogger.getLogger(this)
+            .info("Incremental indexation of {0} ({1}): {2} added, {3} modified, {4} deleted, " +
+                    "{5} unchanged in {6}ms", componentId, repository, merge.added,
+                merge.modified, merge.deleted, merge.unchanged,
+                System.currentTimeMillis() - start);
+      }
+      Files.move(newManifest, manifest, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    }
+  }
+
+  /**
+   * Records in the manifest the current state of the given files or directories that have just
+   * been indexed or unindexed, so that the next indexation doesn't index them again. A directory
+   * is recorded with all its content; the files that were in a recorded directory and that don't
+   * exist anymore are unindexed and the paths that don't exist anymore are removed from the
+   * manifest.
+   * @param paths the paths of the indexed or unindexed files or directories.
+   * @param userId the identifier of the user on behalf of whom the files are unindexed.
+   * @throws IOException if the manifest cannot be written.
+   */
+  public void record(final Collection<Path> paths, final String userId) throws IOException {
+    final List<String> roots = paths.stream()
+        .filter(p -> p.startsWith(repository) && !p.equals(repository))
+        .map(this::relativize)
+        .distinct()
+        .collect(Collectors.toList());
+    roots.removeIf(p -> roots.stream().anyMatch(r -> isInside(p, r)));
+    if (roots.isEmpty()) {
+      return;
+    }
+    roots.sort(RepositoryManifestIndexer::compare);
+    final List<Entry> entries = new ArrayList<>();
+    for (String root : roots) {
+      final Path path = repository.resolve(root);
+      final Entry entry = Files.exists(path, LinkOption.NOFOLLOW_LINKS) ? entryOf(path) : null;
+      if (entry != null) {
+        entries.add(entry);
+        if (entry.directory) {
+          walk(path, (e, f) -> entries.add(e));
+        }
+      }
+    }
+    final Set<String> existingPaths =
+        entries.stream().map(e -> e.path).collect(Collectors.toCollection(HashSet::new));
+    synchronized (lock) {
+      Files.createDirectories(manifest.getParent());
+      final Path newManifest = manifest.resolveSibling(MANIFEST_FILE_NAME + ".new");
+      try (ManifestReader previous = new ManifestReader(manifest);
+           BufferedWriter next = Files.newBufferedWriter(newManifest, Charsets.UTF_8)) {
+        final Iterator<Entry> recorded = entries.iterator();
+        Entry current = recorded.hasNext() ? recorded.next() : null;
+        Entry old = previous.next();
+        while (old != null) {
+          final String oldPath = old.path;
+          final boolean replaced =
+              roots.stream().anyMatch(r -> r.equals(oldPath) || isInside(oldPath, r));
+          if (replaced) {
+            if (!roots.contains(oldPath) && !existingPaths.contains(oldPath)) {
+              indexer.removePath(repository.resolve(oldPath), userId);
+            }
+          } else {
+            while (current != null && compare(current.path, oldPath) < 0) {
+              current.write(next);
+              current = recorded.hasNext() ? recorded.next() : null;
+            }
+            old.write(next);
+          }
+          old = previous.next();
+        }
+        while (current != null) {
+          current.write(next);
+          current = recorded.hasNext() ? recorded.next() : null;
+        }
+        next.flush();
+      }
+      Files.move(newManifest, manifest, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    }
+  }
+
+  /**
+   * Forgets all the files indexed so far: the next indexation will index again all the files of
+   * the directory.
+   * @throws IOException if the manifest cannot be deleted.
+   */
+  public void reset() throws IOException {
+    Files.deleteIfExists(manifest);
+  }
+
+  private void walk(final Path directory, final EntryConsumer consumer) throws IOException {
+    final List<Path> children = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      stream.forEach(children::add);
+    }
+    children.sort((p1, p2) -> p1.getFileName().toString().compareTo(p2.getFileName().toString()));
+    for (Path child : children) {
+      final Entry entry = entryOf(child);
+      if (entry != null) {
+        consumer.accept(entry, child);
+        if (entry.directory) {
+          walk(child, consumer);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the manifest entry of the given file.
+   * @return the entry or null if the file isn't a directory nor a regular file or if it cannot
+   * be read.
+   */
+  private Entry entryOf(final Path file) {
+    final BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    } catch (IOException e) {
+      // the file has been deleted in the meantime or it cannot be read
+      SilverLogger.getLogger(this).warn(e.getMessage());
+      return null;
+    }
+    if (attributes.isDirectory()) {
+      return new Entry(relativize(file), true, 0, attributes.lastModifiedTime().toMillis());
+    } else if (attributes.isRegularFile()) {
+      return new Entry(relativize(file), false, attributes.size(),
+          attributes.lastModifiedTime().toMillis());
+    }
+    return null;
+  }
+
+  private String relativize(final Path path) {
+    return repository.relativize(path).toString().replace('\\', '/');
+  }
+
+  /**
+   * Compares two relative paths in the order of the walk of the directory, that is segment by
+   * segment.
+   */
+  static int compare(final String path1, final String path2) {
+    return path1.replace('/', '\u0000').compareTo(path2.replace('/', '\u0000'));
+  }
+
+  private static boolean isInside(final String path, final String directory) {
+    return path.startsWith(directory + "/");
+  }
+
+  @FunctionalInterface
+  private interface EntryConsumer {
+    void accept(Entry entry, Path file) throws IOException;
+  }
+
+  /**
+   * Merges the walked files with the entries of the previous manifest.
+   */
+  private class Merge {
+    private final ManifestReader previous;
+    private final BufferedWriter next;
+    private final String userId;
+    private String indexedDirectory = null;
+    private int added = 0;
+    private int modified = 0;
+    private int deleted = 0;
+    private int unchanged = 0;
+
+    private Merge(final ManifestReader previous, final BufferedWriter next, final String userId) {
+      this.previous = previous;
+      this.next = next;
+      this.userId = userId;
+    }
+
+    private void accept(final Entry entry, final Path file) throws IOException {
+      Entry old = previous.peek();
+      while (old != null && compare(old.path, entry.path) < 0) {
+        delete(previous.next());
+        old = previous.peek();
+      }
+      if (old != null && old.path.equals(entry.path)) {
+        previous.next();
+        if (old.isModifiedIn(entry)) {
+          indexer.addPath(file, userId);
+          indexedDirectory = entry.directory ? entry.path : null;
+          modified++;
+        } else {
+          unchanged++;
+        }
+      } else if (indexedDirectory == null || !isInside(entry.path, indexedDirectory)) {
+        // a new directory is indexed with all its content
+        indexer.addPath(file, userId);
+        indexedDirectory = entry.directory ? entry.path : null;
+        added++;
+      } else {
+        added++;
+      }
+      entry.write(next);
+    }
+
+    private void end() throws IOException {
+      Entry old = previous.next();
+      while (old != null) {
+        delete(old);
+        old = previous.next();
+      }
+    }
+
+    private void delete(final Entry entry) {
+      indexer.removePath(repository.resolve(entry.path), userId);
+      deleted++;
+    }
+  }
+
+  /**
+   * An entry of the manifest.
+   */
+  static class Entry {
+    private final String path;
+    private final boolean directory;
+    private final long size;
+    private final long lastModified;
+
+    Entry(final String path, final boolean directory, final long size, final long lastModified) {
+      this.path = path;
+      this.directory = directory;
+      this.size = size;
+      this.lastModified = lastModified;
+    }
+
+    private boolean isModifiedIn(final Entry entry) {
+      return directory != entry.directory ||
+          (!directory && (size != entry.size || lastModified != entry.lastModified));
+    }
+
+    private void write(final BufferedWriter writer) throws IOException {
+      writer.write(directory ? 'D' : 'F');
+      writer.write(SEPARATOR);
+      writer.write(Long.toString(size));
+      writer.write(SEPARATOR);
+      writer.write(Long.toString(lastModified));
+      writer.write(SEPARATOR);
+      writer.write(escape(path));
+      writer.newLine();
+    }
+
+    private static Entry parse(final String line) {
+      final String[] fields = line.split(String.valueOf(SEPARATOR), 4);
+      return new Entry(unescape(fields[3]), "D".equals(fields[0]), Long.parseLong(fields[1]),
+          Long.parseLong(fields[2]));
+    }
+
+    private static String escape(final String path) {
+      return path.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(final String path) {
+      final StringBuilder result = new StringBuilder(path.length());
+      for (int i = 0; i < path.length(); i++) {
+        char c = path.charAt(i);
+        if (c == '\\' && i + 1 < path.length()) {
+          char escaped = path.charAt(++i);
+          result.append(escaped == 'n' ? '\n' : (escaped == 'r' ? '\r' : escaped));
+        } else {
+          result.append(c);
+        }
+      }
+      return result.toString();
+    }
+  }
+
+  /**
+   * Reads sequentially the entries of a manifest. A missing manifest is read as an empty one.
+   */
+  private static class ManifestReader implements AutoCloseable {
+    private final BufferedReader reader;
+    private Entry current;
+
+    private ManifestReader(final Path manifest) throws IOException {
+      this.reader = Files.exists(manifest) ? Files.newBufferedReader(manifest, Charsets.UTF_8) :
+          null;
+      this.current = read();
+    }
+
+    private Entry peek() {
+      return current;
+    }
+
+    private Entry next() throws IOException {
+      final Entry entry = current;
+      current = read();
+      return entry;
+    }
+
+    private Entry read() throws IOException {
+      if (reader == null) {
+        return null;
+      }
+      String line = reader.readLine();
+      while (line != null && line.isEmpty()) {
+        line = reader.readLine();
+      }
+      return line == null ? null : Entry.parse(line);
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (reader != null) {
+        reader.close();
+      }
+    }
+  }
+}
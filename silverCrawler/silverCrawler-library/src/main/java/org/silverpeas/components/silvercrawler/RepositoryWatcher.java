@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.silvercrawler;
+
+import org.silverpeas.core.index.indexing.model.RepositoryIndexer;
+import org.silverpeas.core.thread.ManagedThreadPool;
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Watches the directories crawled by the SilverCrawler instances in order to index the changes
+ * in them as soon as they occur. It is only suitable for local file systems: the changes in a
+ * remote file system aren't always notified and the events lost are caught up by the next
+ * scheduled indexation.
+ * <p>
+ * The events are coalesced: the changes on a file are indexed once no more event has been
+ * received for a short delay, so a file being written is indexed only once. The modifications of a
+ * directory are ignored: they are the creation or the deletion of a file in it, which are
+ * notified by their own. The indexed changes are recorded in the manifest of the
+ * {@link RepositoryManifestIndexer} so that they aren't indexed again by the next scheduled
+ * indexation. The watching is run by the {@link ManagedThreadPool} of the platform.
+ * </p>
+ */
+public class RepositoryWatcher {
+
+  private static final long QUIET_DELAY = 2;
+
+  private final Map<WatchKey, WatchedDirectory> directories = new ConcurrentHashMap<>();
+  private WatchService watchService;
+  private Future<Void> watching;
+  private volatile boolean running = false;
+
+  /**
+   * Starts the watching.
+   * @throws IOException if the watch service cannot be created.
+   */
+  public synchronized void start() throws IOException {
+    if (!running) {
+      watchService = FileSystems.getDefault().newWatchService();
+      running = true;
+      watching = ManagedThreadPool.getPool().invoke(() -> {
+        watchUntilStopped();
+        return null;
+      });
+    }
+  }
+
+  /**
+   * Stops the watching.
+   */
+  public synchronized void stop() {
+    running = false;
+    if (watching != null) {
+      watching.cancel(true);
+      watching = null;
+    }
+    try {
+      if (watchService != null) {
+        watchService.close();
+      }
+    } catch (IOException e) {
+      SilverLogger.getLogger(this).silent(e);
+    }
+    directories.clear();
+  }
+
+  /**
+   * Watches the directory crawled by the given SilverCrawler instance and all its
+   * subdirectories.
+   * @param componentId the identifier of the SilverCrawler instance.
+   * @param repository the directory crawled by the instance.
+   * @param userId the identifier of the user on behalf of whom the files are indexed.
+   * @throws IOException if the directory cannot be watched.
+   */
+  public void watch(final String componentId, final Path repository, final String userId)
+      throws IOException {
+    final WatchedRepository watched =
+        new WatchedRepository(new RepositoryIndexer(null, componentId),
+            new RepositoryManifestIndexer(componentId, repository), userId);
+    register(watched, repository);
+  }
+
+  private void register(final WatchedRepository repository, final Path directory)
+      throws IOException {
+    Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs)
+          throws IOException {
+        WatchKey key = dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+        directories.put(key, new WatchedDirectory(dir, repository));
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFileFailed(final Path file, final IOException exc) {
+        SilverLogger.getLogger(RepositoryWatcher.this).warn(exc.getMessage());
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  private void watchUntilStopped() {
+    final Map<Path, Change> changes = new LinkedHashMap<>();
+    while (running) {
+      try {
+        WatchKey key = changes.isEmpty() ? watchService.take() :
+            watchService.poll(QUIET_DELAY, TimeUnit.SECONDS);
+        if (key == null) {
+          index(changes.values());
+          changes.clear();
+        } else {
+          collect(key, changes);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception e) {
+        if (running) {
+          SilverLogger.getLogger(this).error(e);
+        } else {
+          return;
+        }
+      }
+    }
+  }
+
+  private void collect(final WatchKey key, final Map<Path, Change> changes) {
+    final WatchedDirectory directory = directories.get(key);
+    if (directory != null) {
+      for (WatchEvent<?> event : key.pollEvents()) {
+        if (event.kind() != OVERFLOW) {
+          Path path = directory.path.resolve((Path) event.context());
+          // a directory is modified by the creation or the deletion of a file in it
+          if (event.kind() != ENTRY_MODIFY || !Files.isDirectory(path)) {
+            changes.put(path, new Change(path, event.kind() == ENTRY_DELETE, directory));
+          }
+        }
+      }
+    }
+    if (!key.reset()) {
+      directories.remove(key);
+    }
+  }
+
+  private void index(final Collection<Change> changes) {
+    final Map<WatchedRepository, List<Path>> indexedPaths = new HashMap<>();
+    for (Change change : changes) {
+      if (index(change)) {
+        indexedPaths.computeIfAbsent(change.directory.repository, r -> new ArrayList<>())
+            .add(change.path);
+      }
+    }
+    indexedPaths.forEach((repository, paths) -> {
+      try {
+        repository.manifestIndexer.record(paths, repository.userId);
+      } catch (Exception e) {
+        SilverLogger.getLogger(this).error(e);
+      }
+    });
+  }
+
+  private boolean index(final Change change) {
+    final WatchedRepository repository = change.directory.repository;
+    final RepositoryIndexer indexer = repository.indexer;
+    final String userId = repository.userId;
+    try {
+      if (change.deleted || !Files.exists(change.path)) {
+        indexer.removePath(change.path, userId);
+      } else if (Files.isDirectory(change.path)) {
+        register(repository, change.path);
+        indexer.addPath(change.path, userId);
+      } else if (Files.isRegularFile(change.path)) {
+        indexer.addPath(change.path, userId);
+      }
+      return true;
+    } catch (Exception e) {
+      SilverLogger.getLogger(this)
+          .error("Cannot index {0}", new String[]{change.path.toString()}, e);
+      return false;
+    }
+  }
+
+  private static class WatchedRepository {
+    private final RepositoryIndexer indexer;
+    private final RepositoryManifestIndexer manifestIndexer;
+    private final String userId;
+
+    private WatchedRepository(final RepositoryIndexer indexer,
+        final RepositoryManifestIndexer manifestIndexer, final String userId) {
+      this.indexer = indexer;
+      this.manifestIndexer = manifestIndexer;
+      this.userId = userId;
+    }
+  }
+
+  private static class WatchedDirectory {
+    private final Path path;
+    private final WatchedRepository repository;
+
+    private WatchedDirectory(final Path path, final WatchedRepository repository) {
+      this.path = path;
+      this.repository = repository;
+    }
+  }
+
+  private static class Change {
+    private final Path path;
+    private final boolean deleted;
+    private final WatchedDirectory directory;
+
+    private Change(final Path path, final boolean deleted, final WatchedDirectory directory) {
+      this.path = path;
+      this.deleted = deleted;
+      this.directory = directory;
+    }
+  }
+}
@@ -27,7 +27,6 @@ package org.silverpeas.components.silvercrawler;
 import org.silverpeas.components.silvercrawler.model.SilverCrawlerRuntimeException;
 import org.silverpeas.core.admin.component.model.ComponentInstLight;
 import org.silverpeas.core.admin.service.OrganizationController;
-import org.silverpeas.core.index.indexing.model.RepositoryIndexer;
 import org.silverpeas.core.scheduler.Scheduler;
 import org.silverpeas.core.scheduler.SchedulerEvent;
 import org.silverpeas.core.scheduler.SchedulerEventListener;
@@ -37,6 +36,7 @@ import org.silverpeas.core.util.ResourceLocator;
 import org.silverpeas.core.util.SettingBundle;
 import org.silverpeas.core.util.logging.SilverLogger;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -46,6 +46,8 @@ public class ScheduledIndexFiles implements SchedulerEventListener {
 
   public static final String SILVERCRAWLERENGINE_JOB_NAME = "SilverCrawlerEngineJob";
 
+  private static final RepositoryWatcher WATCHER = new RepositoryWatcher();
+
   public void initialize() {
     try {
       SettingBundle resources = ResourceLocator.getSettingBundle(
@@ -55,36 +57,67 @@ public class ScheduledIndexFiles implements SchedulerEventListener {
       scheduler.unscheduleJob(SILVERCRAWLERENGINE_JOB_NAME);
       JobTrigger trigger = JobTrigger.triggerAt(cron);
       scheduler.scheduleJob(SILVERCRAWLERENGINE_JOB_NAME, trigger, this);
+      WATCHER.stop();
+      if (resources.getBoolean("liveIndex", false)) {
+        startLiveIndex();
+      }
     } catch (Exception e) {
       SilverLogger.getLogger(this).error(e);
     }
   }
 
+  /**
+   * Indexes the changes occurred since the previous indexation in the directories of the
+   * instances for which the periodic indexation is enabled.
+   */
   public void doScheduledIndex() {
     try {
       // indexation des fichiers du composant
       OrganizationController orga = OrganizationController.get();
       List<ComponentInstLight> instances = orga.getComponentsWithParameterValue("periodicIndex", "yes");
       for (ComponentInstLight instance : instances) {
-        RepositoryIndexer repositoryIndexer = new RepositoryIndexer(null, instance.getId());
-
-        List<String> profiles = new ArrayList<>();
-        profiles.add("admin");
-        String[] adminIds = orga.getUsersIdsByRoleNames(instance.getId(), profiles);
-
-        String adminId = "0";
-        if (adminIds != null && adminIds.length > 0) {
-          adminId = adminIds[0];
-        }
-
         Path pathRepository = Paths.get(instance.getParameterValue("directory"));
-        repositoryIndexer.addPath(pathRepository, adminId);
+        try {
+          new RepositoryManifestIndexer(instance.getId(), pathRepository)
+              .index(getAdminId(orga, instance));
+        } catch (Exception e) {
+          SilverLogger.getLogger(this)
+              .error("Indexation of {0} failed", new String[]{instance.getId()}, e);
+        }
       }
     } catch (Exception e) {
       throw new SilverCrawlerRuntimeException(e);
     }
   }
 
+  private void startLiveIndex() throws IOException {
+    WATCHER.start();
+    OrganizationController orga = OrganizationController.get();
+    List<ComponentInstLight> instances =
+        orga.getComponentsWithParameterValue("periodicIndex", "yes");
+    for (ComponentInstLight instance : instances) {
+      Path pathRepository = Paths.get(instance.getParameterValue("directory"));
+      try {
+        WATCHER.watch(instance.getId(), pathRepository, getAdminId(orga, instance));
+      } catch (IOException e) {
+        SilverLogger.getLogger(this)
+            .error("Cannot watch the directory {0}", new String[]{pathRepository.toString()}, e);
+      }
+    }
+  }
+
+  private String getAdminId(final OrganizationController orga, final ComponentInstLight instance) {
+    List<String> profiles = new ArrayList<>();
+    profiles.add("admin");
+    String[] adminIds = orga.getUsersIdsByRoleNames(instance.getId(), profiles);
+
+    String adminId = "0";
+    if (adminIds != null && adminIds.length > 0) {
+      adminId = adminIds[0];
+    }
+    return adminId;
+  }
+
   @Override
   public void triggerFired(SchedulerEvent anEvent) {
     doScheduledIndex();
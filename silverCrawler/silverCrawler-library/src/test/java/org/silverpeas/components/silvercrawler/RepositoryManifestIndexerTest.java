@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.silvercrawler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.silverpeas.core.index.indexing.model.RepositoryIndexer;
+import org.silverpeas.core.test.extention.EnableSilverTestEnv;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@EnableSilverTestEnv
+class RepositoryManifestIndexerTest {
+
+  private static final String USER_ID = "1";
+  private static final long A_DATE = 1561975451000L;
+
+  @TempDir
+  Path temp;
+  private Path repository;
+  private RepositoryIndexer indexer;
+  private RepositoryManifestIndexer manifestIndexer;
+
+  @BeforeEach
+  void setup() throws IOException {
+    repository = Files.createDirectory(temp.resolve("repository"));
+    indexer = mock(RepositoryIndexer.class);
+    manifestIndexer = new RepositoryManifestIndexer("silverCrawler1", repository,
+        temp.resolve("data").resolve("silverCrawler.manifest"), indexer);
+    createFile("a.txt", "a");
+    createFile("docs/b.txt", "b");
+    createFile("docs/c.txt", "c");
+    manifestIndexer.index(USER_ID);
+  }
+
+  @Test
+  void aFirstIndexationIndexesTheNewDirectoriesRecursively() {
+    verify(indexer).addPath(repository.resolve("a.txt"), USER_ID);
+    verify(indexer).addPath(repository.resolve("docs"), USER_ID);
+    verify(indexer, never()).addPath(repository.resolve("docs/b.txt"), USER_ID);
+    verify(indexer, never()).removePath(any(Path.class), anyString());
+  }
+
+  @Test
+  void nothingIsIndexedWhenNothingChanged() throws IOException {
+    reset(indexer);
+    manifestIndexer.index(USER_ID);
+    verifyNoMoreInteractions(indexer);
+  }
+
+  @Test
+  void onlyTheAddedFilesAreIndexed() throws IOException {
+    reset(indexer);
+    createFile("docs/a.txt", "a");
+    createFile("z.txt", "z");
+    manifestIndexer.index(USER_ID);
+    verify(indexer).addPath(repository.resolve("docs/a.txt"), USER_ID);
+    verify(indexer).addPath(repository.resolve("z.txt"), USER_ID);
+    verifyNoMoreInteractions(indexer);
+  }
+
+  @Test
+  void onlyTheModifiedFilesAreIndexedAgain() throws IOException {
+    reset(indexer);
+    createFile("docs/b.txt", "another content");
+    Files.setLastModifiedTime(repository.resolve("a.txt"), FileTime.fromMillis(A_DATE + 1000));
+    manifestIndexer.index(USER_ID);
+    verify(indexer).addPath(repository.resolve("a.txt"), USER_ID);
+    verify(indexer).addPath(repository.resolve("docs/b.txt"), USER_ID);
+    verifyNoMoreInteractions(indexer);
+  }
+
+  @Test
+  void theDeletedFilesAreUnindexed() throws IOException {
+    reset(indexer);
+    Files.delete(repository.resolve("docs/c.txt"));
+    Files.delete(repository.resolve("a.txt"));
+    manifestIndexer.index(USER_ID);
+    verify(indexer).removePath(repository.resolve("a.txt"), USER_ID);
+    verify(indexer).removePath(repository.resolve("docs/c.txt"), USER_ID);
+    verifyNoMoreInteractions(indexer);
+  }
+
+  @Test
+  void theContentOfADeletedDirectoryIsUnindexed() throws IOException {
+    reset(indexer);
+    Files.delete(repository.resolve("docs/b.txt"));
+    Files.delete(repository.resolve("docs/c.txt"));
+    Files.delete(repository.resolve("docs"));
+    manifestIndexer.index(USER_ID);
+    verify(indexer).removePath(repository.resolve("docs"), USER_ID);
+    verify(indexer).removePath(repository.resolve("docs/b.txt"), USER_ID);
+    verify(indexer).removePath(repository.resolve("docs/c.txt"), USER_ID);
+    verifyNoMoreInteractions(indexer);
+  }
+
+  @Test
+  void aResetIndexesAgainAllTheFiles() throws IOException {
+    reset(indexer);
+    manifestIndexer.reset();
+    manifestIndexer.index(USER_ID);
+    verify(indexer).addPath(repository.resolve("a.txt"), USER_ID);
+    verify(indexer).addPath(repository.resolve("docs"), USER_ID);
+    verifyNoMoreInteractions(indexer);
+  }
+
+  @Test
+  void theRecordedChangesAreNotIndexedAgain() throws IOException {
+    createFile("docs/b.txt", "another content");
+    createFile("docs/a.txt", "a");
+    createFile("news/d.txt", "d");
+    Files.delete(repository.resolve("a.txt"));
+    manifestIndexer.record(Arrays.asList(repository.resolve("docs/b.txt"),
+        repository.resolve("docs/a.txt"), repository.resolve("news"),
+        repository.resolve("a.txt")), USER_ID);
+    reset(indexer);
+    manifestIndexer.index(USER_ID);
+    verifyNoMoreInteractions(indexer);
+  }
+
+  @Test
+  void theFilesNotRecordedAreStillIndexed() throws IOException {
+    createFile("docs/b.txt", "another content");
+    createFile("z.txt", "z");
+    manifestIndexer.record(Collections.singletonList(repository.resolve("z.txt")), USER_ID);
+    reset(indexer);
+    manifestIndexer.index(USER_ID);
+    verify(indexer).addPath(repository.resolve("docs/b.txt"), USER_ID);
+    verifyNoMoreInteractions(indexer);
+  }
+
+  @Test
+  void theVanishedContentOfARecordedDirectoryIsUnindexed() throws IOException {
+    reset(indexer);
+    Files.delete(repository.resolve("docs/c.txt"));
+    manifestIndexer.record(Collections.singletonList(repository.resolve("docs")), USER_ID);
+    verify(indexer).removePath(repository.resolve("docs/c.txt"), USER_ID);
+    verifyNoMoreInteractions(indexer);
+    manifestIndexer.index(USER_ID);
+    verifyNoMoreInteractions(indexer);
+  }
+
+  @Test
+  void thePathsAreComparedInTheOrderOfTheWalk() {
+    assertThat(RepositoryManifestIndexer.compare("docs/z.txt", "docs.txt"), lessThan(0));
+    assertThat(RepositoryManifestIndexer.compare("docs", "docs/a.txt"), lessThan(0));
+    assertThat(RepositoryManifestIndexer.compare("docs/a.txt", "docs/a.txt"), is(0));
+  }
+
+  private void createFile(final String path, final String content) throws IOException {
+    final Path file = repository.resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    Files.setLastModifiedTime(file, FileTime.fromMillis(A_DATE));
+  }
+}
@@ -25,6 +25,7 @@ package org.silverpeas.components.whitepages;
 
 import org.silverpeas.core.admin.component.ComponentInstancePreDestruction;
 import org.silverpeas.core.contribution.template.publication.PublicationTemplateManager;
+import org.silverpeas.components.whitepages.record.UserRecordCache;
 import org.silverpeas.components.whitepages.service.WhitePageServiceProvider;
 import org.silverpeas.core.persistence.jdbc.DBUtil;
 
@@ -56,6 +57,7 @@ public class WhitePagesInstancePreDestruction implements ComponentInstancePreDes
         deletion.execute();
         PublicationTemplateManager.getInstance().removePublicationTemplate(componentInstanceId);
         WhitePageServiceProvider.getWhitePagesService().deleteFields(componentInstanceId);
+        UserRecordCache.get().invalidate(componentInstanceId);
       }
     } catch (Exception e) {
       throw new RuntimeException(e.getMessage(), e);
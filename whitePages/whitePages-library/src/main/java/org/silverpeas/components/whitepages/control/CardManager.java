@@ -48,11 +48,14 @@ import org.silverpeas.core.pdc.pdc.model.PdcException;
 import org.silverpeas.core.pdc.pdc.service.PdcManager;
 import org.silverpeas.core.persistence.jdbc.DBUtil;
 import org.silverpeas.core.persistence.jdbc.bean.IdPK;
+import org.silverpeas.core.persistence.jdbc.sql.JdbcSqlQuery;
+import org.silverpeas.core.persistence.jdbc.sql.ResultSetWrapper;
 import org.silverpeas.core.persistence.jdbc.bean.PersistenceException;
 import org.silverpeas.core.persistence.jdbc.bean.SilverpeasBeanDAO;
 import org.silverpeas.core.persistence.jdbc.bean.SilverpeasBeanDAOFactory;
 import org.silverpeas.core.util.DateUtil;
 import org.silverpeas.core.util.ServiceProvider;
+import org.silverpeas.core.util.StringUtil;
 import org.silverpeas.core.util.logging.SilverLogger;
 
 import javax.inject.Inject;
@@ -62,12 +65,19 @@ import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class CardManager {
 
+  private static final String CARD_TABLE = "SC_WhitePages_Card";
+  private static final String CARD_COLUMNS =
+      "id, userId, hideStatus, instanceId, creationDate, creatorId";
+  private static final int MAX_IDS_PER_REQUEST = 500;
+
   @Inject
   private WhitePagesContentManager contentManager = null;
 
@@ -190,29 +200,100 @@ public class CardManager {
     return cards;
   }
 
-  @SuppressWarnings("unchecked")
   public Collection<Card> getCardsByIds(List<String> ids) throws WhitePagesException {
-    StringBuilder where = new StringBuilder();
-    int sizeOfIds = ids.size();
-    for (int i = 0; i < sizeOfIds - 1; i++) {
-      where.append(" id = ").append(ids.get(i)).append(" or ");
+    return getCardsByIds(null, ids);
+  }
+
+  /**
+   * Gets the cards with the specified identifiers. The identifiers are used by slices in order
+   * to keep the SQL requests reasonably short and those that aren't numbers are ignored.
+   * @param instanceId the unique identifier of the WhitePages instance to which the cards have to
+   * belong. If null, the cards are taken whatever their WhitePages instance.
+   * @param ids the unique identifiers of the cards.
+   * @return the cards in no particular order.
+   * @throws WhitePagesException if the cards cannot be fetched.
+   */
+  public Collection<Card> getCardsByIds(String instanceId, Collection<String> ids)
+      throws WhitePagesException {
+    List<Integer> cardIds = new ArrayList<>(ids.size());
+    for (String id : ids) {
+      if (StringUtil.isInteger(id)) {
+        cardIds.add(Integer.parseInt(id));
+      }
     }
-    if (sizeOfIds != 0) {
-      where.append(" id = ").append(ids.get(sizeOfIds - 1));
+    List<Card> cards = new ArrayList<>(cardIds.size());
+    try {
+      for (int i = 0; i < cardIds.size(); i += MAX_IDS_PER_REQUEST) {
+        List<Integer> slice = cardIds.subList(i, Math.min(i + MAX_IDS_PER_REQUEST, cardIds.size()));
+        JdbcSqlQuery query = JdbcSqlQuery.createSelect(CARD_COLUMNS)
+            .from(CARD_TABLE)
+            .where("id").in(slice);
+        if (instanceId != null) {
+          query.and("instanceId = ?", instanceId);
+        }
+        cards.addAll(query.execute(CardManager::fetchCard));
+      }
+    } catch (SQLException e) {
+      throw new WhitePagesException("CardManager.getCardsByIds", SilverpeasException.ERROR,
+          "whitePages.EX_CANT_GET_CARDS", "", e);
     }
+    return cards;
+  }
 
-    Collection<Card> cards;
+  /**
+   * Gets the unique identifier of all the users having at least one card in a WhitePages
+   * instance.
+   * @return a set of user identifiers.
+   * @throws WhitePagesException if the identifiers cannot be fetched.
+   */
+  public Set<String> getAllCardUserIds() throws WhitePagesException {
     try {
-      IdPK pk = new IdPK();
-      SilverpeasBeanDAO dao = getCardDAO();
-      cards = dao.findByWhereClause(pk, where.toString());
-    } catch (PersistenceException e) {
-      throw new WhitePagesException("CardManager.getCards", SilverpeasException.ERROR,
+      return new HashSet<>(JdbcSqlQuery.createSelect("DISTINCT userId")
+          .from(CARD_TABLE)
+          .execute(row -> row.getString(1)));
+    } catch (SQLException e) {
+      throw new WhitePagesException("CardManager.getAllCardUserIds", SilverpeasException.ERROR,
           "whitePages.EX_CANT_GET_CARDS", "", e);
     }
+  }
+
+  /**
+   * Gets the cards of the specified users in all the WhitePages instances.
+   * @param userIds the unique identifier of the users.
+   * @return the cards of the users.
+   * @throws WhitePagesException if the cards cannot be fetched.
+   */
+  public Collection<Card> getCardsOfUsers(Collection<String> userIds) throws WhitePagesException {
+    List<String> ids = new ArrayList<>(userIds);
+    List<Card> cards = new ArrayList<>(ids.size());
+    try {
+      for (int i = 0; i < ids.size(); i += MAX_IDS_PER_REQUEST) {
+        List<String> slice = ids.subList(i, Math.min(i + MAX_IDS_PER_REQUEST, ids.size()));
+        cards.addAll(JdbcSqlQuery.createSelect(CARD_COLUMNS)
+            .from(CARD_TABLE)
+            .where("userId").in(slice)
+            .execute(CardManager::fetchCard));
+      }
+    } catch (SQLException e) {
+      throw new WhitePagesException("CardManager.getCardsOfUsers", SilverpeasException.ERROR,
+          "whitePages.EX_CANT_GET_USERCARDS", "", e);
+    }
     return cards;
   }
 
+  private static Card fetchCard(ResultSetWrapper row) throws SQLException {
+    IdPK pk = new IdPK();
+    pk.setIdAsLong(row.getLong(1));
+    Card card = new Card();
+    card.setPK(pk);
+    card.setUserId(row.getString(2));
+    card.setHideStatus(row.getInt(3));
+    card.setInstanceId(row.getString(4));
+    card.setCreationDate(row.getString(5));
+    card.setCreatorId(row.getInt(6));
+    return card;
+  }
+
   @SuppressWarnings("unchecked")
   public Collection<Card> getVisibleCards(String instanceId) throws WhitePagesException {
     String where = " instanceId = '" + instanceId + "' and hideStatus = 0";
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.whitepages.control;
+
+import org.silverpeas.components.whitepages.WhitePagesException;
+import org.silverpeas.components.whitepages.model.Card;
+import org.silverpeas.core.admin.service.AdministrationServiceProvider;
+import org.silverpeas.core.admin.user.model.UserDetail;
+import org.silverpeas.core.contribution.content.form.DataRecord;
+import org.silverpeas.core.contribution.content.form.RecordSet;
+import org.silverpeas.core.contribution.template.publication.PublicationTemplate;
+import org.silverpeas.core.contribution.template.publication.PublicationTemplateManager;
+import org.silverpeas.core.scheduler.Scheduler;
+import org.silverpeas.core.scheduler.SchedulerEvent;
+import org.silverpeas.core.scheduler.SchedulerEventListener;
+import org.silverpeas.core.scheduler.SchedulerProvider;
+import org.silverpeas.core.scheduler.trigger.JobTrigger;
+import org.silverpeas.core.util.ResourceLocator;
+import org.silverpeas.core.util.SettingBundle;
+import org.silverpeas.core.util.logging.SilverLogger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Removes in the background the cards whose user doesn't exist anymore. Such cards are no more
+ * displayed in the WhitePages instances but they are kept until this job deletes them.
+ */
+public class ScheduledOrphanCardsCleaning implements SchedulerEventListener {
+
+  public static final String WHITEPAGES_JOB_NAME = "WhitePagesOrphanCardsCleaning";
+
+  public void initialize() {
+    try {
+      SettingBundle settings =
+          ResourceLocator.getSettingBundle("org.silverpeas.whitePages.settings.settings");
+      String cron = settings.getString("cronScheduledOrphanCardsCleaning", "");
+      Scheduler scheduler = SchedulerProvider.getVolatileScheduler();
+      scheduler.unscheduleJob(WHITEPAGES_JOB_NAME);
+      if (!cron.trim().isEmpty()) {
+        JobTrigger trigger = JobTrigger.triggerAt(cron);
+        scheduler.scheduleJob(WHITEPAGES_JOB_NAME, trigger, this);
+      }
+    } catch (Exception e) {
+      SilverLogger.getLogger(this).error(e);
+    }
+  }
+
+  public void doScheduledOrphanCardsCleaning() {
+    CardManager cardManager = CardManager.getInstance();
+    Map<String, List<String>> orphanCardIdsPerInstance = new HashMap<>();
+    try {
+      Set<String> userIds = cardManager.getAllCardUserIds();
+      userIds.removeIf(userId -> UserDetail.getById(userId) != null);
+      if (userIds.isEmpty()) {
+        return;
+      }
+      for (Card card : cardManager.getCardsOfUsers(userIds)) {
+        orphanCardIdsPerInstance.computeIfAbsent(card.getInstanceId(), i -> new ArrayList<>())
+            .add(card.getPK().getId());
+      }
+    } catch (WhitePagesException e) {
+      throw new RuntimeException(e.getMessage(), e);
+    }
+    for (Map.Entry<String, List<String>> orphanCards : orphanCardIdsPerInstance.entrySet()) {
+      String instanceId = orphanCards.getKey();
+      try {
+        deleteCardRecords(instanceId, orphanCards.getValue());
+        cardManager.delete(orphanCards.getValue());
+      } catch (Exception e) {
+        SilverLogger.getLogger(this)
+            .error("Cannot delete the orphan cards of " + instanceId + ": " + e.getMessage(), e);
+      }
+    }
+  }
+
+  private void deleteCardRecords(String instanceId, Collection<String> cardIds) throws Exception {
+    String cardTemplate = AdministrationServiceProvider.getAdminService()
+        .getComponentParameterValue(instanceId, "cardTemplate");
+    PublicationTemplate template =
+        PublicationTemplateManager.getInstance().getPublicationTemplate(instanceId, cardTemplate);
+    RecordSet recordSet = template.getRecordSet();
+    for (String cardId : cardIds) {
+      DataRecord data = recordSet.getRecord(cardId);
+      if (data != null) {
+        recordSet.delete(data);
+      }
+    }
+  }
+
+  @Override
+  public void triggerFired(SchedulerEvent anEvent) {
+    doScheduledOrphanCardsCleaning();
+  }
+
+  @Override
+  public void jobSucceeded(SchedulerEvent anEvent) {
+    // nothing to do
+  }
+
+  @Override
+  public void jobFailed(SchedulerEvent anEvent) {
+    SilverLogger.getLogger(this).error("The job '"
+        + anEvent.getJobExecutionContext().getJobName() + "' was not successfull");
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception.  You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.whitepages.record;
+
+import org.silverpeas.core.admin.user.model.UserDetail;
+import org.silverpeas.core.admin.user.model.UserFull;
+import org.silverpeas.core.annotation.Service;
+import org.silverpeas.core.util.ResourceLocator;
+import org.silverpeas.core.util.ServiceProvider;
+
+import javax.inject.Singleton;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A cache of the {@link UserRecord} instances of the users having a card in a WhitePages
+ * instance. Loading the full profile of a user is costly, so the records are kept for a while
+ * per WhitePages instance and they are evicted as soon as the profile of their user changes.
+ * <p>
+ * The users that don't exist anymore aren't cached: the cards referring them are orphans and
+ * they are removed in the background by the {@link
+ * org.silverpeas.components.whitepages.control.ScheduledOrphanCardsCleaning} job.
+ * </p>
+ */
+@Service
+@Singleton
+public class UserRecordCache {
+
+  private static final int DEFAULT_TTL_MINUTES = 10;
+
+  private final Map<String, Map<String, CachedRecord>> cachesPerInstance =
+      new ConcurrentHashMap<>();
+  private final long ttl;
+
+  protected UserRecordCache() {
+    int ttlInMinutes =
+        ResourceLocator.getSettingBundle("org.silverpeas.whitePages.settings.settings")
+            .getInteger("userRecord.cache.ttl", DEFAULT_TTL_MINUTES);
+    this.ttl = TimeUnit.MINUTES.toMillis(ttlInMinutes);
+  }
+
+  public static UserRecordCache get() {
+    return ServiceProvider.getService(UserRecordCache.class);
+  }
+
+  /**
+   * Gets the record of the specified user in the given WhitePages instance.
+   * @param instanceId the unique identifier of a WhitePages instance.
+   * @param userId the unique identifier of a user.
+   * @return the record of the user or null if the user doesn't exist anymore.
+   */
+  public UserRecord getRecord(final String instanceId, final String userId) {
+    final Map<String, CachedRecord> cache =
+        cachesPerInstance.computeIfAbsent(instanceId, i -> new ConcurrentHashMap<>());
+    final long now = System.currentTimeMillis();
+    CachedRecord cached = cache.get(userId);
+    if (cached == null || cached.expiration < now) {
+      final UserDetail user = UserFull.getById(userId);
+      if (user == null) {
+        cache.remove(userId);
+        return null;
+      }
+      cached = new CachedRecord(new UserRecord(user), now + ttl);
+      cache.put(userId, cached);
+    }
+    return cached.record;
+  }
+
+  /**
+   * Gets the records of the specified users in the given WhitePages instance. The users that
+   * don't exist anymore are absent of the returned map.
+   * @param instanceId the unique identifier of a WhitePages instance.
+   * @param userIds the unique identifiers of users.
+   * @return a map of the user records indexed by the user identifiers.
+   */
+  public Map<String, UserRecord> getRecords(final String instanceId,
+      final Collection<String> userIds) {
+    final Map<String, UserRecord> records = new HashMap<>(userIds.size());
+    for (String userId : userIds) {
+      if (!records.containsKey(userId)) {
+        final UserRecord record = getRecord(instanceId, userId);
+        if (record != null) {
+          records.put(userId, record);
+        }
+      }
+    }
+    return records;
+  }
+
+  /**
+   * Evicts the record of the specified user from the caches of all the WhitePages instances.
+   * @param userId the unique identifier of a user.
+   */
+  public void evict(final String userId) {
+    cachesPerInstance.values().forEach(c -> c.remove(userId));
+  }
+
+  /**
+   * Clears the cache of the specified WhitePages instance.
+   * @param instanceId the unique identifier of a WhitePages instance.
+   */
+  public void invalidate(final String instanceId) {
+    cachesPerInstance.remove(instanceId);
+  }
+
+  private static class CachedRecord {
+    private final UserRecord record;
+    private final long expiration;
+
+    private CachedRecord(final UserRecord record, final long expiration) {
+      this.record = record;
+      this.expiration = expiration;
+    }
+  }
+}
@@ -30,6 +30,7 @@ import org.silverpeas.components.whitepages.model.SearchField;
 import org.silverpeas.components.whitepages.model.SearchFieldsType;
 import org.silverpeas.components.whitepages.model.WhitePagesCard;
 import org.silverpeas.components.whitepages.record.UserRecord;
+import org.silverpeas.components.whitepages.record.UserRecordCache;
 import org.silverpeas.components.whitepages.record.UserTemplate;
 import org.silverpeas.components.whitepages.service.WhitePageServiceProvider;
 import org.silverpeas.core.admin.component.model.CompoSpace;
@@ -450,30 +451,11 @@ public class WhitePagesSessionController extends AbstractComponentSessionControl
   }
 
   /**
-   * Affecte les UserRecord à chaque Card d'une liste
+   * Affecte les UserRecord à chaque Card d'une liste. Les fiches dont l'utilisateur n'existe plus
+   * sont ignorées : elles sont supprimées en tâche de fond par ScheduledOrphanCardsCleaning.
    */
-  private Collection<Card> setUserRecords(Collection<Card> cards) throws WhitePagesException {
-    List<Card> listCards = new ArrayList<>();
-    try {
-      if (cards != null) {
-        for (Card card : cards) {
-          if (getUserTemplate().getRecord(card.getUserId()).getUserDetail() == null) {
-            // l'utilisateur n'existe plus
-            String idCard = card.getPK().getId();
-            List<String> listId = new ArrayList<>();
-            listId.add(idCard);
-            delete(listId);
-          } else {
-            card.writeUserRecord(getUserTemplate().getRecord(card.getUserId()));
-            listCards.add(card);
-          }
-        }
-      }
-    } catch (WhitePagesException e) {
-      throw new WhitePagesException("WhitePagesSessionController.setUserRecords",
-          SilverpeasException.ERROR, "whitePages.EX_CANT_GET_RECORD", "", e);
-    }
-
+  private Collection<Card> setUserRecords(Collection<Card> cards) {
+    List<Card> listCards = withUserRecords(cards);
     Collections.sort(listCards, new Comparator<Card>() {
       @Override
       public int compare(Card o1, Card o2) {
@@ -490,6 +472,30 @@ public class WhitePagesSessionController extends AbstractComponentSessionControl
     return listCards;
   }
 
+  /**
+   * Affecte les UserRecord, issus du cache de l'annuaire, à chaque Card d'une liste en conservant
+   * l'ordre de la liste et en ignorant les fiches dont l'utilisateur n'existe plus.
+   */
+  private List<Card> withUserRecords(Collection<Card> cards) {
+    List<Card> listCards = new ArrayList<>();
+    if (cards != null) {
+      Set<String> userIds = new HashSet<>();
+      for (Card card : cards) {
+        userIds.add(card.getUserId());
+      }
+      Map<String, UserRecord> userRecords =
+          UserRecordCache.get().getRecords(getComponentId(), userIds);
+      for (Card card : cards) {
+        UserRecord userRecord = userRecords.get(card.getUserId());
+        if (userRecord != null) {
+          card.writeUserRecord(userRecord);
+          listCards.add(card);
+        }
+      }
+    }
+    return listCards;
+  }
+
   /**
    * Supprime une liste de fiches de l'annuaire + liste des cardRecord correspondant
    * @param userCardIds liste des identifiants des fiches à supprimer
@@ -896,21 +902,27 @@ public class WhitePagesSessionController extends AbstractComponentSessionControl
 
     }
 
-    if (results != null) {
+    if (results != null && !results.isEmpty()) {
       try {
-        Collection<Card> allCars = getCards();
-        HashMap<String, Card> map = new HashMap<>();
-        for (Card card : allCars) {
+        List<String> resultIds = new ArrayList<>(results.size());
+        for (SearchResult result : results) {
+          resultIds.add(result.getId());
+        }
+        Map<String, Card> map = new HashMap<>();
+        for (Card card : getCardManager().getCardsByIds(getComponentId(), resultIds)) {
           map.put(card.getPK().getId(), card);
         }
 
-        for (SearchResult result : results) {
-          if (map.containsKey(result.getId())) {
-            cards.add(map.get(result.getId()));
+        List<Card> foundCards = new ArrayList<>(map.size());
+        for (String resultId : resultIds) {
+          Card card = map.remove(resultId);
+          if (card != null) {
+            foundCards.add(card);
           }
         }
+        cards.addAll(withUserRecords(foundCards));
       } catch (Exception e) {
-
+        SilverLogger.getLogger(this).error(e);
       }
     }
     return cards;
@@ -23,6 +23,7 @@
  */
 package org.silverpeas.components.yellowpages;
 
+import org.silverpeas.components.yellowpages.service.ContactCountTreeCache;
 import org.silverpeas.components.yellowpages.service.YellowpagesService;
 import org.silverpeas.core.admin.user.notification.GroupEvent;
 import org.silverpeas.core.annotation.Bean;
@@ -39,6 +40,19 @@ public class GroupEventListener extends CDIResourceEventListener<GroupEvent> {
 
   @Inject
   private YellowpagesService yellowpagesService;
+  @Inject
+  private ContactCountTreeCache contactCountTrees;
+
+  /**
+   * An event on the update of a group has be listened. As the members of the group can have
+   * changed, the contact counts of the yellowpages instances are invalidated.
+   * @param event the event on the update of a group.
+   * @throws Exception if an error occurs while treating the event.
+   */
+  @Override
+  public void onUpdate(final GroupEvent event) throws Exception {
+    contactCountTrees.invalidateAll();
+  }
 
   /**
    * An event on the deletion of a group has be listened. A deleted group is then nonexistent and
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.yellowpages.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aggregated requests on the links between the contacts and the topics of a yellowpages instance.
+ */
+public class ContactFatherDAO {
+
+  /**
+   * Counts in one request the contacts directly classified in each topic of the specified
+   * yellowpages instance.
+   * @param con the connection to the database.
+   * @param instanceId the unique identifier of a yellowpages instance.
+   * @return the number of contacts indexed by the identifier of their father topic. The topics
+   * without any contacts are absent.
+   * @throws SQLException if an error occurs while requesting the database.
+   */
+  public static Map<String, Integer> countContactsByFather(Connection con, String instanceId)
+      throws SQLException {
+    Map<String, Integer> counts = new HashMap<>();
+    String query = "select F.nodeId, count(F.contactId) from SB_Contact_ContactFather F, " +
+        "SB_Contact_Contact C where F.contactId = C.contactId and C.instanceId = ? " +
+        "group by F.nodeId";
+    try (PreparedStatement prepStmt = con.prepareStatement(query)) {
+      prepStmt.setString(1, instanceId);
+      try (ResultSet rs = prepStmt.executeQuery()) {
+        while (rs.next()) {
+          counts.put(String.valueOf(rs.getInt(1)), rs.getInt(2));
+        }
+      }
+    }
+    return counts;
+  }
+}
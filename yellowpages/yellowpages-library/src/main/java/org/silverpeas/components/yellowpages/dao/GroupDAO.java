@@ -31,6 +31,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class GroupDAO {
   public static Collection<String> getGroupIds(Connection con, String fatherId, String instanceId)
@@ -52,6 +55,30 @@ public class GroupDAO {
     return groupIds;
   }
 
+  /**
+   * Gets in one request the identifiers of all the groups linked to the topics of the specified
+   * yellowpages instance.
+   * @param con the connection to the database.
+   * @param instanceId the unique identifier of a yellowpages instance.
+   * @return the identifiers of the groups indexed by the identifier of their father topic.
+   * @throws SQLException if an error occurs while requesting the database.
+   */
+  public static Map<String, List<String>> getGroupIdsByFather(Connection con, String instanceId)
+      throws SQLException {
+    Map<String, List<String>> groupIds = new HashMap<>();
+    String query = "select fatherId, groupId from SC_Contact_GroupFather where instanceId = ? ";
+    try (PreparedStatement prepStmt = con.prepareStatement(query)) {
+      prepStmt.setString(1, instanceId);
+      try (ResultSet rs = prepStmt.executeQuery()) {
+        while (rs.next()) {
+          groupIds.computeIfAbsent(String.valueOf(rs.getInt(1)), f -> new ArrayList<>())
+              .add(rs.getString(2));
+        }
+      }
+    }
+    return groupIds;
+  }
+
   public static void addGroup(Connection con, String groupId, String fatherId, String instanceId)
       throws SQLException, UtilException {
     String query = "insert into SC_Contact_GroupFather values (?,?,?)";
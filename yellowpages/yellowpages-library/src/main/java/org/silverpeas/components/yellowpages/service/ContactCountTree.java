@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.yellowpages.service;
+
+import org.silverpeas.core.admin.service.OrganizationController;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A snapshot of the topic tree of a yellowpages instance with the number of contacts of each
+ * topic. The number of contacts of a topic is the number of contacts classified in it and in its
+ * descendant topics plus the number of users of the groups linked to them. The totals are
+ * computed on demand from the raw counts fetched once for the whole instance.
+ */
+class ContactCountTree {
+
+  private final Map<String, List<String>> childrenByTopic;
+  private final Map<String, Integer> contactsByTopic;
+  private final Map<String, List<String>> groupsByTopic;
+  private final Map<String, Integer> totalsByTopic = new ConcurrentHashMap<>();
+  private final Map<String, Integer> usersByGroup = new ConcurrentHashMap<>();
+  private final OrganizationController organizationController;
+  private final long expiration;
+
+  ContactCountTree(final Map<String, List<String>> childrenByTopic,
+      final Map<String, Integer> contactsByTopic, final Map<String, List<String>> groupsByTopic,
+      final OrganizationController organizationController, final long expiration) {
+    this.childrenByTopic = childrenByTopic;
+    this.contactsByTopic = contactsByTopic;
+    this.groupsByTopic = groupsByTopic;
+    this.organizationController = organizationController;
+    this.expiration = expiration;
+  }
+
+  boolean isExpired() {
+    return expiration < System.currentTimeMillis();
+  }
+
+  /**
+   * Gets the identifiers of the groups linked to the specified topic.
+   * @param topicId the unique identifier of a topic.
+   * @return a list of group identifiers, empty if no groups are linked to the topic.
+   */
+  List<String> getGroupIds(final String topicId) {
+    return groupsByTopic.getOrDefault(topicId, Collections.emptyList());
+  }
+
+  /**
+   * Gets the number of contacts in the specified topic and in all of its descendants.
+   * @param topicId the unique identifier of a topic.
+   * @return the total number of contacts of the topic.
+   */
+  int getNbContacts(final String topicId) {
+    Integer total = totalsByTopic.get(topicId);
+    if (total == null) {
+      int nbContacts = contactsByTopic.getOrDefault(topicId, 0);
+      for (String childId : childrenByTopic.getOrDefault(topicId, Collections.emptyList())) {
+        nbContacts += getNbContacts(childId);
+      }
+      for (String groupId : getGroupIds(topicId)) {
+        nbContacts += getNbUsersOfGroup(groupId);
+      }
+      total = nbContacts;
+      totalsByTopic.put(topicId, total);
+    }
+    return total;
+  }
+
+  /**
+   * Gets the number of users of the specified group and of all of its subgroups.
+   * @param groupId the unique identifier of a group.
+   * @return the number of users in the group.
+   */
+  int getNbUsersOfGroup(final String groupId) {
+    Integer nbUsers = usersByGroup.get(groupId);
+    if (nbUsers == null) {
+      nbUsers = organizationController.getAllSubUsersNumber(groupId);
+      usersByGroup.put(groupId, nbUsers);
+    }
+    return nbUsers;
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.yellowpages.service;
+
+import org.silverpeas.components.yellowpages.dao.ContactFatherDAO;
+import org.silverpeas.components.yellowpages.dao.GroupDAO;
+import org.silverpeas.components.yellowpages.model.YellowpagesRuntimeException;
+import org.silverpeas.core.admin.service.OrganizationController;
+import org.silverpeas.core.annotation.Service;
+import org.silverpeas.core.node.model.NodeDetail;
+import org.silverpeas.core.node.model.NodePK;
+import org.silverpeas.core.node.service.NodeService;
+import org.silverpeas.core.persistence.jdbc.DBUtil;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of the {@link ContactCountTree} of the yellowpages instances. A tree is loaded with three
+ * requests whatever the size of the instance: one for the topics, one grouped count of the
+ * contacts by topic and one for the groups linked to the topics. It is invalidated on any change
+ * of the topics, of the contacts or of the groups and in all cases it expires after a while.
+ */
+@Service
+@Singleton
+public class ContactCountTreeCache {
+
+  private static final long TTL = TimeUnit.MINUTES.toMillis(10);
+
+  private final Map<String, ContactCountTree> trees = new ConcurrentHashMap<>();
+
+  @Inject
+  private NodeService nodeService;
+  @Inject
+  private OrganizationController organizationController;
+
+  /**
+   * Gets the count tree of the specified yellowpages instance, loading it if necessary.
+   * @param instanceId the unique identifier of a yellowpages instance.
+   * @return the count tree of the instance.
+   */
+  ContactCountTree get(final String instanceId) {
+    ContactCountTree tree = trees.get(instanceId);
+    if (tree == null || tree.isExpired()) {
+      tree = load(instanceId);
+      trees.put(instanceId, tree);
+    }
+    return tree;
+  }
+
+  /**
+   * Invalidates the count tree of the specified yellowpages instance.
+   * @param instanceId the unique identifier of a yellowpages instance.
+   */
+  public void invalidate(final String instanceId) {
+    trees.remove(instanceId);
+  }
+
+  /**
+   * Invalidates the count trees of all the yellowpages instances. Used when a change can impact
+   * several instances at once, like the change of a group.
+   */
+  public void invalidateAll() {
+    trees.clear();
+  }
+
+  private ContactCountTree load(final String instanceId) {
+    Map<String, List<String>> childrenByTopic = new HashMap<>();
+    for (NodeDetail node : nodeService.getSubTree(new NodePK(NodePK.ROOT_NODE_ID, instanceId))) {
+      NodePK fatherPK = node.getFatherPK();
+      if (fatherPK != null && !node.getNodePK().isRoot()) {
+        childrenByTopic.computeIfAbsent(fatherPK.getId(), f -> new ArrayList<>())
+            .add(node.getNodePK().getId());
+      }
+    }
+    try (Connection con = DBUtil.openConnection()) {
+      Map<String, Integer> contactsByTopic = ContactFatherDAO.countContactsByFather(con, instanceId);
+      Map<String, List<String>> groupsByTopic = GroupDAO.getGroupIdsByFather(con, instanceId);
+      return new ContactCountTree(childrenByTopic, contactsByTopic, groupsByTopic,
+          organizationController, System.currentTimeMillis() + TTL);
+    } catch (Exception e) {
+      throw new YellowpagesRuntimeException(e);
+    }
+  }
+}
@@ -75,46 +75,41 @@ public class DefaultYellowpagesService implements YellowpagesService {
   private NodeService nodeService;
   @Inject
   private ContactService contactService;
+  @Inject
+  private ContactCountTreeCache contactCountTrees;
 
   private OrganizationController getOrganisationController() {
     return this.organizationController;
   }
 
+  /**
+   * Gets the number of contacts of each child of the specified topic. The groups linked to the
+   * topic are added to its children. The counts come from the cached count tree of the instance.
+   */
   private List<Integer> getRecursiveNbContact(NodeDetail nodeDetail) {
     List<Integer> nbContactsByTopic = new ArrayList<>();
 
     Collection<NodeDetail> childrenPKs = nodeDetail.getChildrenDetails();
     if (childrenPKs != null) {
-      // get groups
+      ContactCountTree countTree = contactCountTrees.get(nodeDetail.getNodePK().getInstanceId());
       // add groups to nodeDetail.childrens
-      addNodeDetailGroups(nodeDetail, childrenPKs);
+      addNodeDetailGroups(countTree.getGroupIds(nodeDetail.getNodePK().getId()), childrenPKs);
 
-      int nbContacts;
-      List<Integer> nbContactsBySubTopic;
       for (NodeDetail child : childrenPKs) {
-        NodePK childPK = child.getNodePK();
-        if (!childPK.getId().startsWith(GROUP_PREFIX)) {
-          String childPath = child.getPath();
-          nbContacts = contactService.getNbPubByFatherPath(childPK, childPath);
-          // traitement des sous-rubriques et des sous-groupes
-          nbContactsBySubTopic = getRecursiveNbContact(nodeService.getDetail(childPK));
-          for (Integer nbSubContact : nbContactsBySubTopic) {
-            nbContacts += nbSubContact;
-          }
+        String childId = child.getNodePK().getId();
+        if (!childId.startsWith(GROUP_PREFIX)) {
+          nbContactsByTopic.add(countTree.getNbContacts(childId));
         } else { // groupe
-          String groupId =
-              childPK.getId().substring(childPK.getId().indexOf('_') + 1, childPK.getId().length());
-          nbContacts = getOrganisationController().getAllSubUsersNumber(groupId);
+          String groupId = childId.substring(childId.indexOf('_') + 1);
+          nbContactsByTopic.add(countTree.getNbUsersOfGroup(groupId));
         }
-        nbContactsByTopic.add(nbContacts);
       }
     }
     return nbContactsByTopic;
   }
 
-  private void addNodeDetailGroups(final NodeDetail nodeDetail,
+  private void addNodeDetailGroups(final List<String> groupIds,
       final Collection<NodeDetail> childrenPKs) {
-    List<String> groupIds = getGroupIds(nodeDetail.getNodePK());
     for (String groupId : groupIds) {
       Group group = getOrganisationController().getGroup(groupId);
       if (group != null) {
@@ -191,15 +186,13 @@ public class DefaultYellowpagesService implements YellowpagesService {
   @Override
   public List<NodeDetail> getTree(String instanceId) {
     List<NodeDetail> result = new ArrayList<>();
-    try (Connection con = getConnection()) {
+    try {
       List<NodeDetail> tree = nodeService.getSubTree(new NodePK("0", instanceId));
-      // TODO :getting all groups linked in this component instance
+      ContactCountTree countTree = contactCountTrees.get(instanceId);
       for (NodeDetail node : tree) {
         result.add(node);
         // pour chaque node, recuperer les groupes associes
-        List<String> groupIds =
-            (List<String>) GroupDAO.getGroupIds(con, node.getNodePK().getId(), instanceId);
-        for (final String groupId : groupIds) {
+        for (final String groupId : countTree.getGroupIds(node.getNodePK().getId())) {
           Group group = getOrganisationController().getGroup(groupId);
           result = addGroup(result, group, node.getLevel() + 1);
         }
@@ -252,7 +245,9 @@ public class DefaultYellowpagesService implements YellowpagesService {
         if (StringUtil.isDefined(xmlFormName)) {
           registerTemplate(xmlFormName, father.getNodePK().getInstanceId());
         }
-        return nodeService.createNode(subTopic, father);
+        NodePK topicPK = nodeService.createNode(subTopic, father);
+        contactCountTrees.invalidate(father.getNodePK().getInstanceId());
+        return topicPK;
       } catch (Exception re) {
         throw new YellowpagesRuntimeException(re);
       }
@@ -351,6 +346,8 @@ public class DefaultYellowpagesService implements YellowpagesService {
       nodeService.removeNode(pkToDelete);
     } catch (Exception re) {
       throw new YellowpagesRuntimeException(re);
+    } finally {
+      contactCountTrees.invalidate(pkToDelete.getInstanceId());
     }
 
   }
@@ -609,6 +606,7 @@ public class DefaultYellowpagesService implements YellowpagesService {
         contactService.removeFather(contactPK, new NodePK(NodePK.BIN_NODE_ID, nodePK));
         // delete the contact
         contactService.removeContact(contactPK);
+        contactCountTrees.invalidate(nodePK.getInstanceId());
       } catch (Exception re) {
         throw new YellowpagesRuntimeException(re);
       }
@@ -631,6 +629,7 @@ public class DefaultYellowpagesService implements YellowpagesService {
       contactService.removeAllFather(contactPK);
       // add link between this contact and the basket topic
       contactService.addFather(contactPK, new NodePK(NodePK.BIN_NODE_ID, contactPK));
+      contactCountTrees.invalidate(contactPK.getInstanceId());
       deleteIndex(contactPK);
     } catch (Exception re) {
       throw new YellowpagesRuntimeException(re);
@@ -643,6 +642,7 @@ public class DefaultYellowpagesService implements YellowpagesService {
     try {
       // delete all current user orphan contacts
       contactService.deleteOrphanContactsByCreatorId(contactPK, userId);
+      contactCountTrees.invalidate(instanceId);
     } catch (Exception re) {
       throw new YellowpagesRuntimeException(re);
     }
@@ -670,6 +670,7 @@ public class DefaultYellowpagesService implements YellowpagesService {
         }
       }
       contactService.addFather(contactPK, fatherPK);
+      contactCountTrees.invalidate(fatherPK.getInstanceId());
       // reindexe le contact si pas dans la corbeille
       if (!fatherPK.isTrash()) {
         contactService.index(contactPK);
@@ -689,6 +690,7 @@ public class DefaultYellowpagesService implements YellowpagesService {
     NodePK fatherPK = new NodePK(fatherId, contactPK);
     try {
       contactService.removeFather(contactPK, fatherPK);
+      contactCountTrees.invalidate(fatherPK.getInstanceId());
     } catch (Exception re) {
       throw new YellowpagesRuntimeException(re);
     }
@@ -806,6 +808,7 @@ public class DefaultYellowpagesService implements YellowpagesService {
         contactService.addFather(contactDetail.getPK(), new NodePK(NodePK.BIN_NODE_ID, contactPK));
         deleteIndex(contactDetail.getPK());
       }
+      contactCountTrees.invalidate(contactPK.getInstanceId());
     } catch (Exception e) {
       throw new YellowpagesRuntimeException(e);
     }
@@ -828,6 +831,7 @@ public class DefaultYellowpagesService implements YellowpagesService {
   public void addGroup(String groupId, NodePK nodePK) {
     try (Connection con = getConnection()) {
       GroupDAO.addGroup(con, groupId, nodePK.getId(), nodePK.getInstanceId());
+      contactCountTrees.invalidate(nodePK.getInstanceId());
     } catch (Exception e) {
       throw new YellowpagesRuntimeException(e);
     }
@@ -838,6 +842,7 @@ public class DefaultYellowpagesService implements YellowpagesService {
     Connection con = getConnection();
     try {
       GroupDAO.removeGroup(con, groupId);
+      contactCountTrees.invalidateAll();
     } catch (Exception e) {
       throw new YellowpagesRuntimeException(e);
     } finally {
@@ -849,6 +854,7 @@ public class DefaultYellowpagesService implements YellowpagesService {
   public void removeGroup(String groupId, NodePK nodePK) {
     try (Connection con = getConnection()) {
       GroupDAO.removeGroup(con, groupId, nodePK.getId(), nodePK.getInstanceId());
+      contactCountTrees.invalidate(nodePK.getInstanceId());
     } catch (Exception e) {
       throw new YellowpagesRuntimeException(e);
     }
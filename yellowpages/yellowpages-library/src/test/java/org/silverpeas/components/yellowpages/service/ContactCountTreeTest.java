@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2000 - 2021 Silverpeas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * As a special exception to the terms and conditions of version 3.0 of
+ * the GPL, you may redistribute this Program in connection with Free/Libre
+ * Open Source Software ("FLOSS") applications as described in Silverpeas's
+ * FLOSS exception. You should have received a copy of the text describing
+ * the FLOSS exception, and it is also available here:
+ * "https://www.silverpeas.org/legal/floss_exception.html"
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.silverpeas.components.yellowpages.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.silverpeas.core.admin.service.OrganizationController;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+
+/**
+ * The topic tree used by the tests:
+ * <pre>
+ *   0 (1 contact)
+ *   +- 1 (2 contacts)
+ *   |  +- 11 (3 contacts)
+ *   |  |  +- 111 (1 contact)
+ *   |  +- 12 (group g1)
+ *   +- 2 (4 contacts, groups g1 and g2)
+ * </pre>
+ * The group g1 has 5 users and the group g2 has 2 users.
+ */
+class ContactCountTreeTest {
+
+  private OrganizationController organizationController;
+  private Map<String, List<String>> childrenByTopic;
+  private Map<String, Integer> contactsByTopic;
+  private Map<String, List<String>> groupsByTopic;
+
+  @BeforeEach
+  void setup() {
+    organizationController = mock(OrganizationController.class);
+    when(organizationController.getAllSubUsersNumber("g1")).thenReturn(5);
+    when(organizationController.getAllSubUsersNumber("g2")).thenReturn(2);
+
+    childrenByTopic = new HashMap<>();
+    childrenByTopic.put("0", Arrays.asList("1", "2"));
+    childrenByTopic.put("1", Arrays.asList("11", "12"));
+    childrenByTopic.put("11", Collections.singletonList("111"));
+
+    contactsByTopic = new HashMap<>();
+    contactsByTopic.put("0", 1);
+    contactsByTopic.put("1", 2);
+    contactsByTopic.put("11", 3);
+    contactsByTopic.put("111", 1);
+    contactsByTopic.put("2", 4);
+
+    groupsByTopic = new HashMap<>();
+    groupsByTopic.put("12", Collections.singletonList("g1"));
+    groupsByTopic.put("2", Arrays.asList("g1", "g2"));
+  }
+
+  @Test
+  void nestedTopicsCountTheContactsOfTheirDescendants() {
+    ContactCountTree tree = aTree();
+    assertThat(tree.getNbContacts("111"), is(1));
+    assertThat(tree.getNbContacts("11"), is(4));
+    assertThat(tree.getNbContacts("12"), is(5));
+    assertThat(tree.getNbContacts("1"), is(11));
+    assertThat(tree.getNbContacts("2"), is(11));
+    assertThat(tree.getNbContacts("0"), is(23));
+  }
+
+  @Test
+  void anUnknownTopicHasNoContacts() {
+    ContactCountTree tree = aTree();
+    assertThat(tree.getNbContacts("99"), is(0));
+    assertThat(tree.getGroupIds("99"), is(empty()));
+  }
+
+  @Test
+  void theUsersOfAGroupAreCountedOnce() {
+    ContactCountTree tree = aTree();
+    tree.getNbContacts("0");
+    tree.getNbContacts("2");
+    assertThat(tree.getNbUsersOfGroup("g1"), is(5));
+    verify(organizationController, times(1)).getAllSubUsersNumber("g1");
+    verify(organizationController, times(1)).getAllSubUsersNumber("g2");
+  }
+
+  @Test
+  void aMovedContactIsCountedInItsNewAncestorsOnly() {
+    contactsByTopic.put("111", 0);
+    contactsByTopic.put("2", 5);
+    ContactCountTree tree = aTree();
+    assertThat(tree.getNbContacts("111"), is(0));
+    assertThat(tree.getNbContacts("11"), is(3));
+    assertThat(tree.getNbContacts("1"), is(10));
+    assertThat(tree.getNbContacts("2"), is(12));
+    assertThat(tree.getNbContacts("0"), is(23));
+  }
+
+  @Test
+  void aDeletedContactIsNoMoreCountedInItsAncestors() {
+    contactsByTopic.put("11", 2);
+    ContactCountTree tree = aTree();
+    assertThat(tree.getNbContacts("11"), is(3));
+    assertThat(tree.getNbContacts("1"), is(10));
+    assertThat(tree.getNbContacts("2"), is(11));
+    assertThat(tree.getNbContacts("0"), is(22));
+  }
+
+  @Test
+  void theContactsOfADeletedTopicAreNoMoreCounted() {
+    childrenByTopic.put("1", Collections.singletonList("12"));
+    childrenByTopic.remove("11");
+    contactsByTopic.remove("11");
+    contactsByTopic.remove("111");
+    ContactCountTree tree = aTree();
+    assertThat(tree.getNbContacts("1"), is(7));
+    assertThat(tree.getNbContacts("0"), is(19));
+  }
+
+  @Test
+  void theExpirationIsChecked() {
+    assertThat(aTree().isExpired(), is(false));
+    assertThat(new ContactCountTree(childrenByTopic, contactsByTopic, groupsByTopic,
+        organizationController, System.currentTimeMillis() - 1).isExpired(), is(true));
+  }
+
+  /**
+   * Builds the tree from the raw counts as the cache does once invalidated by a change.
+   */
+  private ContactCountTree aTree() {
+    return new ContactCountTree(childrenByTopic, contactsByTopic, groupsByTopic,
+        organizationController, System.currentTimeMillis() + 60000L);
+  }
+}